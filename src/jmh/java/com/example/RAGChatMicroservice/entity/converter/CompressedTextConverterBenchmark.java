@@ -0,0 +1,97 @@
+package com.example.RAGChatMicroservice.entity.converter;
+
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link CompressedTextConverter} on message-sized text.
+ *
+ * <p>
+ * Reports write and read latency for plain and compressed storage; the stored
+ * size (bytes on disk) and compression ratio of each payload are printed once
+ * per trial so both sides of the trade-off come out of one run.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressedTextConverterBenchmark {
+
+    private static final String[] WORDS = {
+            "retrieval", "augmented", "generation", "context", "document", "chunk", "embedding", "vector",
+            "session", "answer", "question", "model", "the", "of", "and", "a", "to", "is", "in", "for"
+    };
+
+    @Param({"1024", "8192", "65536"})
+    private int size;
+
+    private CompressedTextConverter plain;
+
+    private CompressedTextConverter compressed;
+
+    private String text;
+
+    private byte[] plainBytes;
+
+    private byte[] compressedBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CompressionProperties disabled = new CompressionProperties();
+        CompressionProperties enabled = new CompressionProperties();
+        enabled.setEnabled(true);
+        plain = new CompressedTextConverter(disabled);
+        compressed = new CompressedTextConverter(enabled);
+
+        text = sampleText(size);
+        plainBytes = plain.convertToDatabaseColumn(text);
+        compressedBytes = compressed.convertToDatabaseColumn(text);
+        System.out.printf("%nsize=%d stored plain=%d compressed=%d ratio=%.2f%n",
+                size, plainBytes.length, compressedBytes.length, (double) plainBytes.length / compressedBytes.length);
+    }
+
+    @Benchmark
+    public byte[] writePlain() {
+        return plain.convertToDatabaseColumn(text);
+    }
+
+    @Benchmark
+    public byte[] writeCompressed() {
+        return compressed.convertToDatabaseColumn(text);
+    }
+
+    @Benchmark
+    public String readPlain() {
+        return plain.convertToEntityAttribute(plainBytes);
+    }
+
+    @Benchmark
+    public String readCompressed() {
+        return compressed.convertToEntityAttribute(compressedBytes);
+    }
+
+    /**
+     * Deterministic prose-like text, roughly as compressible as chat messages.
+     */
+    private static String sampleText(int length) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return sb.substring(0, length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CompressedTextConverterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.properties.SearchProperties;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Query throughput and recall of the {@link MessageSearchIndex} similarity search.
+ *
+ * <p>
+ * Each trial indexes {@code messages} clustered random embeddings, spread over
+ * {@code USERS} users, into a fresh index with float32 or int8 vectors, then
+ * measures top-10 queries scoped to one user. Before measuring, recall@10 of a
+ * sample of queries against an exact brute-force search is printed, since the
+ * throughput of an approximate search only means something next to its recall.
+ * The database is not involved: session owners come from a stub repository.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSimilarityBenchmark {
+
+    private static final int DIMENSIONS = 384;
+
+    private static final int USERS = 10;
+
+    private static final int CLUSTERS = 64;
+
+    private static final int MESSAGES_PER_SESSION = 100;
+
+    private static final int K = 10;
+
+    private static final int RECALL_QUERIES = 200;
+
+    @Param({"true", "false"})
+    private boolean quantized;
+
+    @Param({"50000"})
+    private int messages;
+
+    private Path directory;
+
+    private MessageSearchIndex index;
+
+    private float[][] embeddings;
+
+    private float[][] queries;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("message-similarity-benchmark");
+        SearchProperties properties = new SearchProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setVectorDimensions(DIMENSIONS);
+        properties.setVectorQuantized(quantized);
+
+        // Session n belongs to user n % USERS
+        ChatSessionRepository sessionRepo = mock(ChatSessionRepository.class);
+        when(sessionRepo.findByIdAndIsDeletedFalse(anyLong())).thenAnswer(invocation -> {
+            ChatSession session = new ChatSession();
+            session.setId(invocation.getArgument(0));
+            session.setUserId(user(session.getId()));
+            return Optional.of(session);
+        });
+        index = new MessageSearchIndex(properties, new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry()), mock(ChatMessageRepository.class));
+        index.open();
+
+        Random random = new Random(42);
+        float[][] centroids = new float[CLUSTERS][];
+        for (int i = 0; i < CLUSTERS; i++) {
+            centroids[i] = gaussian(random, 1f, null);
+        }
+        embeddings = new float[messages][];
+        for (int id = 0; id < messages; id += MESSAGES_PER_SESSION) {
+            List<ChatMessage> batch = new ArrayList<>(MESSAGES_PER_SESSION);
+            for (int i = id; i < Math.min(messages, id + MESSAGES_PER_SESSION); i++) {
+                embeddings[i] = gaussian(random, 0.3f, centroids[random.nextInt(CLUSTERS)]);
+                batch.add(message(i, embeddings[i]));
+            }
+            index.index(session(id), batch);
+        }
+        queries = new float[RECALL_QUERIES][];
+        for (int i = 0; i < RECALL_QUERIES; i++) {
+            queries[i] = gaussian(random, 0.3f, centroids[random.nextInt(CLUSTERS)]);
+        }
+        index.refresh();
+
+        System.out.printf("%nrecall@%d (quantized=%s, messages=%d): %.3f%n", K, quantized, messages, recall());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        index.close();
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * One top-10 query over the messages of one user.
+     */
+    @Benchmark
+    public List<MessageSearchIndex.Hit> searchSimilar() {
+        int query = next++ % RECALL_QUERIES;
+        return index.searchSimilar(user(query), queries[query], K);
+    }
+
+    /**
+     * Share of the exact top-10 neighbours the index returns, over all sample queries.
+     */
+    private double recall() {
+        int found = 0;
+        for (int query = 0; query < RECALL_QUERIES; query++) {
+            String user = user(query);
+            float[] target = queries[query];
+            Set<Long> exact = new HashSet<>();
+            IntStream.range(0, messages)
+                    .filter(id -> user(session(id)).equals(user))
+                    .boxed()
+                    .sorted((a, b) -> Double.compare(cosine(target, embeddings[b]), cosine(target, embeddings[a])))
+                    .limit(K)
+                    .forEach(id -> exact.add((long) id));
+            for (MessageSearchIndex.Hit hit : index.searchSimilar(user, target, K)) {
+                if (exact.contains(hit.messageId())) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (RECALL_QUERIES * K);
+    }
+
+    private static long session(int messageId) {
+        return messageId / MESSAGES_PER_SESSION;
+    }
+
+    private static String user(long sessionOrQuery) {
+        return "user-" + sessionOrQuery % USERS;
+    }
+
+    private static ChatMessage message(long id, float[] embedding) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setSender("user");
+        message.setContent("message " + id);
+        message.setCreatedAt(LocalDateTime.now());
+        message.setEmbedding(embedding);
+        return message;
+    }
+
+    private static float[] gaussian(Random random, float scale, float[] center) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (center == null ? 0f : center[i]) + scale * (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageSimilarityBenchmark.class.getSimpleName()).build()).run();
+    }
+}
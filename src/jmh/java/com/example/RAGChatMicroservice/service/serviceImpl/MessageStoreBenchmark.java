@@ -0,0 +1,133 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.RagChatMicroserviceApplication;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append and read throughput of the {@link MessageStore} backends under the same workload.
+ *
+ * <p>
+ * Each trial boots the application (without the web layer) on a file-backed H2
+ * database in MySQL mode with {@code app.message-store.type} set to the backend
+ * under test, and appends batches of messages to a fixed set of sessions, each
+ * append in its own transaction as the services do. H2 stands in for MySQL; a
+ * networked MySQL only widens the gap for the {@code jpa} backend.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageStoreBenchmark {
+
+    private static final int SESSIONS = 100;
+
+    @Param({"jpa", "log"})
+    private String backend;
+
+    @Param({"1", "20"})
+    private int batchSize;
+
+    private Path directory;
+
+    private ConfigurableApplicationContext context;
+
+    private MessageStore store;
+
+    private TransactionTemplate transactionTemplate;
+
+    private List<ChatSession> sessions;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("message-store-benchmark");
+        context = new SpringApplicationBuilder(RagChatMicroserviceApplication.class)
+                .web(WebApplicationType.NONE)
+                // Command-line arguments take precedence over application.properties
+                .run("--server.port=0",
+                        "--security.api-key=benchmark",
+                        "--spring.datasource.url=jdbc:h2:file:" + directory.resolve("db") + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+                        "--logging.level.root=WARN",
+                        "--app.message-store.type=" + backend,
+                        "--app.message-store.log.directory=" + directory.resolve("log"));
+        store = context.getBean(MessageStore.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        List<ChatSession> created = new ArrayList<>();
+        for (int i = 0; i < SESSIONS; i++) {
+            ChatSession session = new ChatSession();
+            session.setSessionName("Benchmark " + i);
+            session.setCreatedAt(LocalDateTime.now());
+            session.setUpdatedAt(LocalDateTime.now());
+            created.add(session);
+        }
+        sessions = context.getBean(ChatSessionRepository.class).saveAll(created);
+        append();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * One append of {@code batchSize} messages to the next session.
+     */
+    @Benchmark
+    public List<ChatMessage> append() {
+        ChatSession session = sessions.get(next++ % SESSIONS);
+        List<ChatMessage> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            ChatMessage message = new ChatMessage();
+            message.setSession(session);
+            message.setSender("user");
+            message.setContent("How do I configure retrieval for message " + next + "?");
+            message.setContext("Retrieved passage for message " + next + ".\n\nA second, shared passage.");
+            message.setCreatedAt(LocalDateTime.now());
+            batch.add(message);
+        }
+        return transactionTemplate.execute(status -> store.saveAll(batch));
+    }
+
+    /**
+     * Reads the newest page of a session.
+     */
+    @Benchmark
+    public Object readTail() {
+        Long sessionId = sessions.get(next++ % SESSIONS).getId();
+        return transactionTemplate.execute(status -> store.findSummariesBefore(sessionId, Long.MAX_VALUE, Limit.of(20)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessageStoreBenchmark.class.getSimpleName()).build()).run();
+    }
+}
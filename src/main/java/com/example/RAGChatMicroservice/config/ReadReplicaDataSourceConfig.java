@@ -0,0 +1,91 @@
+package com.example.RAGChatMicroservice.config;
+
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool plus one pool
+ * per read replica behind a {@link ReplicaRoutingDataSource}.
+ *
+ * <p>
+ * Active only with {@code app.read-replicas.enabled=true}. Every pool gets the
+ * {@code spring.datasource.hikari.*} settings; replica pools are read-only.
+ * Flyway, the purge job and all writes use the primary. The primary pool is also
+ * a bean of its own, so the purge job can watch it for waiting requests.
+ * </p>
+ *
+ * <p>
+ * Requires {@code spring.jpa.open-in-view=false}: a request-scoped EntityManager
+ * keeps the connection of its first transaction for the rest of the request, so
+ * a write after a read-only transaction would go to the replica.
+ * </p>
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.read-replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig implements DisposableBean {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties, Environment environment) {
+        return pool(Binder.get(environment), dataSourceProperties, dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(), "primary");
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primary, DataSourceProperties dataSourceProperties, ReadReplicaProperties replicaProperties, Environment environment) {
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException("app.read-replicas.enabled=true requires spring.jpa.open-in-view=false: "
+                    + "a request-scoped EntityManager keeps its first transaction's connection");
+        }
+        Binder binder = Binder.get(environment);
+
+        String username = replicaProperties.getUsername() != null ? replicaProperties.getUsername() : dataSourceProperties.determineUsername();
+        String password = replicaProperties.getPassword() != null ? replicaProperties.getPassword() : dataSourceProperties.determinePassword();
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getUrls().size(); i++) {
+            HikariDataSource replica = pool(binder, dataSourceProperties, replicaProperties.getUrls().get(i), username, password, "replica-" + i);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        log.info("Routing read-only transactions to {} replica(s)", replicas.size());
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replicas);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private HikariDataSource pool(Binder binder, DataSourceProperties dataSourceProperties, String url, String username, String password, String name) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pools.add(pool);
+        return pool;
+    }
+}
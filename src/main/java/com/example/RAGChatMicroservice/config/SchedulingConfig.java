@@ -0,0 +1,12 @@
+package com.example.RAGChatMicroservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables Spring's scheduled task execution for background jobs.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
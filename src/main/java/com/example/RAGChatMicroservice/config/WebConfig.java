@@ -1,17 +1,24 @@
 package com.example.RAGChatMicroservice.config;
 
 import com.example.RAGChatMicroservice.properties.CorsProperties;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
     private final CorsProperties corsProperties;
 
-    public WebConfig(CorsProperties corsProperties) {
+    private final ExportProperties exportProperties;
+
+    public WebConfig(CorsProperties corsProperties, ExportProperties exportProperties) {
         this.corsProperties = corsProperties;
+        this.exportProperties = exportProperties;
     }
 
     @Override
@@ -21,4 +28,13 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods(corsProperties.getAllowedMethods().toArray(String[]::new))
                 .allowedHeaders("*");
     }
+
+    /**
+     * Streaming exports are the only asynchronous responses; they may run far
+     * longer than the container's default async timeout.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(Duration.ofMinutes(exportProperties.getTimeoutMinutes()).toMillis());
+    }
 }
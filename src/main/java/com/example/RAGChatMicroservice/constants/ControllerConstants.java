@@ -8,9 +8,20 @@ public class ControllerConstants {
     public static final String RENAME_SESSION = "/{sessionId}/rename";
     public static final String FAVORITE_SESSION = "/{sessionId}/favorite";
     public static final String GET_ALL_SESSIONS = "/get-all-sessions";
+    public static final String SEARCH_SESSIONS = "/search";
+    public static final String SIMILAR_SESSIONS = "/similar";
+    public static final String EXPORT_SESSIONS = "/export";
+    public static final String EXPORT_SESSION = "/{sessionId}/export";
+    public static final String IMPORT_SESSIONS = "/import";
+    public static final String IMPORT_STATUS = "/import/{importId}";
     public static final String SUCCESS = "success";
 
     // ===== Message APIs =====
     public static final String ADD_MESSAGE = "/{sessionId}/add-messages";
+    public static final String ADD_MESSAGES_BATCH = "/{sessionId}/messages:batch";
     public static final String GET_MESSAGES = "/{sessionId}/get-messages";
+    public static final String GET_MESSAGE_WINDOW = "/{sessionId}/window";
+    public static final String OPEN_MESSAGE_STREAM = "/{sessionId}/messages:stream";
+    public static final String APPEND_MESSAGE_STREAM = "/{sessionId}/messages/{messageId}:append";
+    public static final String CLOSE_MESSAGE_STREAM = "/{sessionId}/messages/{messageId}:close";
 }
@@ -0,0 +1,35 @@
+package com.example.RAGChatMicroservice.constants;
+
+import java.util.regex.Pattern;
+
+/**
+ * Constants for bulk NDJSON imports.
+ */
+public final class ImportConstants {
+
+    private ImportConstants() {}
+
+    /**
+     * Allowed import identifiers: chosen by the client, reused to resume.
+     */
+    public static final Pattern IMPORT_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    /**
+     * Name given to imported sessions whose lines carry none.
+     */
+    public static final String DEFAULT_SESSION_NAME = "Imported session";
+
+    /**
+     * Longest source session id; the length of {@code chat_import_sessions.source_session_id}.
+     */
+    public static final int MAX_SOURCE_SESSION_ID_LENGTH = 255;
+
+    public static final String ERROR_INVALID_IMPORT_ID = "importId must be 1-64 characters of letters, digits, '.', '_' or '-'";
+    public static final String ERROR_MALFORMED_LINE = "Malformed JSON on line ";
+    public static final String ERROR_INVALID_LINE = "Line %d: %s";
+    public static final String ERROR_MISSING_SESSION_ID = "sessionId must not be blank";
+    public static final String ERROR_SESSION_ID_TOO_LONG = "sessionId must not be longer than " + MAX_SOURCE_SESSION_ID_LENGTH + " characters";
+    public static final String ERROR_MISSING_SENDER = "sender must not be blank";
+    public static final String ERROR_MISSING_CONTENT = "content must not be blank";
+    public static final String ERROR_CONCURRENT_IMPORT = "Import is already running elsewhere: ";
+}
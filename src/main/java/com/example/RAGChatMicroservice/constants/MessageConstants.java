@@ -0,0 +1,61 @@
+package com.example.RAGChatMicroservice.constants;
+
+import java.util.Set;
+
+/**
+ * Constants for chat message operations.
+ */
+public final class MessageConstants {
+
+    private MessageConstants() {}
+
+    /**
+     * Upper bound on the number of messages accepted by a single batch append.
+     */
+    public static final int MAX_BATCH_MESSAGES = 500;
+
+    /**
+     * Default and maximum page size for cursor-based message reads.
+     */
+    public static final int DEFAULT_CURSOR_LIMIT = 20;
+    public static final int MAX_CURSOR_LIMIT = 200;
+
+    /**
+     * Token budget windows: the largest accepted budget, the most messages one
+     * window returns, and the token counts read per step of the newest-first scan.
+     */
+    public static final int MAX_WINDOW_TOKENS = 1_000_000;
+    public static final int MAX_WINDOW_MESSAGES = 1000;
+    public static final int WINDOW_SCAN_PAGE = 200;
+
+    /**
+     * Tokens charged per message on top of its content, for the role and
+     * separators a chat prompt wraps around each message.
+     */
+    public static final int MESSAGE_TOKEN_OVERHEAD = 4;
+
+    /**
+     * Message fields that can be requested with the {@code fields} parameter.
+     */
+    public static final String FIELD_ID = "id";
+    public static final String FIELD_SENDER = "sender";
+    public static final String FIELD_CONTENT = "content";
+    public static final String FIELD_CONTEXT = "context";
+    public static final String FIELD_CREATED_AT = "createdAt";
+    public static final Set<String> MESSAGE_FIELDS = Set.of(FIELD_ID, FIELD_SENDER, FIELD_CONTENT, FIELD_CONTEXT, FIELD_CREATED_AT);
+
+    public static final String ERROR_EMPTY_BATCH = "Batch must contain at least one message";
+    public static final String ERROR_BATCH_TOO_LARGE = "Batch must not contain more than " + MAX_BATCH_MESSAGES + " messages";
+    public static final String ERROR_CONFLICTING_CURSORS = "Only one of 'after' or 'before' may be provided";
+    public static final String ERROR_INVALID_LIMIT = "Limit must be between 1 and " + MAX_CURSOR_LIMIT;
+    public static final String ERROR_INVALID_MAX_TOKENS = "maxTokens must be between 1 and " + MAX_WINDOW_TOKENS;
+    public static final String ERROR_INVALID_FIELD = "Unknown message field (allowed: id, sender, content, context, createdAt): ";
+    public static final String ERROR_STREAMS_DISABLED = "Message streaming is disabled";
+    public static final String ERROR_STREAMS_UNSUPPORTED = "Message streaming needs app.message-store.type=jpa";
+    public static final String ERROR_MISSING_DELTA = "delta must not be null";
+    public static final String ERROR_EMBEDDING_BEFORE_CLOSE = "An embedding can only be sent when closing the message";
+    public static final String ERROR_STREAM_TOO_LONG = "Message content must not exceed %d characters";
+    public static final String ERROR_INGESTION_QUEUE_FULL = "Message queue is full, please retry later";
+    public static final String ERROR_INGESTION_NOT_CONFIRMED = "Message was not written in time and has been discarded, please retry later";
+    public static final String ERROR_INGESTION_OUTCOME_UNKNOWN = "Message is being written but was not confirmed in time";
+}
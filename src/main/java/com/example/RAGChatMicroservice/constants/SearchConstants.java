@@ -0,0 +1,27 @@
+package com.example.RAGChatMicroservice.constants;
+
+/**
+ * Constants for chat history search.
+ */
+public final class SearchConstants {
+
+    private SearchConstants() {}
+
+    /**
+     * Default and maximum number of hits returned by one search.
+     */
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_SEARCH_LIMIT = 100;
+
+    /**
+     * Default number of nearest neighbours returned by a similarity search.
+     */
+    public static final int DEFAULT_SIMILAR_K = 10;
+
+    public static final String ERROR_MISSING_QUERY = "q must not be blank";
+    public static final String ERROR_MISSING_USER_ID = "userId must not be blank";
+    public static final String ERROR_INVALID_SEARCH_LIMIT = "Limit must be between 1 and " + MAX_SEARCH_LIMIT;
+    public static final String ERROR_SEARCH_DISABLED = "Search is not enabled";
+    public static final String ERROR_MISSING_EMBEDDING = "embedding must not be empty";
+    public static final String ERROR_INVALID_EMBEDDING = "embedding must be finite, non-zero and have the configured number of dimensions: ";
+}
@@ -0,0 +1,42 @@
+package com.example.RAGChatMicroservice.constants;
+
+/**
+ * Constants for chat session operations.
+ */
+public final class SessionConstants {
+
+    private SessionConstants() {}
+
+    /**
+     * How long the maintained active-session total is trusted before it is
+     * re-read from the database. Bounds drift between service instances.
+     */
+    public static final long SESSION_COUNT_REFRESH_MILLIS = 60_000L;
+
+    /**
+     * Number of messages soft deleted per UPDATE (and per transaction) when a
+     * session is deleted. Keeps lock time and undo log bounded for huge sessions.
+     */
+    public static final int SOFT_DELETE_CHUNK_SIZE = 1_000;
+
+    /**
+     * Sort orders of the per-user session listing. {@code favorite} lists
+     * favorites first, each group most recently updated first;
+     * {@code lastMessageAt} lists sessions by their newest message, then the
+     * sessions without messages, newest first.
+     */
+    public static final String SORT_UPDATED_AT = "updatedAt";
+    public static final String SORT_CREATED_AT = "createdAt";
+    public static final String SORT_FAVORITE = "favorite";
+    public static final String SORT_LAST_MESSAGE_AT = "lastMessageAt";
+
+    /**
+     * Default and maximum page size of the per-user session listing.
+     */
+    public static final int DEFAULT_SESSION_LIMIT = 20;
+    public static final int MAX_SESSION_LIMIT = 100;
+
+    public static final String ERROR_MISSING_USER_ID = "userId must not be blank";
+    public static final String ERROR_INVALID_SORT = "Unknown sort order (allowed: updatedAt, createdAt, favorite, lastMessageAt): ";
+    public static final String ERROR_INVALID_SESSION_LIMIT = "Limit must be between 1 and " + MAX_SESSION_LIMIT;
+}
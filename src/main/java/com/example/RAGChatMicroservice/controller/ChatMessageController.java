@@ -1,8 +1,12 @@
 package com.example.RAGChatMicroservice.controller;
 
 import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.BatchAddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.MessageDeltaRequest;
 import com.example.RAGChatMicroservice.dto.response.ApiResponse;
 import com.example.RAGChatMicroservice.service.ChatMessageService;
+import com.example.RAGChatMicroservice.service.MessageIngestionService;
+import com.example.RAGChatMicroservice.service.MessageStreamService;
 import com.example.RAGChatMicroservice.util.ResponseUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -11,6 +15,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import static com.example.RAGChatMicroservice.constants.ControllerConstants.*;
+import static com.example.RAGChatMicroservice.constants.MessageConstants.DEFAULT_CURSOR_LIMIT;
 
 /**
  * REST controller for managing chat messages under a chat session.
@@ -33,9 +38,20 @@ public class ChatMessageController {
     @Autowired
     private ChatMessageService chatMessageService;
 
+    @Autowired
+    private MessageIngestionService messageIngestionService;
+
+    @Autowired
+    private MessageStreamService messageStreamService;
+
     /**
      * Adds a new message to a chat session.
      *
+     * <p>
+     * When write-behind ingestion is enabled the message is group-committed with
+     * other concurrent appends; a full queue answers {@code 503} with {@code Retry-After}.
+     * </p>
+     *
      * @param sessionId the ID of the chat session
      * @param request   the request payload containing message details
      * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
@@ -43,20 +59,120 @@ public class ChatMessageController {
      */
     @PostMapping(value = ADD_MESSAGE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ApiResponse> addMessage(@PathVariable Long sessionId, @RequestBody AddMessageRequest request) {
+        if (messageIngestionService.isEnabled()) {
+            return ResponseUtils.getResponseEntity(HttpStatus.CREATED, SUCCESS, messageIngestionService.addMessage(sessionId, request));
+        }
         return ResponseUtils.getResponseEntity(HttpStatus.CREATED, SUCCESS, chatMessageService.addMessage(sessionId, request));
     }
 
+    /**
+     * Adds several messages to a chat session in one request.
+     *
+     * @param sessionId the ID of the chat session
+     * @param request   the request payload containing the messages, in order
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 201 CREATED} and the created messages with their IDs
+     */
+    @PostMapping(value = ADD_MESSAGES_BATCH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> addMessages(@PathVariable Long sessionId, @RequestBody BatchAddMessageRequest request) {
+        return ResponseUtils.getResponseEntity(HttpStatus.CREATED, SUCCESS, chatMessageService.addMessages(sessionId, request));
+    }
+
+    /**
+     * Opens a message whose content is streamed in with further requests.
+     *
+     * @param sessionId the ID of the chat session
+     * @param request   the sender, optional initial content and context
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 201 CREATED} and the opened message with its ID
+     */
+    @PostMapping(value = OPEN_MESSAGE_STREAM, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> openMessageStream(@PathVariable Long sessionId, @RequestBody AddMessageRequest request) {
+        return ResponseUtils.getResponseEntity(HttpStatus.CREATED, SUCCESS, messageStreamService.openMessage(sessionId, request));
+    }
+
+    /**
+     * Appends tokens to an open message.
+     *
+     * @param sessionId the ID of the chat session
+     * @param messageId the ID of the open message
+     * @param request   the tokens to append
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the appended and persisted lengths
+     */
+    @PostMapping(value = APPEND_MESSAGE_STREAM, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> appendMessageStream(@PathVariable Long sessionId, @PathVariable Long messageId, @RequestBody MessageDeltaRequest request) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, messageStreamService.appendMessage(sessionId, messageId, request));
+    }
+
+    /**
+     * Appends the last tokens to an open message and completes it.
+     *
+     * @param sessionId the ID of the chat session
+     * @param messageId the ID of the open message
+     * @param request   optional last tokens and embedding of the final content
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the complete message
+     */
+    @PostMapping(value = CLOSE_MESSAGE_STREAM, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> closeMessageStream(@PathVariable Long sessionId, @PathVariable Long messageId,
+                                                          @RequestBody(required = false) MessageDeltaRequest request) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, messageStreamService.closeMessage(sessionId, messageId, request));
+    }
+
     /**
      * Retrieves messages of a chat session with pagination.
      *
+     * <p>
+     * Offset pagination ({@code page}/{@code size}) is used by default. Supplying
+     * {@code after}, {@code before} or {@code limit} switches to cursor mode:
+     * {@code after=<cursor>} reads forward, {@code before=<cursor>} reads backward,
+     * and an empty {@code before=} reads the tail of the conversation.
+     * Otherwise {@code slice=true} skips the total count and returns {@code hasNext};
+     * {@code includeTotal=true} adds the session's maintained message count.
+     * In every mode {@code fields=id,sender,content,createdAt} limits the returned
+     * message fields; the large {@code context} column is only read when requested.
+     * </p>
+     *
      * @param sessionId the ID of the chat session
      * @param page      the page number (default is 0)
-     * @param size      the number of messages per page (default is 20)
+     * @param size      the number of messages per page (default is 5)
+     * @param after     opaque cursor to read forward from (cursor mode)
+     * @param before    opaque cursor to read backward from (cursor mode)
+     * @param limit     the number of messages per page in cursor mode (default is 20)
+     * @param slice     whether to return a count-free slice (default is false)
+     * @param includeTotal whether to include the message total in slice mode
+     * @param fields    comma-separated message fields to return (default is all)
      * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
      * HTTP status {@code 200 OK} and the paginated list of messages
      */
     @GetMapping(value = GET_MESSAGES, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse> getMessages(@PathVariable Long sessionId, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "5") int size) {
-        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatMessageService.getMessages(sessionId, page, size));
+    public ResponseEntity<ApiResponse> getMessages(@PathVariable Long sessionId, @RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "5") int size,
+                                                   @RequestParam(required = false) String after, @RequestParam(required = false) String before, @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(defaultValue = "false") boolean slice, @RequestParam(defaultValue = "false") boolean includeTotal,
+                                                   @RequestParam(required = false) String fields) {
+        if (after != null || before != null || limit != null) {
+            int cursorLimit = limit != null ? limit : DEFAULT_CURSOR_LIMIT;
+            return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatMessageService.getMessagesByCursor(sessionId, after, before, cursorLimit, fields));
+        }
+        if (slice) {
+            return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatMessageService.getMessagesSlice(sessionId, page, size, includeTotal, fields));
+        }
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatMessageService.getMessages(sessionId, page, size, fields));
+    }
+
+    /**
+     * Retrieves the newest messages of a chat session that fit a token budget.
+     *
+     * @param sessionId      the ID of the chat session
+     * @param maxTokens      the token budget
+     * @param includeContext whether to return and count message context (default is false)
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the messages in chronological order
+     */
+    @GetMapping(value = GET_MESSAGE_WINDOW, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> getMessageWindow(@PathVariable Long sessionId, @RequestParam int maxTokens,
+                                                        @RequestParam(defaultValue = "false") boolean includeContext) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatMessageService.getMessageWindow(sessionId, maxTokens, includeContext));
     }
 }
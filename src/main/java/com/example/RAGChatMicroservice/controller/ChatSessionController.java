@@ -2,7 +2,11 @@ package com.example.RAGChatMicroservice.controller;
 
 import com.example.RAGChatMicroservice.dto.request.CreateSessionRequest;
 import com.example.RAGChatMicroservice.dto.request.RenameSessionRequest;
+import com.example.RAGChatMicroservice.dto.request.SimilarMessagesRequest;
 import com.example.RAGChatMicroservice.dto.response.ApiResponse;
+import com.example.RAGChatMicroservice.service.ChatExportService;
+import com.example.RAGChatMicroservice.service.ChatImportService;
+import com.example.RAGChatMicroservice.service.ChatSearchService;
 import com.example.RAGChatMicroservice.service.ChatSessionService;
 import com.example.RAGChatMicroservice.util.ResponseUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +14,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
 
 import static com.example.RAGChatMicroservice.constants.ControllerConstants.*;
 
@@ -28,6 +35,15 @@ public class ChatSessionController {
     @Autowired
     private ChatSessionService chatSessionService;
 
+    @Autowired
+    private ChatSearchService chatSearchService;
+
+    @Autowired
+    private ChatExportService chatExportService;
+
+    @Autowired
+    private ChatImportService chatImportService;
+
     /**
      * Creates a new chat session.
      *
@@ -55,16 +71,122 @@ public class ChatSessionController {
     /**
      * Retrieves all chat sessions with pagination.
      *
-     * @param page the page number (default is 0)
-     * @param size the number of sessions per page (default is 10)
+     * <p>
+     * With {@code slice=true} the response is a count-free slice carrying
+     * {@code hasNext}; {@code includeTotal=true} adds the maintained session total,
+     * which is approximate: writes through other instances show up within a minute.
+     * </p>
+     *
+     * @param page         the page number (default is 0)
+     * @param size         the number of sessions per page (default is 10)
+     * @param slice        whether to return a count-free slice (default is false)
+     * @param includeTotal whether to include the approximate session total in slice mode
      * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
      * HTTP status {@code 200 OK} and the paginated list of sessions
      */
     @GetMapping(value = GET_ALL_SESSIONS, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponse> getAllSessions(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size) {
+    public ResponseEntity<ApiResponse> getAllSessions(@RequestParam(defaultValue = "0") int page, @RequestParam(defaultValue = "10") int size,
+                                                      @RequestParam(defaultValue = "false") boolean slice, @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (slice) {
+            return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatSessionService.getSessionsSlice(page, size, includeTotal));
+        }
         return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatSessionService.getAllSessions(page, size));
     }
 
+    /**
+     * Lists a user's chat sessions with cursor pagination.
+     *
+     * @param userId owner of the sessions
+     * @param sortBy {@code updatedAt} (default), {@code createdAt}, {@code favorite} or {@code lastMessageAt}
+     * @param cursor the {@code nextCursor} of the previous page (optional)
+     * @param limit  the number of sessions per page (default is 20)
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the page of sessions
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> getUserSessions(@RequestParam String userId, @RequestParam(defaultValue = "updatedAt") String sortBy,
+                                                       @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int limit) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatSessionService.getUserSessions(userId, sortBy, cursor, limit));
+    }
+
+    /**
+     * Full-text search over the messages of a user's sessions.
+     *
+     * @param q      the search text
+     * @param userId owner of the sessions
+     * @param limit  the maximum number of hits (default is 20)
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the matching messages, best first
+     */
+    @GetMapping(value = SEARCH_SESSIONS, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> searchSessions(@RequestParam String q, @RequestParam String userId, @RequestParam(defaultValue = "20") int limit) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatSearchService.search(userId, q, limit));
+    }
+
+    /**
+     * Streams all messages of a chat session as NDJSON, one message per line.
+     *
+     * @param sessionId the ID of the chat session
+     * @return HTTP status {@code 200 OK} with the messages in id order
+     */
+    @GetMapping(value = EXPORT_SESSION, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSession(@PathVariable Long sessionId) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(chatExportService.exportSession(sessionId));
+    }
+
+    /**
+     * Streams the messages of a user's sessions, or of all sessions, as NDJSON.
+     *
+     * @param userId owner of the sessions; omit for a bulk export of every active session
+     * @return HTTP status {@code 200 OK} with one message per line, grouped by session
+     */
+    @GetMapping(value = EXPORT_SESSIONS, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSessions(@RequestParam(required = false) String userId) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(chatExportService.exportSessions(userId));
+    }
+
+    /**
+     * Imports NDJSON lines in the export format, reading the body as it arrives.
+     *
+     * <p>
+     * Lines are stored in batches; after a failure, sending the same body with the
+     * same {@code importId} resumes after the last committed batch.
+     * </p>
+     *
+     * @param importId client-chosen identifier of the import
+     * @param body     the NDJSON request body
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the progress of the import
+     */
+    @PostMapping(value = IMPORT_SESSIONS, consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> importSessions(@RequestParam String importId, InputStream body) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatImportService.importMessages(importId, body));
+    }
+
+    /**
+     * Reports the progress of a bulk import.
+     *
+     * @param importId identifier of the import
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the committed lines and counts
+     */
+    @GetMapping(value = IMPORT_STATUS, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> getImportStatus(@PathVariable String importId) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatImportService.getImportStatus(importId));
+    }
+
+    /**
+     * Nearest-neighbour search over the embeddings of a user's messages.
+     *
+     * @param request the owner, the query embedding and the number of hits
+     * @return a {@link ResponseEntity} containing an {@link ApiResponse} with
+     * HTTP status {@code 200 OK} and the most similar messages
+     */
+    @PostMapping(value = SIMILAR_SESSIONS, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponse> findSimilarMessages(@RequestBody SimilarMessagesRequest request) {
+        return ResponseUtils.getResponseEntity(HttpStatus.OK, SUCCESS, chatSearchService.findSimilar(request));
+    }
+
     /**
      * Renames an existing chat session.
      *
@@ -23,4 +23,10 @@ public class AddMessageRequest {
 
     /** Optional RAG context providing metadata or background for the message. */
     private String context;
+
+    /**
+     * Optional client-computed embedding of the content, indexed for similarity
+     * retrieval; its length must match {@code app.search.vector-dimensions}.
+     */
+    private float[] embedding;
 }
@@ -0,0 +1,24 @@
+package com.example.RAGChatMicroservice.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for appending several messages to a chat session in one call.
+ *
+ * <p>
+ * Messages are persisted in the order they appear in {@link #messages},
+ * so a user turn followed by the assistant turn keeps its conversational order.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchAddMessageRequest {
+
+    /** The messages to append, in conversational order. */
+    private List<AddMessageRequest> messages;
+}
@@ -0,0 +1,52 @@
+package com.example.RAGChatMicroservice.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of a bulk NDJSON import: a message and the source session it belongs to.
+ *
+ * <p>
+ * Matches the lines written by the NDJSON export, so an export can be imported
+ * as is; unknown fields such as {@code messageId} are ignored.
+ * </p>
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportMessageLine {
+
+    /**
+     * Identifier of the session in the source system. All lines with the same
+     * value within one import go to the same, newly created session.
+     */
+    private String sessionId;
+
+    /** Owner of the session; taken from the first line of the session. */
+    private String userId;
+
+    /** Name of the session; taken from the first line of the session. */
+    private String sessionName;
+
+    /** The identity of the message sender (e.g., "user", "system"). */
+    private String sender;
+
+    /** The actual text content of the message. */
+    private String content;
+
+    /** Optional RAG context of the message. */
+    private String context;
+
+    /** Original creation time; the import time when absent. */
+    private LocalDateTime createdAt;
+
+    /** Optional client-computed embedding of the content (see {@link AddMessageRequest#getEmbedding()}). */
+    private float[] embedding;
+}
@@ -0,0 +1,23 @@
+package com.example.RAGChatMicroservice.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO carrying the next tokens of a streamed message.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageDeltaRequest {
+
+    /** Text appended to the message content; may be empty when closing. */
+    private String delta;
+
+    /**
+     * Optional client-computed embedding of the final content, only accepted when
+     * closing the message (see {@link AddMessageRequest#getEmbedding()}).
+     */
+    private float[] embedding;
+}
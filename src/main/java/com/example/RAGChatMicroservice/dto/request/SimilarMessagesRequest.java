@@ -0,0 +1,19 @@
+package com.example.RAGChatMicroservice.dto.request;
+
+import lombok.Data;
+
+/**
+ * Request DTO for retrieving a user's past messages similar to a query embedding.
+ */
+@Data
+public class SimilarMessagesRequest {
+
+    /** Owner of the sessions to search. */
+    private String userId;
+
+    /** Embedding of the query, from the same model as the message embeddings. */
+    private float[] embedding;
+
+    /** Number of nearest messages to return (default 10). */
+    private Integer k;
+}
@@ -0,0 +1,42 @@
+package com.example.RAGChatMicroservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO describing the progress of a bulk import.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportStatusResponse {
+
+    /** Client-chosen identifier of the import. */
+    private String importId;
+
+    /**
+     * Input lines whose batch committed. A retry with the same import id
+     * resumes after this many lines.
+     */
+    private Long linesCommitted;
+
+    /** Sessions created by the import. */
+    private Long sessionsCreated;
+
+    /** Messages stored by the import. */
+    private Long messagesImported;
+
+    /** Lines dropped because their session was deleted after the import created it. */
+    private Long linesSkipped;
+
+    /** Timestamp when the import was first started. */
+    private LocalDateTime createdAt;
+
+    /** Timestamp of the last committed batch. */
+    private LocalDateTime updatedAt;
+}
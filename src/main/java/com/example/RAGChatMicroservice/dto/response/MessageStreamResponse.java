@@ -0,0 +1,28 @@
+package com.example.RAGChatMicroservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO describing an open streamed message after an append.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class MessageStreamResponse {
+
+    /** Unique identifier of the chat session. */
+    private Long sessionId;
+
+    /** Unique identifier of the streamed message. */
+    private Long messageId;
+
+    /** Characters appended so far. */
+    private Integer length;
+
+    /** Characters already written to storage and visible to readers. */
+    private Integer persistedLength;
+}
@@ -0,0 +1,44 @@
+package com.example.RAGChatMicroservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Response DTO representing one message matching a search, with its session.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SearchHitResponse {
+
+    /** Session the message belongs to. */
+    private Long sessionId;
+
+    /** Current name of the session. */
+    private String sessionName;
+
+    /** Matching message. */
+    private Long messageId;
+
+    /** The sender of the message. */
+    private String sender;
+
+    /** Timestamp when the message was created. */
+    private LocalDateTime createdAt;
+
+    /** Relevance score; hits are ordered by it. */
+    private Float score;
+
+    /** Best matching passage of the content, matches wrapped in {@code <b>} tags. */
+    private String highlight;
+
+    /** Full content of the message, returned by similarity searches. */
+    private String content;
+}
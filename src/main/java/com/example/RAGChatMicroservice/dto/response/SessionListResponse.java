@@ -0,0 +1,36 @@
+package com.example.RAGChatMicroservice.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO representing one page of chat sessions.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SessionListResponse {
+
+    /** Sessions on this page. */
+    private List<SessionResponse> sessions;
+
+    /** Indicates whether more sessions exist beyond this page. */
+    private Boolean hasNext;
+
+    /**
+     * Approximate number of active sessions (only when requested): maintained per
+     * instance and re-read from the database every minute, so it can miss recent
+     * creates and deletes made through other instances.
+     */
+    private Long totalSessions;
+
+    /** Cursor of the next page of a keyset listing; absent on the last page. */
+    private String nextCursor;
+}
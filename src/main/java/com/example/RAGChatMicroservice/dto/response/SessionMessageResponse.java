@@ -28,9 +28,18 @@ public class SessionMessageResponse {
     /** List of messages belonging to the session. */
     private List<MessageResponse> messages;
 
-    /** Total number of messages in the session. */
+    /** Total number of messages in the session (slice mode: only when requested). */
     private Integer totalMessages;
 
     /** Total number of pages available for pagination. */
     private Integer totalPages;
+
+    /** Opaque cursor to continue reading in the same direction (cursor mode only). */
+    private String nextCursor;
+
+    /** Indicates whether more messages exist beyond this page. */
+    private Boolean hasNext;
+
+    /** Estimated tokens of the returned messages (window mode only). */
+    private Integer windowTokens;
 }
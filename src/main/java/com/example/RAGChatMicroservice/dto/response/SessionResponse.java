@@ -33,4 +33,13 @@ public class SessionResponse {
 
     /** Timestamp when the session was last updated. */
     private LocalDateTime updatedAt;
+
+    /** Number of messages in the session. */
+    private Long messageCount;
+
+    /** Timestamp of the newest message, {@code null} while the session has no messages. */
+    private LocalDateTime lastMessageAt;
+
+    /** Identifier of the newest message, {@code null} while the session has no messages. */
+    private Long lastMessageId;
 }
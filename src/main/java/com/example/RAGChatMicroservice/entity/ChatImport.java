@@ -0,0 +1,59 @@
+package com.example.RAGChatMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of a bulk NDJSON import.
+ *
+ * <p>
+ * Created once when an import id is first used, then only advanced through
+ * {@code ChatImportRepository#advanceCheckpoint}, so {@link Persistable} reports
+ * every instance as new and {@code save} inserts without a preceding SELECT.
+ * {@code linesCommitted} counts input lines (stored or skipped) whose batch committed.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "chat_imports")
+public class ChatImport implements Persistable<String> {
+
+    @Id
+    @Column(name = "import_id", length = 64)
+    private String importId;
+
+    @Column(name = "lines_committed", nullable = false)
+    private Long linesCommitted;
+
+    @Column(name = "sessions_created", nullable = false)
+    private Long sessionsCreated;
+
+    @Column(name = "messages_imported", nullable = false)
+    private Long messagesImported;
+
+    @Column(name = "lines_skipped", nullable = false)
+    private Long linesSkipped;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Override
+    public String getId() {
+        return importId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.RAGChatMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+/**
+ * Session that a source session of a bulk import was created as.
+ *
+ * <p>
+ * Rows are write-once, so {@link Persistable} reports every instance as new and
+ * {@code saveAll} inserts without a preceding SELECT.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(ChatImportSession.Key.class)
+@Table(name = "chat_import_sessions")
+public class ChatImportSession implements Persistable<ChatImportSession.Key> {
+
+    @Id
+    @Column(name = "import_id", length = 64)
+    private String importId;
+
+    @Id
+    @Column(name = "source_session_id")
+    private String sourceSessionId;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Override
+    public Key getId() {
+        return new Key(importId, sourceSessionId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    /**
+     * Composite primary key.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String importId;
+
+        private String sourceSessionId;
+    }
+}
@@ -1,31 +1,74 @@
 package com.example.RAGChatMicroservice.entity;
 
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Table(name = "chat_messages")
-public class ChatMessage extends BaseEntity {
+public class ChatMessage extends BaseEntity implements Persistable<Long> {
+    /**
+     * Assigned identifier, reserved by {@code MessageIdAllocator} once the session
+     * row is locked, so ids follow commit order within a session. Unlike
+     * {@code IDENTITY}, ids are known before the INSERT runs, which lets Hibernate
+     * group message inserts into JDBC batches.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    // lazy and excluded from Lombok methods so a reference proxy is never initialized by accident
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "session_id")
     private ChatSession session;
 
     @Column(name = "sender", nullable = false)
     private String sender;  // "user" or "assistant"
 
-    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content", nullable = false, columnDefinition = "MEDIUMBLOB")
     private String content;
-    @Column(name = "context", nullable = false, columnDefinition = "TEXT")
+
+    // estimated by TokenCountUtils whenever content or context is written; null for rows older than the columns
+    @Column(name = "token_count")
+    private Integer tokenCount;
+
+    @Column(name = "context_token_count")
+    private Integer contextTokenCount;
+
+    // stored as shared chunks by MessageContextStore; only set on write
+    @Transient
     private String context;
 
+    // stored in chat_message_embeddings by JpaMessageStore; only set on write
+    @Transient
+    private float[] embedding;
+
+    // ids are assigned, so newness is tracked here for saveAll to insert without a SELECT
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
 
 }
@@ -3,6 +3,7 @@ package com.example.RAGChatMicroservice.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -26,6 +27,24 @@ public class ChatSession extends BaseEntity {
     @Column(name = "is_favorite", nullable = false)
     private Boolean isFavorite = false;
 
+    // maintained by ChatSessionRepository#incrementMessageCount in the same transaction as the insert
+    @Column(name = "message_count", nullable = false)
+    private Long messageCount = 0L;
+
+    // newest message, maintained by ChatSessionRepository#recordLastMessage after each append; null without messages
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_at")
+    private LocalDateTime lastMessageAt;
+
+    // messages live in the archive segment files while set (see SessionArchiveService)
+    @Column(name = "is_archived", nullable = false)
+    private Boolean isArchived = false;
+
+    // excluded from Lombok methods: touching it would load the whole conversation
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<ChatMessage> messages;
 }
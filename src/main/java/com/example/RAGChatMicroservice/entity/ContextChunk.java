@@ -0,0 +1,33 @@
+package com.example.RAGChatMicroservice.entity;
+
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A piece of RAG context stored once and shared by every message that carries it.
+ *
+ * <p>
+ * Keyed by the SHA-256 (hex) of the chunk text. Chunks are inserted and
+ * referenced with an upsert (see {@code MessageContextStore}), never through
+ * {@code save}; {@code refCount} is the number of message references.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "context_chunks")
+public class ContextChunk {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private String content;
+
+    @Column(name = "ref_count", nullable = false)
+    private Long refCount;
+}
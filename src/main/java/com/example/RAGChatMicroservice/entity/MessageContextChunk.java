@@ -0,0 +1,62 @@
+package com.example.RAGChatMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+/**
+ * Reference from a message to one chunk of its RAG context.
+ *
+ * <p>
+ * {@code ordinal} is the chunk's position within the context; concatenating a
+ * message's chunks in ordinal order restores the original text. Rows are
+ * write-once, so {@link Persistable} reports every instance as new and
+ * {@code saveAll} inserts without a preceding SELECT.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@IdClass(MessageContextChunk.Key.class)
+@Table(name = "chat_message_context_chunks")
+public class MessageContextChunk implements Persistable<MessageContextChunk.Key> {
+
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+
+    @Id
+    @Column(name = "ordinal")
+    private Integer ordinal;
+
+    @Column(name = "chunk_hash", nullable = false, length = 64)
+    private String chunkHash;
+
+    @Override
+    public Key getId() {
+        return new Key(messageId, ordinal);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    /**
+     * Composite primary key.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long messageId;
+
+        private Integer ordinal;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.RAGChatMicroservice.entity;
+
+import com.example.RAGChatMicroservice.entity.converter.EmbeddingConverter;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Client-computed embedding of a message, kept so the search index can restore
+ * its vector when it is rebuilt from the database.
+ *
+ * <p>
+ * Rows are write-once, so {@link Persistable} reports every instance as new and
+ * {@code saveAll} inserts without a preceding SELECT.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "chat_message_embeddings")
+public class MessageEmbedding implements Persistable<Long> {
+
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+
+    @Convert(converter = EmbeddingConverter.class)
+    @Column(name = "embedding", nullable = false, columnDefinition = "MEDIUMBLOB")
+    private float[] embedding;
+
+    @Override
+    public Long getId() {
+        return messageId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
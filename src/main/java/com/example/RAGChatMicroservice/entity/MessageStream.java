@@ -0,0 +1,46 @@
+package com.example.RAGChatMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marker of a message whose content is still being streamed.
+ *
+ * <p>
+ * Inserted when the message is opened, touched on every flush and deleted when
+ * it is closed or expired, so {@link Persistable} reports every instance as new
+ * and {@code save} inserts without a preceding SELECT.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "chat_message_streams")
+public class MessageStream implements Persistable<Long> {
+
+    @Id
+    @Column(name = "message_id")
+    private Long messageId;
+
+    @Column(name = "session_id", nullable = false)
+    private Long sessionId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Override
+    public Long getId() {
+        return messageId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
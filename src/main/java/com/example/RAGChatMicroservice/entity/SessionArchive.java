@@ -0,0 +1,56 @@
+package com.example.RAGChatMicroservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Offset index entry of an archived session: where its record lives in the
+ * archive segment files.
+ *
+ * <p>
+ * Entries are written once when a session is archived and removed when it is
+ * restored, so {@link Persistable} reports every instance as new and
+ * {@code save} inserts without a preceding SELECT.
+ * </p>
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "chat_session_archives")
+public class SessionArchive implements Persistable<Long> {
+
+    @Id
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @Column(name = "segment_no", nullable = false)
+    private Integer segmentNo;
+
+    @Column(name = "record_offset", nullable = false)
+    private Long recordOffset;
+
+    @Column(name = "record_length", nullable = false)
+    private Integer recordLength;
+
+    @Column(name = "message_count", nullable = false)
+    private Long messageCount;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @Override
+    public Long getId() {
+        return sessionId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
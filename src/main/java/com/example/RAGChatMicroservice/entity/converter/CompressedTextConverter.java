@@ -0,0 +1,132 @@
+package com.example.RAGChatMicroservice.entity.converter;
+
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Stores large text attributes as (optionally) zstd-compressed bytes.
+ *
+ * <p>
+ * Storage format:
+ * <ul>
+ *     <li>Plain: the UTF-8 bytes of the text. This is what rows written before
+ *     compression existed contain, and what small values are stored as.</li>
+ *     <li>Compressed: {@code 0xFF}, format version, codec id, then a zstd frame.
+ *     {@code 0xFF} never occurs in UTF-8, so the two forms cannot be confused.</li>
+ * </ul>
+ *
+ * <p>
+ * Compression only applies to new writes when {@code app.compression.enabled} is
+ * set, to values of at least {@code min-size} bytes, and only if it actually saves
+ * space. Reading handles every form regardless of the setting, so compression can
+ * be switched on and off without migrating data.
+ *
+ * <p>
+ * Registered as a Spring bean; Hibernate obtains it through Spring's bean container.
+ */
+@Slf4j
+@Component
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    static final byte MAGIC = (byte) 0xFF;
+    static final byte FORMAT_VERSION = 1;
+    static final byte CODEC_ZSTD = 1;
+    static final byte CODEC_ZSTD_DICTIONARY = 2;
+    private static final int HEADER_LENGTH = 3;
+
+    private final CompressionProperties properties;
+
+    private final ZstdDictCompress dictCompress;
+
+    private final ZstdDictDecompress dictDecompress;
+
+    public CompressedTextConverter(CompressionProperties properties) {
+        this.properties = properties;
+        byte[] dictionary = loadDictionary(properties.getDictionaryPath());
+        this.dictCompress = dictionary != null ? new ZstdDictCompress(dictionary, properties.getLevel()) : null;
+        this.dictDecompress = dictionary != null ? new ZstdDictDecompress(dictionary) : null;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+        if (!properties.isEnabled() || raw.length < properties.getMinSize()) {
+            return raw;
+        }
+
+        byte codec = dictCompress != null ? CODEC_ZSTD_DICTIONARY : CODEC_ZSTD;
+        byte[] frame = dictCompress != null ? Zstd.compress(raw, dictCompress) : Zstd.compress(raw, properties.getLevel());
+        if (frame.length + HEADER_LENGTH >= raw.length) {
+            // Incompressible; keep it plain
+            return raw;
+        }
+
+        byte[] stored = new byte[HEADER_LENGTH + frame.length];
+        stored[0] = MAGIC;
+        stored[1] = FORMAT_VERSION;
+        stored[2] = codec;
+        System.arraycopy(frame, 0, stored, HEADER_LENGTH, frame.length);
+        return stored;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        if (stored.length < HEADER_LENGTH || stored[0] != MAGIC) {
+            return new String(stored, StandardCharsets.UTF_8);
+        }
+        if (stored[1] != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported compressed text format version: " + stored[1]);
+        }
+
+        byte[] frame = Arrays.copyOfRange(stored, HEADER_LENGTH, stored.length);
+        long size = Zstd.getFrameContentSize(frame);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Corrupt compressed text frame");
+        }
+
+        byte[] raw = switch (stored[2]) {
+            case CODEC_ZSTD -> Zstd.decompress(frame, (int) size);
+            case CODEC_ZSTD_DICTIONARY -> {
+                if (dictDecompress == null) {
+                    throw new IllegalStateException("Value was compressed with a dictionary but app.compression.dictionary-path is not set");
+                }
+                yield Zstd.decompress(frame, dictDecompress, (int) size);
+            }
+            default -> throw new IllegalStateException("Unsupported compression codec: " + stored[2]);
+        };
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] loadDictionary(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] dictionary = Files.readAllBytes(Path.of(path));
+            log.info("Loaded zstd dictionary | path={} | bytes={}", path, dictionary.length);
+            return dictionary;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to read zstd dictionary: " + path, ex);
+        }
+    }
+}
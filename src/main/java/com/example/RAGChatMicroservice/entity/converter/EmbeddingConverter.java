@@ -0,0 +1,35 @@
+package com.example.RAGChatMicroservice.entity.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Stores an embedding as its float32 components, little-endian, back to back
+ * ({@code 4 * dimensions} bytes).
+ */
+@Converter
+public class EmbeddingConverter implements AttributeConverter<float[], byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(float[] embedding) {
+        if (embedding == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(embedding);
+        return buffer.array();
+    }
+
+    @Override
+    public float[] convertToEntityAttribute(byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        float[] embedding = new float[stored.length / Float.BYTES];
+        ByteBuffer.wrap(stored).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(embedding);
+        return embedding;
+    }
+}
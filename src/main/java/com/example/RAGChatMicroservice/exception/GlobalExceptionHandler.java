@@ -3,6 +3,7 @@ package com.example.RAGChatMicroservice.exception;
 import com.example.RAGChatMicroservice.dto.response.ApiResponse;
 import com.example.RAGChatMicroservice.util.ResponseUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -33,6 +34,35 @@ public class GlobalExceptionHandler {
         return ResponseUtils.getResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    /**
+     * Handles a concurrent run of the same import (409)
+     */
+    @ExceptionHandler(ImportConflictException.class)
+    public ResponseEntity<ApiResponse> handleImportConflict(ImportConflictException ex) {
+        log.warn("Import conflict: {}", ex.getMessage());
+        return ResponseUtils.getResponse(HttpStatus.CONFLICT, ex.getMessage());
+    }
+
+    /**
+     * Handles write-behind backpressure (503) and asks the client to retry shortly
+     */
+    @ExceptionHandler(IngestionUnavailableException.class)
+    public ResponseEntity<ApiResponse> handleIngestionUnavailable(IngestionUnavailableException ex) {
+        log.warn("Ingestion unavailable: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage(), null));
+    }
+
+    /**
+     * Handles write-behind commits that may still complete (504); no Retry-After,
+     * since retrying blindly could store the message twice
+     */
+    @ExceptionHandler(IngestionTimeoutException.class)
+    public ResponseEntity<ApiResponse> handleIngestionTimeout(IngestionTimeoutException ex) {
+        log.warn("Ingestion outcome unknown: {}", ex.getMessage());
+        return ResponseUtils.getResponse(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+    }
+
     /**
      * Handles all unhandled exceptions (500)
      */
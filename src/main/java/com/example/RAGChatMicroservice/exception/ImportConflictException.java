@@ -0,0 +1,25 @@
+package com.example.RAGChatMicroservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when another request is running the same import. The
+ * committed batches are unaffected; the client can resume once it has finished.
+ *
+ * <p>
+ * Automatically maps to HTTP 409 (CONFLICT).
+ * </p>
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ImportConflictException extends RuntimeException {
+
+    /**
+     * Creates a new exception with the given message.
+     *
+     * @param message description of the conflicting import
+     */
+    public ImportConflictException(String message) {
+        super(message);
+    }
+}
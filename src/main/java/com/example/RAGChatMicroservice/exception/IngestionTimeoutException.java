@@ -0,0 +1,26 @@
+package com.example.RAGChatMicroservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when the write-behind writer has already taken a message
+ * but its commit is not confirmed in time. The message may still be committed,
+ * so the client should read the session before sending it again.
+ *
+ * <p>
+ * Automatically maps to HTTP 504 (GATEWAY_TIMEOUT).
+ * </p>
+ */
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class IngestionTimeoutException extends RuntimeException {
+
+    /**
+     * Creates a new exception with the given message.
+     *
+     * @param message reason the outcome is unknown
+     */
+    public IngestionTimeoutException(String message) {
+        super(message);
+    }
+}
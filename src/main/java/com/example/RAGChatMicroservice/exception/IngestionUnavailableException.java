@@ -0,0 +1,25 @@
+package com.example.RAGChatMicroservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a message cannot be accepted or confirmed by the
+ * write-behind ingestion queue, e.g. because the queue is full.
+ *
+ * <p>
+ * Automatically maps to HTTP 503 (SERVICE_UNAVAILABLE).
+ * </p>
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestionUnavailableException extends RuntimeException {
+
+    /**
+     * Creates a new exception with the given message.
+     *
+     * @param message reason the message was not accepted
+     */
+    public IngestionUnavailableException(String message) {
+        super(message);
+    }
+}
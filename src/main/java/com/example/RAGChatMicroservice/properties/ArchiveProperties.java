@@ -0,0 +1,45 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the cold-session archive tier.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    /** Whether the scheduled archiver runs. Archived sessions stay readable either way. */
+    private boolean enabled;
+
+    /**
+     * Declares that every instance reads the same segment files: the service runs as a
+     * single instance, or {@code directory} is storage shared by all instances. Required
+     * when {@code enabled}, since the offset index is shared through the database.
+     */
+    private boolean singleNode;
+
+    /** Directory holding the segment files; must be durable storage. */
+    private String directory = "./data/archive";
+
+    /** Sessions without updates or new messages for this many days are archived. */
+    private int idleDays = 7;
+
+    /** A new segment file is started once the current one would exceed this size. */
+    private long maxSegmentBytes = 256L * 1024 * 1024;
+
+    /** zstd level used for archive records. */
+    private int compressionLevel = 6;
+
+    /** Sessions with more messages than this stay in the hot tables. */
+    private int maxMessagesPerSession = 10_000;
+
+    /** Upper bound on sessions archived by a single run. */
+    private int maxSessionsPerRun = 1_000;
+
+    /** Delay between the end of one run and the start of the next. */
+    private long intervalMillis = 3_600_000;
+}
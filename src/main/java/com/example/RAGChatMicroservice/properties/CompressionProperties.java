@@ -0,0 +1,29 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for at-rest compression of message content and context.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.compression")
+public class CompressionProperties {
+
+    /** Whether new values are compressed; existing values are always readable. */
+    private boolean enabled;
+
+    /** Values smaller than this many UTF-8 bytes are stored uncompressed. */
+    private int minSize = 512;
+
+    /** zstd compression level. */
+    private int level = 3;
+
+    /**
+     * Optional path of a trained zstd dictionary (e.g. {@code zstd --train}).
+     * Must stay available as long as rows compressed with it exist.
+     */
+    private String dictionaryPath;
+}
@@ -0,0 +1,23 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for streaming NDJSON exports of sessions and messages.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+
+    /**
+     * Rows the JDBC driver fetches per round trip while streaming messages. Not
+     * used on MySQL, where exports stream row by row.
+     */
+    private int fetchSize = 500;
+
+    /** Maximum duration of one export response before the server aborts it. */
+    private long timeoutMinutes = 60;
+}
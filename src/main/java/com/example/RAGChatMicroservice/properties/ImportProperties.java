@@ -0,0 +1,20 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for bulk NDJSON imports.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+
+    /**
+     * Input lines stored per transaction. Bounds the memory and the lock time of
+     * one batch, and the work repeated when an import is resumed.
+     */
+    private int batchSize = 1_000;
+}
@@ -0,0 +1,29 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for write-behind message ingestion.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.ingestion")
+public class IngestionProperties {
+
+    /** Whether single-message appends go through the group-commit queue. */
+    private boolean writeBehind;
+
+    /** Maximum number of messages waiting to be written; further appends are rejected. */
+    private int queueCapacity = 10_000;
+
+    /** Maximum number of messages committed in one transaction. */
+    private int maxBatchSize = 200;
+
+    /** How long the writer waits for more messages before committing a partial batch. */
+    private long lingerMillis = 5;
+
+    /** How long a caller waits for its message to be committed. */
+    private long ackTimeoutMillis = 5_000;
+}
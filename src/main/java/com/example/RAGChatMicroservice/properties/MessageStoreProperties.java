@@ -0,0 +1,47 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the message storage backend.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.message-store")
+public class MessageStoreProperties {
+
+    /** Backend holding messages: {@code jpa} (the database) or {@code log} (embedded log files). */
+    private String type = "jpa";
+
+    /** Settings of the {@code jpa} backend. */
+    private Jpa jpa = new Jpa();
+
+    /** Settings of the {@code log} backend. */
+    private Log log = new Log();
+
+    @Data
+    public static class Jpa {
+
+        /**
+         * Connections of the pool message ids are reserved through, separate from
+         * the application pool. Each reservation holds one for a single short
+         * transaction, so a few cover many concurrent appends.
+         */
+        private int idPoolSize = 2;
+    }
+
+    @Data
+    public static class Log {
+
+        /** Directory holding the log segments; must be durable local storage. */
+        private String directory = "./data/messages";
+
+        /** A new segment file is started once the current one would exceed this size. */
+        private long maxSegmentBytes = 256L * 1024 * 1024;
+
+        /** Whether every append is forced to disk before it is acknowledged. */
+        private boolean fsync = true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for incrementally streamed assistant messages.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.message-streams")
+public class MessageStreamProperties {
+
+    /** Whether messages can be opened for streaming (needs the {@code jpa} message store). */
+    private boolean enabled = true;
+
+    /**
+     * How often buffered tokens are written to the message. Bounds both how stale
+     * partial content is for readers and how much a crash loses.
+     */
+    private long flushMillis = 500;
+
+    /** Buffered characters that trigger a write without waiting for the next flush. */
+    private int flushChars = 4_096;
+
+    /**
+     * Streams without appends for this long are closed with the content they have.
+     * Also expires streams left open by an instance that went away.
+     */
+    private long idleTimeoutMillis = 120_000;
+
+    /** Longest content a streamed message may reach. */
+    private int maxContentChars = 1_000_000;
+}
@@ -0,0 +1,32 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the background purge of soft-deleted sessions and messages.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.purge")
+public class PurgeProperties {
+
+    /** Whether the scheduled purge runs at all. */
+    private boolean enabled;
+
+    /** Soft-deleted rows older than this many days are hard-deleted. */
+    private int retentionDays = 30;
+
+    /** Rows deleted per statement (and per transaction). */
+    private int chunkSize = 500;
+
+    /** Pause between chunks, leaving the database to foreground traffic. */
+    private long chunkPauseMillis = 200;
+
+    /** Upper bound on rows deleted by a single run. */
+    private int maxRowsPerRun = 50_000;
+
+    /** Delay between the end of one run and the start of the next. */
+    private long intervalMillis = 600_000;
+}
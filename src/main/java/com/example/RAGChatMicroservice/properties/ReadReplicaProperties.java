@@ -0,0 +1,35 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for routing read-only transactions to replica databases.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.read-replicas")
+public class ReadReplicaProperties {
+
+    /** Whether read-only transactions are routed to the replicas below. */
+    private boolean enabled;
+
+    /** JDBC URLs of the replicas; reads are spread over them round-robin. */
+    private List<String> urls = new ArrayList<>();
+
+    /** Replica user name; defaults to {@code spring.datasource.username}. */
+    private String username;
+
+    /** Replica password; defaults to {@code spring.datasource.password}. */
+    private String password;
+
+    /**
+     * How long reads of a session stay on the primary after a write to it.
+     * Should exceed the typical replication lag.
+     */
+    private long stickyMillis = 5_000;
+}
@@ -0,0 +1,36 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-memory buffer of each active session's latest messages.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.recent-messages")
+public class RecentMessagesProperties {
+
+    /** Whether tail reads are served from memory. */
+    private boolean enabled = true;
+
+    /** Latest messages kept per session; tail reads up to this size skip the database. */
+    private int capacity = 50;
+
+    /** Estimated heap budget of all buffered messages; least recently used sessions go first. */
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /**
+     * Time a buffered tail is kept after it was loaded. Appends and content updates
+     * made through other service instances show up once it has expired.
+     */
+    private long ttlSeconds = 60;
+
+    /**
+     * Whether every buffered read first checks the session's last-message pointer
+     * (one primary-key read), so appends made through other service instances are
+     * seen at once. Off by default: the buffer is meant for single-node reads.
+     */
+    private boolean checkLastMessageId = false;
+}
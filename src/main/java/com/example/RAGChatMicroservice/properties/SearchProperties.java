@@ -0,0 +1,47 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the embedded full-text index over chat messages.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.search")
+public class SearchProperties {
+
+    /** Whether messages are indexed and the search API is available. */
+    private boolean enabled;
+
+    /** Directory holding the index; local state of this instance. */
+    private String directory = "./data/search";
+
+    /** Delay between near-real-time refreshes; bounds how soon a new message becomes searchable. */
+    private long refreshMillis = 1_000;
+
+    /** Delay between durable commits; a restart re-indexes messages added since the last one. */
+    private long commitMillis = 60_000;
+
+    /** Memory the index writer buffers before flushing a new segment. */
+    private double ramBufferMb = 32;
+
+    /**
+     * Message ids below the last committed one that are re-indexed on startup. Covers
+     * messages whose ids were allocated earlier but committed later than the watermark.
+     */
+    private long catchUpOverlap = 10_000;
+
+    /** Length of the client-computed message embeddings; fixed for the lifetime of an index. */
+    private int vectorDimensions = 384;
+
+    /** Whether vectors are held as int8 (about a quarter of the memory) instead of float32. */
+    private boolean vectorQuantized = true;
+
+    /** HNSW graph: maximum neighbours per node. */
+    private int hnswMaxConnections = 16;
+
+    /** HNSW graph: candidates considered while inserting a node. */
+    private int hnswBeamWidth = 100;
+}
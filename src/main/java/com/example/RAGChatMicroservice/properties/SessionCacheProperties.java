@@ -0,0 +1,23 @@
+package com.example.RAGChatMicroservice.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-memory cache of active session metadata.
+ */
+@Component
+@Data
+@ConfigurationProperties(prefix = "app.session-cache")
+public class SessionCacheProperties {
+
+    /** Maximum number of sessions kept in memory. */
+    private long maximumSize = 10_000;
+
+    /**
+     * Time a cached entry is trusted. Other service instances only learn about
+     * renames and deletes when their entry expires, so this bounds the staleness.
+     */
+    private long ttlSeconds = 60;
+}
@@ -0,0 +1,42 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.ChatImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for bulk import checkpoints ({@link ChatImport}).
+ */
+public interface ChatImportRepository extends JpaRepository<ChatImport, String> {
+
+    /**
+     * Moves an import's checkpoint past one committed batch.
+     *
+     * <p>
+     * Conditional on the checkpoint still being where the batch started, so two
+     * concurrent runs of the same import cannot both commit a batch: the loser
+     * updates no row and rolls back. Joins the caller's transaction, which also
+     * stores the batch.
+     * </p>
+     *
+     * @param importId        import identifier
+     * @param expectedLines   lines committed when the batch was read
+     * @param lines           lines committed including the batch
+     * @param sessionsCreated sessions the batch created
+     * @param messages        messages the batch stored
+     * @param skipped         lines the batch skipped
+     * @param now             time of the update
+     * @return {@code 1} if the checkpoint advanced, {@code 0} if another run moved it
+     */
+    @Modifying
+    @Query("UPDATE ChatImport i SET i.linesCommitted = :lines, i.sessionsCreated = i.sessionsCreated + :sessionsCreated, " +
+            "i.messagesImported = i.messagesImported + :messages, i.linesSkipped = i.linesSkipped + :skipped, i.updatedAt = :now " +
+            "WHERE i.importId = :importId AND i.linesCommitted = :expectedLines")
+    int advanceCheckpoint(@Param("importId") String importId, @Param("expectedLines") long expectedLines, @Param("lines") long lines,
+                          @Param("sessionsCreated") long sessionsCreated, @Param("messages") long messages, @Param("skipped") long skipped,
+                          @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,22 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.ChatImportSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for the source-to-session mapping of bulk imports ({@link ChatImportSession}).
+ */
+public interface ChatImportSessionRepository extends JpaRepository<ChatImportSession, ChatImportSession.Key> {
+
+    /**
+     * Resolves the sessions already created for source sessions of one import.
+     *
+     * @param importId         import identifier
+     * @param sourceSessionIds source session identifiers
+     * @return existing mappings; source sessions not seen before are absent
+     */
+    List<ChatImportSession> findByImportIdAndSourceSessionIdIn(String importId, Collection<String> sourceSessionIds);
+}
@@ -1,9 +1,21 @@
 package com.example.RAGChatMicroservice.repository;
 
 import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.repository.projection.MessageIndexRow;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.MessageTokenCount;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Repository interface for managing {@link ChatMessage} entities.
@@ -11,6 +23,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * <p>
  * Provides CRUD operations and custom queries for chat messages.
  * </p>
+ *
+ * <p>
+ * Queries reference {@code m.session.id} explicitly: Hibernate resolves it to the
+ * {@code session_id} foreign key column, whereas the derived {@code findBySessionId...}
+ * form joins {@code chat_sessions} and filters on the joined id, which prevents
+ * the {@code (session_id, id)} index from being used.
+ * </p>
  */
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
@@ -21,5 +40,133 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long>
      * @param pageable  pagination information
      * @return a paginated list of chat messages
      */
-    Page<ChatMessage> findBySessionId(Long sessionId, Pageable pageable);
+    @Query("SELECT m FROM ChatMessage m WHERE m.session.id = :sessionId")
+    Page<ChatMessage> findBySessionId(@Param("sessionId") Long sessionId, Pageable pageable);
+
+    /**
+     * Retrieves a page of message summaries.
+     *
+     * @param sessionId the ID of the chat session
+     * @param pageable  pagination information
+     * @return a paginated list of message summaries
+     */
+    @Query(value = "SELECT new com.example.RAGChatMicroservice.repository.projection.MessageSummary(m.id, m.sender, m.content, m.createdAt) FROM ChatMessage m WHERE m.session.id = :sessionId",
+            countQuery = "SELECT COUNT(m) FROM ChatMessage m WHERE m.session.id = :sessionId")
+    Page<MessageSummary> findSummariesBySessionId(@Param("sessionId") Long sessionId, Pageable pageable);
+
+    /**
+     * Retrieves a slice of message summaries, without a COUNT query.
+     *
+     * @param sessionId the ID of the chat session
+     * @param pageable  pagination information
+     * @return a slice of message summaries
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.MessageSummary(m.id, m.sender, m.content, m.createdAt) FROM ChatMessage m WHERE m.session.id = :sessionId")
+    Slice<MessageSummary> findSummarySliceBySessionId(@Param("sessionId") Long sessionId, Pageable pageable);
+
+    /**
+     * Keyset read of message summaries newer than the given id.
+     *
+     * <p>
+     * Seeks directly to {@code (session_id, id)} so the cost does not grow with
+     * the position in the conversation.
+     * </p>
+     *
+     * @param sessionId the ID of the chat session
+     * @param id        exclusive lower bound on the message id ({@code 0} for the first page)
+     * @param limit     maximum number of messages to return
+     * @return summaries ordered by ascending id
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.MessageSummary(m.id, m.sender, m.content, m.createdAt) FROM ChatMessage m WHERE m.session.id = :sessionId AND m.id > :id ORDER BY m.id ASC")
+    List<MessageSummary> findSummariesBySessionIdAfter(@Param("sessionId") Long sessionId, @Param("id") Long id, Limit limit);
+
+    /**
+     * Keyset read of message summaries older than the given id.
+     *
+     * @param sessionId the ID of the chat session
+     * @param id        exclusive upper bound on the message id ({@link Long#MAX_VALUE} for the tail)
+     * @param limit     maximum number of messages to return
+     * @return summaries ordered by descending id
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.MessageSummary(m.id, m.sender, m.content, m.createdAt) FROM ChatMessage m WHERE m.session.id = :sessionId AND m.id < :id ORDER BY m.id DESC")
+    List<MessageSummary> findSummariesBySessionIdBefore(@Param("sessionId") Long sessionId, @Param("id") Long id, Limit limit);
+
+    /**
+     * Reads the next chunk of live messages of live sessions across all sessions,
+     * by primary key range, with their embeddings. Feeds the search index when it
+     * catches up.
+     *
+     * @param afterId exclusive lower bound on the message id
+     * @param limit   chunk size
+     * @return rows ordered by ascending message id
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.MessageIndexRow(m.id, s.id, s.userId, m.sender, m.content, m.createdAt, e.embedding) "
+            + "FROM ChatMessage m JOIN m.session s LEFT JOIN MessageEmbedding e ON e.messageId = m.id WHERE m.id > :afterId AND m.isDeleted = false AND s.isDeleted = false ORDER BY m.id ASC")
+    List<MessageIndexRow> findIndexRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Reads the creation time of a session's newest message(s) from the
+     * {@code (session_id, id)} index, without touching message content.
+     *
+     * @param sessionId the ID of the chat session
+     * @param limit     number of messages (normally one)
+     * @return creation timestamps, newest message first
+     */
+    @Query("SELECT m.createdAt FROM ChatMessage m WHERE m.session.id = :sessionId ORDER BY m.id DESC")
+    List<LocalDateTime> findLatestCreatedAt(@Param("sessionId") Long sessionId, Limit limit);
+
+    /**
+     * Retrieves the ids of the next chunk of messages in a session, without
+     * loading the messages themselves. Used to bound bulk updates.
+     *
+     * @param sessionId the ID of the chat session
+     * @param afterId   exclusive lower bound on the message id
+     * @param limit     chunk size
+     * @return message ids in ascending order
+     */
+    @Query("SELECT m.id FROM ChatMessage m WHERE m.session.id = :sessionId AND m.id > :afterId ORDER BY m.id ASC")
+    List<Long> findIdsBySessionIdAfter(@Param("sessionId") Long sessionId, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Soft deletes the live messages of a session within an id range in a single
+     * set-based UPDATE. Runs in its own transaction so each chunk commits independently.
+     *
+     * @param sessionId the ID of the chat session
+     * @param fromId    exclusive lower bound on the message id
+     * @param toId      inclusive upper bound on the message id
+     * @param now       deletion timestamp written to {@code updated_at}
+     * @return number of messages soft deleted
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.isDeleted = true, m.updatedAt = :now WHERE m.session.id = :sessionId AND m.id > :fromId AND m.id <= :toId AND m.isDeleted = false")
+    int softDeleteBySessionIdAndIdRange(@Param("sessionId") Long sessionId, @Param("fromId") Long fromId, @Param("toId") Long toId, @Param("now") LocalDateTime now);
+
+    /**
+     * Replaces the content of one message; used to persist streamed tokens.
+     * Joins the caller's transaction.
+     *
+     * @param id         the ID of the message
+     * @param content    the full content so far
+     * @param tokenCount estimated tokens of the content
+     * @param now        timestamp written to {@code updated_at}
+     * @return {@code 1} if the message exists, {@code 0} otherwise
+     */
+    @Modifying
+    @Query("UPDATE ChatMessage m SET m.content = :content, m.tokenCount = :tokenCount, m.updatedAt = :now WHERE m.id = :id")
+    int updateContent(@Param("id") Long id, @Param("content") String content, @Param("tokenCount") int tokenCount, @Param("now") LocalDateTime now);
+
+    /**
+     * Reads the token counts of a session's messages older than the given id,
+     * newest first. Served by a backward scan of the
+     * {@code (session_id, id, token_count, context_token_count)} index alone.
+     *
+     * @param sessionId the ID of the chat session
+     * @param id        exclusive upper bound ({@link Long#MAX_VALUE} for the tail)
+     * @param limit     maximum number of messages
+     * @return token counts ordered by descending id
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.MessageTokenCount(m.id, m.tokenCount, m.contextTokenCount) "
+            + "FROM ChatMessage m WHERE m.session.id = :sessionId AND m.id < :id ORDER BY m.id DESC")
+    List<MessageTokenCount> findTokenCountsBySessionIdBefore(@Param("sessionId") Long sessionId, @Param("id") Long id, Limit limit);
 }
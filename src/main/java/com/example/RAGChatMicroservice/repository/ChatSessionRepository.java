@@ -1,10 +1,21 @@
 package com.example.RAGChatMicroservice.repository;
 
 import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.repository.projection.PurgeCandidate;
+import com.example.RAGChatMicroservice.repository.projection.SessionActivity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -31,4 +42,283 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, Long>
      * @return a paginated list of active chat sessions
      */
     Page<ChatSession> findByIsDeletedFalse(PageRequest of);
+
+    /**
+     * Retrieves active chat sessions as a {@link Slice}, without a COUNT query.
+     *
+     * @param pageable pagination information
+     * @return a slice of active chat sessions
+     */
+    Slice<ChatSession> findSliceByIsDeletedFalse(Pageable pageable);
+
+    /**
+     * Keyset page of a user's active sessions, most recently updated first.
+     *
+     * <p>
+     * Seeks backward on the {@code (user_id, is_deleted, updated_at, id)} index from
+     * the position of the last session already returned.
+     * </p>
+     *
+     * @param userId   owner of the sessions
+     * @param beforeTs update timestamp of the last session returned (a far-future bound for the first page)
+     * @param beforeId id of the last session returned ({@link Long#MAX_VALUE} for the first page)
+     * @param limit    page size
+     * @return sessions ordered by update timestamp and id, descending
+     */
+    @Query("SELECT s FROM ChatSession s WHERE s.userId = :userId AND s.isDeleted = false "
+            + "AND (s.updatedAt < :beforeTs OR (s.updatedAt = :beforeTs AND s.id < :beforeId)) "
+            + "ORDER BY s.updatedAt DESC, s.id DESC")
+    List<ChatSession> findUserSessionsByUpdatedAtBefore(@Param("userId") String userId, @Param("beforeTs") LocalDateTime beforeTs, @Param("beforeId") Long beforeId, Limit limit);
+
+    /**
+     * Keyset page of a user's active sessions, newest first, on the
+     * {@code (user_id, is_deleted, created_at, id)} index.
+     *
+     * @param userId   owner of the sessions
+     * @param beforeTs creation timestamp of the last session returned
+     * @param beforeId id of the last session returned
+     * @param limit    page size
+     * @return sessions ordered by creation timestamp and id, descending
+     */
+    @Query("SELECT s FROM ChatSession s WHERE s.userId = :userId AND s.isDeleted = false "
+            + "AND (s.createdAt < :beforeTs OR (s.createdAt = :beforeTs AND s.id < :beforeId)) "
+            + "ORDER BY s.createdAt DESC, s.id DESC")
+    List<ChatSession> findUserSessionsByCreatedAtBefore(@Param("userId") String userId, @Param("beforeTs") LocalDateTime beforeTs, @Param("beforeId") Long beforeId, Limit limit);
+
+    /**
+     * Keyset page of a user's favorite (or non-favorite) active sessions, most
+     * recently updated first, on the {@code (user_id, is_deleted, is_favorite, updated_at, id)} index.
+     * Favorites-first listings read the favorites, then continue with the rest.
+     *
+     * @param userId     owner of the sessions
+     * @param isFavorite which group to read
+     * @param beforeTs   update timestamp of the last session returned
+     * @param beforeId   id of the last session returned
+     * @param limit      page size
+     * @return sessions of the group ordered by update timestamp and id, descending
+     */
+    @Query("SELECT s FROM ChatSession s WHERE s.userId = :userId AND s.isDeleted = false AND s.isFavorite = :isFavorite "
+            + "AND (s.updatedAt < :beforeTs OR (s.updatedAt = :beforeTs AND s.id < :beforeId)) "
+            + "ORDER BY s.updatedAt DESC, s.id DESC")
+    List<ChatSession> findUserSessionsByFavoriteBefore(@Param("userId") String userId, @Param("isFavorite") Boolean isFavorite, @Param("beforeTs") LocalDateTime beforeTs,
+                                                       @Param("beforeId") Long beforeId, Limit limit);
+
+    /**
+     * Keyset page of a user's active sessions with messages, most recent message
+     * first, on the {@code (user_id, is_deleted, last_message_at, id)} index.
+     * Sessions without messages are read by {@link #findUserSessionsWithoutMessagesBefore}.
+     *
+     * @param userId   owner of the sessions
+     * @param beforeTs last message timestamp of the last session returned
+     * @param beforeId id of the last session returned
+     * @param limit    page size
+     * @return sessions ordered by last message timestamp and id, descending
+     */
+    @Query("SELECT s FROM ChatSession s WHERE s.userId = :userId AND s.isDeleted = false "
+            + "AND (s.lastMessageAt < :beforeTs OR (s.lastMessageAt = :beforeTs AND s.id < :beforeId)) "
+            + "ORDER BY s.lastMessageAt DESC, s.id DESC")
+    List<ChatSession> findUserSessionsByLastMessageAtBefore(@Param("userId") String userId, @Param("beforeTs") LocalDateTime beforeTs, @Param("beforeId") Long beforeId, Limit limit);
+
+    /**
+     * Keyset page of a user's active sessions without messages, newest first, on
+     * the {@code NULL} range of the {@code (user_id, is_deleted, last_message_at, id)} index.
+     *
+     * @param userId   owner of the sessions
+     * @param beforeId id of the last session returned ({@link Long#MAX_VALUE} for the first page)
+     * @param limit    page size
+     * @return sessions ordered by id, descending
+     */
+    @Query("SELECT s FROM ChatSession s WHERE s.userId = :userId AND s.isDeleted = false AND s.lastMessageAt IS NULL AND s.id < :beforeId ORDER BY s.id DESC")
+    List<ChatSession> findUserSessionsWithoutMessagesBefore(@Param("userId") String userId, @Param("beforeId") Long beforeId, Limit limit);
+
+    /**
+     * Keyset page of all active sessions in id order, on the primary key.
+     *
+     * @param afterId id of the last session returned ({@code 0} for the first page)
+     * @param limit   page size
+     * @return sessions ordered by ascending id
+     */
+    @Query("SELECT s FROM ChatSession s WHERE s.isDeleted = false AND s.id > :afterId ORDER BY s.id ASC")
+    List<ChatSession> findActiveSessionsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Counts all chat sessions that are not marked as deleted.
+     *
+     * @return number of active chat sessions
+     */
+    long countByIsDeletedFalse();
+
+    /**
+     * Reads only the maintained message counter of a session (primary key lookup).
+     *
+     * @param sessionId the ID of the chat session
+     * @return the session's message count, if the session exists
+     */
+    @Query("SELECT s.messageCount FROM ChatSession s WHERE s.id = :sessionId")
+    Optional<Long> findMessageCountById(@Param("sessionId") Long sessionId);
+
+    /**
+     * Reads only the maintained activity columns of a session (primary key lookup).
+     *
+     * @param sessionId the ID of the chat session
+     * @return the session's message count and last message, if the session exists
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.SessionActivity(s.messageCount, s.lastMessageAt, s.lastMessageId) "
+            + "FROM ChatSession s WHERE s.id = :sessionId")
+    Optional<SessionActivity> findActivityById(@Param("sessionId") Long sessionId);
+
+    /**
+     * Atomically adjusts the maintained message counter of an active session.
+     *
+     * <p>
+     * Only matches sessions that are not deleted, so the row count doubles as the
+     * existence check for appends: no separate SELECT of the session is needed.
+     * Archived sessions do not match either; callers restore them and retry.
+     * Joins the caller's transaction, so a {@code 0} result can roll back the insert.
+     * </p>
+     *
+     * @param sessionId the ID of the chat session
+     * @param delta     number of messages added
+     * @return {@code 1} if the session is active, not archived and was updated, {@code 0} otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.messageCount = s.messageCount + :delta WHERE s.id = :sessionId AND s.isDeleted = false AND s.isArchived = false")
+    int incrementMessageCount(@Param("sessionId") Long sessionId, @Param("delta") long delta);
+
+    /**
+     * Points a session at its newest message.
+     *
+     * <p>
+     * Called after the messages of an append are inserted, in the transaction of
+     * {@link #incrementMessageCount}: the session row is already locked by then, so
+     * this adds no lock wait, and the counter and pointer commit together. Only
+     * moves forward, so appends committing out of id order keep the newest message.
+     * </p>
+     *
+     * @param sessionId     the ID of the chat session
+     * @param lastMessageId id of the newest appended message
+     * @param lastMessageAt its creation timestamp
+     * @return {@code 1} if the pointer moved, {@code 0} if it already points at a newer message
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.lastMessageId = :lastMessageId, s.lastMessageAt = :lastMessageAt "
+            + "WHERE s.id = :sessionId AND (s.lastMessageId IS NULL OR s.lastMessageId < :lastMessageId)")
+    int recordLastMessage(@Param("sessionId") Long sessionId, @Param("lastMessageId") Long lastMessageId, @Param("lastMessageAt") LocalDateTime lastMessageAt);
+
+    /**
+     * Renames an active session with a single UPDATE, without loading it.
+     *
+     * <p>
+     * Only the name and {@code updated_at} are written, so the counters and flags
+     * maintained by concurrent appends and the archive job are never overwritten
+     * with a stale copy of the row.
+     * </p>
+     *
+     * @param sessionId   the ID of the chat session
+     * @param sessionName the new name
+     * @param now         timestamp written to {@code updated_at}
+     * @return {@code 1} if the session is active and was renamed, {@code 0} otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.sessionName = :sessionName, s.updatedAt = :now WHERE s.id = :sessionId AND s.isDeleted = false")
+    int renameById(@Param("sessionId") Long sessionId, @Param("sessionName") String sessionName, @Param("now") LocalDateTime now);
+
+    /**
+     * Sets the favorite flag of an active session with a single UPDATE, without
+     * loading it (see {@link #renameById}).
+     *
+     * @param sessionId  the ID of the chat session
+     * @param isFavorite the new flag
+     * @param now        timestamp written to {@code updated_at}
+     * @return {@code 1} if the session is active and was updated, {@code 0} otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.isFavorite = :isFavorite, s.updatedAt = :now WHERE s.id = :sessionId AND s.isDeleted = false")
+    int updateFavoriteById(@Param("sessionId") Long sessionId, @Param("isFavorite") Boolean isFavorite, @Param("now") LocalDateTime now);
+
+    /**
+     * Soft deletes an active session with a single UPDATE, without loading it.
+     *
+     * @param sessionId the ID of the chat session
+     * @param now       deletion timestamp written to {@code updated_at}
+     * @return {@code 1} if the session was active and is now deleted, {@code 0} otherwise
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.isDeleted = true, s.updatedAt = :now WHERE s.id = :sessionId AND s.isDeleted = false")
+    int softDeleteById(@Param("sessionId") Long sessionId, @Param("now") LocalDateTime now);
+
+    /**
+     * Retrieves the next soft-deleted sessions whose deletion is older than the cutoff.
+     *
+     * <p>
+     * Keyset-paginated on {@code (updated_at, id)} so successive chunks of a purge
+     * run seek past rows already visited on the {@code (is_deleted, updated_at)} index.
+     * </p>
+     *
+     * @param cutoff  only sessions deleted before this instant qualify
+     * @param afterTs deletion timestamp of the last candidate already visited
+     * @param afterId id of the last candidate already visited
+     * @param limit   chunk size
+     * @return purge candidates, oldest deletion first
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.PurgeCandidate(s.id, s.updatedAt) FROM ChatSession s "
+            + "WHERE s.isDeleted = true AND s.updatedAt < :cutoff "
+            + "AND (s.updatedAt > :afterTs OR (s.updatedAt = :afterTs AND s.id > :afterId)) "
+            + "ORDER BY s.updatedAt ASC, s.id ASC")
+    List<PurgeCandidate> findPurgeCandidates(@Param("cutoff") LocalDateTime cutoff, @Param("afterTs") LocalDateTime afterTs, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Flags an active session as archived, provided it still has the number of
+     * messages that were written to the archive. Locks the session row, so a
+     * concurrent append either completes first (and the counts differ) or waits
+     * and then no longer matches the session.
+     *
+     * @param sessionId    the ID of the chat session
+     * @param messageCount number of messages archived
+     * @return {@code 1} if the session was archived, {@code 0} if it changed or is gone
+     */
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.isArchived = true WHERE s.id = :sessionId AND s.isDeleted = false AND s.isArchived = false AND s.messageCount = :messageCount")
+    int markArchived(@Param("sessionId") Long sessionId, @Param("messageCount") long messageCount);
+
+    /**
+     * Clears the archived flag; the row lock it takes serializes concurrent restores.
+     *
+     * @param sessionId the ID of the chat session
+     * @return {@code 1} if this call restored the session, {@code 0} if it was not archived
+     */
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.isArchived = false WHERE s.id = :sessionId AND s.isArchived = true")
+    int markRestored(@Param("sessionId") Long sessionId);
+
+    /**
+     * Retrieves the next active, not yet archived sessions last updated before the cutoff.
+     *
+     * <p>
+     * Keyset-paginated on {@code (updated_at, id)} over the {@code (is_deleted, updated_at)} index.
+     * </p>
+     *
+     * @param cutoff  only sessions updated before this instant qualify
+     * @param afterTs update timestamp of the last candidate already visited
+     * @param afterId id of the last candidate already visited
+     * @param limit   chunk size
+     * @return archive candidates, least recently updated first
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.PurgeCandidate(s.id, s.updatedAt) FROM ChatSession s "
+            + "WHERE s.isDeleted = false AND s.isArchived = false AND s.updatedAt < :cutoff "
+            + "AND (s.updatedAt > :afterTs OR (s.updatedAt = :afterTs AND s.id > :afterId)) "
+            + "ORDER BY s.updatedAt ASC, s.id ASC")
+    List<PurgeCandidate> findArchiveCandidates(@Param("cutoff") LocalDateTime cutoff, @Param("afterTs") LocalDateTime afterTs, @Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Retrieves the soft-deleted session with the oldest deletion timestamp.
+     *
+     * @return the longest-deleted session, if any
+     */
+    Optional<ChatSession> findFirstByIsDeletedTrueOrderByUpdatedAtAsc();
 }
@@ -0,0 +1,44 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.ContextChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+/**
+ * Repository interface for managing {@link ContextChunk} entities.
+ *
+ * <p>
+ * Chunks are created and referenced by {@code MessageContextStore} with a batched
+ * upsert; this repository covers releasing references when messages are purged.
+ * </p>
+ */
+public interface ContextChunkRepository extends JpaRepository<ContextChunk, String> {
+
+    /**
+     * Drops the references the given messages hold on the given chunks.
+     * Must run before the reference rows are deleted, in the same transaction.
+     *
+     * @param messageIds messages being deleted
+     * @param hashes     chunks referenced by those messages
+     * @return number of chunks updated
+     */
+    @Modifying
+    @Query("UPDATE ContextChunk c SET c.refCount = c.refCount - " +
+            "(SELECT COUNT(r) FROM MessageContextChunk r WHERE r.chunkHash = c.hash AND r.messageId IN :messageIds) " +
+            "WHERE c.hash IN :hashes")
+    int releaseReferences(@Param("messageIds") Collection<Long> messageIds, @Param("hashes") Collection<String> hashes);
+
+    /**
+     * Deletes those of the given chunks that are no longer referenced.
+     *
+     * @param hashes candidate chunks
+     * @return number of chunks deleted
+     */
+    @Modifying
+    @Query("DELETE FROM ContextChunk c WHERE c.hash IN :hashes AND c.refCount <= 0")
+    int deleteUnreferenced(@Param("hashes") Collection<String> hashes);
+}
@@ -0,0 +1,45 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.MessageContextChunk;
+import com.example.RAGChatMicroservice.repository.projection.ContextChunkPart;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing {@link MessageContextChunk} references.
+ */
+public interface MessageContextChunkRepository extends JpaRepository<MessageContextChunk, MessageContextChunk.Key> {
+
+    /**
+     * Loads the context chunks of the given messages, ordered by message and position.
+     *
+     * @param messageIds message identifiers
+     * @return chunk texts with their owning message and position
+     */
+    @Query("SELECT new com.example.RAGChatMicroservice.repository.projection.ContextChunkPart(r.messageId, r.ordinal, c.content) " +
+            "FROM MessageContextChunk r JOIN ContextChunk c ON c.hash = r.chunkHash " +
+            "WHERE r.messageId IN :messageIds ORDER BY r.messageId, r.ordinal")
+    List<ContextChunkPart> findPartsByMessageIds(@Param("messageIds") Collection<Long> messageIds);
+
+    /**
+     * @param messageIds message identifiers
+     * @return distinct chunks referenced by the given messages
+     */
+    @Query("SELECT DISTINCT r.chunkHash FROM MessageContextChunk r WHERE r.messageId IN :messageIds")
+    List<String> findChunkHashesByMessageIds(@Param("messageIds") Collection<Long> messageIds);
+
+    /**
+     * Hard-deletes the chunk references of the given messages.
+     *
+     * @param messageIds message identifiers
+     * @return number of references deleted
+     */
+    @Modifying
+    @Query("DELETE FROM MessageContextChunk r WHERE r.messageId IN :messageIds")
+    int deleteByMessageIds(@Param("messageIds") Collection<Long> messageIds);
+}
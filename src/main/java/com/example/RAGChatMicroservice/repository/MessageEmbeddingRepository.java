@@ -0,0 +1,25 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.MessageEmbedding;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+/**
+ * Repository interface for managing {@link MessageEmbedding} entities.
+ */
+public interface MessageEmbeddingRepository extends JpaRepository<MessageEmbedding, Long> {
+
+    /**
+     * Hard-deletes the embeddings of the given messages.
+     *
+     * @param messageIds message identifiers
+     * @return number of embeddings deleted
+     */
+    @Modifying
+    @Query("DELETE FROM MessageEmbedding e WHERE e.messageId IN :messageIds")
+    int deleteByMessageIds(@Param("messageIds") Collection<Long> messageIds);
+}
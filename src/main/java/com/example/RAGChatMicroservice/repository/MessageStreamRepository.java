@@ -0,0 +1,51 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.MessageStream;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for open message streams ({@link MessageStream}).
+ *
+ * <p>
+ * All methods join the caller's transaction, which also writes the message content.
+ * </p>
+ */
+public interface MessageStreamRepository extends JpaRepository<MessageStream, Long> {
+
+    /**
+     * Records a flush of an open stream.
+     *
+     * @param messageId the ID of the streamed message
+     * @param now       time of the flush
+     * @return {@code 1} if the stream is still open, {@code 0} if it was closed or expired
+     */
+    @Modifying
+    @Query("UPDATE MessageStream s SET s.updatedAt = :now WHERE s.messageId = :messageId")
+    int touch(@Param("messageId") Long messageId, @Param("now") LocalDateTime now);
+
+    /**
+     * Closes a stream.
+     *
+     * @param messageId the ID of the streamed message
+     * @return {@code 1} if this call closed the stream, {@code 0} if it was already gone
+     */
+    @Modifying
+    @Query("DELETE FROM MessageStream s WHERE s.messageId = :messageId")
+    int deleteByMessageId(@Param("messageId") Long messageId);
+
+    /**
+     * Expires streams not flushed since the cutoff, typically left behind by a
+     * crashed instance. Their messages keep the content of the last flush.
+     *
+     * @param cutoff streams last flushed before this time are expired
+     * @return number of streams expired
+     */
+    @Modifying
+    @Query("DELETE FROM MessageStream s WHERE s.updatedAt < :cutoff")
+    int deleteIdleBefore(@Param("cutoff") LocalDateTime cutoff);
+}
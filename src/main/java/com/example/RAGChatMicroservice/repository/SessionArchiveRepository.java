@@ -0,0 +1,15 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.SessionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repository interface for the archive offset index ({@link SessionArchive}).
+ *
+ * <p>
+ * Entries are only accessed by session id (primary key), so the inherited
+ * {@code findById}, {@code save} and {@code deleteById} cover every use.
+ * </p>
+ */
+public interface SessionArchiveRepository extends JpaRepository<SessionArchive, Long> {
+}
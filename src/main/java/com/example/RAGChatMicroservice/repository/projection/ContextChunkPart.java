@@ -0,0 +1,11 @@
+package com.example.RAGChatMicroservice.repository.projection;
+
+/**
+ * One chunk of a message's RAG context, in context order.
+ *
+ * @param messageId owning message identifier
+ * @param ordinal   position of the chunk within the context
+ * @param content   chunk text
+ */
+public record ContextChunkPart(Long messageId, Integer ordinal, String content) {
+}
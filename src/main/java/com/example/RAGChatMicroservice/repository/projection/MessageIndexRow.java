@@ -0,0 +1,17 @@
+package com.example.RAGChatMicroservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A live message with the owner of its session, as fed to the search index.
+ *
+ * @param id        message identifier
+ * @param sessionId owning session
+ * @param userId    owner of the session, may be {@code null}
+ * @param sender    message sender
+ * @param content   message text
+ * @param createdAt creation timestamp
+ * @param embedding client-computed embedding, {@code null} if none
+ */
+public record MessageIndexRow(Long id, Long sessionId, String userId, String sender, String content, LocalDateTime createdAt, float[] embedding) {
+}
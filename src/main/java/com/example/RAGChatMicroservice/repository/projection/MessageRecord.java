@@ -0,0 +1,15 @@
+package com.example.RAGChatMicroservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Full read model of a chat message, with its RAG {@code context}, as streamed by exports.
+ *
+ * @param id        message identifier
+ * @param sender    message sender
+ * @param content   message text
+ * @param context   RAG context, {@code null} if none
+ * @param createdAt creation timestamp
+ */
+public record MessageRecord(Long id, String sender, String content, String context, LocalDateTime createdAt) {
+}
@@ -0,0 +1,19 @@
+package com.example.RAGChatMicroservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a chat message without its RAG {@code context}.
+ *
+ * <p>
+ * Selected through JPQL constructor expressions, without materializing
+ * entities; context is attached separately only when the caller asks for it.
+ * </p>
+ *
+ * @param id        message identifier
+ * @param sender    message sender
+ * @param content   message text
+ * @param createdAt creation timestamp
+ */
+public record MessageSummary(Long id, String sender, String content, LocalDateTime createdAt) {
+}
@@ -0,0 +1,11 @@
+package com.example.RAGChatMicroservice.repository.projection;
+
+/**
+ * Precomputed token counts of one message, read without its content.
+ *
+ * @param id                message identifier
+ * @param tokenCount        estimated tokens of the content, {@code null} if not computed
+ * @param contextTokenCount estimated tokens of the context, {@code null} if not computed
+ */
+public record MessageTokenCount(Long id, Integer tokenCount, Integer contextTokenCount) {
+}
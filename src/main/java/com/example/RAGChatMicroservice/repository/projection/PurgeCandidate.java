@@ -0,0 +1,12 @@
+package com.example.RAGChatMicroservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keyset position of a session visited by a background job (purge or archive).
+ *
+ * @param id        row identifier
+ * @param updatedAt {@code updated_at} of the row (the soft-deletion timestamp for purge candidates)
+ */
+public record PurgeCandidate(Long id, LocalDateTime updatedAt) {
+}
@@ -0,0 +1,13 @@
+package com.example.RAGChatMicroservice.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Maintained activity columns of a session, read without the rest of the row.
+ *
+ * @param messageCount  number of messages appended
+ * @param lastMessageAt creation time of the newest message, {@code null} without messages
+ * @param lastMessageId id of the newest message, {@code null} without messages
+ */
+public record SessionActivity(Long messageCount, LocalDateTime lastMessageAt, Long lastMessageId) {
+}
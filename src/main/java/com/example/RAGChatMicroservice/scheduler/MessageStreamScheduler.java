@@ -0,0 +1,51 @@
+package com.example.RAGChatMicroservice.scheduler;
+
+import com.example.RAGChatMicroservice.service.MessageStreamService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Flushes buffered tokens of streamed messages and expires abandoned streams on
+ * fixed delays.
+ *
+ * <p>
+ * Registered unless {@code app.message-streams.enabled=false}.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.message-streams", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class MessageStreamScheduler {
+
+    private final MessageStreamService streamService;
+
+    public MessageStreamScheduler(MessageStreamService streamService) {
+        this.streamService = streamService;
+    }
+
+    /**
+     * Writes buffered tokens that are due and closes idle streams of this instance.
+     */
+    @Scheduled(fixedDelayString = "${app.message-streams.flush-millis}")
+    public void flushStreams() {
+        try {
+            streamService.flushStreams();
+        } catch (Exception ex) {
+            log.error("Message stream flush failed", ex);
+        }
+    }
+
+    /**
+     * Expires streams no instance has flushed within the idle timeout.
+     */
+    @Scheduled(fixedDelayString = "${app.message-streams.idle-timeout-millis}", initialDelayString = "${app.message-streams.idle-timeout-millis}")
+    public void expireStreams() {
+        try {
+            streamService.expireStreams();
+        } catch (Exception ex) {
+            log.error("Message stream expiry failed", ex);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.RAGChatMicroservice.scheduler;
+
+import com.example.RAGChatMicroservice.service.serviceImpl.MessageSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Refreshes and commits {@link MessageSearchIndex} on fixed delays.
+ *
+ * <p>
+ * Only registered when {@code app.search.enabled=true}.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.search", name = "enabled", havingValue = "true")
+public class SearchIndexScheduler {
+
+    private final MessageSearchIndex searchIndex;
+
+    public SearchIndexScheduler(MessageSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Makes recently indexed messages searchable.
+     */
+    @Scheduled(fixedDelayString = "${app.search.refresh-millis}")
+    public void refresh() {
+        try {
+            searchIndex.refresh();
+        } catch (Exception ex) {
+            log.error("Search index refresh failed", ex);
+        }
+    }
+
+    /**
+     * Commits the index so a restart only has to catch up from the last commit.
+     */
+    @Scheduled(fixedDelayString = "${app.search.commit-millis}", initialDelayString = "${app.search.commit-millis}")
+    public void commit() {
+        try {
+            searchIndex.commit();
+        } catch (Exception ex) {
+            log.error("Search index commit failed", ex);
+        }
+    }
+}
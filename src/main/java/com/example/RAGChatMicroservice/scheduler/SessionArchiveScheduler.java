@@ -0,0 +1,45 @@
+package com.example.RAGChatMicroservice.scheduler;
+
+import com.example.RAGChatMicroservice.properties.ArchiveProperties;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Triggers {@link SessionArchiveService#archiveIdleSessions()} on a fixed delay.
+ *
+ * <p>
+ * Only registered when {@code app.archive.enabled=true}, and refuses to start
+ * unless {@code app.archive.single-node=true}. Restoring archived sessions does
+ * not depend on this scheduler.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.archive", name = "enabled", havingValue = "true")
+public class SessionArchiveScheduler {
+
+    private final SessionArchiveService archiveService;
+
+    public SessionArchiveScheduler(SessionArchiveService archiveService, ArchiveProperties properties) {
+        if (!properties.isSingleNode()) {
+            // Another instance would find the index entry but not the segment file
+            throw new IllegalStateException("app.archive.enabled=true requires app.archive.single-node=true: segment files must be readable by every instance");
+        }
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * Runs one archive pass; failures are logged and retried on the next tick.
+     */
+    @Scheduled(fixedDelayString = "${app.archive.interval-millis}", initialDelayString = "${app.archive.interval-millis}")
+    public void archiveIdleSessions() {
+        try {
+            archiveService.archiveIdleSessions();
+        } catch (Exception ex) {
+            log.error("Archive run failed", ex);
+        }
+    }
+}
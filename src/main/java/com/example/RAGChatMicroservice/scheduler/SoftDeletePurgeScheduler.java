@@ -0,0 +1,39 @@
+package com.example.RAGChatMicroservice.scheduler;
+
+import com.example.RAGChatMicroservice.service.SoftDeletePurgeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Triggers {@link SoftDeletePurgeService} on a fixed delay.
+ *
+ * <p>
+ * Only registered when {@code app.purge.enabled=true}. A fixed delay (rather than
+ * a fixed rate) guarantees runs never overlap.
+ * </p>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "app.purge", name = "enabled", havingValue = "true")
+public class SoftDeletePurgeScheduler {
+
+    private final SoftDeletePurgeService purgeService;
+
+    public SoftDeletePurgeScheduler(SoftDeletePurgeService purgeService) {
+        this.purgeService = purgeService;
+    }
+
+    /**
+     * Runs one purge pass; failures are logged and retried on the next tick.
+     */
+    @Scheduled(fixedDelayString = "${app.purge.interval-millis}", initialDelayString = "${app.purge.interval-millis}")
+    public void purgeSoftDeletedData() {
+        try {
+            purgeService.purge();
+        } catch (Exception ex) {
+            log.error("Purge run failed", ex);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.RAGChatMicroservice.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Service interface for exporting conversations as NDJSON, one message per line.
+ *
+ * <p>
+ * Each line is a self-contained JSON object with the session ({@code sessionId},
+ * {@code userId}, {@code sessionName}) and the message ({@code messageId},
+ * {@code sender}, {@code content}, {@code context}, {@code createdAt}); messages
+ * of a session are in id order. Bodies are written while the messages are read,
+ * so memory use does not depend on the size of the export.
+ * </p>
+ */
+public interface ChatExportService {
+
+    /**
+     * Exports all messages of one session.
+     *
+     * @param sessionId chat session identifier
+     * @return body writing the session's messages
+     * @throws com.example.RAGChatMicroservice.exception.ResourceNotFoundException if the session does not exist or is deleted
+     */
+    StreamingResponseBody exportSession(Long sessionId);
+
+    /**
+     * Exports the messages of all active sessions of a user, newest session first,
+     * or of all active sessions in id order when no user is given.
+     *
+     * @param userId owner of the sessions, {@code null} for a bulk export of every session
+     * @return body writing the sessions' messages
+     * @throws IllegalArgumentException if the user id is blank
+     */
+    StreamingResponseBody exportSessions(String userId);
+}
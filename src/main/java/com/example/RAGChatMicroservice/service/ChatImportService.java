@@ -0,0 +1,48 @@
+package com.example.RAGChatMicroservice.service;
+
+import com.example.RAGChatMicroservice.dto.response.ImportStatusResponse;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for bulk imports of conversations from NDJSON, one message per line.
+ *
+ * <p>
+ * Lines have the shape written by {@link ChatExportService}. Each distinct
+ * {@code sessionId} of an import becomes one new session; messages keep their
+ * order within it. The body is read incrementally and stored in batches of
+ * {@code app.import.batch-size} lines, one transaction each, so memory use does
+ * not depend on the size of the import.
+ * </p>
+ *
+ * <p>
+ * Imports are identified by a client-chosen id. Each committed batch advances the
+ * import's checkpoint; when an import fails, sending the same body again with the
+ * same id skips the committed lines and continues after them. Lines are counted
+ * as JSON values, so blank lines do not count.
+ * </p>
+ */
+public interface ChatImportService {
+
+    /**
+     * Imports (or resumes importing) an NDJSON body.
+     *
+     * @param importId client-chosen import identifier, reused to resume
+     * @param body     NDJSON request body, read up to its end
+     * @return progress of the import after the last line
+     * @throws IllegalArgumentException if the import id is invalid, or a line is
+     *                                  malformed or invalid (earlier batches stay committed)
+     * @throws com.example.RAGChatMicroservice.exception.ImportConflictException if the same import is
+     *                                  running concurrently
+     */
+    ImportStatusResponse importMessages(String importId, InputStream body);
+
+    /**
+     * Reports the progress of an import.
+     *
+     * @param importId import identifier
+     * @return progress of the import
+     * @throws com.example.RAGChatMicroservice.exception.ResourceNotFoundException if the import was never started
+     */
+    ImportStatusResponse getImportStatus(String importId);
+}
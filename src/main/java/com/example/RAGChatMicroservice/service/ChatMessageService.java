@@ -1,6 +1,7 @@
 package com.example.RAGChatMicroservice.service;
 
 import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.BatchAddMessageRequest;
 import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
 
 /**
@@ -17,13 +18,80 @@ public interface ChatMessageService {
      */
     SessionMessageResponse addMessage(Long sessionId, AddMessageRequest request);
 
+    /**
+     * Adds several messages to a chat session in a single transaction.
+     *
+     * <p>
+     * The session is validated once and all messages are inserted as one
+     * JDBC batch. Messages are returned in request order with their generated IDs.
+     * </p>
+     *
+     * @param sessionId the ID of the chat session
+     * @param request   the request payload containing the messages to append
+     * @return a {@link SessionMessageResponse} with the persisted messages
+     */
+    SessionMessageResponse addMessages(Long sessionId, BatchAddMessageRequest request);
+
     /**
      * Retrieves messages of a chat session with pagination.
      *
      * @param sessionId the ID of the chat session
      * @param page      the page number (starting from 0)
      * @param size      the number of messages per page
+     * @param fields    comma-separated message fields to return ({@code id, sender, content,
+     *                  context, createdAt}); {@code null} or blank returns all fields
      * @return a {@link SessionMessageResponse} containing paginated messages
      */
-    SessionMessageResponse getMessages(Long sessionId, int page, int size);
+    SessionMessageResponse getMessages(Long sessionId, int page, int size, String fields);
+
+    /**
+     * Retrieves messages of a chat session as a slice, without counting all rows.
+     *
+     * @param sessionId    the ID of the chat session
+     * @param page         the page number (starting from 0)
+     * @param size         the number of messages per page
+     * @param includeTotal whether to include the session's maintained message count
+     * @param fields       comma-separated message fields to return; {@code null} or blank returns all fields
+     * @return a {@link SessionMessageResponse} with the messages and a {@code hasNext} flag
+     */
+    SessionMessageResponse getMessagesSlice(Long sessionId, int page, int size, boolean includeTotal, String fields);
+
+    /**
+     * Retrieves messages of a chat session using keyset (cursor) pagination.
+     *
+     * <p>
+     * Exactly one direction is used: {@code after} reads forward from a cursor
+     * (or from the oldest message when blank), {@code before} reads backward from
+     * a cursor (or from the newest message when blank). When neither is given the
+     * read starts at the oldest message. Messages are always returned in
+     * chronological order.
+     * </p>
+     *
+     * @param sessionId the ID of the chat session
+     * @param after     cursor to read forward from, may be {@code null} or blank
+     * @param before    cursor to read backward from, may be {@code null} or blank
+     * @param limit     maximum number of messages to return
+     * @param fields    comma-separated message fields to return; {@code null} or blank returns all fields
+     * @return a {@link SessionMessageResponse} containing the messages and the next cursor
+     */
+    SessionMessageResponse getMessagesByCursor(Long sessionId, String after, String before, int limit, String fields);
+
+    /**
+     * Retrieves the newest messages of a chat session that fit a token budget,
+     * for building a model prompt.
+     *
+     * <p>
+     * Each message costs its estimated content tokens plus a fixed per-message
+     * overhead, and its context tokens when context is included. Messages are
+     * taken newest first until the next one would exceed the budget, and are
+     * returned in chronological order. {@code nextCursor} reads the older
+     * messages left out with {@code before=}.
+     * </p>
+     *
+     * @param sessionId      the ID of the chat session
+     * @param maxTokens      the token budget
+     * @param includeContext whether message context is returned and counted
+     * @return a {@link SessionMessageResponse} with the messages and the tokens they use
+     */
+    SessionMessageResponse getMessageWindow(Long sessionId, int maxTokens, boolean includeContext);
 }
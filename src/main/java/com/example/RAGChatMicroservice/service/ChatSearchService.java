@@ -0,0 +1,33 @@
+package com.example.RAGChatMicroservice.service;
+
+import com.example.RAGChatMicroservice.dto.request.SimilarMessagesRequest;
+import com.example.RAGChatMicroservice.dto.response.SearchHitResponse;
+
+import java.util.List;
+
+/**
+ * Service interface for full-text and similarity search over a user's chat history.
+ */
+public interface ChatSearchService {
+
+    /**
+     * Searches the messages of a user's active sessions.
+     *
+     * @param userId owner of the sessions
+     * @param query  search text ({@code "phrase"}, {@code -term}, {@code prefix*} are supported)
+     * @param limit  maximum number of hits
+     * @return matching messages by descending relevance, with highlights
+     * @throws IllegalArgumentException if a parameter is missing or out of range
+     */
+    List<SearchHitResponse> search(String userId, String query, int limit);
+
+    /**
+     * Finds the messages of a user's active sessions whose embeddings are closest
+     * to the query embedding. Only messages sent with an embedding take part.
+     *
+     * @param request owner, query embedding and number of hits (default 10)
+     * @return the most similar messages by descending similarity, with their content
+     * @throws IllegalArgumentException if a parameter is missing or out of range
+     */
+    List<SearchHitResponse> findSimilar(SimilarMessagesRequest request);
+}
@@ -2,6 +2,7 @@ package com.example.RAGChatMicroservice.service;
 
 import com.example.RAGChatMicroservice.dto.request.CreateSessionRequest;
 import com.example.RAGChatMicroservice.dto.request.RenameSessionRequest;
+import com.example.RAGChatMicroservice.dto.response.SessionListResponse;
 import com.example.RAGChatMicroservice.dto.response.SessionResponse;
 
 import java.util.List;
@@ -42,6 +43,30 @@ public interface ChatSessionService {
      */
     List<SessionResponse> getAllSessions(int page, int size);
 
+    /**
+     * Retrieves active chat sessions as a slice, without counting all rows.
+     *
+     * @param page         zero-based page index
+     * @param size         number of records per page
+     * @param includeTotal whether to include the approximate total of active sessions
+     *                     (see {@code ActiveSessionCounter})
+     * @return {@link SessionListResponse} with the sessions and a {@code hasNext} flag
+     */
+    SessionListResponse getSessionsSlice(int page, int size, boolean includeTotal);
+
+    /**
+     * Retrieves one page of a user's active chat sessions using keyset pagination.
+     *
+     * @param userId owner of the sessions
+     * @param sortBy {@code updatedAt}, {@code createdAt}, {@code favorite} (favorites first) or
+     *               {@code lastMessageAt} (most recent message first, sessions without messages last)
+     * @param cursor opaque cursor from the previous page, or {@code null} for the first page
+     * @param limit  maximum number of sessions to return
+     * @return {@link SessionListResponse} with the sessions, {@code hasNext} and {@code nextCursor}
+     * @throws IllegalArgumentException if a parameter or the cursor is invalid
+     */
+    SessionListResponse getUserSessions(String userId, String sortBy, String cursor, int limit);
+
     /**
      * Renames an existing chat session.
      *
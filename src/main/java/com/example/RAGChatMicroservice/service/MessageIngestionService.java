@@ -0,0 +1,31 @@
+package com.example.RAGChatMicroservice.service;
+
+import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
+
+/**
+ * Service interface for write-behind message ingestion.
+ *
+ * <p>
+ * Accepted messages are queued in process and committed in groups by a
+ * background writer; callers are acknowledged once their group is durable.
+ * </p>
+ */
+public interface MessageIngestionService {
+
+    /**
+     * Whether appends should be routed through this service.
+     *
+     * @return {@code true} if write-behind ingestion is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Queues a message for a chat session and waits until it has been committed.
+     *
+     * @param sessionId the ID of the chat session
+     * @param request   the request payload containing message details
+     * @return a {@link SessionMessageResponse} with the persisted message
+     */
+    SessionMessageResponse addMessage(Long sessionId, AddMessageRequest request);
+}
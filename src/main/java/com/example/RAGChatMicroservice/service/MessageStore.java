@@ -0,0 +1,114 @@
+package com.example.RAGChatMicroservice.service;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.MessageTokenCount;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Storage backend for chat messages and their RAG context.
+ * <p>
+ * Sessions (existence, flags, message counter) always live in the database;
+ * callers validate the session and bump its counter before appending. Within a
+ * session, message ids increase in append order and all reads are ordered by id.
+ * Selected with {@code app.message-store.type}. Backends that can change
+ * stored messages also implement {@link MutableMessageStore}.
+ * </p>
+ */
+public interface MessageStore {
+
+    /**
+     * Appends messages, assigning their ids, and stores their context.
+     *
+     * @param messages new messages with session, sender, content, context and creation time
+     * @return the same messages with ids, in the given order
+     */
+    List<ChatMessage> saveAll(List<ChatMessage> messages);
+
+    /**
+     * Reads one page of a session's messages, without context.
+     *
+     * @param sessionId chat session identifier
+     * @param pageable  page request, ordered by id
+     * @return page of message summaries with the total count
+     */
+    Page<MessageSummary> findSummaries(Long sessionId, Pageable pageable);
+
+    /**
+     * Reads one slice of a session's messages, without context and without counting them.
+     *
+     * @param sessionId chat session identifier
+     * @param pageable  page request, ordered by id
+     * @return slice of message summaries
+     */
+    Slice<MessageSummary> findSummarySlice(Long sessionId, Pageable pageable);
+
+    /**
+     * Reads messages newer than the given id.
+     *
+     * @param sessionId chat session identifier
+     * @param id        exclusive lower bound ({@code 0} for the first page)
+     * @param limit     maximum number of messages
+     * @return summaries ordered by ascending id
+     */
+    List<MessageSummary> findSummariesAfter(Long sessionId, long id, Limit limit);
+
+    /**
+     * Reads messages older than the given id.
+     *
+     * @param sessionId chat session identifier
+     * @param id        exclusive upper bound ({@link Long#MAX_VALUE} for the tail)
+     * @param limit     maximum number of messages
+     * @return summaries ordered by descending id
+     */
+    List<MessageSummary> findSummariesBefore(Long sessionId, long id, Limit limit);
+
+    /**
+     * Reads the estimated token counts of messages older than the given id,
+     * without their content.
+     *
+     * @param sessionId chat session identifier
+     * @param id        exclusive upper bound ({@link Long#MAX_VALUE} for the tail)
+     * @param limit     maximum number of messages
+     * @return token counts ordered by descending id; counts are {@code null} for
+     * messages stored before counts were recorded
+     */
+    List<MessageTokenCount> findTokenCountsBefore(Long sessionId, long id, Limit limit);
+
+    /**
+     * Reads the context of messages of one session.
+     *
+     * @param sessionId  chat session identifier
+     * @param messageIds message identifiers
+     * @return context by message id; messages without context are absent
+     */
+    Map<Long, String> findContexts(Long sessionId, Collection<Long> messageIds);
+
+    /**
+     * Streams every message of a session, with context, in id order. Messages are
+     * handed over as they are read, so memory use does not grow with the session.
+     *
+     * @param sessionId chat session identifier
+     * @param action    receives each message; exceptions it throws abort the read
+     */
+    void forEachMessage(Long sessionId, Consumer<MessageRecord> action);
+
+    /**
+     * Drops what the backend keeps for a session after the purge hard-deleted it.
+     * Message rows in the database are deleted by the purge itself, so this does
+     * nothing by default.
+     *
+     * @param sessionId purged session identifier
+     */
+    default void deleteSession(Long sessionId) {
+    }
+}
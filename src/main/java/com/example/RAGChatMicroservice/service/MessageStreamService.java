@@ -0,0 +1,73 @@
+package com.example.RAGChatMicroservice.service;
+
+import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.MessageDeltaRequest;
+import com.example.RAGChatMicroservice.dto.response.MessageStreamResponse;
+import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
+
+/**
+ * Service interface for messages whose content arrives token by token, such as
+ * assistant answers streamed from an LLM.
+ *
+ * <p>
+ * A message is opened (stored right away, usually with empty content), receives
+ * any number of appends and is closed. Appends are buffered in memory and written
+ * to the stored message at most every {@code app.message-streams.flush-millis}
+ * (sooner once {@code flush-chars} are pending), so message reads see the partial
+ * content with a bounded delay and a crash loses at most that interval. The
+ * message is indexed for search when it is closed.
+ * </p>
+ *
+ * <p>
+ * Buffers live on the instance that opened the message: appends and the close
+ * must reach that instance. Streams without appends for
+ * {@code idle-timeout-millis} are closed with the content they have.
+ * </p>
+ */
+public interface MessageStreamService {
+
+    /**
+     * Opens a new message for streaming.
+     *
+     * @param sessionId chat session identifier
+     * @param request   sender, optional initial content and context (embedding not accepted)
+     * @return response containing the stored message with its id
+     * @throws com.example.RAGChatMicroservice.exception.ResourceNotFoundException if the session does not exist or is deleted
+     * @throws IllegalArgumentException                                            if streaming is disabled or unsupported by the message store
+     */
+    SessionMessageResponse openMessage(Long sessionId, AddMessageRequest request);
+
+    /**
+     * Appends tokens to an open message.
+     *
+     * @param sessionId chat session identifier
+     * @param messageId identifier of the open message
+     * @param request   the tokens to append
+     * @return lengths appended and persisted so far
+     * @throws com.example.RAGChatMicroservice.exception.ResourceNotFoundException if the message is not open on this instance
+     * @throws IllegalArgumentException                                            if the delta is missing or the content grows too long
+     */
+    MessageStreamResponse appendMessage(Long sessionId, Long messageId, MessageDeltaRequest request);
+
+    /**
+     * Appends the last tokens, writes the final content and closes the message.
+     *
+     * @param sessionId chat session identifier
+     * @param messageId identifier of the open message
+     * @param request   optional last tokens and embedding of the final content
+     * @return response containing the complete message
+     * @throws com.example.RAGChatMicroservice.exception.ResourceNotFoundException if the message is not open on this instance
+     */
+    SessionMessageResponse closeMessage(Long sessionId, Long messageId, MessageDeltaRequest request);
+
+    /**
+     * Writes buffered tokens that are due and closes idle streams. Called by the scheduler.
+     */
+    void flushStreams();
+
+    /**
+     * Expires open streams that were not flushed within the idle timeout on any
+     * instance, such as streams of a crashed instance. Called by the scheduler.
+     */
+    void expireStreams();
+}
@@ -0,0 +1,29 @@
+package com.example.RAGChatMicroservice.service;
+
+/**
+ * Capability of a {@link MessageStore} whose stored messages can be changed
+ * after they were appended. Append-only backends do not implement it; only
+ * present with {@code app.message-store.type=jpa}.
+ */
+public interface MutableMessageStore {
+
+    /**
+     * Replaces the content of a stored message, for messages whose content is
+     * streamed in after they were appended.
+     *
+     * @param sessionId chat session identifier
+     * @param messageId message identifier
+     * @param content   the full content
+     * @return {@code false} if the message no longer exists
+     */
+    boolean updateContent(Long sessionId, Long messageId, String content);
+
+    /**
+     * Stores the embedding of a message that was appended without one, for
+     * streamed messages whose embedding arrives when they are closed.
+     *
+     * @param messageId message identifier
+     * @param embedding client-computed embedding
+     */
+    void saveEmbedding(Long messageId, float[] embedding);
+}
@@ -0,0 +1,41 @@
+package com.example.RAGChatMicroservice.service;
+
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for the cold-session archive tier.
+ * <p>
+ * Messages of sessions that have been idle for a while are moved out of the hot
+ * tables into compressed segment files. Archived sessions remain readable and
+ * are restored into the hot tables on their next write.
+ * </p>
+ */
+public interface SessionArchiveService {
+
+    /**
+     * Runs one archiving pass over idle sessions.
+     *
+     * @return number of sessions archived
+     */
+    int archiveIdleSessions();
+
+    /**
+     * Reads the messages of an archived session.
+     *
+     * @param sessionId chat session identifier
+     * @return all messages (with context) in id order, or empty if the session is not archived
+     */
+    Optional<List<MessageResponse>> findArchivedMessages(Long sessionId);
+
+    /**
+     * Moves an archived session's messages back into the hot tables. Joins the
+     * caller's transaction, so it commits or rolls back with the write that needed it.
+     *
+     * @param sessionId chat session identifier
+     * @return {@code true} if the session was archived and has been restored
+     */
+    boolean restore(Long sessionId);
+}
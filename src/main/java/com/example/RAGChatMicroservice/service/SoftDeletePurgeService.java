@@ -0,0 +1,18 @@
+package com.example.RAGChatMicroservice.service;
+
+/**
+ * Service interface for hard-deleting soft-deleted chat data.
+ * <p>
+ * Soft-deleted rows stay in the hot tables until they are older than the
+ * configured retention period; this service removes them in small chunks.
+ * </p>
+ */
+public interface SoftDeletePurgeService {
+
+    /**
+     * Runs one throttled purge pass.
+     *
+     * @return number of rows hard-deleted (sessions and messages)
+     */
+    long purge();
+}
@@ -0,0 +1,74 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import org.springframework.stereotype.Component;
+
+import static com.example.RAGChatMicroservice.constants.SessionConstants.SESSION_COUNT_REFRESH_MILLIS;
+
+/**
+ * Maintained total of active (non-deleted) chat sessions.
+ *
+ * <p>
+ * Serves session totals without a {@code COUNT(*)} on every listing. The value
+ * is seeded from the database, adjusted locally on create and delete, and
+ * re-seeded once it is older than {@code SESSION_COUNT_REFRESH_MILLIS}, which
+ * bounds the drift caused by writes on other service instances.
+ * </p>
+ *
+ * <p>
+ * The total is therefore approximate, and the API says so. An exact counter row
+ * would be updated by every session create and delete and serialize them on
+ * one row lock.
+ * </p>
+ */
+@Component
+public class ActiveSessionCounter {
+
+    private final ChatSessionRepository sessionRepo;
+
+    /**
+     * Cached total; {@code -1} until first seeded.
+     */
+    private long count = -1;
+
+    /**
+     * Timestamp of the last database seed in milliseconds.
+     */
+    private long seededAt;
+
+    public ActiveSessionCounter(ChatSessionRepository sessionRepo) {
+        this.sessionRepo = sessionRepo;
+    }
+
+    /**
+     * Returns the number of active sessions, re-seeding from the database when stale.
+     *
+     * @return number of active sessions
+     */
+    public synchronized long get() {
+        long now = System.currentTimeMillis();
+        if (count < 0 || now - seededAt >= SESSION_COUNT_REFRESH_MILLIS) {
+            count = sessionRepo.countByIsDeletedFalse();
+            seededAt = now;
+        }
+        return count;
+    }
+
+    /**
+     * Records a newly created session.
+     */
+    public synchronized void increment() {
+        if (count >= 0) {
+            count++;
+        }
+    }
+
+    /**
+     * Records a deleted session.
+     */
+    public synchronized void decrement() {
+        if (count > 0) {
+            count--;
+        }
+    }
+}
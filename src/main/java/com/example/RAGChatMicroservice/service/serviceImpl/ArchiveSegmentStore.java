@@ -0,0 +1,152 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.properties.ArchiveProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only segment files on local disk holding archived session records.
+ *
+ * <p>
+ * Records are appended to the newest segment and forced to disk before their
+ * location is returned; a segment is never modified afterwards. A new segment
+ * is started once the current one would grow past {@code maxSegmentBytes}.
+ * Reads memory-map a segment once and copy the requested record out of the
+ * mapping; the newest segment is re-mapped when it has grown past its mapping.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ArchiveSegmentStore {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{6})\\.seg");
+
+    private final Path directory;
+
+    private final long maxSegmentBytes;
+
+    private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    private FileChannel active;
+
+    private int activeNo;
+
+    public ArchiveSegmentStore(ArchiveProperties properties) {
+        if (properties.getMaxSegmentBytes() <= 0 || properties.getMaxSegmentBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("app.archive.max-segment-bytes must be between 1 and " + Integer.MAX_VALUE);
+        }
+        this.directory = Path.of(properties.getDirectory());
+        this.maxSegmentBytes = properties.getMaxSegmentBytes();
+    }
+
+    /**
+     * Appends a record and makes it durable.
+     *
+     * @param record encoded record
+     * @return where the record was written
+     * @throws UncheckedIOException if the segment cannot be written
+     */
+    public synchronized Location append(byte[] record) {
+        try {
+            if (active == null) {
+                open(lastSegmentNo());
+            }
+            if (active.size() > 0 && active.size() + record.length > maxSegmentBytes) {
+                active.close();
+                open(activeNo + 1);
+            }
+            long offset = active.size();
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                active.write(buffer);
+            }
+            active.force(false);
+            return new Location(activeNo, offset, record.length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to append to archive segment " + activeNo, ex);
+        }
+    }
+
+    /**
+     * Reads a record through a memory mapping of its segment.
+     *
+     * @param segmentNo segment number
+     * @param offset    record offset within the segment
+     * @param length    record length
+     * @return copy of the record bytes
+     * @throws UncheckedIOException if the segment cannot be read or is shorter than expected
+     */
+    public byte[] read(int segmentNo, long offset, int length) {
+        MappedByteBuffer mapping = mappings.compute(segmentNo, (no, current) -> current != null && current.capacity() >= offset + length ? current : map(no));
+        if (mapping.capacity() < offset + length) {
+            throw new UncheckedIOException(new IOException("Archive segment " + segmentNo + " is truncated"));
+        }
+        byte[] record = new byte[length];
+        mapping.get((int) offset, record);
+        return record;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            active.close();
+            active = null;
+        }
+    }
+
+    private void open(int segmentNo) throws IOException {
+        Files.createDirectories(directory);
+        active = FileChannel.open(segmentPath(segmentNo), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeNo = segmentNo;
+        log.info("Opened archive segment | segment={} | bytes={}", segmentNo, active.size());
+    }
+
+    private MappedByteBuffer map(int segmentNo) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentNo), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to map archive segment " + segmentNo, ex);
+        }
+    }
+
+    /**
+     * @return number of the newest existing segment, {@code 1} if there is none
+     */
+    private int lastSegmentNo() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 1;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToInt(matcher -> Integer.parseInt(matcher.group(1)))
+                    .max()
+                    .orElse(1);
+        }
+    }
+
+    private Path segmentPath(int segmentNo) {
+        return directory.resolve(String.format("segment-%06d.seg", segmentNo));
+    }
+
+    /**
+     * Position of a record in the segment files.
+     */
+    public record Location(int segmentNo, long offset, int length) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.service.ChatExportService;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import com.example.RAGChatMicroservice.service.serviceImpl.SessionCache.CachedSession;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.RAGChatMicroservice.constants.SessionConstants.ERROR_MISSING_USER_ID;
+
+/**
+ * Implementation of {@link ChatExportService}.
+ *
+ * <p>
+ * Messages are streamed from the {@link MessageStore} (a forward-only cursor for
+ * the database backend) straight into a Jackson {@link JsonGenerator} on the
+ * response stream, one read-only transaction per session, so exports read from a
+ * replica when one is configured. Sessions are listed in keyset pages. Archived
+ * sessions are read from the archive tier, one session at a time.
+ * </p>
+ *
+ * <p>
+ * A failure after the first line cannot change the response status; the
+ * response is cut short and the error logged.
+ * </p>
+ */
+@Service
+@Slf4j
+public class ChatExportServiceImpl implements ChatExportService {
+
+    private static final int SESSION_PAGE_SIZE = 100;
+
+    /**
+     * Far-future creation timestamp that starts a newest-first keyset walk.
+     */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final MessageStore messageStore;
+
+    private final ChatSessionRepository sessionRepo;
+
+    private final SessionCache sessionCache;
+
+    private final SessionArchiveService archiveService;
+
+    private final JsonFactory jsonFactory;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ChatExportServiceImpl(MessageStore messageStore, ChatSessionRepository sessionRepo, SessionCache sessionCache, SessionArchiveService archiveService,
+                                 ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.messageStore = messageStore;
+        this.sessionRepo = sessionRepo;
+        this.sessionCache = sessionCache;
+        this.archiveService = archiveService;
+        this.jsonFactory = objectMapper.getFactory();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public StreamingResponseBody exportSession(Long sessionId) {
+
+        // Checked before streaming so an unknown session is still a 404
+        CachedSession session = sessionCache.findActive(sessionId)
+                .orElseThrow(() -> new ResourceNotFoundException("Chat session not found with id: " + sessionId));
+
+        log.info("Exporting session | sessionId={}", sessionId);
+
+        return out -> {
+            try (JsonGenerator generator = createGenerator(out)) {
+                writeSession(generator, session);
+            }
+        };
+    }
+
+    @Override
+    public StreamingResponseBody exportSessions(String userId) {
+
+        if (userId != null && userId.isBlank()) {
+            throw new IllegalArgumentException(ERROR_MISSING_USER_ID);
+        }
+
+        log.info("Exporting sessions | userId={}", userId == null ? "<all>" : userId);
+
+        return out -> {
+            int sessions = 0;
+            try (JsonGenerator generator = createGenerator(out)) {
+                List<ChatSession> page = nextSessions(userId, null);
+                while (!page.isEmpty()) {
+                    for (ChatSession session : page) {
+                        writeSession(generator, CachedSession.of(session));
+                    }
+                    sessions += page.size();
+                    page = page.size() < SESSION_PAGE_SIZE ? List.of() : nextSessions(userId, page.get(page.size() - 1));
+                }
+            }
+            log.info("Exported sessions | userId={} | sessions={}", userId == null ? "<all>" : userId, sessions);
+        };
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    /**
+     * Reads the next keyset page of sessions to export.
+     *
+     * @param last last session of the previous page, {@code null} for the first page
+     */
+    private List<ChatSession> nextSessions(String userId, ChatSession last) {
+        Limit limit = Limit.of(SESSION_PAGE_SIZE);
+        return readOnlyTransaction.execute(status -> userId == null
+                ? sessionRepo.findActiveSessionsAfter(last == null ? 0L : last.getId(), limit)
+                : sessionRepo.findUserSessionsByCreatedAtBefore(userId, last == null ? KEYSET_START : last.getCreatedAt(), last == null ? Long.MAX_VALUE : last.getId(), limit));
+    }
+
+    private void writeSession(JsonGenerator generator, CachedSession session) throws IOException {
+        try {
+            Optional<List<MessageResponse>> archived = session.isArchived() ? archiveService.findArchivedMessages(session.id()) : Optional.empty();
+            if (archived.isEmpty()) {
+                long[] written = new long[1];
+                readOnlyTransaction.executeWithoutResult(status -> messageStore.forEachMessage(session.id(), message -> {
+                    writeMessage(generator, session, message);
+                    written[0]++;
+                }));
+                if (written[0] == 0 && !session.isArchived()) {
+                    // A session cached as not archived may have been archived since, possibly by another instance
+                    archived = archiveService.findArchivedMessages(session.id());
+                }
+            }
+            for (MessageResponse message : archived.orElse(List.of())) {
+                writeMessage(generator, session, new MessageRecord(message.getMessageId(), message.getSender(), message.getContent(), message.getContext(), message.getCreatedAt()));
+            }
+        } catch (UncheckedIOException ex) {
+            // Typically the client went away
+            throw ex.getCause();
+        }
+        generator.flush();
+    }
+
+    private static void writeMessage(JsonGenerator generator, CachedSession session, MessageRecord message) {
+        try {
+            generator.writeStartObject();
+            generator.writeNumberField("sessionId", session.id());
+            if (session.userId() != null) {
+                generator.writeStringField("userId", session.userId());
+            }
+            generator.writeStringField("sessionName", session.sessionName());
+            generator.writeNumberField("messageId", message.id());
+            generator.writeStringField("sender", message.sender());
+            generator.writeStringField("content", message.content());
+            if (message.context() != null) {
+                generator.writeStringField("context", message.context());
+            }
+            generator.writeStringField("createdAt", DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(message.createdAt()));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = jsonFactory.createGenerator(out);
+        // Lines are terminated explicitly; the servlet container owns the stream
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+}
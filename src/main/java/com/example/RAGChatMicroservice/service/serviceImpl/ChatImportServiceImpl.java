@@ -0,0 +1,373 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.ImportMessageLine;
+import com.example.RAGChatMicroservice.dto.response.ImportStatusResponse;
+import com.example.RAGChatMicroservice.entity.ChatImport;
+import com.example.RAGChatMicroservice.entity.ChatImportSession;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.exception.ImportConflictException;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.ImportProperties;
+import com.example.RAGChatMicroservice.repository.ChatImportRepository;
+import com.example.RAGChatMicroservice.repository.ChatImportSessionRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.service.ChatImportService;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.example.RAGChatMicroservice.constants.ImportConstants.*;
+
+/**
+ * Implementation of {@link ChatImportService}.
+ *
+ * <p>
+ * The body is parsed value by value with a Jackson {@link MappingIterator}, and
+ * lines are collected into batches. Each batch is stored in one transaction:
+ * <ol>
+ *     <li>Source sessions seen in earlier batches are resolved through
+ *     {@code chat_import_sessions}; their counters are bumped with the same
+ *     conditional UPDATE (and archive restore) as regular appends</li>
+ *     <li>New sessions are inserted with one JDBC batch, with their final message
+ *     count, returning the generated ids (Hibernate cannot batch inserts of
+ *     entities with IDENTITY ids)</li>
+ *     <li>The checkpoint advances with a conditional UPDATE, which also fences off
+ *     a concurrent run of the same import</li>
+ *     <li>Messages are appended through the {@link MessageStore}; the database
+ *     backend reserves their ids in one range from {@link MessageIdAllocator}
+ *     and batches the inserts</li>
+ * </ol>
+ * A batch that fails rolls back as a whole, so the checkpoint always matches the
+ * stored lines. The log message store writes outside the transaction: if the
+ * commit fails after its append, a resume stores that batch again.
+ * </p>
+ */
+@Service
+@Slf4j
+public class ChatImportServiceImpl implements ChatImportService {
+
+    private static final String INSERT_SESSION_SQL = "INSERT INTO chat_sessions "
+            + "(user_id, session_name, is_favorite, message_count, is_archived, created_at, updated_at, is_deleted) "
+            + "VALUES (?, ?, FALSE, ?, FALSE, ?, ?, FALSE)";
+
+    private final MessageStore messageStore;
+
+    private final ChatSessionRepository sessionRepo;
+
+    private final ChatImportRepository importRepo;
+
+    private final ChatImportSessionRepository importSessionRepo;
+
+    private final SessionArchiveService archiveService;
+
+    private final ActiveSessionCounter sessionCounter;
+
+    private final RecentMessageBuffer recentMessages;
+
+    private final MessageSearchIndex searchIndex;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectReader lineReader;
+
+    private final TransactionTemplate transaction;
+
+    private final int batchSize;
+
+    public ChatImportServiceImpl(MessageStore messageStore, ChatSessionRepository sessionRepo, ChatImportRepository importRepo, ChatImportSessionRepository importSessionRepo,
+                                 SessionArchiveService archiveService, ActiveSessionCounter sessionCounter, RecentMessageBuffer recentMessages, MessageSearchIndex searchIndex,
+                                 JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, PlatformTransactionManager transactionManager, ImportProperties properties) {
+        this.messageStore = messageStore;
+        this.sessionRepo = sessionRepo;
+        this.importRepo = importRepo;
+        this.importSessionRepo = importSessionRepo;
+        this.archiveService = archiveService;
+        this.sessionCounter = sessionCounter;
+        this.recentMessages = recentMessages;
+        this.searchIndex = searchIndex;
+        this.jdbcTemplate = jdbcTemplate;
+        this.lineReader = objectMapper.readerFor(ImportMessageLine.class);
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = properties.getBatchSize();
+    }
+
+    @Override
+    public ImportStatusResponse importMessages(String importId, InputStream body) {
+
+        validateImportId(importId);
+        long resumeAfter = findOrCreateCheckpoint(importId).getLinesCommitted();
+
+        log.info("Importing messages | importId={} | resumeAfter={}", importId, resumeAfter);
+
+        long lineNumber = 0;
+        long committed = resumeAfter;
+        List<ImportMessageLine> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<ImportMessageLine> lines = lineReader.readValues(body)) {
+            while (lines.hasNextValue()) {
+                ImportMessageLine line = lines.nextValue();
+                lineNumber++;
+                if (lineNumber <= resumeAfter) {
+                    // Stored by an earlier run
+                    continue;
+                }
+                validateLine(line, lineNumber);
+                batch.add(line);
+                if (batch.size() == batchSize) {
+                    committed = commitBatch(importId, committed, batch);
+                    batch.clear();
+                }
+            }
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException(ERROR_MALFORMED_LINE + (lineNumber + 1));
+        } catch (IOException ex) {
+            // Typically the client went away; committed batches are kept
+            throw new UncheckedIOException(ex);
+        }
+        if (!batch.isEmpty()) {
+            commitBatch(importId, committed, batch);
+        }
+
+        ImportStatusResponse status = getImportStatus(importId);
+        log.info("Imported messages | importId={} | lines={} | sessionsCreated={} | messages={} | skipped={}",
+                importId, status.getLinesCommitted(), status.getSessionsCreated(), status.getMessagesImported(), status.getLinesSkipped());
+        return status;
+    }
+
+    @Override
+    public ImportStatusResponse getImportStatus(String importId) {
+
+        validateImportId(importId);
+        ChatImport checkpoint = importRepo.findById(importId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import not found with id: " + importId));
+
+        return ImportStatusResponse.builder()
+                .importId(checkpoint.getImportId())
+                .linesCommitted(checkpoint.getLinesCommitted())
+                .sessionsCreated(checkpoint.getSessionsCreated())
+                .messagesImported(checkpoint.getMessagesImported())
+                .linesSkipped(checkpoint.getLinesSkipped())
+                .createdAt(checkpoint.getCreatedAt())
+                .updatedAt(checkpoint.getUpdatedAt())
+                .build();
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    private ChatImport findOrCreateCheckpoint(String importId) {
+        return importRepo.findById(importId).orElseGet(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                return importRepo.save(new ChatImport(importId, 0L, 0L, 0L, 0L, now, now));
+            } catch (DataIntegrityViolationException ex) {
+                // Started concurrently; the checkpoint fences off one of the runs
+                return importRepo.findById(importId).orElseThrow(() -> ex);
+            }
+        });
+    }
+
+    /**
+     * Stores one batch in its own transaction and advances the checkpoint past it.
+     *
+     * @param linesBefore lines committed before the batch
+     * @return lines committed including the batch
+     */
+    private long commitBatch(String importId, long linesBefore, List<ImportMessageLine> batch) {
+        long linesAfter = linesBefore + batch.size();
+        BatchResult result = transaction.execute(status -> storeBatch(importId, linesBefore, linesAfter, batch));
+        for (int i = 0; i < result.sessionsCreated(); i++) {
+            sessionCounter.increment();
+        }
+
+        log.info("Import batch committed | importId={} | lines={} | sessionsCreated={} | messages={} | skipped={}",
+                importId, linesAfter, result.sessionsCreated(), result.messages(), result.skipped());
+        return linesAfter;
+    }
+
+    private BatchResult storeBatch(String importId, long linesBefore, long linesAfter, List<ImportMessageLine> batch) {
+
+        // Lines of one source session stay in input order
+        Map<String, List<ImportMessageLine>> bySource = batch.stream()
+                .collect(Collectors.groupingBy(ImportMessageLine::getSessionId, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, Long> sessionIds = new HashMap<>();
+        importSessionRepo.findByImportIdAndSourceSessionIdIn(importId, bySource.keySet())
+                .forEach(mapping -> sessionIds.put(mapping.getSourceSessionId(), mapping.getSessionId()));
+
+        long skipped = 0;
+        List<String> newSources = new ArrayList<>();
+        for (Map.Entry<String, List<ImportMessageLine>> source : bySource.entrySet()) {
+            Long sessionId = sessionIds.get(source.getKey());
+            if (sessionId == null) {
+                newSources.add(source.getKey());
+            } else if (!incrementImportedSession(sessionId, source.getValue().size())) {
+                // Created by this import, then deleted
+                sessionIds.remove(source.getKey());
+                skipped += source.getValue().size();
+            }
+        }
+
+        List<Long> created = insertSessions(newSources.stream().map(bySource::get).toList());
+        List<ChatImportSession> mappings = new ArrayList<>(created.size());
+        for (int i = 0; i < created.size(); i++) {
+            sessionIds.put(newSources.get(i), created.get(i));
+            mappings.add(new ChatImportSession(importId, newSources.get(i), created.get(i)));
+        }
+        importSessionRepo.saveAll(mappings);
+
+        List<ChatMessage> messages = new ArrayList<>(batch.size());
+        bySource.forEach((source, lines) -> {
+            Long sessionId = sessionIds.get(source);
+            if (sessionId != null) {
+                ChatSession session = sessionRepo.getReferenceById(sessionId);
+                lines.forEach(line -> messages.add(buildChatMessage(session, line)));
+            }
+        });
+
+        if (importRepo.advanceCheckpoint(importId, linesBefore, linesAfter, created.size(), messages.size(), skipped, LocalDateTime.now()) == 0) {
+            throw new ImportConflictException(ERROR_CONCURRENT_IMPORT + importId);
+        }
+
+        // Last (the pointer UPDATEs only touch rows this transaction already holds): the log store cannot roll back
+        if (!messages.isEmpty()) {
+            List<ChatMessage> saved = messageStore.saveAll(messages);
+            saved.stream()
+                    .collect(Collectors.groupingBy(message -> message.getSession().getId(), LinkedHashMap::new, Collectors.toList()))
+                    .forEach((sessionId, sessionMessages) -> {
+                        ChatMessage last = sessionMessages.get(sessionMessages.size() - 1);
+                        sessionRepo.recordLastMessage(sessionId, last.getId(), last.getCreatedAt());
+                        recentMessages.append(sessionId, sessionMessages);
+                        searchIndex.index(sessionId, sessionMessages);
+                    });
+        }
+        return new BatchResult(created.size(), messages.size(), skipped);
+    }
+
+    /**
+     * Bumps the message counter of a session created by an earlier batch,
+     * restoring it first if it was archived meanwhile.
+     *
+     * @return {@code false} if the session no longer exists or is deleted
+     */
+    private boolean incrementImportedSession(Long sessionId, long delta) {
+        return sessionRepo.incrementMessageCount(sessionId, delta) == 1
+                || archiveService.restore(sessionId) && sessionRepo.incrementMessageCount(sessionId, delta) == 1;
+    }
+
+    /**
+     * Inserts one session per source session with a single JDBC batch.
+     *
+     * @param sessions lines of each new source session
+     * @return generated session ids, in the given order
+     */
+    private List<Long> insertSessions(List<List<ImportMessageLine>> sessions) {
+        if (sessions.isEmpty()) {
+            return List.of();
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SESSION_SQL, new String[]{"id"}), new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                List<ImportMessageLine> lines = sessions.get(i);
+                ImportMessageLine first = lines.get(0);
+                ps.setString(1, first.getUserId());
+                ps.setString(2, first.getSessionName() == null || first.getSessionName().isBlank() ? DEFAULT_SESSION_NAME : first.getSessionName());
+                ps.setLong(3, lines.size());
+                ps.setTimestamp(4, Timestamp.valueOf(lines.stream().map(ImportMessageLine::getCreatedAt).min(Comparator.naturalOrder()).orElseThrow()));
+                ps.setTimestamp(5, Timestamp.valueOf(lines.stream().map(ImportMessageLine::getCreatedAt).max(Comparator.naturalOrder()).orElseThrow()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return sessions.size();
+            }
+        }, keys);
+
+        // MySQL reports the key as GENERATED_KEY, other databases by column name
+        return keys.getKeyList().stream().map(key -> ((Number) key.values().iterator().next()).longValue()).toList();
+    }
+
+    private ChatMessage buildChatMessage(ChatSession session, ImportMessageLine line) {
+        ChatMessage message = new ChatMessage();
+        message.setSender(line.getSender());
+        message.setContent(line.getContent());
+        message.setContext(line.getContext());
+        message.setEmbedding(line.getEmbedding());
+        message.setCreatedAt(line.getCreatedAt());
+        message.setSession(session);
+        return message;
+    }
+
+    private static void validateImportId(String importId) {
+        if (importId == null || !IMPORT_ID_PATTERN.matcher(importId).matches()) {
+            throw new IllegalArgumentException(ERROR_INVALID_IMPORT_ID);
+        }
+    }
+
+    /**
+     * Checks a line before it joins a batch, defaulting its creation time and
+     * dropping an embedding that nothing would keep.
+     *
+     * @throws IllegalArgumentException naming the line if it cannot be stored
+     */
+    private void validateLine(ImportMessageLine line, long lineNumber) {
+        String error = line.getSessionId() == null || line.getSessionId().isBlank() ? ERROR_MISSING_SESSION_ID
+                : line.getSessionId().length() > MAX_SOURCE_SESSION_ID_LENGTH ? ERROR_SESSION_ID_TOO_LONG
+                : line.getSender() == null || line.getSender().isBlank() ? ERROR_MISSING_SENDER
+                : line.getContent() == null || line.getContent().isBlank() ? ERROR_MISSING_CONTENT
+                : null;
+        if (error != null) {
+            throw new IllegalArgumentException(String.format(ERROR_INVALID_LINE, lineNumber, error));
+        }
+        if (line.getCreatedAt() == null) {
+            line.setCreatedAt(LocalDateTime.now());
+        }
+        if (line.getEmbedding() != null) {
+            if (!searchIndex.isEnabled()) {
+                line.setEmbedding(null);
+            } else {
+                try {
+                    searchIndex.validateEmbedding(line.getEmbedding());
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException(String.format(ERROR_INVALID_LINE, lineNumber, ex.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcome of one committed batch.
+     */
+    private record BatchResult(int sessionsCreated, int messages, long skipped) {
+    }
+}
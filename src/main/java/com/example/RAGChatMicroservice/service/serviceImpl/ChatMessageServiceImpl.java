@@ -1,21 +1,47 @@
 package com.example.RAGChatMicroservice.service.serviceImpl;
 
 import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.BatchAddMessageRequest;
 import com.example.RAGChatMicroservice.dto.response.MessageResponse;
 import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
 import com.example.RAGChatMicroservice.entity.ChatMessage;
 import com.example.RAGChatMicroservice.entity.ChatSession;
 import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
-import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
 import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.MessageTokenCount;
+import com.example.RAGChatMicroservice.repository.projection.SessionActivity;
 import com.example.RAGChatMicroservice.service.ChatMessageService;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import com.example.RAGChatMicroservice.service.serviceImpl.SessionCache.CachedSession;
+import com.example.RAGChatMicroservice.util.CursorUtils;
+import com.example.RAGChatMicroservice.util.TokenCountUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.example.RAGChatMicroservice.constants.MessageConstants.*;
 
 /**
  * Service implementation for managing chat messages.
@@ -24,7 +50,14 @@ import java.util.List;
  * Responsibilities:
  * <ul>
  *     <li>Add messages to an existing chat session</li>
+ *     <li>Append message batches with a single JDBC batch insert</li>
  *     <li>Retrieve paginated messages for a session</li>
+ *     <li>Retrieve messages with keyset (cursor) pagination</li>
+ *     <li>Retrieve the newest messages that fit a token budget</li>
+ *     <li>Return only requested fields, reading message context only when requested</li>
+ *     <li>Serve archived sessions from the archive and restore them on the next append</li>
+ *     <li>Serve reads of a session's latest messages from {@link RecentMessageBuffer}</li>
+ *     <li>Feed appended messages to the {@link MessageSearchIndex}</li>
  * </ul>
  */
 @Service
@@ -32,22 +65,58 @@ import java.util.List;
 public class ChatMessageServiceImpl implements ChatMessageService {
 
     /**
-     * Repository for chat message persistence.
+     * Message persistence (database or embedded log, see {@code app.message-store.type}).
      */
-    private final ChatMessageRepository messageRepo;
+    private final MessageStore messageStore;
 
     /**
      * Repository for chat session validation and lookup.
      */
     private final ChatSessionRepository sessionRepo;
 
+    /**
+     * Cached active session metadata, consulted instead of re-reading the session row.
+     */
+    private final SessionCache sessionCache;
+
+    /**
+     * Keeps reads of a recently written session on the primary database.
+     */
+    private final ReadYourWritesTracker readYourWrites;
+
+    /**
+     * Fields of a token window that leaves out message context.
+     */
+    private static final Set<String> WINDOW_FIELDS = Set.of(FIELD_ID, FIELD_SENDER, FIELD_CONTENT, FIELD_CREATED_AT);
+
+    /**
+     * Cold storage of idle sessions' messages.
+     */
+    private final SessionArchiveService archiveService;
+
+    /**
+     * In-memory tails of active sessions, serving backward reads of the latest messages.
+     */
+    private final RecentMessageBuffer recentMessages;
+
+    /**
+     * Full-text index over message content.
+     */
+    private final MessageSearchIndex searchIndex;
+
     /**
      * Constructor-based injection ensures immutability
      * and makes the service easier to test.
      */
-    public ChatMessageServiceImpl(ChatMessageRepository messageRepo, ChatSessionRepository sessionRepo) {
-        this.messageRepo = messageRepo;
+    public ChatMessageServiceImpl(MessageStore messageStore, ChatSessionRepository sessionRepo, SessionCache sessionCache, ReadYourWritesTracker readYourWrites,
+                                  SessionArchiveService archiveService, RecentMessageBuffer recentMessages, MessageSearchIndex searchIndex) {
+        this.messageStore = messageStore;
         this.sessionRepo = sessionRepo;
+        this.sessionCache = sessionCache;
+        this.readYourWrites = readYourWrites;
+        this.archiveService = archiveService;
+        this.recentMessages = recentMessages;
+        this.searchIndex = searchIndex;
     }
 
     /**
@@ -56,9 +125,13 @@ public class ChatMessageServiceImpl implements ChatMessageService {
      * <p>
      * Flow:
      * <ol>
-     *     <li>Validate that the session exists and is active</li>
-     *     <li>Convert request DTO into ChatMessage entity</li>
-     *     <li>Persist message to database</li>
+     *     <li>Increment the session's message counter with a conditional UPDATE,
+     *     which also proves the session exists and is active</li>
+     *     <li>Convert request DTO into ChatMessage entity, attaching the session
+     *     as a reference proxy (no SELECT)</li>
+     *     <li>Persist message and its context in the same transaction</li>
+     *     <li>Point the session at the new message (its row is already locked
+     *     by the counter UPDATE)</li>
      *     <li>Return response DTO</li>
      * </ol>
      *
@@ -67,52 +140,243 @@ public class ChatMessageServiceImpl implements ChatMessageService {
      * @return response containing saved message details
      */
     @Override
+    @Transactional
     public SessionMessageResponse addMessage(Long sessionId, AddMessageRequest request) {
 
         // Log business event (not an error)
         log.info("Adding message | sessionId={} | sender={}", sessionId, request.getSender());
 
-        // Ensure session exists and is not soft-deleted
-        ChatSession session = findActiveSession(sessionId);
+        // Ensure session exists and is not soft-deleted, keeping its counter in step
+        incrementActiveSession(sessionId, 1);
 
         // Convert incoming request into entity
-        ChatMessage message = buildChatMessage(session, request);
+        ChatMessage message = buildChatMessage(sessionRepo.getReferenceById(sessionId), request);
 
-        // Persist message
-        ChatMessage savedMessage = messageRepo.save(message);
+        // Persist message and its context
+        ChatMessage savedMessage = messageStore.saveAll(List.of(message)).get(0);
+        sessionRepo.recordLastMessage(sessionId, savedMessage.getId(), savedMessage.getCreatedAt());
+        recentMessages.append(sessionId, List.of(savedMessage));
+        searchIndex.index(sessionId, List.of(savedMessage));
 
         // Build response with newly added message
         return buildSingleMessageResponse(sessionId, savedMessage);
     }
 
+    /**
+     * Appends a batch of messages to an existing chat session.
+     *
+     * <p>
+     * Flow:
+     * <ol>
+     *     <li>Validate batch size</li>
+     *     <li>Validate that the session exists and is active and bump its counter
+     *     (one conditional UPDATE for the whole batch)</li>
+     *     <li>Persist all messages in one transaction; Hibernate groups the
+     *     inserts into JDBC batches because message ids come from a pooled sequence</li>
+     *     <li>Return the persisted messages in request order</li>
+     * </ol>
+     *
+     * @param sessionId unique chat session identifier
+     * @param request   batch payload
+     * @return response containing all saved messages with their generated ids
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    @Override
+    @Transactional
+    public SessionMessageResponse addMessages(Long sessionId, BatchAddMessageRequest request) {
+
+        List<AddMessageRequest> items = request.getMessages();
+        validateBatch(items);
+
+        log.info("Adding message batch | sessionId={} | size={}", sessionId, items.size());
+
+        // Single existence check for the whole batch, without reading the session
+        incrementActiveSession(sessionId, items.size());
+        ChatSession session = sessionRepo.getReferenceById(sessionId);
+
+        List<ChatMessage> messages = items.stream().map(item -> buildChatMessage(session, item)).toList();
+
+        // Ids are assigned in list order, so they follow request order
+        List<ChatMessage> savedMessages = messageStore.saveAll(messages);
+        ChatMessage last = savedMessages.get(savedMessages.size() - 1);
+        sessionRepo.recordLastMessage(sessionId, last.getId(), last.getCreatedAt());
+        recentMessages.append(sessionId, savedMessages);
+        searchIndex.index(sessionId, savedMessages);
+
+        return buildMessagesResponse(sessionId, savedMessages);
+    }
+
     /**
      * Fetches paginated messages for a given chat session.
      *
      * <p>
      * Pagination is used to avoid loading large conversations into memory.
+     * Messages are read as narrow summaries; context is fetched from its side
+     * table only when {@code context} is among the requested fields.
      *
      * @param sessionId chat session identifier
      * @param page      page number (0-based)
      * @param size      number of records per page
+     * @param fields    comma-separated message fields to return ({@code null} = all)
      * @return session message response with pagination metadata
      */
     @Override
-    public SessionMessageResponse getMessages(Long sessionId, int page, int size) {
+    @Transactional(readOnly = true)
+    public SessionMessageResponse getMessages(Long sessionId, int page, int size, String fields) {
 
         // Log request context for traceability
-        log.info("Fetching messages | sessionId={} | page={} | size={}", sessionId, page, size);
+        log.info("Fetching messages | sessionId={} | page={} | size={} | fields={}", sessionId, page, size, fields);
+
+        Set<String> selected = parseFields(fields);
+
+        // Validate session before fetching messages (on the primary if it was just written)
+        readYourWrites.routeReads(sessionId);
+        CachedSession session = findActiveSession(sessionId);
+
+        // Create pageable request; order by id so page contents are stable
+        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
+
+        Page<MessageResponse> messagePage = readMessages(session, () -> {
+            // Fetch paginated messages, with context only when asked for
+            Page<MessageResponse> hot = messageStore.findSummaries(session.id(), pageable).map(this::toResponse);
+            attachContexts(session.id(), hot.getContent(), selected);
+            return hot;
+        }, Page::isEmpty, all -> new PageImpl<>(pageOf(all, pageable), pageable, all.size()));
+
+        // Convert to response DTO
+        return buildPagedMessageResponse(session, messagePage, selected);
+    }
+
+    /**
+     * Fetches a slice of messages for a given chat session.
+     *
+     * <p>
+     * Avoids the COUNT query of {@link #getMessages(Long, int, int, String)}: {@code hasNext}
+     * is derived from one extra row, and the total (when requested) is the
+     * session's maintained message counter rather than an aggregate.
+     *
+     * @param sessionId    chat session identifier
+     * @param page         page number (0-based)
+     * @param size         number of records per page
+     * @param includeTotal whether to include the session's message count
+     * @param fields       comma-separated message fields to return ({@code null} = all)
+     * @return session message response with slice metadata
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SessionMessageResponse getMessagesSlice(Long sessionId, int page, int size, boolean includeTotal, String fields) {
+
+        log.info("Fetching message slice | sessionId={} | page={} | size={} | includeTotal={} | fields={}", sessionId, page, size, includeTotal, fields);
+
+        Set<String> selected = parseFields(fields);
+
+        readYourWrites.routeReads(sessionId);
+        CachedSession session = findActiveSession(sessionId);
+
+        PageRequest pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.ASC, "id"));
+        Slice<MessageResponse> messageSlice = readMessages(session, () -> {
+            Slice<MessageResponse> hot = messageStore.findSummarySlice(session.id(), pageable).map(this::toResponse);
+            attachContexts(session.id(), hot.getContent(), selected);
+            return hot;
+        }, Slice::isEmpty, all -> new SliceImpl<>(pageOf(all, pageable), pageable, pageable.getOffset() + pageable.getPageSize() < all.size()));
 
-        // Validate session before fetching messages
-        ChatSession session = findActiveSession(sessionId);
+        SessionMessageResponse response = new SessionMessageResponse();
+        response.setSessionId(session.id());
+        response.setSessionName(session.sessionName());
+        response.setIsFavorite(session.isFavorite());
+        response.setMessages(messageSlice.getContent().stream().map(dto -> selectFields(dto, selected)).toList());
+        response.setHasNext(messageSlice.hasNext());
+        if (includeTotal) {
+            // The counter changes with every append, so it is read fresh rather than cached
+            response.setTotalMessages(sessionRepo.findMessageCountById(session.id()).orElse(0L).intValue());
+        }
+        return response;
+    }
+
+    /**
+     * Fetches messages for a given chat session using keyset pagination.
+     *
+     * <p>
+     * Each page is a seek on {@code (session_id, id)} with no OFFSET and no
+     * COUNT query, so reading deep into a long conversation costs the same as
+     * reading the first page. One extra row is fetched to determine whether
+     * more messages exist.
+     *
+     * @param sessionId chat session identifier
+     * @param after     cursor to read forward from (blank = from the oldest message)
+     * @param before    cursor to read backward from (blank = from the newest message)
+     * @param limit     maximum number of messages to return
+     * @param fields    comma-separated message fields to return ({@code null} = all)
+     * @return session message response with the next cursor
+     * @throws IllegalArgumentException if both cursors are given, a cursor is malformed,
+     *                                  the limit is out of range or a field is unknown
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SessionMessageResponse getMessagesByCursor(Long sessionId, String after, String before, int limit, String fields) {
+
+        log.info("Fetching messages by cursor | sessionId={} | after={} | before={} | limit={} | fields={}", sessionId, after, before, limit, fields);
+
+        validateCursorRequest(after, before, limit);
+        Set<String> selected = parseFields(fields);
+
+        readYourWrites.routeReads(sessionId);
+        CachedSession session = findActiveSession(sessionId);
 
-        // Create pageable request
-        PageRequest pageable = PageRequest.of(page, size);
+        boolean backward = before != null;
+        String cursor = backward ? before : after;
+        boolean fromCursor = cursor != null && !cursor.isBlank();
+        Long cursorId = fromCursor ? CursorUtils.decode(cursor) : null;
 
-        // Fetch paginated messages
-        Page<ChatMessage> messagePage = messageRepo.findBySessionId(session.getId(), pageable);
+        List<MessageResponse> rows = readMessages(session, () -> {
+            List<MessageResponse> hot = readCursorPage(session.id(), cursorId, backward, Limit.of(limit + 1));
+            attachContexts(session.id(), hot.subList(0, Math.min(limit, hot.size())), selected);
+            return hot;
+        }, List::isEmpty, all -> seekArchived(all, cursorId, backward, limit + 1));
 
-        // Convert entities to response DTO
-        return buildPagedMessageResponse(session, messagePage);
+        return buildCursorMessageResponse(session, rows, limit, backward, fromCursor ? cursor : null, selected);
+    }
+
+    /**
+     * Fetches the newest messages of a chat session that fit a token budget.
+     *
+     * <p>
+     * The window is sized from the token counts stored with each message, read
+     * newest first {@code WINDOW_SCAN_PAGE} at a time from the
+     * {@code (session_id, id, token_count, context_token_count)} index, so no
+     * content is read while sizing. Messages stored before counts were recorded
+     * are estimated from their content. The window itself is then read with one
+     * forward seek from its oldest message.
+     *
+     * @param sessionId      chat session identifier
+     * @param maxTokens      token budget
+     * @param includeContext whether context is returned and counted
+     * @return session message response with the window in chronological order
+     * @throws IllegalArgumentException if the budget is out of range
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SessionMessageResponse getMessageWindow(Long sessionId, int maxTokens, boolean includeContext) {
+
+        log.info("Fetching message window | sessionId={} | maxTokens={} | includeContext={}", sessionId, maxTokens, includeContext);
+
+        if (maxTokens < 1 || maxTokens > MAX_WINDOW_TOKENS) {
+            throw new IllegalArgumentException(ERROR_INVALID_MAX_TOKENS);
+        }
+        Set<String> selected = includeContext ? MESSAGE_FIELDS : WINDOW_FIELDS;
+
+        readYourWrites.routeReads(sessionId);
+        CachedSession session = findActiveSession(sessionId);
+
+        MessageWindow window = readMessages(session, () -> {
+            TokenWindow fit = fitWindow(session.id(), maxTokens, includeContext);
+            List<MessageResponse> messages = fit.count() == 0
+                    ? List.of()
+                    : messageStore.findSummariesAfter(session.id(), fit.oldestId() - 1, Limit.of(fit.count())).stream().map(this::toResponse).toList();
+            attachContexts(session.id(), messages, selected);
+            return new MessageWindow(messages, fit.tokens(), fit.truncated());
+        }, hot -> hot.messages().isEmpty(), all -> fitArchived(all, maxTokens, includeContext));
+        return buildWindowResponse(session, window, selected);
     }
 
     // ----------------------------------------------------------------
@@ -123,20 +387,293 @@ public class ChatMessageServiceImpl implements ChatMessageService {
      * Fetches an active (non-deleted) chat session.
      *
      * <p>
-     * Centralizes session validation logic to avoid duplication.
+     * Centralizes session validation logic to avoid duplication. Served from
+     * {@link SessionCache}, so repeated requests for a busy session do not re-read it.
+     *
+     * @param sessionId chat session identifier
+     * @return snapshot of the active session
+     * @throws ResourceNotFoundException if session does not exist or is deleted
+     */
+    private CachedSession findActiveSession(Long sessionId) {
+        return sessionCache.findActive(sessionId).orElseThrow(() -> new ResourceNotFoundException("Chat session not found with id: " + sessionId));
+    }
+
+    /**
+     * Bumps the message counter of an active session.
+     *
+     * <p>
+     * The UPDATE only matches active, non-archived sessions, so it replaces a
+     * session read on the append path. On a miss the session may be archived:
+     * it is restored within the surrounding transaction and the UPDATE retried.
+     * Any other miss throws and rolls back the surrounding transaction.
      *
      * @param sessionId chat session identifier
-     * @return active ChatSession
+     * @param delta     number of messages being added
      * @throws ResourceNotFoundException if session does not exist or is deleted
      */
-    private ChatSession findActiveSession(Long sessionId) {
-        return sessionRepo.findByIdAndIsDeletedFalse(sessionId).orElseThrow(() -> new ResourceNotFoundException("Chat session not found with id: " + sessionId));
+    private void incrementActiveSession(Long sessionId, long delta) {
+        if (sessionRepo.incrementMessageCount(sessionId, delta) == 0
+                && (!archiveService.restore(sessionId) || sessionRepo.incrementMessageCount(sessionId, delta) == 0)) {
+            throw new ResourceNotFoundException("Chat session not found with id: " + sessionId);
+        }
+        readYourWrites.recordWrite(sessionId);
+    }
+
+    /**
+     * Ensures a batch is non-empty and within the configured maximum batch size.
+     *
+     * @param items batch items
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    private void validateBatch(List<AddMessageRequest> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException(ERROR_EMPTY_BATCH);
+        }
+        if (items.size() > MAX_BATCH_MESSAGES) {
+            throw new IllegalArgumentException(ERROR_BATCH_TOO_LARGE);
+        }
+    }
+
+    /**
+     * Validates the parameters of a cursor read.
+     *
+     * @throws IllegalArgumentException if both cursors are given or the limit is out of range
+     */
+    private void validateCursorRequest(String after, String before, int limit) {
+        if (after != null && before != null) {
+            throw new IllegalArgumentException(ERROR_CONFLICTING_CURSORS);
+        }
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new IllegalArgumentException(ERROR_INVALID_LIMIT);
+        }
+    }
+
+    /**
+     * Parses the {@code fields} parameter.
+     *
+     * @param fields comma-separated field names, {@code null} or blank for all fields
+     * @return the selected field names
+     * @throws IllegalArgumentException if a field name is unknown
+     */
+    private Set<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return MESSAGE_FIELDS;
+        }
+        Set<String> selected = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!MESSAGE_FIELDS.contains(name)) {
+                throw new IllegalArgumentException(ERROR_INVALID_FIELD + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    /**
+     * Fills in the context of the given messages from the {@link MessageStore}
+     * when {@code context} was requested; otherwise context storage is not touched.
+     *
+     * @param sessionId chat session identifier
+     * @param messages  mapped messages (with ids)
+     * @param selected  requested field names
+     */
+    private void attachContexts(Long sessionId, List<MessageResponse> messages, Set<String> selected) {
+        if (!selected.contains(FIELD_CONTEXT) || messages.isEmpty()) {
+            return;
+        }
+        Map<Long, String> contexts = messageStore.findContexts(sessionId, messages.stream().map(MessageResponse::getMessageId).toList());
+        messages.forEach(dto -> dto.setContext(contexts.get(dto.getMessageId())));
+    }
+
+    /**
+     * Reads messages from the hot store, or from the archive for an archived session.
+     *
+     * <p>
+     * The cached archived flag may be stale: the session can have been archived
+     * or restored since it was cached, possibly by another instance. An archived
+     * session without an archive entry is read from the hot store, and when the
+     * hot store has nothing for a session cached as not archived the archive index
+     * is checked before answering. Archiving deletes the hot rows in the same
+     * transaction that writes the index entry, so an empty hot read is the only
+     * case that needs the check.
+     *
+     * @param session     chat session
+     * @param hot         reads the result from the hot store
+     * @param isEmpty     whether a hot result holds no messages
+     * @param fromArchive builds the result from all archived messages in id order
+     * @return the result
+     */
+    private <T> T readMessages(CachedSession session, Supplier<T> hot, Predicate<T> isEmpty, Function<List<MessageResponse>, T> fromArchive) {
+        if (session.isArchived()) {
+            // Archived messages are decoded as a whole and already carry their context
+            return archiveService.findArchivedMessages(session.id()).map(fromArchive).orElseGet(hot);
+        }
+        T result = hot.get();
+        if (!isEmpty.test(result)) {
+            return result;
+        }
+        Optional<List<MessageResponse>> archived = archiveService.findArchivedMessages(session.id());
+        if (archived.isEmpty()) {
+            return result;
+        }
+        sessionCache.invalidate(session.id());
+        return fromArchive.apply(archived.get());
+    }
+
+    /**
+     * Cuts one page out of a fully loaded message list.
+     *
+     * @param all      messages in id order
+     * @param pageable requested page
+     * @return the messages of the page, possibly empty
+     */
+    private List<MessageResponse> pageOf(List<MessageResponse> all, PageRequest pageable) {
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        return all.subList(from, Math.min(from + pageable.getPageSize(), all.size()));
+    }
+
+    /**
+     * In-memory counterpart of {@link #readCursorPage} for archived messages.
+     *
+     * @param all        messages in id order
+     * @param cursorId   id to seek from, {@code null} for the first page
+     * @param backward   whether to read from newer to older messages
+     * @param fetchLimit rows to return (page size plus one)
+     * @return messages in travel direction
+     */
+    private List<MessageResponse> seekArchived(List<MessageResponse> all, Long cursorId, boolean backward, int fetchLimit) {
+        return backward
+                ? all.reversed().stream().filter(dto -> cursorId == null || dto.getMessageId() < cursorId).limit(fetchLimit).toList()
+                : all.stream().filter(dto -> cursorId == null || dto.getMessageId() > cursorId).limit(fetchLimit).toList();
+    }
+
+    /**
+     * Reads one keyset page of message summaries in travel direction. The
+     * first page uses an open bound ({@code 0} / {@link Long#MAX_VALUE}).
+     * Backward reads are answered from {@link RecentMessageBuffer} when it holds
+     * the requested range, so tail reads of an active session skip the store.
+     *
+     * @param sessionId  chat session identifier
+     * @param cursorId   id to seek from, {@code null} for the first page
+     * @param backward   whether to read from newer to older messages
+     * @param fetchLimit rows to fetch (page size plus one)
+     * @return messages in travel direction
+     */
+    private List<MessageResponse> readCursorPage(Long sessionId, Long cursorId, boolean backward, Limit fetchLimit) {
+        List<MessageSummary> summaries;
+        if (backward) {
+            long beforeId = cursorId != null ? cursorId : Long.MAX_VALUE;
+            summaries = recentMessages.findBefore(sessionId, beforeId, fetchLimit.max(),
+                            tailSize -> messageStore.findSummariesBefore(sessionId, Long.MAX_VALUE, Limit.of(tailSize)),
+                            () -> sessionRepo.findActivityById(sessionId).map(SessionActivity::lastMessageId).orElse(null))
+                    .orElseGet(() -> messageStore.findSummariesBefore(sessionId, beforeId, fetchLimit));
+        } else {
+            summaries = messageStore.findSummariesAfter(sessionId, cursorId != null ? cursorId : 0L, fetchLimit);
+        }
+        return summaries.stream().map(this::toResponse).toList();
+    }
+
+    /**
+     * Sizes a token window from stored token counts, newest message first.
+     *
+     * @param sessionId      chat session identifier
+     * @param maxTokens      token budget
+     * @param includeContext whether context tokens count
+     * @return the size, tokens and oldest message of the window
+     */
+    private TokenWindow fitWindow(Long sessionId, int maxTokens, boolean includeContext) {
+        int count = 0;
+        int tokens = 0;
+        long oldestId = Long.MAX_VALUE;
+        while (true) {
+            List<MessageTokenCount> page = messageStore.findTokenCountsBefore(sessionId, oldestId, Limit.of(WINDOW_SCAN_PAGE));
+            Map<Long, Integer> estimated = estimateUncounted(sessionId, oldestId, page, includeContext);
+            for (MessageTokenCount counts : page) {
+                int cost = estimated.containsKey(counts.id())
+                        ? estimated.get(counts.id())
+                        : messageTokens(counts.tokenCount(), counts.contextTokenCount(), includeContext);
+                if (count == MAX_WINDOW_MESSAGES || tokens + cost > maxTokens) {
+                    return new TokenWindow(count, tokens, oldestId, true);
+                }
+                count++;
+                tokens += cost;
+                oldestId = counts.id();
+            }
+            if (page.size() < WINDOW_SCAN_PAGE) {
+                return new TokenWindow(count, tokens, oldestId, false);
+            }
+        }
+    }
+
+    /**
+     * Estimates the tokens of messages stored before token counts were
+     * recorded, reading their content (and context, if it counts) once per page.
+     *
+     * @param sessionId      chat session identifier
+     * @param beforeId       exclusive upper bound the page was read from
+     * @param page           token counts, newest first
+     * @param includeContext whether context tokens count
+     * @return message tokens by id, only for messages without stored counts
+     */
+    private Map<Long, Integer> estimateUncounted(Long sessionId, long beforeId, List<MessageTokenCount> page, boolean includeContext) {
+        List<Long> uncounted = page.stream()
+                .filter(counts -> counts.tokenCount() == null || includeContext && counts.contextTokenCount() == null)
+                .map(MessageTokenCount::id)
+                .toList();
+        if (uncounted.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> contexts = includeContext ? messageStore.findContexts(sessionId, uncounted) : Map.of();
+        Map<Long, Integer> estimated = new HashMap<>();
+        for (MessageSummary summary : messageStore.findSummariesBefore(sessionId, beforeId, Limit.of(page.size()))) {
+            if (uncounted.contains(summary.id())) {
+                estimated.put(summary.id(), messageTokens(TokenCountUtils.estimate(summary.content()), TokenCountUtils.estimate(contexts.get(summary.id())), includeContext));
+            }
+        }
+        return estimated;
+    }
+
+    /**
+     * In-memory counterpart of {@link #fitWindow} for archived messages, which
+     * carry no stored counts.
+     *
+     * @param all            messages in id order, with context
+     * @param maxTokens      token budget
+     * @param includeContext whether context tokens count
+     * @return the newest messages that fit, in id order
+     */
+    private MessageWindow fitArchived(List<MessageResponse> all, int maxTokens, boolean includeContext) {
+        int from = all.size();
+        int tokens = 0;
+        while (from > 0 && all.size() - from < MAX_WINDOW_MESSAGES) {
+            MessageResponse dto = all.get(from - 1);
+            int cost = messageTokens(TokenCountUtils.estimate(dto.getContent()), TokenCountUtils.estimate(dto.getContext()), includeContext);
+            if (tokens + cost > maxTokens) {
+                break;
+            }
+            tokens += cost;
+            from--;
+        }
+        return new MessageWindow(all.subList(from, all.size()), tokens, from > 0);
+    }
+
+    /**
+     * Tokens one message takes in a window.
+     *
+     * @param contentTokens  estimated content tokens
+     * @param contextTokens  estimated context tokens, may be {@code null} when context does not count
+     * @param includeContext whether context tokens count
+     * @return content tokens plus the per-message overhead, plus context tokens if they count
+     */
+    private int messageTokens(Integer contentTokens, Integer contextTokens, boolean includeContext) {
+        return MESSAGE_TOKEN_OVERHEAD + contentTokens + (includeContext ? contextTokens : 0);
     }
 
     /**
      * Converts request DTO into {@link ChatMessage} entity.
      *
-     * @param session active chat session
+     * @param session reference to the active chat session
      * @param request incoming message request
      * @return populated ChatMessage entity
      */
@@ -145,6 +682,7 @@ public class ChatMessageServiceImpl implements ChatMessageService {
         message.setSender(request.getSender());
         message.setContent(request.getContent());
         message.setContext(request.getContext());
+        message.setEmbedding(validEmbedding(request.getEmbedding()));
 
         // Timestamp assigned at service layer for consistency
         message.setCreatedAt(LocalDateTime.now());
@@ -153,6 +691,22 @@ public class ChatMessageServiceImpl implements ChatMessageService {
         return message;
     }
 
+    /**
+     * Checks an optional embedding; it is dropped when search is disabled, since
+     * nothing else keeps it.
+     *
+     * @param embedding client-computed embedding, may be {@code null}
+     * @return the embedding to index, or {@code null}
+     * @throws IllegalArgumentException if the embedding cannot be indexed
+     */
+    private float[] validEmbedding(float[] embedding) {
+        if (embedding == null || !searchIndex.isEnabled()) {
+            return null;
+        }
+        searchIndex.validateEmbedding(embedding);
+        return embedding;
+    }
+
     /**
      * Builds response for single message creation.
      *
@@ -167,22 +721,37 @@ public class ChatMessageServiceImpl implements ChatMessageService {
         return response;
     }
 
+    /**
+     * Builds response for a batch of newly created messages.
+     *
+     * @param sessionId chat session identifier
+     * @param messages  persisted chat messages, in request order
+     * @return response with all messages
+     */
+    private SessionMessageResponse buildMessagesResponse(Long sessionId, List<ChatMessage> messages) {
+        SessionMessageResponse response = new SessionMessageResponse();
+        response.setSessionId(sessionId);
+        response.setMessages(messages.stream().map(this::toResponse).toList());
+        return response;
+    }
+
     /**
      * Builds paginated response for message retrieval.
      *
      * @param session     chat session
      * @param messagePage paginated message result
+     * @param selected    fields to include in each message
      * @return response containing messages and pagination metadata
      */
-    private SessionMessageResponse buildPagedMessageResponse(ChatSession session, Page<ChatMessage> messagePage) {
+    private SessionMessageResponse buildPagedMessageResponse(CachedSession session, Page<MessageResponse> messagePage, Set<String> selected) {
 
-        // Convert entity list into response DTO list
-        List<MessageResponse> messages = messagePage.getContent().stream().map(this::toResponse).toList();
+        // Keep only the requested fields of each message
+        List<MessageResponse> messages = messagePage.getContent().stream().map(dto -> selectFields(dto, selected)).toList();
 
         SessionMessageResponse response = new SessionMessageResponse();
-        response.setSessionId(session.getId());
-        response.setSessionName(session.getSessionName());
-        response.setIsFavorite(session.getIsFavorite());
+        response.setSessionId(session.id());
+        response.setSessionName(session.sessionName());
+        response.setIsFavorite(session.isFavorite());
         response.setMessages(messages);
         response.setTotalMessages((int) messagePage.getTotalElements());
         response.setTotalPages(messagePage.getTotalPages());
@@ -190,6 +759,102 @@ public class ChatMessageServiceImpl implements ChatMessageService {
         return response;
     }
 
+    /**
+     * Builds the response for a cursor read.
+     *
+     * <p>
+     * {@code rows} holds up to {@code limit + 1} messages in travel direction;
+     * the extra row only signals that another page exists. The next cursor
+     * points at the last message returned in travel direction, or echoes the
+     * incoming cursor when the page is empty so clients can keep polling.
+     *
+     * @param session     chat session
+     * @param rows        fetched messages in travel direction
+     * @param limit       requested page size
+     * @param backward    whether the read travels from newer to older messages
+     * @param inputCursor cursor the read started from, may be {@code null}
+     * @param selected    fields to include in each message
+     * @return response containing messages in chronological order
+     */
+    private SessionMessageResponse buildCursorMessageResponse(CachedSession session, List<MessageResponse> rows, int limit, boolean backward, String inputCursor, Set<String> selected) {
+
+        boolean hasNext = rows.size() > limit;
+        List<MessageResponse> page = hasNext ? rows.subList(0, limit) : rows;
+
+        // Cursor is taken before field selection, which may drop the id
+        String nextCursor = page.isEmpty() ? inputCursor : CursorUtils.encode(page.get(page.size() - 1).getMessageId());
+
+        List<MessageResponse> messages = new ArrayList<>(page.stream().map(dto -> selectFields(dto, selected)).toList());
+        if (backward) {
+            // Backward reads are fetched newest-first; present them chronologically
+            Collections.reverse(messages);
+        }
+
+        SessionMessageResponse response = new SessionMessageResponse();
+        response.setSessionId(session.id());
+        response.setSessionName(session.sessionName());
+        response.setIsFavorite(session.isFavorite());
+        response.setMessages(messages);
+        response.setNextCursor(nextCursor);
+        response.setHasNext(hasNext);
+
+        return response;
+    }
+
+    /**
+     * Builds the response for a token window. The next cursor continues
+     * backward from the oldest returned message when older messages were left out.
+     *
+     * @param session  chat session
+     * @param window   the window in chronological order
+     * @param selected fields to include in each message
+     * @return response containing the window and its token total
+     */
+    private SessionMessageResponse buildWindowResponse(CachedSession session, MessageWindow window, Set<String> selected) {
+        List<MessageResponse> messages = window.messages();
+
+        SessionMessageResponse response = new SessionMessageResponse();
+        response.setSessionId(session.id());
+        response.setSessionName(session.sessionName());
+        response.setIsFavorite(session.isFavorite());
+        if (window.truncated() && !messages.isEmpty()) {
+            response.setNextCursor(CursorUtils.encode(messages.get(0).getMessageId()));
+        }
+        response.setMessages(messages.stream().map(dto -> selectFields(dto, selected)).toList());
+        response.setWindowTokens(window.tokens());
+        response.setHasNext(window.truncated());
+        return response;
+    }
+
+    /**
+     * Clears the fields that were not requested; {@code null} fields are not serialized.
+     *
+     * @param dto      fully mapped message
+     * @param selected requested field names
+     * @return the same DTO, trimmed to the requested fields
+     */
+    private MessageResponse selectFields(MessageResponse dto, Set<String> selected) {
+        if (selected == MESSAGE_FIELDS) {
+            return dto;
+        }
+        if (!selected.contains(FIELD_ID)) {
+            dto.setMessageId(null);
+        }
+        if (!selected.contains(FIELD_SENDER)) {
+            dto.setSender(null);
+        }
+        if (!selected.contains(FIELD_CONTENT)) {
+            dto.setContent(null);
+        }
+        if (!selected.contains(FIELD_CONTEXT)) {
+            dto.setContext(null);
+        }
+        if (!selected.contains(FIELD_CREATED_AT)) {
+            dto.setCreatedAt(null);
+        }
+        return dto;
+    }
+
     /**
      * Maps {@link ChatMessage} entity to {@link MessageResponse} DTO.
      *
@@ -205,4 +870,40 @@ public class ChatMessageServiceImpl implements ChatMessageService {
         dto.setCreatedAt(msg.getCreatedAt());
         return dto;
     }
+
+    /**
+     * Maps a {@link MessageSummary} projection to {@link MessageResponse} DTO.
+     *
+     * @param summary message summary (no context)
+     * @return response DTO
+     */
+    private MessageResponse toResponse(MessageSummary summary) {
+        MessageResponse dto = new MessageResponse();
+        dto.setMessageId(summary.id());
+        dto.setSender(summary.sender());
+        dto.setContent(summary.content());
+        dto.setCreatedAt(summary.createdAt());
+        return dto;
+    }
+
+    /**
+     * Size of a token window found by {@link #fitWindow}.
+     *
+     * @param count     number of messages in the window
+     * @param tokens    tokens the window uses
+     * @param oldestId  id of its oldest message ({@link Long#MAX_VALUE} when empty)
+     * @param truncated whether older messages were left out
+     */
+    private record TokenWindow(int count, int tokens, long oldestId, boolean truncated) {
+    }
+
+    /**
+     * Messages of a token window.
+     *
+     * @param messages  messages in chronological order
+     * @param tokens    tokens they use
+     * @param truncated whether older messages were left out
+     */
+    private record MessageWindow(List<MessageResponse> messages, int tokens, boolean truncated) {
+    }
 }
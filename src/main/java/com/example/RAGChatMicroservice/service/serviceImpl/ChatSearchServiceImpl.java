@@ -0,0 +1,121 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.SimilarMessagesRequest;
+import com.example.RAGChatMicroservice.dto.response.SearchHitResponse;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.service.ChatSearchService;
+import com.example.RAGChatMicroservice.service.serviceImpl.SessionCache.CachedSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static com.example.RAGChatMicroservice.constants.SearchConstants.*;
+
+/**
+ * Implementation of {@link ChatSearchService} backed by {@link MessageSearchIndex}.
+ *
+ * <p>
+ * The index answers the query; each hit is then checked against the session
+ * cache, which drops hits of sessions deleted (or reassigned) since they were
+ * indexed and supplies the current session name.
+ * </p>
+ */
+@Service
+@Slf4j
+public class ChatSearchServiceImpl implements ChatSearchService {
+
+    private final MessageSearchIndex searchIndex;
+
+    private final SessionCache sessionCache;
+
+    public ChatSearchServiceImpl(MessageSearchIndex searchIndex, SessionCache sessionCache) {
+        this.searchIndex = searchIndex;
+        this.sessionCache = sessionCache;
+    }
+
+    /**
+     * Searches the messages of a user's active sessions.
+     *
+     * @param userId owner of the sessions
+     * @param query  search text
+     * @param limit  maximum number of hits
+     * @return matching messages with highlights
+     * @throws ResourceNotFoundException if search is not enabled
+     */
+    @Override
+    public List<SearchHitResponse> search(String userId, String query, int limit) {
+
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException(ERROR_MISSING_USER_ID);
+        }
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException(ERROR_MISSING_QUERY);
+        }
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException(ERROR_INVALID_SEARCH_LIMIT);
+        }
+        if (!searchIndex.isEnabled()) {
+            throw new ResourceNotFoundException(ERROR_SEARCH_DISABLED);
+        }
+
+        log.info("Searching messages | userId={} | limit={}", userId, limit);
+
+        return toResponses(userId, searchIndex.search(userId, query.trim(), limit));
+    }
+
+    /**
+     * Finds the messages of a user's active sessions most similar to an embedding.
+     *
+     * @param request owner, query embedding and number of hits
+     * @return the most similar messages with their content
+     * @throws ResourceNotFoundException if search is not enabled
+     */
+    @Override
+    public List<SearchHitResponse> findSimilar(SimilarMessagesRequest request) {
+
+        String userId = request.getUserId();
+        int k = request.getK() == null ? DEFAULT_SIMILAR_K : request.getK();
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException(ERROR_MISSING_USER_ID);
+        }
+        if (request.getEmbedding() == null || request.getEmbedding().length == 0) {
+            throw new IllegalArgumentException(ERROR_MISSING_EMBEDDING);
+        }
+        if (k < 1 || k > MAX_SEARCH_LIMIT) {
+            throw new IllegalArgumentException(ERROR_INVALID_SEARCH_LIMIT);
+        }
+        if (!searchIndex.isEnabled()) {
+            throw new ResourceNotFoundException(ERROR_SEARCH_DISABLED);
+        }
+        searchIndex.validateEmbedding(request.getEmbedding());
+
+        log.info("Searching similar messages | userId={} | k={}", userId, k);
+
+        return toResponses(userId, searchIndex.searchSimilar(userId, request.getEmbedding(), k));
+    }
+
+    private List<SearchHitResponse> toResponses(String userId, List<MessageSearchIndex.Hit> indexHits) {
+        List<SearchHitResponse> hits = new ArrayList<>();
+        for (MessageSearchIndex.Hit hit : indexHits) {
+            Optional<CachedSession> session = sessionCache.findActive(hit.sessionId()).filter(active -> userId.equals(active.userId()));
+            session.ifPresent(active -> hits.add(toResponse(hit, active)));
+        }
+        return hits;
+    }
+
+    private SearchHitResponse toResponse(MessageSearchIndex.Hit hit, CachedSession session) {
+        SearchHitResponse dto = new SearchHitResponse();
+        dto.setSessionId(session.id());
+        dto.setSessionName(session.sessionName());
+        dto.setMessageId(hit.messageId());
+        dto.setSender(hit.sender());
+        dto.setCreatedAt(hit.createdAt());
+        dto.setScore(hit.score());
+        dto.setHighlight(hit.highlight());
+        dto.setContent(hit.content());
+        return dto;
+    }
+}
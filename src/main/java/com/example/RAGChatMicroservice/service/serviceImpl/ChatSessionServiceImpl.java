@@ -2,18 +2,31 @@ package com.example.RAGChatMicroservice.service.serviceImpl;
 
 import com.example.RAGChatMicroservice.dto.request.CreateSessionRequest;
 import com.example.RAGChatMicroservice.dto.request.RenameSessionRequest;
+import com.example.RAGChatMicroservice.dto.response.SessionListResponse;
 import com.example.RAGChatMicroservice.dto.response.SessionResponse;
 import com.example.RAGChatMicroservice.entity.ChatSession;
 import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
 import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.projection.SessionActivity;
 import com.example.RAGChatMicroservice.service.ChatSessionService;
+import com.example.RAGChatMicroservice.service.serviceImpl.SessionCache.CachedSession;
+import com.example.RAGChatMicroservice.util.CursorUtils;
+import com.example.RAGChatMicroservice.util.CursorUtils.SessionKey;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.example.RAGChatMicroservice.constants.SessionConstants.*;
+
 /**
  * Java 21 compliant implementation of {@link ChatSessionService}.
  *
@@ -32,16 +45,59 @@ import java.util.List;
 @Slf4j
 public class ChatSessionServiceImpl implements ChatSessionService {
 
+    /**
+     * Keyset start of a descending listing: later than any stored timestamp
+     * and still representable as a DATETIME.
+     */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     /**
      * Repository for chat session persistence.
      */
     private final ChatSessionRepository sessionRepo;
 
+    /**
+     * Repository for set-based updates of a session's messages.
+     */
+    private final ChatMessageRepository messageRepo;
+
+    /**
+     * Maintained total of active sessions, used instead of COUNT queries.
+     */
+    private final ActiveSessionCounter sessionCounter;
+
+    /**
+     * Cached active session metadata; invalidated whenever a session changes.
+     */
+    private final SessionCache sessionCache;
+
+    /**
+     * Keeps reads of a recently changed session on the primary database.
+     */
+    private final ReadYourWritesTracker readYourWrites;
+
+    /**
+     * Buffered latest messages; dropped when a session is deleted.
+     */
+    private final RecentMessageBuffer recentMessages;
+
+    /**
+     * Full-text index; a deleted session's messages are removed from it.
+     */
+    private final MessageSearchIndex searchIndex;
+
     /**
      * Constructor injection ensures immutability and testability.
      */
-    public ChatSessionServiceImpl(ChatSessionRepository sessionRepo) {
+    public ChatSessionServiceImpl(ChatSessionRepository sessionRepo, ChatMessageRepository messageRepo, ActiveSessionCounter sessionCounter, SessionCache sessionCache, ReadYourWritesTracker readYourWrites,
+                                  RecentMessageBuffer recentMessages, MessageSearchIndex searchIndex) {
         this.sessionRepo = sessionRepo;
+        this.messageRepo = messageRepo;
+        this.sessionCounter = sessionCounter;
+        this.sessionCache = sessionCache;
+        this.readYourWrites = readYourWrites;
+        this.recentMessages = recentMessages;
+        this.searchIndex = searchIndex;
     }
 
     /**
@@ -67,6 +123,8 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         // Build and persist new session entity
         ChatSession session = buildNewSession(request);
         ChatSession savedSession = sessionRepo.save(session);
+        sessionCounter.increment();
+        readYourWrites.recordWrite(savedSession.getId());
 
         // Convert entity to response DTO
         return toResponse(savedSession);
@@ -80,14 +138,19 @@ public class ChatSessionServiceImpl implements ChatSessionService {
      * @throws ResourceNotFoundException if session does not exist or is deleted
      */
     @Override
+    @Transactional(readOnly = true)
     public SessionResponse getSession(Long id) {
 
         log.info("Fetching chat session | id={}", id);
+        readYourWrites.routeReads(id);
 
-        // Validate session existence
-        ChatSession session = findActiveSession(id);
+        // Validate session existence (served from the session cache)
+        CachedSession session = sessionCache.findActive(id).orElseThrow(() -> new ResourceNotFoundException("Chat session not found with id: " + id));
 
-        return toResponse(session);
+        // The activity columns change with every append, so they are read fresh rather than cached
+        SessionResponse response = toResponse(session);
+        sessionRepo.findActivityById(id).ifPresent(activity -> applyActivity(response, activity));
+        return response;
     }
 
     /**
@@ -101,6 +164,7 @@ public class ChatSessionServiceImpl implements ChatSessionService {
      * @return list of session responses
      */
     @Override
+    @Transactional(readOnly = true)
     public List<SessionResponse> getAllSessions(int page, int size) {
 
         log.info("Fetching chat sessions | page={} | size={}", page, size);
@@ -108,11 +172,99 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         return sessionRepo.findByIsDeletedFalse(PageRequest.of(page, size)).getContent().stream().map(this::toResponse).toList();
     }
 
+    /**
+     * Retrieves active chat sessions as a slice.
+     *
+     * <p>
+     * No COUNT query is issued; {@code hasNext} is derived from one extra row.
+     * When requested, the total comes from {@link ActiveSessionCounter}.
+     *
+     * @param page         page number (0-based)
+     * @param size         page size
+     * @param includeTotal whether to include the total of active sessions
+     * @return sessions with slice metadata
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SessionListResponse getSessionsSlice(int page, int size, boolean includeTotal) {
+
+        log.info("Fetching chat session slice | page={} | size={} | includeTotal={}", page, size, includeTotal);
+
+        // Most recently updated first; served by the (is_deleted, updated_at) index
+        Sort order = Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "id"));
+        Slice<ChatSession> slice = sessionRepo.findSliceByIsDeletedFalse(PageRequest.of(page, size, order));
+
+        SessionListResponse response = new SessionListResponse();
+        response.setSessions(slice.getContent().stream().map(this::toResponse).toList());
+        response.setHasNext(slice.hasNext());
+        if (includeTotal) {
+            response.setTotalSessions(sessionCounter.get());
+        }
+        return response;
+    }
+
+    /**
+     * Retrieves one page of a user's active chat sessions.
+     *
+     * <p>
+     * Each sort order seeks on its own {@code (user_id, is_deleted, ...)} index from
+     * the position encoded in the cursor, so every page costs {@code limit + 1} index
+     * entries no matter how deep the client has paged; {@code hasNext} comes from the
+     * extra row. The {@code favorite} order reads favorites first and, once they run
+     * out, continues with the non-favorites from the top; {@code lastMessageAt} does
+     * the same with the sessions that have messages and those that have none.
+     *
+     * @param userId owner of the sessions
+     * @param sortBy sort order
+     * @param cursor cursor of the previous page, or {@code null}
+     * @param limit  page size
+     * @return sessions with keyset metadata
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public SessionListResponse getUserSessions(String userId, String sortBy, String cursor, int limit) {
+
+        if (userId == null || userId.isBlank()) {
+            throw new IllegalArgumentException(ERROR_MISSING_USER_ID);
+        }
+        if (limit < 1 || limit > MAX_SESSION_LIMIT) {
+            throw new IllegalArgumentException(ERROR_INVALID_SESSION_LIMIT);
+        }
+        if (!SORT_UPDATED_AT.equals(sortBy) && !SORT_CREATED_AT.equals(sortBy) && !SORT_FAVORITE.equals(sortBy) && !SORT_LAST_MESSAGE_AT.equals(sortBy)) {
+            throw new IllegalArgumentException(ERROR_INVALID_SORT + sortBy);
+        }
+
+        log.info("Fetching user sessions | userId={} | sortBy={} | limit={}", userId, sortBy, limit);
+
+        // The first page of the favorite (last message) order starts with the favorites (sessions with messages)
+        SessionKey from = cursor == null ? new SessionKey(sortBy, true, KEYSET_START, Long.MAX_VALUE) : CursorUtils.decodeSessionKey(cursor, sortBy);
+        Limit fetch = Limit.of(limit + 1);
+
+        List<ChatSession> sessions = switch (sortBy) {
+            case SORT_CREATED_AT -> sessionRepo.findUserSessionsByCreatedAtBefore(userId, from.timestamp(), from.id(), fetch);
+            case SORT_FAVORITE -> findFavoritesFirst(userId, from, limit + 1);
+            case SORT_LAST_MESSAGE_AT -> findByLastMessage(userId, from, limit + 1);
+            default -> sessionRepo.findUserSessionsByUpdatedAtBefore(userId, from.timestamp(), from.id(), fetch);
+        };
+
+        boolean hasNext = sessions.size() > limit;
+        List<ChatSession> page = hasNext ? sessions.subList(0, limit) : sessions;
+
+        SessionListResponse response = new SessionListResponse();
+        response.setSessions(page.stream().map(this::toResponse).toList());
+        response.setHasNext(hasNext);
+        if (hasNext) {
+            response.setNextCursor(nextSessionCursor(sortBy, page.get(page.size() - 1)));
+        }
+        return response;
+    }
+
     /**
      * Renames an existing chat session.
      *
      * <p>
-     * Updates the session name and refreshes the updated timestamp.
+     * Updates the session name and refreshes the updated timestamp with one
+     * UPDATE of just those columns, then reads the session back.
      *
      * @param id      chat session identifier
      * @param request rename request containing new name
@@ -123,13 +275,13 @@ public class ChatSessionServiceImpl implements ChatSessionService {
 
         log.info("Renaming chat session | id={} | newName={}", id, request.getName());
 
-        ChatSession session = findActiveSession(id);
-        session.setSessionName(request.getName());
-
-        // Update modification timestamp
-        session.setUpdatedAt(LocalDateTime.now());
-
-        return toResponse(sessionRepo.save(session));
+        // Writes only the name and timestamp; a read-modify-save would write back stale counters and flags
+        if (sessionRepo.renameById(id, request.getName(), LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Chat session not found with id: " + id);
+        }
+        sessionCache.invalidate(id);
+        readYourWrites.recordWrite(id);
+        return toResponse(findActiveSession(id));
     }
 
     /**
@@ -144,12 +296,12 @@ public class ChatSessionServiceImpl implements ChatSessionService {
 
         log.info("Updating favorite flag | sessionId={} | isFavorite={}", id, isFavorite);
 
-        ChatSession session = findActiveSession(id);
-        session.setIsFavorite(isFavorite);
-
-        session.setUpdatedAt(LocalDateTime.now());
-
-        return toResponse(sessionRepo.save(session));
+        if (sessionRepo.updateFavoriteById(id, isFavorite, LocalDateTime.now()) == 0) {
+            throw new ResourceNotFoundException("Chat session not found with id: " + id);
+        }
+        sessionCache.invalidate(id);
+        readYourWrites.recordWrite(id);
+        return toResponse(findActiveSession(id));
     }
 
     /**
@@ -159,25 +311,37 @@ public class ChatSessionServiceImpl implements ChatSessionService {
      * Session and its associated messages are marked as deleted
      * instead of being physically removed from the database.
      *
+     * <p>
+     * Deletion is set-based and never loads message entities:
+     * <ol>
+     *     <li>The session row is marked deleted with one UPDATE, which makes the
+     *     whole conversation unreachable immediately</li>
+     *     <li>Messages are marked deleted in chunks of {@code SOFT_DELETE_CHUNK_SIZE}
+     *     by id range, each chunk in its own short transaction</li>
+     * </ol>
+     *
      * @param id chat session identifier
      * @return deletion confirmation message
+     * @throws ResourceNotFoundException if session does not exist or is already deleted
      */
     @Override
     public String deleteSession(Long id) {
 
         log.info("Soft deleting chat session | id={}", id);
 
-        ChatSession session = findActiveSession(id);
-        session.setIsDeleted(true);
-        session.setUpdatedAt(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
 
-        // Soft delete all messages under this session
-        session.getMessages().forEach(message -> {
-            message.setIsDeleted(true);
-            message.setUpdatedAt(LocalDateTime.now());
-        });
+        if (sessionRepo.softDeleteById(id, now) == 0) {
+            throw new ResourceNotFoundException("Chat session not found with id: " + id);
+        }
+        sessionCache.invalidate(id);
+        recentMessages.invalidate(id);
+        searchIndex.deleteSession(id);
+        readYourWrites.recordWrite(id);
+        sessionCounter.decrement();
 
-        sessionRepo.save(session);
+        int deletedMessages = softDeleteMessages(id, now);
+        log.info("Soft deleted chat session | id={} | messages={}", id, deletedMessages);
 
         return "Session deleted successfully";
     }
@@ -201,7 +365,80 @@ public class ChatSessionServiceImpl implements ChatSessionService {
     }
 
     /**
-     * Fetches an active (non-deleted) chat session.
+     * Soft deletes all messages of a session in id-ordered chunks.
+     *
+     * <p>
+     * Each iteration reads the next chunk's ids from the {@code (session_id, id)}
+     * index and updates that id range; only ids are transferred, never entities.
+     *
+     * @param sessionId chat session identifier
+     * @param now       deletion timestamp
+     * @return number of messages soft deleted
+     */
+    private int softDeleteMessages(Long sessionId, LocalDateTime now) {
+        int deleted = 0;
+        long afterId = 0L;
+        while (true) {
+            List<Long> ids = messageRepo.findIdsBySessionIdAfter(sessionId, afterId, Limit.of(SOFT_DELETE_CHUNK_SIZE));
+            if (ids.isEmpty()) {
+                return deleted;
+            }
+            long lastId = ids.get(ids.size() - 1);
+            deleted += messageRepo.softDeleteBySessionIdAndIdRange(sessionId, afterId, lastId, now);
+            if (ids.size() < SOFT_DELETE_CHUNK_SIZE) {
+                return deleted;
+            }
+            afterId = lastId;
+        }
+    }
+
+    /**
+     * Reads up to {@code count} sessions of the favorites-first order, starting after
+     * {@code from}: the rest of the favorites, then non-favorites from the top.
+     */
+    private List<ChatSession> findFavoritesFirst(String userId, SessionKey from, int count) {
+        if (!from.favorite()) {
+            return sessionRepo.findUserSessionsByFavoriteBefore(userId, false, from.timestamp(), from.id(), Limit.of(count));
+        }
+        List<ChatSession> sessions = new ArrayList<>(sessionRepo.findUserSessionsByFavoriteBefore(userId, true, from.timestamp(), from.id(), Limit.of(count)));
+        if (sessions.size() < count) {
+            sessions.addAll(sessionRepo.findUserSessionsByFavoriteBefore(userId, false, KEYSET_START, Long.MAX_VALUE, Limit.of(count - sessions.size())));
+        }
+        return sessions;
+    }
+
+    /**
+     * Reads up to {@code count} sessions of the last message order, starting after
+     * {@code from}: the rest of the sessions with messages, then those without.
+     */
+    private List<ChatSession> findByLastMessage(String userId, SessionKey from, int count) {
+        if (!from.favorite()) {
+            return sessionRepo.findUserSessionsWithoutMessagesBefore(userId, from.id(), Limit.of(count));
+        }
+        List<ChatSession> sessions = new ArrayList<>(sessionRepo.findUserSessionsByLastMessageAtBefore(userId, from.timestamp(), from.id(), Limit.of(count)));
+        if (sessions.size() < count) {
+            sessions.addAll(sessionRepo.findUserSessionsWithoutMessagesBefore(userId, Long.MAX_VALUE, Limit.of(count - sessions.size())));
+        }
+        return sessions;
+    }
+
+    /**
+     * Encodes the position of the last session of a page. The flag records the
+     * group the session belongs to: favorites for the {@code favorite} order,
+     * sessions with messages for the {@code lastMessageAt} order.
+     */
+    private String nextSessionCursor(String sortBy, ChatSession last) {
+        return switch (sortBy) {
+            case SORT_CREATED_AT -> CursorUtils.encodeSessionKey(sortBy, Boolean.TRUE.equals(last.getIsFavorite()), last.getCreatedAt(), last.getId());
+            case SORT_LAST_MESSAGE_AT -> last.getLastMessageAt() != null
+                    ? CursorUtils.encodeSessionKey(sortBy, true, last.getLastMessageAt(), last.getId())
+                    : CursorUtils.encodeSessionKey(sortBy, false, KEYSET_START, last.getId());
+            default -> CursorUtils.encodeSessionKey(sortBy, Boolean.TRUE.equals(last.getIsFavorite()), last.getUpdatedAt(), last.getId());
+        };
+    }
+
+    /**
+     * Fetches an active (non-deleted) chat session from the database, bypassing the cache.
      *
      * @throws ResourceNotFoundException if session is not found
      */
@@ -221,6 +458,30 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         dto.setCreatedAt(session.getCreatedAt());
         dto.setUpdatedAt(session.getUpdatedAt());
         dto.setUserId(session.getUserId());
+        applyActivity(dto, new SessionActivity(session.getMessageCount(), session.getLastMessageAt(), session.getLastMessageId()));
         return dto;
     }
+
+    /**
+     * Maps a cached session snapshot to {@link SessionResponse} DTO.
+     */
+    private SessionResponse toResponse(CachedSession session) {
+        SessionResponse dto = new SessionResponse();
+        dto.setSessionId(session.id());
+        dto.setSessionName(session.sessionName());
+        dto.setIsFavorite(session.isFavorite());
+        dto.setCreatedAt(session.createdAt());
+        dto.setUpdatedAt(session.updatedAt());
+        dto.setUserId(session.userId());
+        return dto;
+    }
+
+    /**
+     * Copies the maintained activity columns into a response.
+     */
+    private void applyActivity(SessionResponse dto, SessionActivity activity) {
+        dto.setMessageCount(activity.messageCount());
+        dto.setLastMessageAt(activity.lastMessageAt());
+        dto.setLastMessageId(activity.lastMessageId());
+    }
 }
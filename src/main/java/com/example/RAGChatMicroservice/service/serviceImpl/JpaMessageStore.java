@@ -0,0 +1,224 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.MessageEmbedding;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.MessageEmbeddingRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.MessageTokenCount;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.MutableMessageStore;
+import com.example.RAGChatMicroservice.util.TokenCountUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * {@link MessageStore} on the {@code chat_messages} table, with context in
+ * {@link MessageContextStore} and embeddings in {@code chat_message_embeddings}.
+ * The default backend; writes join the caller's transaction.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.message-store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaMessageStore implements MessageStore, MutableMessageStore {
+
+    /**
+     * A session's messages with their context chunks, one row per chunk (one row
+     * without chunk for messages without context), walking {@code (session_id, id)}.
+     */
+    private static final String SELECT_MESSAGES_WITH_CONTEXT = "SELECT m.id, m.sender, m.content, m.created_at, c.content AS chunk " +
+            "FROM chat_messages m " +
+            "LEFT JOIN chat_message_context_chunks r ON r.message_id = m.id " +
+            "LEFT JOIN context_chunks c ON c.hash = r.chunk_hash " +
+            "WHERE m.session_id = ? ORDER BY m.id, r.ordinal";
+
+    private static final String MYSQL = "MySQL";
+
+    private final ChatMessageRepository messageRepo;
+
+    private final MessageContextStore contextStore;
+
+    private final MessageEmbeddingRepository embeddingRepo;
+
+    private final MessageIdAllocator idAllocator;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CompressedTextConverter textConverter;
+
+    private final int fetchSize;
+
+    public JpaMessageStore(ChatMessageRepository messageRepo, MessageContextStore contextStore, MessageEmbeddingRepository embeddingRepo, MessageIdAllocator idAllocator,
+                           JdbcTemplate jdbcTemplate, CompressedTextConverter textConverter, ExportProperties exportProperties) {
+        this.messageRepo = messageRepo;
+        this.contextStore = contextStore;
+        this.embeddingRepo = embeddingRepo;
+        this.idAllocator = idAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.textConverter = textConverter;
+        this.fetchSize = exportProperties.getFetchSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Must run after the sessions' counters were bumped in the same transaction:
+     * ids are reserved under those row locks (see {@link MessageIdAllocator}).
+     */
+    @Override
+    public List<ChatMessage> saveAll(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        long nextId = idAllocator.reserve(messages.size());
+        for (ChatMessage message : messages) {
+            message.setId(nextId++);
+            message.setTokenCount(TokenCountUtils.estimate(message.getContent()));
+            message.setContextTokenCount(TokenCountUtils.estimate(message.getContext()));
+        }
+        // Ids follow list order; context is keyed by them
+        List<ChatMessage> saved = messageRepo.saveAll(messages);
+        contextStore.saveAll(saved);
+        List<MessageEmbedding> embeddings = saved.stream()
+                .filter(message -> message.getEmbedding() != null)
+                .map(message -> new MessageEmbedding(message.getId(), message.getEmbedding()))
+                .toList();
+        if (!embeddings.isEmpty()) {
+            embeddingRepo.saveAll(embeddings);
+        }
+        return saved;
+    }
+
+    @Override
+    public Page<MessageSummary> findSummaries(Long sessionId, Pageable pageable) {
+        return messageRepo.findSummariesBySessionId(sessionId, pageable);
+    }
+
+    @Override
+    public Slice<MessageSummary> findSummarySlice(Long sessionId, Pageable pageable) {
+        return messageRepo.findSummarySliceBySessionId(sessionId, pageable);
+    }
+
+    @Override
+    public List<MessageSummary> findSummariesAfter(Long sessionId, long id, Limit limit) {
+        return messageRepo.findSummariesBySessionIdAfter(sessionId, id, limit);
+    }
+
+    @Override
+    public List<MessageSummary> findSummariesBefore(Long sessionId, long id, Limit limit) {
+        return messageRepo.findSummariesBySessionIdBefore(sessionId, id, limit);
+    }
+
+    @Override
+    public List<MessageTokenCount> findTokenCountsBefore(Long sessionId, long id, Limit limit) {
+        return messageRepo.findTokenCountsBySessionIdBefore(sessionId, id, limit);
+    }
+
+    @Override
+    public Map<Long, String> findContexts(Long sessionId, Collection<Long> messageIds) {
+        return contextStore.findByMessageIds(messageIds);
+    }
+
+    /**
+     * Streams the session through a forward-only, read-only result set, bypassing
+     * the persistence context: row by row on MySQL, {@code app.export.fetch-size}
+     * rows per round trip on other databases. Joins the caller's transaction, if
+     * any, so read-only transactions read from a replica.
+     */
+    @Override
+    public void forEachMessage(Long sessionId, Consumer<MessageRecord> action) {
+        MessageAssembler assembler = new MessageAssembler(action);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_MESSAGES_WITH_CONTEXT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(streamingFetchSize(connection));
+            statement.setLong(1, sessionId);
+            return statement;
+        }, assembler);
+        assembler.finish();
+    }
+
+    @Override
+    public boolean updateContent(Long sessionId, Long messageId, String content) {
+        return messageRepo.updateContent(messageId, content, TokenCountUtils.estimate(content), LocalDateTime.now()) == 1;
+    }
+
+    @Override
+    public void saveEmbedding(Long messageId, float[] embedding) {
+        embeddingRepo.save(new MessageEmbedding(messageId, embedding));
+    }
+
+    /**
+     * Connector/J only streams a result set with a fetch size of
+     * {@link Integer#MIN_VALUE}; a positive one would need {@code useCursorFetch}
+     * for every statement on the connection.
+     */
+    private int streamingFetchSize(Connection connection) throws SQLException {
+        return MYSQL.equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    /**
+     * Joins the chunk rows of each message back into one record, emitting a
+     * message once the cursor has moved past it.
+     */
+    private final class MessageAssembler implements RowCallbackHandler {
+
+        private final Consumer<MessageRecord> action;
+
+        private Long id;
+
+        private String sender;
+
+        private String content;
+
+        private LocalDateTime createdAt;
+
+        private StringBuilder context;
+
+        private MessageAssembler(Consumer<MessageRecord> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowId = rs.getLong("id");
+            if (id == null || id != rowId) {
+                finish();
+                id = rowId;
+                sender = rs.getString("sender");
+                content = textConverter.convertToEntityAttribute(rs.getBytes("content"));
+                createdAt = rs.getObject("created_at", LocalDateTime.class);
+                context = null;
+            }
+            byte[] chunk = rs.getBytes("chunk");
+            if (chunk != null) {
+                (context == null ? context = new StringBuilder() : context).append(textConverter.convertToEntityAttribute(chunk));
+            }
+        }
+
+        void finish() {
+            if (id != null) {
+                action.accept(new MessageRecord(id, sender, content, context == null ? null : context.toString(), createdAt));
+                id = null;
+            }
+        }
+    }
+}
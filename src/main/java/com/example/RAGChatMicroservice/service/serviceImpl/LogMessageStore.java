@@ -0,0 +1,652 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.properties.MessageStoreProperties;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.MessageTokenCount;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.util.MessageLogRecordUtils;
+import com.example.RAGChatMicroservice.util.TokenCountUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Embedded, log-structured {@link MessageStore} for single-node deployments.
+ *
+ * <p>
+ * Messages are appended as checksummed frames ({@link MessageLogRecordUtils}) to
+ * append-only segment files; one append call is one write and, with
+ * {@code fsync} enabled, one force to disk. An in-memory index keeps, per session,
+ * the ids and frame locations of its messages in id order, so pages and cursor
+ * seeks are array lookups followed by reads from memory-mapped segments. The
+ * active segment still grows, so it is read through a positional file channel
+ * instead and mapped once it is rolled over.
+ * </p>
+ *
+ * <p>
+ * On startup the segments are replayed to rebuild the index and the id counter.
+ * A frame cut short or failing its checksum at the end of the newest segment is a
+ * torn write and is truncated; anywhere else it is reported as corruption.
+ * </p>
+ *
+ * <p>
+ * Appends are written at once but only published to the index when the caller's
+ * transaction commits, together with the session counter they were checked
+ * against; a commit frame written then marks them for replay. Appends that roll
+ * back, or whose process dies before the commit, have no commit frame and are
+ * skipped on replay; their ids are not reused. A crash after the database commit
+ * but before the commit frame is written loses that append from the log while the
+ * session counter still includes it.
+ * </p>
+ *
+ * <p>
+ * Messages are never rewritten: a purged session is dropped from the index and
+ * tombstoned, but its space is not reclaimed.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.message-store", name = "type", havingValue = "log")
+public class LogMessageStore implements MessageStore {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("messages-(\\d{6})\\.log");
+
+    /**
+     * Frame locations taken from a session's index per step while streaming it.
+     */
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    private final Path directory;
+
+    private final long maxSegmentBytes;
+
+    private final boolean fsync;
+
+    private final Map<Long, SessionIndex> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Mappings of the sealed segments; the active one is never mapped.
+     */
+    private final Map<Integer, MappedByteBuffer> mappings = new ConcurrentHashMap<>();
+
+    private FileChannel active;
+
+    private volatile FileChannel activeReader;
+
+    private int activeNo;
+
+    private long lastId;
+
+    public LogMessageStore(MessageStoreProperties properties) {
+        MessageStoreProperties.Log settings = properties.getLog();
+        if (settings.getMaxSegmentBytes() <= 0 || settings.getMaxSegmentBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("app.message-store.log.max-segment-bytes must be between 1 and " + Integer.MAX_VALUE);
+        }
+        this.directory = Path.of(settings.getDirectory());
+        this.maxSegmentBytes = settings.getMaxSegmentBytes();
+        this.fsync = settings.isFsync();
+    }
+
+    /**
+     * Replays the existing segments into the index and opens the newest one for appends.
+     *
+     * @throws IllegalStateException if a segment other than the newest is damaged
+     */
+    @PostConstruct
+    public synchronized void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Integer> segmentNos = segmentNos();
+        NavigableMap<Long, Pending> uncommitted = new TreeMap<>();
+        for (int i = 0; i < segmentNos.size(); i++) {
+            int segmentNo = segmentNos.get(i);
+            long valid = replay(segmentNo, uncommitted);
+            long size = Files.size(segmentPath(segmentNo));
+            if (valid == size) {
+                continue;
+            }
+            if (i < segmentNos.size() - 1) {
+                throw new IllegalStateException("Corrupt message log segment " + segmentNo + " at offset " + valid);
+            }
+            log.warn("Truncating torn write at end of message log | segment={} | offset={} | bytes={}", segmentNo, valid, size - valid);
+            try (FileChannel channel = FileChannel.open(segmentPath(segmentNo), StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+                channel.force(true);
+            }
+            mappings.remove(segmentNo);
+        }
+        if (!uncommitted.isEmpty()) {
+            log.info("Skipped messages of uncommitted appends in message log | messages={}", uncommitted.size());
+        }
+
+        open(segmentNos.isEmpty() ? 1 : segmentNos.get(segmentNos.size() - 1));
+        log.info("Message log ready | segments={} | sessions={} | lastId={} | fsync={}", segmentNos.size(), sessions.size(), lastId, fsync);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Within a transaction, the messages become readable once it commits; see the
+     * class comment.
+     */
+    @Override
+    public List<ChatMessage> saveAll(List<ChatMessage> messages) {
+        if (messages.isEmpty()) {
+            return messages;
+        }
+        boolean deferred = TransactionSynchronizationManager.isSynchronizationActive();
+        List<Location> locations = append(messages, !deferred);
+        if (deferred) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(messages, locations);
+                    markCommitted(messages);
+                }
+            });
+        } else {
+            publish(messages, locations);
+        }
+        return messages;
+    }
+
+    /**
+     * Drops a purged session from the index and tombstones its messages, so replay
+     * does not bring them back.
+     */
+    @Override
+    public void deleteSession(Long sessionId) {
+        if (sessions.remove(sessionId) == null) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                appendFrames(List.of(MessageLogRecordUtils.encodeTombstone(sessionId, 1L, lastId)));
+            }
+        } catch (IOException ex) {
+            // The session row is gone, so its messages stay unreachable; replay only re-indexes them
+            log.warn("Writing purge tombstone failed | sessionId={}", sessionId, ex);
+        }
+    }
+
+    @Override
+    public Page<MessageSummary> findSummaries(Long sessionId, Pageable pageable) {
+        SessionIndex index = sessions.get(sessionId);
+        if (index == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        int from = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+        SessionIndex.Range range = index.range(from, pageable.getPageSize());
+        return new PageImpl<>(summaries(range.locations()), pageable, range.total());
+    }
+
+    @Override
+    public Slice<MessageSummary> findSummarySlice(Long sessionId, Pageable pageable) {
+        SessionIndex index = sessions.get(sessionId);
+        if (index == null) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        int from = (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE);
+        SessionIndex.Range range = index.range(from, pageable.getPageSize());
+        return new SliceImpl<>(summaries(range.locations()), pageable, (long) from + pageable.getPageSize() < range.total());
+    }
+
+    @Override
+    public List<MessageSummary> findSummariesAfter(Long sessionId, long id, Limit limit) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? List.of() : summaries(index.after(id, max(limit)));
+    }
+
+    @Override
+    public List<MessageSummary> findSummariesBefore(Long sessionId, long id, Limit limit) {
+        SessionIndex index = sessions.get(sessionId);
+        return index == null ? List.of() : summaries(index.before(id, max(limit)));
+    }
+
+    /**
+     * Frames carry no counts, so they are estimated from the decoded content and context.
+     */
+    @Override
+    public List<MessageTokenCount> findTokenCountsBefore(Long sessionId, long id, Limit limit) {
+        SessionIndex index = sessions.get(sessionId);
+        if (index == null) {
+            return List.of();
+        }
+        List<MessageTokenCount> counts = new ArrayList<>();
+        for (Location location : index.before(id, max(limit))) {
+            byte[] frame = read(location);
+            MessageSummary summary = MessageLogRecordUtils.decodeSummary(frame);
+            counts.add(new MessageTokenCount(summary.id(), TokenCountUtils.estimate(summary.content()),
+                    TokenCountUtils.estimate(MessageLogRecordUtils.decodeContext(frame))));
+        }
+        return counts;
+    }
+
+    @Override
+    public Map<Long, String> findContexts(Long sessionId, Collection<Long> messageIds) {
+        Map<Long, String> contexts = new HashMap<>();
+        SessionIndex index = sessions.get(sessionId);
+        if (index == null) {
+            return contexts;
+        }
+        for (Long messageId : messageIds) {
+            Location location = index.find(messageId);
+            if (location == null) {
+                continue;
+            }
+            String context = MessageLogRecordUtils.decodeContext(read(location));
+            if (context != null) {
+                contexts.put(messageId, context);
+            }
+        }
+        return contexts;
+    }
+
+    @Override
+    public void forEachMessage(Long sessionId, Consumer<MessageRecord> action) {
+        SessionIndex index = sessions.get(sessionId);
+        if (index == null) {
+            return;
+        }
+        long position = 0;
+        List<Location> locations;
+        do {
+            locations = index.after(position, STREAM_CHUNK_SIZE);
+            for (Location location : locations) {
+                byte[] frame = read(location);
+                MessageSummary summary = MessageLogRecordUtils.decodeSummary(frame);
+                action.accept(new MessageRecord(summary.id(), summary.sender(), summary.content(), MessageLogRecordUtils.decodeContext(frame), summary.createdAt()));
+                position = summary.id();
+            }
+        } while (locations.size() == STREAM_CHUNK_SIZE);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            active.force(true);
+            active.close();
+            active = null;
+            activeReader.close();
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    /**
+     * Assigns ids and writes the messages' frames as one batch.
+     *
+     * @param committed whether to write the commit frame with the batch
+     * @return frame locations, in message order
+     */
+    private synchronized List<Location> append(List<ChatMessage> messages, boolean committed) {
+        List<byte[]> frames = new ArrayList<>(messages.size() + 1);
+        for (ChatMessage message : messages) {
+            message.setId(++lastId);
+            frames.add(MessageLogRecordUtils.encode(message, message.getSession().getId()));
+        }
+        if (committed) {
+            frames.add(MessageLogRecordUtils.encodeCommit(messages.get(0).getId(), lastId));
+        }
+        try {
+            long offset = appendFrames(frames);
+            List<Location> locations = new ArrayList<>(messages.size());
+            for (byte[] frame : frames.subList(0, messages.size())) {
+                locations.add(new Location(activeNo, offset, frame.length));
+                offset += frame.length;
+            }
+            return locations;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to append to message log segment " + activeNo, ex);
+        }
+    }
+
+    /**
+     * Writes frames as one batch to the active segment, rolling over first if they
+     * would not fit. Call holding the store's monitor.
+     *
+     * @return offset of the first frame
+     */
+    private long appendFrames(List<byte[]> frames) throws IOException {
+        int total = frames.stream().mapToInt(frame -> frame.length).sum();
+        if (active.size() > 0 && active.size() + total > maxSegmentBytes) {
+            active.close();
+            // Mapped before the reader closes, so reads of the sealed segment switch over
+            mappings.put(activeNo, map(activeNo));
+            open(activeNo + 1);
+        }
+        long offset = active.size();
+        ByteBuffer batch = ByteBuffer.allocate(total);
+        frames.forEach(batch::put);
+        batch.flip();
+        write(batch, offset);
+        return offset;
+    }
+
+    /**
+     * Adds written messages to the index; only ever after the write, so readers
+     * never see a location beyond the file.
+     */
+    private void publish(List<ChatMessage> messages, List<Location> locations) {
+        for (int i = 0; i < messages.size(); i++) {
+            Location location = locations.get(i);
+            sessions.computeIfAbsent(messages.get(i).getSession().getId(), id -> new SessionIndex())
+                    .add(messages.get(i).getId(), location.segmentNo(), location.offset(), location.length());
+        }
+    }
+
+    /**
+     * Writes the commit frame of an append whose transaction committed. Its ids
+     * were assigned in one run, so the frame covers exactly its messages.
+     */
+    private void markCommitted(List<ChatMessage> messages) {
+        long firstId = messages.get(0).getId();
+        long lastCommitted = messages.get(messages.size() - 1).getId();
+        try {
+            synchronized (this) {
+                appendFrames(List.of(MessageLogRecordUtils.encodeCommit(firstId, lastCommitted)));
+            }
+        } catch (IOException ex) {
+            // Readable until the next restart, which skips them
+            log.error("Writing commit frame failed | firstId={} | lastId={}", firstId, lastCommitted, ex);
+        }
+    }
+
+    private void write(ByteBuffer batch, long offset) throws IOException {
+        try {
+            while (batch.hasRemaining()) {
+                active.write(batch);
+            }
+            if (fsync) {
+                active.force(false);
+            }
+        } catch (IOException ex) {
+            // Drop a partial write so the next append does not land behind a torn frame
+            active.truncate(offset);
+            throw ex;
+        }
+    }
+
+    /**
+     * Indexes every intact, committed frame of a segment. Message frames wait in
+     * {@code uncommitted} until their commit frame, which may follow in a later segment.
+     *
+     * @return length of the intact prefix of the segment
+     */
+    private long replay(int segmentNo, NavigableMap<Long, Pending> uncommitted) {
+        MappedByteBuffer mapping = mappings.computeIfAbsent(segmentNo, this::map);
+        int offset = 0;
+        while (offset + MessageLogRecordUtils.HEADER_LENGTH <= mapping.capacity()) {
+            int length = MessageLogRecordUtils.HEADER_LENGTH + mapping.getInt(offset);
+            if (length <= MessageLogRecordUtils.HEADER_LENGTH || length > mapping.capacity() - offset) {
+                break;
+            }
+            byte[] frame = new byte[length];
+            mapping.get(offset, frame);
+            if (!MessageLogRecordUtils.isIntact(frame)) {
+                break;
+            }
+            if (MessageLogRecordUtils.isCommit(frame)) {
+                Map<Long, Pending> committed = uncommitted.subMap(MessageLogRecordUtils.rangeFirstId(frame), true, MessageLogRecordUtils.rangeLastId(frame), true);
+                committed.forEach((id, pending) -> sessions.computeIfAbsent(pending.sessionId(), key -> new SessionIndex())
+                        .add(id, pending.location().segmentNo(), pending.location().offset(), pending.location().length()));
+                committed.clear();
+            } else if (MessageLogRecordUtils.isTombstone(frame)) {
+                long sessionId = MessageLogRecordUtils.sessionId(frame);
+                long firstId = MessageLogRecordUtils.rangeFirstId(frame);
+                long lastVoided = MessageLogRecordUtils.rangeLastId(frame);
+                sessions.computeIfPresent(sessionId, (key, index) -> index.remove(firstId, lastVoided) ? null : index);
+                uncommitted.subMap(firstId, true, lastVoided, true).values().removeIf(pending -> pending.sessionId() == sessionId);
+            } else {
+                long id = MessageLogRecordUtils.messageId(frame);
+                uncommitted.put(id, new Pending(MessageLogRecordUtils.sessionId(frame), new Location(segmentNo, offset, length)));
+                // Ids of uncommitted appends are not reused either
+                lastId = Math.max(lastId, id);
+            }
+            offset += length;
+        }
+        return offset;
+    }
+
+    private List<MessageSummary> summaries(List<Location> locations) {
+        return locations.stream().map(location -> MessageLogRecordUtils.decodeSummary(read(location))).toList();
+    }
+
+    private byte[] read(Location location) {
+        byte[] frame = new byte[location.length()];
+        for (boolean retried = false; ; retried = true) {
+            MappedByteBuffer mapping = mappings.get(location.segmentNo());
+            if (mapping != null) {
+                mapping.get((int) location.offset(), frame);
+                return frame;
+            }
+            FileChannel reader = activeReader;
+            try {
+                readFully(reader, frame, location.offset());
+                return frame;
+            } catch (ClosedChannelException ex) {
+                // Rolled over meanwhile, or closed by an interrupted reader
+                reopenReader(reader);
+                if (retried || ex instanceof ClosedByInterruptException) {
+                    throw new UncheckedIOException("Unable to read message log segment " + location.segmentNo(), ex);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Unable to read message log segment " + location.segmentNo(), ex);
+            }
+        }
+    }
+
+    private static void readFully(FileChannel channel, byte[] frame, long offset) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(frame);
+        while (target.hasRemaining()) {
+            if (channel.read(target, offset + target.position()) < 0) {
+                throw new EOFException("Frame beyond end of segment at offset " + offset);
+            }
+        }
+    }
+
+    /**
+     * Replaces the reader of the active segment if it is still the given, closed one.
+     */
+    private synchronized void reopenReader(FileChannel stale) {
+        if (activeReader != stale || stale.isOpen() || active == null) {
+            return;
+        }
+        try {
+            activeReader = FileChannel.open(segmentPath(activeNo), StandardOpenOption.READ);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to reopen message log segment " + activeNo, ex);
+        }
+    }
+
+    private MappedByteBuffer map(int segmentNo) {
+        try (FileChannel channel = FileChannel.open(segmentPath(segmentNo), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to map message log segment " + segmentNo, ex);
+        }
+    }
+
+    private void open(int segmentNo) throws IOException {
+        FileChannel previousReader = activeReader;
+        active = FileChannel.open(segmentPath(segmentNo), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeReader = FileChannel.open(segmentPath(segmentNo), StandardOpenOption.READ);
+        activeNo = segmentNo;
+        mappings.remove(segmentNo);
+        if (previousReader != null) {
+            previousReader.close();
+        }
+    }
+
+    private List<Integer> segmentNos() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> SEGMENT_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(int segmentNo) {
+        return directory.resolve(String.format("messages-%06d.log", segmentNo));
+    }
+
+    private static int max(Limit limit) {
+        return limit.isUnlimited() ? Integer.MAX_VALUE : limit.max();
+    }
+
+    /**
+     * Position of a frame in the segment files.
+     */
+    private record Location(int segmentNo, long offset, int length) {
+    }
+
+    /**
+     * Replayed message frame waiting for its commit frame.
+     */
+    private record Pending(long sessionId, Location location) {
+    }
+
+    /**
+     * Frame locations of one session's messages, in id order. Guarded by its own
+     * monitor, so reads of a session never wait for appends to other sessions.
+     */
+    private static final class SessionIndex {
+
+        private long[] ids = new long[8];
+
+        private int[] segments = new int[8];
+
+        private long[] offsets = new long[8];
+
+        private int[] lengths = new int[8];
+
+        private int size;
+
+        /**
+         * Adds a frame in id order. Commits of one session can publish out of
+         * order, so a smaller id is inserted in place.
+         */
+        synchronized void add(long id, int segmentNo, long offset, int length) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                segments = Arrays.copyOf(segments, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            int index = size == 0 || ids[size - 1] < id ? size : position(id, false);
+            shift(index, index + 1, size - index);
+            ids[index] = id;
+            segments[index] = segmentNo;
+            offsets[index] = offset;
+            lengths[index] = length;
+            size++;
+        }
+
+        /**
+         * Removes the frames with ids in {@code [firstId, lastId]}.
+         *
+         * @return whether the index is empty afterwards
+         */
+        synchronized boolean remove(long firstId, long lastId) {
+            int from = position(firstId, false);
+            int to = position(lastId, true);
+            if (to > from) {
+                shift(to, from, size - to);
+                size -= to - from;
+            }
+            return size == 0;
+        }
+
+        synchronized Range range(int from, int count) {
+            int start = Math.min(from, size);
+            return new Range(locations(start, (int) Math.min((long) start + count, size), false), size);
+        }
+
+        synchronized List<Location> after(long id, int limit) {
+            int start = position(id, true);
+            return locations(start, (int) Math.min((long) start + limit, size), false);
+        }
+
+        synchronized List<Location> before(long id, int limit) {
+            int end = position(id, false);
+            return locations(Math.max(0, end - limit), end, true);
+        }
+
+        synchronized Location find(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            return index < 0 ? null : new Location(segments[index], offsets[index], lengths[index]);
+        }
+
+        /**
+         * @return index of the first id greater than ({@code exclusive}) or not less than the given id
+         */
+        private int position(long id, boolean exclusive) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return -index - 1;
+            }
+            return exclusive ? index + 1 : index;
+        }
+
+        private void shift(int from, int to, int count) {
+            System.arraycopy(ids, from, ids, to, count);
+            System.arraycopy(segments, from, segments, to, count);
+            System.arraycopy(offsets, from, offsets, to, count);
+            System.arraycopy(lengths, from, lengths, to, count);
+        }
+
+        private List<Location> locations(int from, int to, boolean descending) {
+            List<Location> locations = new ArrayList<>(Math.max(0, to - from));
+            for (int i = 0; i < to - from; i++) {
+                int index = descending ? to - 1 - i : from + i;
+                locations.add(new Location(segments[index], offsets[index], lengths[index]));
+            }
+            return locations;
+        }
+
+        record Range(List<Location> locations, int total) {
+        }
+    }
+}
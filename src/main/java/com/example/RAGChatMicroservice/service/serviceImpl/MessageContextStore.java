@@ -0,0 +1,150 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.MessageContextChunk;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.repository.ContextChunkRepository;
+import com.example.RAGChatMicroservice.repository.MessageContextChunkRepository;
+import com.example.RAGChatMicroservice.repository.projection.ContextChunkPart;
+import com.example.RAGChatMicroservice.util.ContextChunkUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Content-addressed storage of message RAG context, kept out of the {@code chat_messages} table.
+ *
+ * <p>
+ * A context is split into chunks ({@link ContextChunkUtils#split(String)}); an
+ * empty context is stored as one empty chunk, so it reads back as {@code ""}
+ * rather than as no context. Each
+ * distinct chunk is stored once in {@code context_chunks}, keyed by its SHA-256,
+ * and a message keeps only its ordered list of chunk hashes. Passages retrieved
+ * again in later turns or other sessions therefore cost one small reference row
+ * instead of another copy of the text.
+ * </p>
+ *
+ * <p>
+ * Reference counts: storing a context adds one reference per chunk occurrence;
+ * soft deletes keep them, and the purge releases them when it hard-deletes the
+ * messages, removing chunks that are no longer referenced.
+ * </p>
+ */
+@Component
+public class MessageContextStore {
+
+    /**
+     * Inserts a chunk or adds references to an existing one, atomically.
+     */
+    private static final String UPSERT_CHUNK = "INSERT INTO context_chunks (hash, content, ref_count) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + VALUES(ref_count)";
+
+    private final ContextChunkRepository chunkRepo;
+
+    private final MessageContextChunkRepository referenceRepo;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CompressedTextConverter textConverter;
+
+    public MessageContextStore(ContextChunkRepository chunkRepo, MessageContextChunkRepository referenceRepo, JdbcTemplate jdbcTemplate, CompressedTextConverter textConverter) {
+        this.chunkRepo = chunkRepo;
+        this.referenceRepo = referenceRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.textConverter = textConverter;
+    }
+
+    /**
+     * Stores the context of freshly persisted messages. Must run in the
+     * transaction that inserted the messages.
+     *
+     * @param messages persisted messages carrying their (transient) context
+     */
+    public void saveAll(List<ChatMessage> messages) {
+        // Sorted by hash so concurrent writers lock shared chunk rows in the same order
+        Map<String, PendingChunk> chunks = new TreeMap<>();
+        List<MessageContextChunk> references = new ArrayList<>();
+        for (ChatMessage message : messages) {
+            if (message.getContext() == null) {
+                continue;
+            }
+            List<String> parts = ContextChunkUtils.split(message.getContext());
+            for (int ordinal = 0; ordinal < parts.size(); ordinal++) {
+                String part = parts.get(ordinal);
+                String hash = ContextChunkUtils.hash(part);
+                chunks.computeIfAbsent(hash, key -> new PendingChunk(part)).references++;
+                references.add(new MessageContextChunk(message.getId(), ordinal, hash));
+            }
+        }
+        if (references.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, PendingChunk>> upserts = new ArrayList<>(chunks.entrySet());
+        jdbcTemplate.batchUpdate(UPSERT_CHUNK, upserts, upserts.size(), (ps, chunk) -> {
+            ps.setString(1, chunk.getKey());
+            ps.setBytes(2, textConverter.convertToDatabaseColumn(chunk.getValue().content));
+            ps.setLong(3, chunk.getValue().references);
+        });
+        referenceRepo.saveAll(references);
+    }
+
+    /**
+     * Loads and reassembles the context of the given messages with one indexed join.
+     *
+     * @param messageIds message identifiers
+     * @return context by message id; messages without context are absent
+     */
+    public Map<Long, String> findByMessageIds(Collection<Long> messageIds) {
+        Map<Long, String> contexts = new HashMap<>();
+        if (messageIds.isEmpty()) {
+            return contexts;
+        }
+        // Parts arrive ordered by message and position
+        Map<Long, StringBuilder> builders = new HashMap<>();
+        for (ContextChunkPart part : referenceRepo.findPartsByMessageIds(messageIds)) {
+            builders.computeIfAbsent(part.messageId(), id -> new StringBuilder()).append(part.content());
+        }
+        builders.forEach((messageId, context) -> contexts.put(messageId, context.toString()));
+        return contexts;
+    }
+
+    /**
+     * Hard-deletes the context references of the given messages and releases
+     * their chunks, dropping chunks no other message uses. Call before deleting
+     * the messages.
+     *
+     * @param messageIds message identifiers
+     */
+    @Transactional
+    public void deleteByMessageIds(List<Long> messageIds) {
+        List<String> hashes = referenceRepo.findChunkHashesByMessageIds(messageIds);
+        if (hashes.isEmpty()) {
+            return;
+        }
+        chunkRepo.releaseReferences(messageIds, hashes);
+        referenceRepo.deleteByMessageIds(messageIds);
+        chunkRepo.deleteUnreferenced(hashes);
+    }
+
+    /**
+     * A distinct chunk of the batch being stored and how often the batch references it.
+     */
+    private static final class PendingChunk {
+
+        private final String content;
+
+        private long references;
+
+        private PendingChunk(String content) {
+            this.content = content;
+        }
+    }
+}
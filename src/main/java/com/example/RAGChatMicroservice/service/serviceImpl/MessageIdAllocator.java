@@ -0,0 +1,69 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.properties.MessageStoreProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Hands out message ids from the {@code chat_messages_seq} table, which holds
+ * the next free id.
+ *
+ * <p>
+ * Ids are reserved per append, sized to the batch, in a short transaction of
+ * their own so the counter row is not locked for the whole append. Callers
+ * reserve only after {@code incrementMessageCount} has locked the session
+ * row: the next append to that session on any instance waits for the lock and
+ * then reserves a higher block, so ids increase in commit order within each
+ * session. Cursors, {@link RecentMessageBuffer} and the session's last-message
+ * pointer all rely on that order; pooled blocks cached per instance would break it.
+ * </p>
+ *
+ * <p>
+ * Reservations go through a small pool of their own on the primary database
+ * ({@code app.message-store.jpa.id-pool-size}). The appending transaction
+ * already holds an application connection, so taking a second one from the
+ * application pool could exhaust it with appends that each wait for another.
+ * </p>
+ */
+@Component
+public class MessageIdAllocator {
+
+    private final HikariDataSource pool;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transaction;
+
+    public MessageIdAllocator(DataSourceProperties dataSourceProperties, MessageStoreProperties properties) {
+        this.pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        this.pool.setPoolName("message-ids");
+        this.pool.setMaximumPoolSize(properties.getJpa().getIdPoolSize());
+        this.pool.setMinimumIdle(1);
+        this.jdbcTemplate = new JdbcTemplate(pool);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(pool));
+    }
+
+    /**
+     * Reserves a block of consecutive ids.
+     *
+     * @param count number of ids, at least 1
+     * @return first id of the block
+     */
+    public long reserve(int count) {
+        return transaction.execute(status -> {
+            long first = jdbcTemplate.queryForObject("SELECT next_val FROM chat_messages_seq FOR UPDATE", Long.class);
+            jdbcTemplate.update("UPDATE chat_messages_seq SET next_val = ?", first + count);
+            return first;
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.close();
+    }
+}
@@ -0,0 +1,373 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.exception.IngestionTimeoutException;
+import com.example.RAGChatMicroservice.exception.IngestionUnavailableException;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.IngestionProperties;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.service.MessageIngestionService;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.example.RAGChatMicroservice.constants.MessageConstants.*;
+
+/**
+ * Write-behind implementation of {@link MessageIngestionService}.
+ *
+ * <p>
+ * Flow:
+ * <ol>
+ *     <li>The request thread validates the session and offers the message to a
+ *     bounded queue; a full queue is rejected immediately (backpressure)</li>
+ *     <li>A single writer thread drains up to {@code maxBatchSize} messages, waiting
+ *     at most {@code lingerMillis} for a batch to fill</li>
+ *     <li>The per-session counters are updated and the batch (messages and their
+ *     context) is appended to the {@link MessageStore}, all in one transaction</li>
+ *     <li>After commit every caller in the batch is acknowledged with its saved message</li>
+ * </ol>
+ *
+ * <p>
+ * A single writer drains a FIFO queue, so messages of a session are committed
+ * (and receive ids) in the order they were accepted. If a batch fails, its
+ * messages are retried one by one so a single bad message only fails its own caller.
+ *
+ * <p>
+ * A caller that times out cancels its message if the writer has not taken it
+ * yet (503, safe to retry); the writer skips cancelled messages. Once taken, the
+ * message may still commit, so the caller gets 504 instead.
+ *
+ * <p>
+ * Metrics: {@code chat.ingest.queue.depth} and {@code chat.ingest.batch.size}.
+ */
+@Service
+@Slf4j
+public class MessageIngestionServiceImpl implements MessageIngestionService {
+
+    /**
+     * How long an idle writer blocks before re-checking for shutdown.
+     */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final MessageStore messageStore;
+
+    private final ChatSessionRepository sessionRepo;
+
+    private final SessionCache sessionCache;
+
+    private final ReadYourWritesTracker readYourWrites;
+
+    private final SessionArchiveService archiveService;
+
+    private final RecentMessageBuffer recentMessages;
+
+    private final MessageSearchIndex searchIndex;
+
+    private final IngestionProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingMessage> queue;
+
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public MessageIngestionServiceImpl(MessageStore messageStore, ChatSessionRepository sessionRepo, SessionCache sessionCache, ReadYourWritesTracker readYourWrites,
+                                       SessionArchiveService archiveService, RecentMessageBuffer recentMessages, MessageSearchIndex searchIndex,
+                                       IngestionProperties properties, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.messageStore = messageStore;
+        this.sessionRepo = sessionRepo;
+        this.sessionCache = sessionCache;
+        this.readYourWrites = readYourWrites;
+        this.archiveService = archiveService;
+        this.recentMessages = recentMessages;
+        this.searchIndex = searchIndex;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batchSizes = DistributionSummary.builder("chat.ingest.batch.size").description("Messages committed per write-behind transaction").register(meterRegistry);
+        Gauge.builder("chat.ingest.queue.depth", queue, BlockingQueue::size).description("Messages waiting for the write-behind writer").register(meterRegistry);
+    }
+
+    /**
+     * Starts the writer thread when write-behind ingestion is enabled.
+     */
+    @PostConstruct
+    public void start() {
+        if (!properties.isWriteBehind()) {
+            return;
+        }
+        running = true;
+        writer = Thread.ofPlatform().name("message-writer").daemon().start(this::runWriter);
+        log.info("Write-behind ingestion started | capacity={} | maxBatch={} | lingerMillis={}", properties.getQueueCapacity(), properties.getMaxBatchSize(), properties.getLingerMillis());
+    }
+
+    /**
+     * Stops accepting messages and lets the writer commit what is already queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(properties.getAckTimeoutMillis());
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Queues a message and blocks until its batch has been committed.
+     *
+     * @param sessionId unique chat session identifier
+     * @param request   message payload (sender, content, context)
+     * @return response containing the saved message
+     * @throws ResourceNotFoundException     if the session does not exist or is deleted
+     * @throws IngestionUnavailableException if the queue is full, or the message was discarded before being written
+     * @throws IngestionTimeoutException     if the message was taken by the writer but its commit is not confirmed in time
+     */
+    @Override
+    public SessionMessageResponse addMessage(Long sessionId, AddMessageRequest request) {
+
+        log.info("Queueing message | sessionId={} | sender={}", sessionId, request.getSender());
+
+        // Validate up front so unknown sessions still fail synchronously with 404
+        if (sessionCache.findActive(sessionId).isEmpty()) {
+            throw new ResourceNotFoundException("Chat session not found with id: " + sessionId);
+        }
+        if (request.getEmbedding() != null && searchIndex.isEnabled()) {
+            searchIndex.validateEmbedding(request.getEmbedding());
+        }
+
+        PendingMessage pending = new PendingMessage(sessionId, request, LocalDateTime.now(), new CompletableFuture<>(), new AtomicBoolean());
+        if (!running || !queue.offer(pending)) {
+            throw new IngestionUnavailableException(ERROR_INGESTION_QUEUE_FULL);
+        }
+
+        ChatMessage saved = awaitCommit(pending);
+
+        SessionMessageResponse response = new SessionMessageResponse();
+        response.setSessionId(sessionId);
+        response.setMessages(List.of(toResponse(saved)));
+        return response;
+    }
+
+    // ----------------------------------------------------------------
+    // Writer
+    // ----------------------------------------------------------------
+
+    /**
+     * Writer loop; keeps draining after shutdown until the queue is empty.
+     */
+    private void runWriter() {
+        while (running || !queue.isEmpty()) {
+            try {
+                List<PendingMessage> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collects the next batch: blocks for the first message, then lingers
+     * briefly for more until the batch is full.
+     *
+     * @return messages to commit together, empty if none arrived
+     */
+    private List<PendingMessage> nextBatch() throws InterruptedException {
+        List<PendingMessage> batch = new ArrayList<>();
+        PendingMessage first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+
+        int maxBatchSize = properties.getMaxBatchSize();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getLingerMillis());
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                break;
+            }
+            PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        // Callers that already gave up keep their cancelled messages out of the batch
+        batch.removeIf(pending -> !pending.claimed().compareAndSet(false, true));
+        return batch;
+    }
+
+    /**
+     * Commits a batch and acknowledges its callers, falling back to one
+     * transaction per message if the batch as a whole fails.
+     */
+    private void writeBatch(List<PendingMessage> batch) {
+        try {
+            List<ChatMessage> saved = transactionTemplate.execute(status -> persist(batch));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).ack().complete(saved.get(i));
+            }
+            batchSizes.record(batch.size());
+        } catch (RuntimeException ex) {
+            log.warn("Write-behind batch failed, retrying individually | size={}", batch.size(), ex);
+            batch.forEach(this::writeSingle);
+        }
+    }
+
+    private void writeSingle(PendingMessage pending) {
+        try {
+            List<ChatMessage> saved = transactionTemplate.execute(status -> persist(List.of(pending)));
+            pending.ack().complete(saved.get(0));
+            batchSizes.record(1);
+        } catch (RuntimeException ex) {
+            pending.ack().completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Bumps each session's counter once, then appends the messages. Must run in a
+     * transaction. The counters go first so that a session deleted in the meantime
+     * fails the batch before anything is appended to a non-transactional store.
+     * Sessions are locked in ascending id order, so concurrent batches touching
+     * the same sessions cannot deadlock on each other.
+     *
+     * @return saved messages in batch order
+     */
+    private List<ChatMessage> persist(List<PendingMessage> batch) {
+        Map<Long, Long> perSession = new TreeMap<>();
+        List<ChatMessage> messages = new ArrayList<>(batch.size());
+        for (PendingMessage pending : batch) {
+            ChatMessage message = new ChatMessage();
+            message.setSender(pending.request().getSender());
+            message.setContent(pending.request().getContent());
+            message.setContext(pending.request().getContext());
+            message.setEmbedding(searchIndex.isEnabled() ? pending.request().getEmbedding() : null);
+            message.setCreatedAt(pending.acceptedAt());
+            // Session was validated on accept; a reference avoids re-reading it
+            message.setSession(sessionRepo.getReferenceById(pending.sessionId()));
+            messages.add(message);
+            perSession.merge(pending.sessionId(), 1L, Long::sum);
+        }
+
+        perSession.forEach((sessionId, count) -> {
+            // Archived sessions are restored first; a session deleted since the message was
+            // accepted rolls back, and the per-message retry isolates it
+            if (sessionRepo.incrementMessageCount(sessionId, count) == 0
+                    && (!archiveService.restore(sessionId) || sessionRepo.incrementMessageCount(sessionId, count) == 0)) {
+                throw new ResourceNotFoundException("Chat session not found with id: " + sessionId);
+            }
+            readYourWrites.recordWrite(sessionId);
+        });
+        List<ChatMessage> saved = messageStore.saveAll(messages);
+
+        Map<Long, List<ChatMessage>> savedPerSession = new TreeMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            savedPerSession.computeIfAbsent(batch.get(i).sessionId(), id -> new ArrayList<>()).add(saved.get(i));
+        }
+        savedPerSession.forEach((sessionId, sessionMessages) -> {
+            ChatMessage last = sessionMessages.get(sessionMessages.size() - 1);
+            sessionRepo.recordLastMessage(sessionId, last.getId(), last.getCreatedAt());
+            recentMessages.append(sessionId, sessionMessages);
+            searchIndex.index(sessionId, sessionMessages);
+        });
+        return saved;
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    /**
+     * Waits for the writer to acknowledge a message.
+     *
+     * @throws IngestionUnavailableException if not acknowledged within {@code ackTimeoutMillis}
+     *                                       and cancelled before the writer took it
+     * @throws IngestionTimeoutException     if not acknowledged in time after the writer took it
+     */
+    private ChatMessage awaitCommit(PendingMessage pending) {
+        try {
+            return pending.ack().get(properties.getAckTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw cancelOrTimeout(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw cancelOrTimeout(pending);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Cancels a message the writer has not taken yet, freeing its queue slot.
+     *
+     * @return the exception to answer the caller with
+     */
+    private RuntimeException cancelOrTimeout(PendingMessage pending) {
+        if (pending.claimed().compareAndSet(false, true)) {
+            pending.ack().cancel(false);
+            queue.remove(pending);
+            return new IngestionUnavailableException(ERROR_INGESTION_NOT_CONFIRMED);
+        }
+        return new IngestionTimeoutException(ERROR_INGESTION_OUTCOME_UNKNOWN);
+    }
+
+    private MessageResponse toResponse(ChatMessage msg) {
+        MessageResponse dto = new MessageResponse();
+        dto.setMessageId(msg.getId());
+        dto.setSender(msg.getSender());
+        dto.setContent(msg.getContent());
+        dto.setContext(msg.getContext());
+        dto.setCreatedAt(msg.getCreatedAt());
+        return dto;
+    }
+
+    /**
+     * A message accepted into the queue, with the future its caller is waiting on.
+     * {@code claimed} is set once, by the writer taking the message or by the caller
+     * cancelling it, whichever comes first.
+     */
+    private record PendingMessage(Long sessionId, AddMessageRequest request, LocalDateTime acceptedAt, CompletableFuture<ChatMessage> ack, AtomicBoolean claimed) {
+    }
+}
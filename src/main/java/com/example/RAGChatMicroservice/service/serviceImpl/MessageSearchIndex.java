@@ -0,0 +1,506 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.constants.SearchConstants;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.properties.SearchProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageIndexRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Embedded Lucene index over message content, one document per message.
+ *
+ * <p>
+ * Maintained incrementally: appends are indexed once their transaction commits
+ * and deleting a session removes its documents. New documents become searchable
+ * at the next near-real-time refresh ({@code refreshMillis}), without a commit;
+ * segments are merged in the background by Lucene's concurrent merge scheduler.
+ * Documents are keyed by message id, so indexing a message again replaces it.
+ * </p>
+ *
+ * <p>
+ * Each commit records the highest indexed message id. On startup the index catches
+ * up from the database in the background, starting {@code catchUpOverlap} ids below
+ * that watermark, which also rebuilds an empty index. Catch-up reads the database,
+ * so with the {@code log} message store only live indexing applies.
+ * </p>
+ *
+ * <p>
+ * Messages sent with a client-computed embedding also get a vector, searched
+ * approximately through a per-segment HNSW graph ({@code hnsw*} settings), held
+ * as int8 when {@code vectorQuantized} and read memory-mapped, off the heap.
+ * Quantized searches take extra candidates and re-rank them by the float32 vectors.
+ * Embeddings are stored with their message in {@code chat_message_embeddings},
+ * so catch-up restores the vectors of a rebuilt index. Messages stored before that
+ * table existed have none there, so catch-up never replaces a document it finds
+ * in the index.
+ * </p>
+ *
+ * <p>
+ * The index is local to this instance and only sees appends made through it;
+ * run a single instance when search is enabled.
+ * </p>
+ */
+@Slf4j
+@Component
+public class MessageSearchIndex {
+
+    private static final String FIELD_MESSAGE_ID = "messageId";
+
+    private static final String FIELD_SESSION_ID = "sessionId";
+
+    private static final String FIELD_USER_ID = "userId";
+
+    private static final String FIELD_SENDER = "sender";
+
+    private static final String FIELD_CREATED_AT = "createdAt";
+
+    private static final String FIELD_CONTENT = "content";
+
+    private static final String FIELD_EMBEDDING = "embedding";
+
+    /**
+     * Commit user-data key of the highest message id covered by the commit.
+     */
+    private static final String WATERMARK = "lastMessageId";
+
+    private static final int CATCH_UP_CHUNK_SIZE = 500;
+
+    /**
+     * Candidates per requested hit when vectors are quantized; they are re-ranked exactly.
+     */
+    private static final int QUANTIZED_OVERSAMPLING = 3;
+
+    private final SearchProperties properties;
+
+    private final SessionCache sessionCache;
+
+    private final ChatMessageRepository messageRepo;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final AtomicLong maxIndexedId = new AtomicLong();
+
+    /**
+     * Serializes live writes with catch-up chunks, so catch-up cannot overwrite a
+     * document (and its vector) indexed live after it looked the message up.
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private IndexWriter writer;
+
+    private SearcherManager searcherManager;
+
+    private Thread catchUp;
+
+    /**
+     * Next message id catch-up still has to read, or {@code -1} once it has finished.
+     */
+    private volatile long catchUpPosition = -1;
+
+    private volatile boolean closed;
+
+    public MessageSearchIndex(SearchProperties properties, SessionCache sessionCache, ChatMessageRepository messageRepo) {
+        this.properties = properties;
+        this.sessionCache = sessionCache;
+        this.messageRepo = messageRepo;
+    }
+
+    /**
+     * Opens (or creates) the index and starts catching up from the database.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(properties.getRamBufferMb())
+                .setCodec(vectorCodec());
+        writer = new IndexWriter(FSDirectory.open(Path.of(properties.getDirectory())), config);
+        searcherManager = new SearcherManager(writer, null);
+
+        long watermark = 0L;
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (WATERMARK.equals(entry.getKey())) {
+                    watermark = Long.parseLong(entry.getValue());
+                }
+            }
+        }
+        maxIndexedId.set(watermark);
+        log.info("Opened search index | documents={} | watermark={}", writer.getDocStats().numDocs, watermark);
+
+        long from = Math.max(0L, watermark - properties.getCatchUpOverlap());
+        catchUpPosition = from;
+        catchUp = Thread.ofPlatform().name("search-catch-up").daemon().start(() -> catchUp(from));
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Checks that an embedding can be indexed and compared by cosine similarity.
+     *
+     * @param embedding client-computed embedding
+     * @throws IllegalArgumentException if it has the wrong length, a non-finite component or no length
+     */
+    public void validateEmbedding(float[] embedding) {
+        boolean valid = embedding.length == properties.getVectorDimensions();
+        double norm = 0;
+        for (int i = 0; valid && i < embedding.length; i++) {
+            valid = Float.isFinite(embedding[i]);
+            norm += (double) embedding[i] * embedding[i];
+        }
+        if (!valid || norm == 0) {
+            throw new IllegalArgumentException(SearchConstants.ERROR_INVALID_EMBEDDING + properties.getVectorDimensions());
+        }
+    }
+
+    /**
+     * Indexes freshly saved messages once the current transaction commits
+     * (immediately when there is none). Failures are logged, not thrown: the
+     * messages are already stored.
+     *
+     * @param sessionId owning session
+     * @param saved     saved messages
+     */
+    public void index(Long sessionId, List<ChatMessage> saved) {
+        if (!properties.isEnabled() || saved.isEmpty()) {
+            return;
+        }
+        List<MessageIndexRow> rows = saved.stream().map(message -> new MessageIndexRow(message.getId(), sessionId, null, message.getSender(), message.getContent(), message.getCreatedAt(), message.getEmbedding())).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    indexCommitted(sessionId, rows);
+                }
+            });
+        } else {
+            indexCommitted(sessionId, rows);
+        }
+    }
+
+    /**
+     * Removes all documents of a session.
+     *
+     * @param sessionId chat session identifier
+     */
+    public void deleteSession(Long sessionId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            writer.deleteDocuments(new Term(FIELD_SESSION_ID, sessionId.toString()));
+        } catch (IOException ex) {
+            // Searches still drop hits of deleted sessions
+            log.warn("Removing session from search index failed | sessionId={}", sessionId, ex);
+        }
+    }
+
+    /**
+     * Searches the messages of one user's sessions.
+     *
+     * @param userId owner of the sessions
+     * @param text   query in simple query syntax ({@code "phrase"}, {@code +}, {@code -}, {@code |}, {@code *})
+     * @param limit  maximum number of hits
+     * @return hits by descending relevance
+     * @throws UncheckedIOException if the index cannot be read
+     */
+    public List<Hit> search(String userId, String text, int limit) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_CONTENT);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query query = new BooleanQuery.Builder()
+                .add(parser.parse(text), BooleanClause.Occur.MUST)
+                .add(new TermQuery(new Term(FIELD_USER_ID, userId)), BooleanClause.Occur.FILTER)
+                .build();
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, limit);
+                String[] highlights = UnifiedHighlighter.builder(searcher, analyzer).build().highlight(FIELD_CONTENT, query, topDocs);
+                StoredFields storedFields = searcher.storedFields();
+                List<Hit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                    Document doc = storedFields.document(topDocs.scoreDocs[i].doc);
+                    hits.add(toHit(doc, topDocs.scoreDocs[i].score, highlights[i], null));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to search the message index", ex);
+        }
+    }
+
+    /**
+     * Finds the messages of one user's sessions whose embeddings are most similar
+     * (cosine) to the given one. Approximate: the HNSW graph may miss a few true
+     * nearest neighbours.
+     *
+     * @param userId    owner of the sessions
+     * @param embedding query embedding, see {@link #validateEmbedding(float[])}
+     * @param k         maximum number of hits
+     * @return hits by descending similarity, scored {@code (1 + cosine) / 2}, with their content
+     * @throws UncheckedIOException if the index cannot be read
+     */
+    public List<Hit> searchSimilar(String userId, float[] embedding, int k) {
+        // int8 scores are coarse: take more candidates and rank them by their float32 vectors
+        int candidates = properties.isVectorQuantized() ? k * QUANTIZED_OVERSAMPLING : k;
+        Query query = new KnnFloatVectorQuery(FIELD_EMBEDDING, embedding, candidates, new TermQuery(new Term(FIELD_USER_ID, userId)));
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                ScoreDoc[] scoreDocs = searcher.search(query, candidates).scoreDocs;
+                if (properties.isVectorQuantized()) {
+                    rescore(searcher, scoreDocs, embedding);
+                }
+                StoredFields storedFields = searcher.storedFields();
+                List<Hit> hits = new ArrayList<>(Math.min(k, scoreDocs.length));
+                for (int i = 0; i < scoreDocs.length && i < k; i++) {
+                    Document doc = storedFields.document(scoreDocs[i].doc);
+                    hits.add(toHit(doc, scoreDocs[i].score, null, doc.get(FIELD_CONTENT)));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to search the message index", ex);
+        }
+    }
+
+    /**
+     * Makes recently indexed documents searchable (near-real-time, no commit).
+     * Waits for a refresh already in progress, which may predate the latest writes.
+     */
+    public void refresh() throws IOException {
+        if (properties.isEnabled()) {
+            searcherManager.maybeRefreshBlocking();
+        }
+    }
+
+    /**
+     * Durably commits the index together with its watermark.
+     */
+    public void commit() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        // While catching up, only ids below its position are known to be indexed
+        long position = catchUpPosition;
+        long watermark = position >= 0 ? position : maxIndexedId.get();
+        writer.setLiveCommitData(Map.of(WATERMARK, Long.toString(watermark)).entrySet());
+        writer.commit();
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        closed = true;
+        catchUp.join();
+        commit();
+        searcherManager.close();
+        writer.close();
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    private void indexCommitted(Long sessionId, List<MessageIndexRow> rows) {
+        String userId = sessionCache.findActive(sessionId).map(SessionCache.CachedSession::userId).orElse(null);
+        writeLock.lock();
+        try {
+            for (MessageIndexRow row : rows) {
+                write(row, userId);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Indexing messages failed | sessionId={} | messages={}", sessionId, rows.size(), ex);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Re-indexes live messages from the database in id order, from {@code afterId}.
+     */
+    private void catchUp(long afterId) {
+        long position = afterId;
+        int indexed = 0;
+        try {
+            while (!closed) {
+                List<MessageIndexRow> rows = messageRepo.findIndexRowsAfter(position, Limit.of(CATCH_UP_CHUNK_SIZE));
+                writeChunk(rows);
+                indexed += rows.size();
+                if (rows.size() < CATCH_UP_CHUNK_SIZE) {
+                    catchUpPosition = -1;
+                    log.info("Search index caught up | messages={}", indexed);
+                    return;
+                }
+                position = rows.get(rows.size() - 1).id();
+                catchUpPosition = position;
+            }
+        } catch (IOException | RuntimeException ex) {
+            // The watermark stays at the last position, so the next start resumes from there
+            log.error("Search index catch-up failed | position={}", position, ex);
+        }
+    }
+
+    /**
+     * Indexes catch-up rows that are not in the index yet; messages stored before
+     * {@code chat_message_embeddings} have no embedding there, so replacing a
+     * document could drop its vector.
+     */
+    private void writeChunk(List<MessageIndexRow> rows) throws IOException {
+        writeLock.lock();
+        try {
+            searcherManager.maybeRefreshBlocking();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                for (MessageIndexRow row : rows) {
+                    if (searcher.count(new TermQuery(new Term(FIELD_MESSAGE_ID, row.id().toString()))) == 0) {
+                        write(row, row.userId());
+                    }
+                }
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void write(MessageIndexRow row, String userId) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_MESSAGE_ID, row.id().toString(), Field.Store.NO));
+        doc.add(new StoredField(FIELD_MESSAGE_ID, row.id()));
+        doc.add(new StringField(FIELD_SESSION_ID, row.sessionId().toString(), Field.Store.NO));
+        doc.add(new StoredField(FIELD_SESSION_ID, row.sessionId()));
+        if (userId != null) {
+            doc.add(new StringField(FIELD_USER_ID, userId, Field.Store.NO));
+        }
+        doc.add(new StoredField(FIELD_SENDER, row.sender()));
+        doc.add(new StoredField(FIELD_CREATED_AT, row.createdAt().toInstant(ZoneOffset.UTC).toEpochMilli()));
+        doc.add(new TextField(FIELD_CONTENT, row.content(), Field.Store.YES));
+        if (row.embedding() != null) {
+            doc.add(new KnnFloatVectorField(FIELD_EMBEDDING, row.embedding(), VectorSimilarityFunction.COSINE));
+        }
+        writer.updateDocument(new Term(FIELD_MESSAGE_ID, row.id().toString()), doc);
+        maxIndexedId.accumulateAndGet(row.id(), Math::max);
+    }
+
+    /**
+     * Replaces approximate scores with exact ones from the float32 vectors, which
+     * the quantized format keeps next to the int8 copies, and re-sorts.
+     */
+    private static void rescore(IndexSearcher searcher, ScoreDoc[] scoreDocs, float[] embedding) throws IOException {
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        // Vector values only move forward, so visit the documents in doc id order
+        Arrays.sort(scoreDocs, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+        FloatVectorValues vectors = null;
+        int leaf = -1;
+        for (ScoreDoc scoreDoc : scoreDocs) {
+            int next = ReaderUtil.subIndex(scoreDoc.doc, leaves);
+            if (next != leaf) {
+                leaf = next;
+                vectors = leaves.get(leaf).reader().getFloatVectorValues(FIELD_EMBEDDING);
+            }
+            vectors.advance(scoreDoc.doc - leaves.get(leaf).docBase);
+            scoreDoc.score = VectorSimilarityFunction.COSINE.compare(embedding, vectors.vectorValue());
+        }
+        Arrays.sort(scoreDocs, Comparator.comparingDouble((ScoreDoc scoreDoc) -> scoreDoc.score).reversed());
+    }
+
+    private Lucene99Codec vectorCodec() {
+        KnnVectorsFormat format = properties.isVectorQuantized()
+                ? new Lucene99HnswScalarQuantizedVectorsFormat(properties.getHnswMaxConnections(), properties.getHnswBeamWidth())
+                : new Lucene99HnswVectorsFormat(properties.getHnswMaxConnections(), properties.getHnswBeamWidth());
+        return new Lucene99Codec() {
+            @Override
+            public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
+                return format;
+            }
+        };
+    }
+
+    private static Hit toHit(Document doc, float score, String highlight, String content) {
+        return new Hit(doc.getField(FIELD_MESSAGE_ID).numericValue().longValue(), doc.getField(FIELD_SESSION_ID).numericValue().longValue(), doc.get(FIELD_SENDER),
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(doc.getField(FIELD_CREATED_AT).numericValue().longValue()), ZoneOffset.UTC),
+                score, highlight, content);
+    }
+
+    /**
+     * One matching message.
+     *
+     * @param messageId matching message
+     * @param sessionId owning session
+     * @param sender    message sender
+     * @param createdAt creation timestamp
+     * @param score     relevance score
+     * @param highlight best passage of the content with matches in {@code <b>} tags, text search only
+     * @param content   full message content, similarity search only
+     */
+    public record Hit(Long messageId, Long sessionId, String sender, LocalDateTime createdAt, float score, String highlight, String content) {
+    }
+}
@@ -0,0 +1,408 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.MessageDeltaRequest;
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+import com.example.RAGChatMicroservice.dto.response.MessageStreamResponse;
+import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.MessageStream;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.MessageStreamProperties;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.MessageStreamRepository;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.MessageStreamService;
+import com.example.RAGChatMicroservice.service.MutableMessageStore;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.RAGChatMicroservice.constants.MessageConstants.*;
+
+/**
+ * Implementation of {@link MessageStreamService}.
+ *
+ * <p>
+ * Open messages are kept in memory, one buffer per message, guarded by the
+ * buffer's monitor. A flush writes the whole content so far with one UPDATE of
+ * the message, in the same transaction as a touch of its
+ * {@code chat_message_streams} row; a touch that finds no row means the stream
+ * was expired elsewhere, and the buffer is dropped. Every flush and the close
+ * drop the session's tail from the {@link RecentMessageBuffer}, so tail reads do
+ * not keep serving older partial content.
+ * </p>
+ *
+ * <p>
+ * Buffers live only on the instance that opened the message. Appends and the
+ * close must be routed to that instance (same connection or sticky routing); on
+ * any other instance they fail with 404. If the instance dies, tokens received
+ * since the last flush are lost, at most {@code flushMillis} or
+ * {@code flushChars} worth, and the stored message keeps the flushed content
+ * until another instance expires the stream.
+ * </p>
+ */
+@Service
+@Slf4j
+public class MessageStreamServiceImpl implements MessageStreamService {
+
+    private final MessageStore messageStore;
+
+    /**
+     * Writes flushed content; {@code null} when the backend is append-only.
+     */
+    private final MutableMessageStore mutableStore;
+
+    private final ChatSessionRepository sessionRepo;
+
+    private final MessageStreamRepository streamRepo;
+
+    private final SessionArchiveService archiveService;
+
+    private final ReadYourWritesTracker readYourWrites;
+
+    private final RecentMessageBuffer recentMessages;
+
+    private final MessageSearchIndex searchIndex;
+
+    private final MessageStreamProperties properties;
+
+    private final boolean supported;
+
+    private final TransactionTemplate transaction;
+
+    private final ConcurrentMap<Long, OpenMessage> openMessages = new ConcurrentHashMap<>();
+
+    public MessageStreamServiceImpl(MessageStore messageStore, Optional<MutableMessageStore> mutableStore, ChatSessionRepository sessionRepo, MessageStreamRepository streamRepo,
+                                    SessionArchiveService archiveService, ReadYourWritesTracker readYourWrites, RecentMessageBuffer recentMessages, MessageSearchIndex searchIndex,
+                                    MessageStreamProperties properties, PlatformTransactionManager transactionManager) {
+        this.messageStore = messageStore;
+        this.mutableStore = mutableStore.orElse(null);
+        this.sessionRepo = sessionRepo;
+        this.streamRepo = streamRepo;
+        this.archiveService = archiveService;
+        this.readYourWrites = readYourWrites;
+        this.recentMessages = recentMessages;
+        this.searchIndex = searchIndex;
+        this.properties = properties;
+        this.supported = mutableStore.isPresent();
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Opens a message.
+     *
+     * <p>
+     * The session counter, the message and its stream marker are written in one
+     * transaction; the counter UPDATE doubles as the session existence check, as
+     * for regular appends.
+     * </p>
+     */
+    @Override
+    public SessionMessageResponse openMessage(Long sessionId, AddMessageRequest request) {
+
+        if (!properties.isEnabled()) {
+            throw new IllegalArgumentException(ERROR_STREAMS_DISABLED);
+        }
+        if (!supported) {
+            throw new IllegalArgumentException(ERROR_STREAMS_UNSUPPORTED);
+        }
+        if (request.getEmbedding() != null) {
+            throw new IllegalArgumentException(ERROR_EMBEDDING_BEFORE_CLOSE);
+        }
+        String content = request.getContent() == null ? "" : request.getContent();
+        checkLength(content.length());
+
+        log.info("Opening message stream | sessionId={} | sender={}", sessionId, request.getSender());
+
+        ChatMessage saved = transaction.execute(status -> {
+            incrementActiveSession(sessionId);
+            ChatMessage message = new ChatMessage();
+            message.setSender(request.getSender());
+            message.setContent(content);
+            message.setContext(request.getContext());
+            message.setCreatedAt(LocalDateTime.now());
+            message.setSession(sessionRepo.getReferenceById(sessionId));
+            ChatMessage stored = messageStore.saveAll(List.of(message)).get(0);
+            sessionRepo.recordLastMessage(sessionId, stored.getId(), stored.getCreatedAt());
+            streamRepo.save(new MessageStream(stored.getId(), sessionId, LocalDateTime.now()));
+            return stored;
+        });
+        recentMessages.invalidate(sessionId);
+        openMessages.put(saved.getId(), new OpenMessage(sessionId, saved, System.nanoTime()));
+
+        return buildMessageResponse(sessionId, saved);
+    }
+
+    @Override
+    public MessageStreamResponse appendMessage(Long sessionId, Long messageId, MessageDeltaRequest request) {
+
+        if (request.getDelta() == null) {
+            throw new IllegalArgumentException(ERROR_MISSING_DELTA);
+        }
+        if (request.getEmbedding() != null) {
+            throw new IllegalArgumentException(ERROR_EMBEDDING_BEFORE_CLOSE);
+        }
+
+        OpenMessage open = findOpenMessage(sessionId, messageId);
+        synchronized (open) {
+            checkOpen(open);
+            checkLength(open.content.length() + request.getDelta().length());
+            open.content.append(request.getDelta());
+            open.lastAppendNanos = System.nanoTime();
+            if (open.content.length() - open.persistedLength >= properties.getFlushChars() && !flush(open)) {
+                throw streamNotFound(messageId);
+            }
+            return MessageStreamResponse.builder()
+                    .sessionId(sessionId)
+                    .messageId(messageId)
+                    .length(open.content.length())
+                    .persistedLength(open.persistedLength)
+                    .build();
+        }
+    }
+
+    @Override
+    public SessionMessageResponse closeMessage(Long sessionId, Long messageId, MessageDeltaRequest request) {
+
+        OpenMessage open = findOpenMessage(sessionId, messageId);
+        synchronized (open) {
+            checkOpen(open);
+            String delta = request == null || request.getDelta() == null ? "" : request.getDelta();
+            checkLength(open.content.length() + delta.length());
+            float[] embedding = request == null ? null : validEmbedding(request.getEmbedding());
+            open.content.append(delta);
+
+            log.info("Closing message stream | sessionId={} | messageId={} | length={}", sessionId, messageId, open.content.length());
+
+            ChatMessage message = close(open, embedding);
+            if (message == null) {
+                throw streamNotFound(messageId);
+            }
+            searchIndex.index(sessionId, List.of(message));
+            return buildMessageResponse(sessionId, message);
+        }
+    }
+
+    @Override
+    public void flushStreams() {
+        long now = System.nanoTime();
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushMillis());
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(properties.getIdleTimeoutMillis());
+        for (OpenMessage open : openMessages.values()) {
+            try {
+                synchronized (open) {
+                    if (open.closed) {
+                        continue;
+                    }
+                    if (now - open.lastAppendNanos >= idleNanos) {
+                        log.warn("Closing idle message stream | sessionId={} | messageId={}", open.sessionId, open.message.getId());
+                        ChatMessage message = close(open, null);
+                        if (message != null) {
+                            searchIndex.index(open.sessionId, List.of(message));
+                        }
+                    } else if (open.content.length() > open.persistedLength && now - open.lastFlushNanos >= flushNanos) {
+                        flush(open);
+                    }
+                }
+            } catch (Exception ex) {
+                // Retried on the next tick; other streams still flush
+                log.error("Message stream flush failed | messageId={}", open.message.getId(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void expireStreams() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getIdleTimeoutMillis(), ChronoUnit.MILLIS);
+        Integer expired = transaction.execute(status -> streamRepo.deleteIdleBefore(cutoff));
+        if (expired != null && expired > 0) {
+            log.warn("Expired abandoned message streams | count={}", expired);
+        }
+    }
+
+    /**
+     * Writes what is buffered before the application stops, so a graceful
+     * shutdown loses no tokens. The streams stay open until they expire.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        for (OpenMessage open : openMessages.values()) {
+            try {
+                synchronized (open) {
+                    if (!open.closed && open.content.length() > open.persistedLength) {
+                        flush(open);
+                    }
+                }
+            } catch (Exception ex) {
+                log.error("Message stream flush on shutdown failed | messageId={}", open.message.getId(), ex);
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    /**
+     * Writes the buffered content; call holding the buffer's monitor.
+     *
+     * @return {@code false} if the stream was expired meanwhile and the buffer dropped
+     */
+    private boolean flush(OpenMessage open) {
+        String content = open.content.toString();
+        Long messageId = open.message.getId();
+        boolean stillOpen = Boolean.TRUE.equals(transaction.execute(status ->
+                streamRepo.touch(messageId, LocalDateTime.now()) == 1 && mutableStore.updateContent(open.sessionId, messageId, content)));
+        recentMessages.invalidate(open.sessionId);
+        if (!stillOpen) {
+            log.warn("Message stream expired | sessionId={} | messageId={}", open.sessionId, messageId);
+            discard(open);
+            return false;
+        }
+        open.persistedLength = content.length();
+        open.lastFlushNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Writes the final content and removes the stream marker; call holding the
+     * buffer's monitor. The content is written even if the stream was expired
+     * meanwhile, since the buffer holds everything that was appended.
+     *
+     * @param embedding client-computed embedding stored with the content, may be {@code null}
+     * @return the complete message, or {@code null} if it no longer exists
+     */
+    private ChatMessage close(OpenMessage open, float[] embedding) {
+        String content = open.content.toString();
+        Long messageId = open.message.getId();
+        boolean exists = Boolean.TRUE.equals(transaction.execute(status -> {
+            streamRepo.deleteByMessageId(messageId);
+            readYourWrites.recordWrite(open.sessionId);
+            if (!mutableStore.updateContent(open.sessionId, messageId, content)) {
+                return false;
+            }
+            if (embedding != null) {
+                mutableStore.saveEmbedding(messageId, embedding);
+            }
+            return true;
+        }));
+        recentMessages.invalidate(open.sessionId);
+        discard(open);
+        if (!exists) {
+            return null;
+        }
+        open.message.setContent(content);
+        open.message.setEmbedding(embedding);
+        open.persistedLength = content.length();
+        return open.message;
+    }
+
+    private void discard(OpenMessage open) {
+        open.closed = true;
+        openMessages.remove(open.message.getId(), open);
+    }
+
+    private OpenMessage findOpenMessage(Long sessionId, Long messageId) {
+        OpenMessage open = openMessages.get(messageId);
+        if (open == null || !open.sessionId.equals(sessionId)) {
+            throw streamNotFound(messageId);
+        }
+        return open;
+    }
+
+    private static void checkOpen(OpenMessage open) {
+        if (open.closed) {
+            throw streamNotFound(open.message.getId());
+        }
+    }
+
+    private void checkLength(long length) {
+        if (length > properties.getMaxContentChars()) {
+            throw new IllegalArgumentException(String.format(ERROR_STREAM_TOO_LONG, properties.getMaxContentChars()));
+        }
+    }
+
+    private static ResourceNotFoundException streamNotFound(Long messageId) {
+        return new ResourceNotFoundException("Open message stream not found on this instance with id: " + messageId);
+    }
+
+    /**
+     * Bumps the message counter of an active session, restoring it first if it
+     * is archived (see {@code ChatMessageServiceImpl}).
+     *
+     * @throws ResourceNotFoundException if session does not exist or is deleted
+     */
+    private void incrementActiveSession(Long sessionId) {
+        if (sessionRepo.incrementMessageCount(sessionId, 1) == 0
+                && (!archiveService.restore(sessionId) || sessionRepo.incrementMessageCount(sessionId, 1) == 0)) {
+            throw new ResourceNotFoundException("Chat session not found with id: " + sessionId);
+        }
+        readYourWrites.recordWrite(sessionId);
+    }
+
+    /**
+     * Checks an optional embedding; it is dropped when search is disabled.
+     */
+    private float[] validEmbedding(float[] embedding) {
+        if (embedding == null || !searchIndex.isEnabled()) {
+            return null;
+        }
+        searchIndex.validateEmbedding(embedding);
+        return embedding;
+    }
+
+    private static SessionMessageResponse buildMessageResponse(Long sessionId, ChatMessage message) {
+        SessionMessageResponse response = new SessionMessageResponse();
+        response.setSessionId(sessionId);
+        response.setMessages(List.of(MessageResponse.builder()
+                .messageId(message.getId())
+                .sender(message.getSender())
+                .content(message.getContent())
+                .context(message.getContext())
+                .createdAt(message.getCreatedAt())
+                .build()));
+        return response;
+    }
+
+    /**
+     * In-memory buffer of one open message.
+     */
+    private static final class OpenMessage {
+
+        private final Long sessionId;
+
+        /** The stored message; its content is only updated on close. */
+        private final ChatMessage message;
+
+        private final StringBuilder content;
+
+        private int persistedLength;
+
+        private long lastAppendNanos;
+
+        private long lastFlushNanos;
+
+        private boolean closed;
+
+        OpenMessage(Long sessionId, ChatMessage message, long now) {
+            this.sessionId = sessionId;
+            this.message = message;
+            this.content = new StringBuilder(message.getContent());
+            this.persistedLength = message.getContent().length();
+            this.lastAppendNanos = now;
+            this.lastFlushNanos = now;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.config.ReplicaRoutingDataSource;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Per-session read-your-writes on top of replica routing.
+ *
+ * <p>
+ * Writers record the session they changed once their transaction commits. For
+ * {@code stickyMillis} afterwards, read-only transactions about that session are
+ * pinned to the primary, so a client never misses its own change because a
+ * replica lags behind. Writes are tracked per service instance.
+ * </p>
+ *
+ * <p>
+ * {@link #recordWrite(Long)} and {@link #routeReads(Long)} do nothing unless
+ * {@code app.read-replicas.enabled} is set.
+ * </p>
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final int MAXIMUM_TRACKED_SESSIONS = 100_000;
+
+    private final boolean enabled;
+
+    private final Cache<Long, Boolean> recentWrites;
+
+    public ReadYourWritesTracker(ReadReplicaProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.recentWrites = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_TRACKED_SESSIONS)
+                .expireAfterWrite(Duration.ofMillis(properties.getStickyMillis()))
+                .build();
+    }
+
+    /**
+     * Records a write to a session, effective after the current transaction commits
+     * (immediately when there is none).
+     *
+     * @param sessionId chat session identifier
+     */
+    public void recordWrite(Long sessionId) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWrites.put(sessionId, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWrites.put(sessionId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Pins the current read-only transaction to the primary if the session was
+     * written recently. Must be called before the transaction's first query.
+     *
+     * @param sessionId chat session identifier
+     */
+    public void routeReads(Long sessionId) {
+        if (!enabled || recentWrites.getIfPresent(sessionId) == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        ReplicaRoutingDataSource.pinToPrimary();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ReplicaRoutingDataSource.unpin();
+            }
+        });
+    }
+
+    /**
+     * Tells whether the current thread's reads see the primary, i.e. replicas are
+     * not in use or the thread is pinned by {@link #routeReads(Long)}.
+     *
+     * @return {@code true} if reads cannot be served by a lagging replica
+     */
+    public boolean readsFromPrimary() {
+        return !enabled || ReplicaRoutingDataSource.isPinnedToPrimary();
+    }
+}
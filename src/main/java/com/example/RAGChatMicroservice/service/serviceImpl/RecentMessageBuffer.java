@@ -0,0 +1,256 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.properties.RecentMessagesProperties;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Memory-bounded buffer of the latest messages of active sessions.
+ *
+ * <p>
+ * Serves the most common read, the newest messages of a conversation, without
+ * querying the message store. A session's tail is loaded by its first tail read
+ * and then kept current by appends on this instance; up to {@code capacity}
+ * messages are kept per session (as summaries, without context). Sessions are
+ * evicted least-recently-used-first once the estimated size of all buffered
+ * messages exceeds {@code maxBytes}, and a tail expires {@code ttlSeconds} after
+ * it was loaded regardless of appends.
+ * </p>
+ *
+ * <p>
+ * A single-node optimisation: buffered tails are served without touching the
+ * database, so appends made through other instances show up once the tail has
+ * expired. With {@code checkLastMessageId}, a buffered tail's newest id is first
+ * compared with the session's {@code last_message_id} (one primary-key read per
+ * hit), and a tail behind it is dropped and reloaded instead of served stale.
+ * </p>
+ *
+ * <p>
+ * Consistency on this instance:
+ * <ul>
+ *     <li>Appends are applied after their transaction commits; a commit whose ids
+ *     are not newer than the buffered tail (concurrent writers committing out of
+ *     order) drops the tail instead</li>
+ *     <li>Every commit bumps a per-stripe stamp; a loaded tail is only kept if no
+ *     commit to its stripe happened while it was read, so a load cannot miss a
+ *     message committed concurrently</li>
+ *     <li>Tails are only loaded from the primary, never from a lagging replica</li>
+ *     <li>Deleting or archiving a session drops its tail</li>
+ * </ul>
+ * </p>
+ *
+ * <p>
+ * Hit, miss, eviction and size metrics are published as {@code cache.*}
+ * with tag {@code cache=chat.recent-messages}.
+ * </p>
+ */
+@Component
+public class RecentMessageBuffer {
+
+    private static final String CACHE_NAME = "chat.recent-messages";
+
+    private static final int STAMP_STRIPES = 1024;
+
+    /**
+     * Estimated fixed heap cost of a buffered message and of a session tail.
+     */
+    private static final int MESSAGE_OVERHEAD_BYTES = 96;
+
+    private static final int TAIL_OVERHEAD_BYTES = 64;
+
+    private final boolean enabled;
+
+    private final int capacity;
+
+    private final boolean checkLastMessageId;
+
+    private final ReadYourWritesTracker readYourWrites;
+
+    private final Cache<Long, Tail> cache;
+
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    public RecentMessageBuffer(RecentMessagesProperties properties, ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.capacity = properties.getCapacity();
+        this.checkLastMessageId = properties.isCheckLastMessageId();
+        this.readYourWrites = readYourWrites;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((Long sessionId, Tail tail) -> tail.weight())
+                .expireAfter(new LoadedTailExpiry(Duration.ofSeconds(properties.getTtlSeconds()).toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Reads the newest messages of a session older than {@code beforeId} from
+     * the buffer. On a miss, a read of the very tail that fits the buffer loads
+     * {@code capacity} messages through {@code tailLoader} and buffers them.
+     *
+     * @param sessionId  chat session identifier
+     * @param beforeId   exclusive upper bound on the message id ({@link Long#MAX_VALUE} for the tail)
+     * @param count      number of messages wanted
+     * @param tailLoader reads the given number of newest messages from the store, newest first
+     * @param newestId   reads the id of the session's newest committed message, {@code null} if none;
+     *                   only called with {@code checkLastMessageId}
+     * @return up to {@code count} messages, newest first, or empty if the buffer cannot
+     * answer and the caller has to query the store
+     */
+    public Optional<List<MessageSummary>> findBefore(Long sessionId, long beforeId, int count, IntFunction<List<MessageSummary>> tailLoader, Supplier<Long> newestId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Tail tail = cache.getIfPresent(sessionId);
+        if (tail != null && checkLastMessageId && !Objects.equals(tail.newestId(), newestId.get())) {
+            // Appended through another instance since the tail was loaded
+            cache.asMap().remove(sessionId, tail);
+            tail = null;
+        }
+        if (tail == null) {
+            if (beforeId != Long.MAX_VALUE || count > capacity || !readYourWrites.readsFromPrimary()) {
+                return Optional.empty();
+            }
+            tail = load(sessionId, tailLoader);
+        }
+
+        List<MessageSummary> messages = new ArrayList<>(count);
+        for (int i = tail.messages().size() - 1; i >= 0 && messages.size() < count; i--) {
+            MessageSummary message = tail.messages().get(i);
+            if (message.id() < beforeId) {
+                messages.add(message);
+            }
+        }
+        // Fewer rows than wanted are only the whole answer if the tail holds the entire session
+        return messages.size() == count || tail.complete() ? Optional.of(messages) : Optional.empty();
+    }
+
+    /**
+     * Adds freshly saved messages to the session's buffered tail, if there is one,
+     * once the current transaction commits (immediately when there is none).
+     *
+     * @param sessionId chat session identifier
+     * @param saved     saved messages in id order
+     */
+    public void append(Long sessionId, List<ChatMessage> saved) {
+        if (!enabled || saved.isEmpty()) {
+            return;
+        }
+        List<MessageSummary> messages = saved.stream().map(message -> new MessageSummary(message.getId(), message.getSender(), message.getContent(), message.getCreatedAt())).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyAppend(sessionId, messages);
+                }
+            });
+        } else {
+            applyAppend(sessionId, messages);
+        }
+    }
+
+    /**
+     * Drops a session's tail; call after its messages were deleted or moved.
+     *
+     * @param sessionId chat session identifier
+     */
+    public void invalidate(Long sessionId) {
+        stamps.incrementAndGet(stripe(sessionId));
+        cache.invalidate(sessionId);
+    }
+
+    private Tail load(Long sessionId, IntFunction<List<MessageSummary>> tailLoader) {
+        long stamp = stamps.get(stripe(sessionId));
+        List<MessageSummary> newestFirst = tailLoader.apply(capacity);
+        Tail loaded = Tail.of(newestFirst.reversed(), newestFirst.size() < capacity);
+
+        // Checked under the entry's lock, which appends take too
+        cache.asMap().compute(sessionId, (id, current) -> current != null ? current : stamps.get(stripe(id)) == stamp ? loaded : null);
+        return loaded;
+    }
+
+    private void applyAppend(Long sessionId, List<MessageSummary> messages) {
+        stamps.incrementAndGet(stripe(sessionId));
+        cache.asMap().computeIfPresent(sessionId, (id, tail) -> {
+            List<MessageSummary> current = tail.messages();
+            if (!current.isEmpty() && messages.get(0).id() <= current.get(current.size() - 1).id()) {
+                // Committed out of id order; the tail can no longer be trusted
+                return null;
+            }
+            List<MessageSummary> merged = new ArrayList<>(current.size() + messages.size());
+            merged.addAll(current);
+            merged.addAll(messages);
+            boolean complete = tail.complete() && merged.size() <= capacity;
+            return Tail.of(merged.subList(Math.max(0, merged.size() - capacity), merged.size()), complete);
+        });
+    }
+
+    private static int stripe(Long sessionId) {
+        return Math.floorMod(Long.hashCode(sessionId), STAMP_STRIPES);
+    }
+
+    /**
+     * Expires a tail a fixed time after it was loaded; appends keep the deadline.
+     */
+    private record LoadedTailExpiry(long ttlNanos) implements Expiry<Long, Tail> {
+
+        @Override
+        public long expireAfterCreate(Long sessionId, Tail tail, long currentTime) {
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long sessionId, Tail tail, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Long sessionId, Tail tail, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Immutable tail of a session.
+     *
+     * @param messages latest messages in id order
+     * @param complete whether these are all messages of the session
+     * @param weight   estimated heap size in bytes
+     */
+    private record Tail(List<MessageSummary> messages, boolean complete, int weight) {
+
+        static Tail of(List<MessageSummary> messages, boolean complete) {
+            long weight = TAIL_OVERHEAD_BYTES;
+            for (MessageSummary message : messages) {
+                weight += MESSAGE_OVERHEAD_BYTES + 2L * (length(message.content()) + length(message.sender()));
+            }
+            return new Tail(List.copyOf(messages), complete, (int) Math.min(weight, Integer.MAX_VALUE));
+        }
+
+        Long newestId() {
+            return messages.isEmpty() ? null : messages.get(messages.size() - 1).id();
+        }
+
+        private static int length(String text) {
+            return text == null ? 0 : text.length();
+        }
+    }
+}
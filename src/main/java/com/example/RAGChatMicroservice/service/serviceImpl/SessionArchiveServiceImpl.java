@@ -0,0 +1,308 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.SessionArchive;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.properties.ArchiveProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.SessionArchiveRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.PurgeCandidate;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import com.example.RAGChatMicroservice.util.ArchiveRecordUtils;
+import com.example.RAGChatMicroservice.util.TokenCountUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link SessionArchiveService} backed by {@link ArchiveSegmentStore}.
+ *
+ * <p>
+ * Archiving a session:
+ * <ol>
+ *     <li>Skip it unless its newest message is older than the idle cutoff</li>
+ *     <li>Read all messages and their context, encode them as one compressed record
+ *     ({@link ArchiveRecordUtils}) and append it durably to the current segment</li>
+ *     <li>In one transaction: flag the session archived (only if its message count
+ *     is unchanged, which also locks out concurrent appends), write the offset index
+ *     entry and delete the hot messages and their context references</li>
+ * </ol>
+ * A crash between steps 2 and 3 leaves an unreferenced record in the segment and
+ * the session untouched.
+ *
+ * <p>
+ * The session row stays in {@code chat_sessions}, so session lookups and listings
+ * are unaffected. Reads of an archived session decode its record; the first append
+ * restores the messages (with their original ids) before inserting the new one.
+ * Restored records stay in their segment as dead space.
+ *
+ * <p>
+ * Metrics: {@code chat.archive.sessions} (tag {@code action}) and {@code chat.archive.bytes}.
+ */
+@Service
+@Slf4j
+public class SessionArchiveServiceImpl implements SessionArchiveService {
+
+    /**
+     * Keyset start position, before any possible update timestamp.
+     */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final int CANDIDATE_CHUNK_SIZE = 100;
+
+    /**
+     * Messages read, deleted or re-inserted per statement.
+     */
+    private static final int MESSAGE_CHUNK_SIZE = 500;
+
+    private static final String INSERT_MESSAGE = "INSERT INTO chat_messages (id, session_id, sender, content, token_count, context_token_count, created_at, updated_at, is_deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final ChatSessionRepository sessionRepo;
+
+    private final ChatMessageRepository messageRepo;
+
+    private final SessionArchiveRepository archiveRepo;
+
+    private final MessageContextStore contextStore;
+
+    private final ArchiveSegmentStore segmentStore;
+
+    private final SessionCache sessionCache;
+
+    private final RecentMessageBuffer recentMessages;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final CompressedTextConverter textConverter;
+
+    private final ArchiveProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archivedSessions;
+
+    private final Counter restoredSessions;
+
+    private final Counter archivedBytes;
+
+    public SessionArchiveServiceImpl(ChatSessionRepository sessionRepo, ChatMessageRepository messageRepo, SessionArchiveRepository archiveRepo, MessageContextStore contextStore,
+                                     ArchiveSegmentStore segmentStore, SessionCache sessionCache, RecentMessageBuffer recentMessages, JdbcTemplate jdbcTemplate, CompressedTextConverter textConverter,
+                                     ArchiveProperties properties, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.sessionRepo = sessionRepo;
+        this.messageRepo = messageRepo;
+        this.archiveRepo = archiveRepo;
+        this.contextStore = contextStore;
+        this.segmentStore = segmentStore;
+        this.sessionCache = sessionCache;
+        this.recentMessages = recentMessages;
+        this.jdbcTemplate = jdbcTemplate;
+        this.textConverter = textConverter;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedSessions = Counter.builder("chat.archive.sessions").tag("action", "archived").description("Sessions moved between the hot tables and the archive").register(meterRegistry);
+        this.restoredSessions = Counter.builder("chat.archive.sessions").tag("action", "restored").description("Sessions moved between the hot tables and the archive").register(meterRegistry);
+        this.archivedBytes = Counter.builder("chat.archive.bytes").description("Bytes appended to archive segments").register(meterRegistry);
+    }
+
+    /**
+     * Runs one archiving pass over sessions last updated before the idle cutoff.
+     *
+     * @return number of sessions archived
+     */
+    @Override
+    public int archiveIdleSessions() {
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getIdleDays());
+        log.info("Starting archive run | cutoff={} | maxSessions={}", cutoff, properties.getMaxSessionsPerRun());
+
+        int archived = 0;
+        LocalDateTime afterTs = KEYSET_START;
+        long afterId = 0L;
+
+        run:
+        while (true) {
+            List<PurgeCandidate> candidates = sessionRepo.findArchiveCandidates(cutoff, afterTs, afterId, Limit.of(CANDIDATE_CHUNK_SIZE));
+
+            for (PurgeCandidate candidate : candidates) {
+                if (archived >= properties.getMaxSessionsPerRun()) {
+                    break run;
+                }
+                try {
+                    if (archiveSession(candidate.id(), cutoff)) {
+                        archived++;
+                    }
+                } catch (RuntimeException ex) {
+                    log.warn("Archiving session failed | sessionId={}", candidate.id(), ex);
+                }
+                afterTs = candidate.updatedAt();
+                afterId = candidate.id();
+            }
+
+            if (candidates.size() < CANDIDATE_CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        log.info("Finished archive run | sessions={}", archived);
+        return archived;
+    }
+
+    @Override
+    public Optional<List<MessageResponse>> findArchivedMessages(Long sessionId) {
+        return archiveRepo.findById(sessionId).map(entry -> readRecord(entry).stream().map(this::toResponse).toList());
+    }
+
+    @Override
+    @Transactional
+    public boolean restore(Long sessionId) {
+
+        // Claims the session; a concurrent restore waits on the row and then finds nothing to do
+        if (sessionRepo.markRestored(sessionId) == 0) {
+            return false;
+        }
+        SessionArchive entry = archiveRepo.findById(sessionId).orElseThrow(() -> new IllegalStateException("Archived session has no index entry: " + sessionId));
+        List<ChatMessage> messages = readRecord(entry);
+
+        log.info("Restoring archived session | sessionId={} | messages={}", sessionId, messages.size());
+
+        // Original ids are kept, so ids (and cursors) stay valid; the sequence only ever hands out larger ones
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE, messages, MESSAGE_CHUNK_SIZE, (ps, message) -> {
+            ps.setLong(1, message.getId());
+            ps.setLong(2, sessionId);
+            ps.setString(3, message.getSender());
+            ps.setBytes(4, textConverter.convertToDatabaseColumn(message.getContent()));
+            ps.setInt(5, TokenCountUtils.estimate(message.getContent()));
+            ps.setInt(6, TokenCountUtils.estimate(message.getContext()));
+            ps.setObject(7, message.getCreatedAt());
+            ps.setObject(8, message.getCreatedAt());
+            ps.setBoolean(9, false);
+        });
+        contextStore.saveAll(messages);
+        if (!messages.isEmpty()) {
+            // Sessions archived before the pointer existed get it here; otherwise a no-op
+            ChatMessage last = messages.get(messages.size() - 1);
+            sessionRepo.recordLastMessage(sessionId, last.getId(), last.getCreatedAt());
+        }
+        archiveRepo.deleteAllByIdInBatch(List.of(sessionId));
+
+        sessionCache.invalidate(sessionId);
+        restoredSessions.increment();
+        return true;
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    /**
+     * Archives one session if it is still idle.
+     *
+     * @param sessionId candidate session
+     * @param cutoff    idle cutoff
+     * @return whether the session was archived
+     */
+    private boolean archiveSession(Long sessionId, LocalDateTime cutoff) {
+        List<LocalDateTime> newest = messageRepo.findLatestCreatedAt(sessionId, Limit.of(1));
+        if (newest.isEmpty() || !newest.get(0).isBefore(cutoff)) {
+            // Nothing to archive, or the conversation is still active
+            return false;
+        }
+
+        List<ChatMessage> messages = loadMessages(sessionId);
+        if (messages.isEmpty()) {
+            return false;
+        }
+
+        byte[] record = ArchiveRecordUtils.encode(sessionId, messages, properties.getCompressionLevel());
+        ArchiveSegmentStore.Location location = segmentStore.append(record);
+        List<Long> ids = messages.stream().map(ChatMessage::getId).toList();
+
+        Boolean archived = transactionTemplate.execute(status -> {
+            if (sessionRepo.markArchived(sessionId, messages.size()) == 0) {
+                // Changed (or deleted) since the messages were read; the record is left unreferenced
+                return false;
+            }
+            archiveRepo.save(new SessionArchive(sessionId, location.segmentNo(), location.offset(), location.length(), (long) messages.size(), LocalDateTime.now()));
+            for (int from = 0; from < ids.size(); from += MESSAGE_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + MESSAGE_CHUNK_SIZE, ids.size()));
+                // Context references point at their message, so they go first
+                contextStore.deleteByMessageIds(chunk);
+                messageRepo.deleteAllByIdInBatch(chunk);
+            }
+            return true;
+        });
+
+        sessionCache.invalidate(sessionId);
+        if (!Boolean.TRUE.equals(archived)) {
+            return false;
+        }
+        recentMessages.invalidate(sessionId);
+        archivedSessions.increment();
+        archivedBytes.increment(record.length);
+        log.debug("Archived session | sessionId={} | messages={} | bytes={}", sessionId, messages.size(), record.length);
+        return true;
+    }
+
+    /**
+     * Reads all messages of a session with their context, in id order.
+     *
+     * @return the messages, or an empty list if there are more than {@code maxMessagesPerSession}
+     */
+    private List<ChatMessage> loadMessages(Long sessionId) {
+        List<ChatMessage> messages = new ArrayList<>();
+        long afterId = 0L;
+        while (true) {
+            List<MessageSummary> chunk = messageRepo.findSummariesBySessionIdAfter(sessionId, afterId, Limit.of(MESSAGE_CHUNK_SIZE));
+            if (messages.size() + chunk.size() > properties.getMaxMessagesPerSession()) {
+                log.debug("Session too large to archive | sessionId={}", sessionId);
+                return List.of();
+            }
+
+            Map<Long, String> contexts = contextStore.findByMessageIds(chunk.stream().map(MessageSummary::id).toList());
+            for (MessageSummary summary : chunk) {
+                ChatMessage message = new ChatMessage();
+                message.setId(summary.id());
+                message.setSender(summary.sender());
+                message.setContent(summary.content());
+                message.setContext(contexts.get(summary.id()));
+                message.setCreatedAt(summary.createdAt());
+                messages.add(message);
+            }
+
+            if (chunk.size() < MESSAGE_CHUNK_SIZE) {
+                return messages;
+            }
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+    }
+
+    private List<ChatMessage> readRecord(SessionArchive entry) {
+        byte[] record = segmentStore.read(entry.getSegmentNo(), entry.getRecordOffset(), entry.getRecordLength());
+        return ArchiveRecordUtils.decode(record, entry.getSessionId());
+    }
+
+    private MessageResponse toResponse(ChatMessage msg) {
+        MessageResponse dto = new MessageResponse();
+        dto.setMessageId(msg.getId());
+        dto.setSender(msg.getSender());
+        dto.setContent(msg.getContent());
+        dto.setContext(msg.getContext());
+        dto.setCreatedAt(msg.getCreatedAt());
+        return dto;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Bounded, TTL-evicting cache of active (non-deleted) session metadata.
+ *
+ * <p>
+ * Serves the session lookup done on every message append and read, which
+ * otherwise re-reads the same {@code chat_sessions} row for each request of a
+ * busy conversation. Entries are immutable {@link CachedSession} snapshots rather
+ * than managed entities, so they can be shared between request threads.
+ * </p>
+ *
+ * <p>
+ * Writers on this instance invalidate the entry after their change; other
+ * instances see the change once their entry expires. The frequently changing
+ * {@code message_count} is deliberately not cached.
+ * </p>
+ *
+ * <p>
+ * Hit, miss, eviction and size metrics are published as {@code cache.*}
+ * with tag {@code cache=chat.sessions}.
+ * </p>
+ */
+@Component
+public class SessionCache {
+
+    private static final String CACHE_NAME = "chat.sessions";
+
+    private final ChatSessionRepository sessionRepo;
+
+    private final Cache<Long, CachedSession> cache;
+
+    public SessionCache(ChatSessionRepository sessionRepo, SessionCacheProperties properties, MeterRegistry meterRegistry) {
+        this.sessionRepo = sessionRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns an active session, loading it from the database on a miss.
+     * Unknown and deleted sessions are not cached.
+     *
+     * @param sessionId chat session identifier
+     * @return the session snapshot, or empty if it does not exist or is deleted
+     */
+    public Optional<CachedSession> findActive(Long sessionId) {
+        return Optional.ofNullable(cache.get(sessionId, id -> sessionRepo.findByIdAndIsDeletedFalse(id).map(CachedSession::of).orElse(null)));
+    }
+
+    /**
+     * Drops a session from the cache; call after its metadata changed or it was deleted.
+     *
+     * @param sessionId chat session identifier
+     */
+    public void invalidate(Long sessionId) {
+        cache.invalidate(sessionId);
+    }
+
+    /**
+     * Immutable snapshot of a session's metadata.
+     */
+    public record CachedSession(Long id, String userId, String sessionName, Boolean isFavorite, LocalDateTime createdAt, LocalDateTime updatedAt, boolean isArchived) {
+
+        static CachedSession of(ChatSession session) {
+            return new CachedSession(session.getId(), session.getUserId(), session.getSessionName(), session.getIsFavorite(), session.getCreatedAt(), session.getUpdatedAt(),
+                    Boolean.TRUE.equals(session.getIsArchived()));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.properties.PurgeProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.MessageEmbeddingRepository;
+import com.example.RAGChatMicroservice.repository.projection.PurgeCandidate;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.SoftDeletePurgeService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implementation of {@link SoftDeletePurgeService}.
+ *
+ * <p>
+ * Messages are only ever soft deleted together with their session, so the purge
+ * is session-driven:
+ * <ol>
+ *     <li>Find sessions soft deleted before the retention cutoff, oldest first,
+ *     keyset-paginated on {@code (updated_at, id)}</li>
+ *     <li>Hard-delete each session's messages in id-ordered chunks (any flag, so
+ *     messages left live by an interrupted soft delete are removed too)</li>
+ *     <li>Hard-delete the session row once it has no messages left</li>
+ * </ol>
+ *
+ * <p>
+ * Rate control: every chunk is its own short transaction, chunks are separated by
+ * a pause, a run stops after {@code maxRowsPerRun} rows, and a run yields early
+ * whenever foreground requests are waiting for a pooled connection.
+ *
+ * <p>
+ * Metrics:
+ * <ul>
+ *     <li>{@code chat.purge.rows} (tag {@code table}) – rows hard-deleted</li>
+ *     <li>{@code chat.purge.lag.seconds} – how far the oldest purgeable session is past the cutoff</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class SoftDeletePurgeServiceImpl implements SoftDeletePurgeService {
+
+    /**
+     * Keyset start position, before any possible deletion timestamp.
+     */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ChatSessionRepository sessionRepo;
+
+    private final ChatMessageRepository messageRepo;
+
+    private final MessageContextStore contextStore;
+
+    private final MessageEmbeddingRepository embeddingRepo;
+
+    private final MessageStore messageStore;
+
+    private final PurgeProperties properties;
+
+    /**
+     * Primary connection pool, watched for foreground pressure. The injected
+     * DataSource may wrap it in replica routing, so it is injected on its own.
+     */
+    private final HikariDataSource primaryPool;
+
+    private final Counter purgedSessions;
+
+    private final Counter purgedMessages;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public SoftDeletePurgeServiceImpl(ChatSessionRepository sessionRepo, ChatMessageRepository messageRepo, MessageContextStore contextStore, MessageEmbeddingRepository embeddingRepo, MessageStore messageStore, PurgeProperties properties, Optional<HikariDataSource> primaryPool, MeterRegistry meterRegistry) {
+        this.sessionRepo = sessionRepo;
+        this.messageRepo = messageRepo;
+        this.contextStore = contextStore;
+        this.embeddingRepo = embeddingRepo;
+        this.messageStore = messageStore;
+        this.properties = properties;
+        this.primaryPool = primaryPool.orElse(null);
+        this.purgedSessions = Counter.builder("chat.purge.rows").tag("table", "chat_sessions").description("Soft-deleted rows hard-deleted by the purge job").register(meterRegistry);
+        this.purgedMessages = Counter.builder("chat.purge.rows").tag("table", "chat_messages").description("Soft-deleted rows hard-deleted by the purge job").register(meterRegistry);
+        Gauge.builder("chat.purge.lag.seconds", lagSeconds, AtomicLong::get).description("Age of the oldest purgeable session beyond the retention cutoff").register(meterRegistry);
+    }
+
+    /**
+     * Runs one throttled purge pass.
+     *
+     * @return number of rows hard-deleted (sessions and messages)
+     */
+    @Override
+    public long purge() {
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getRetentionDays());
+        int chunkSize = properties.getChunkSize();
+
+        log.info("Starting purge | cutoff={} | chunkSize={} | maxRows={}", cutoff, chunkSize, properties.getMaxRowsPerRun());
+
+        long purged = 0;
+        LocalDateTime afterTs = KEYSET_START;
+        long afterId = 0L;
+
+        run:
+        while (true) {
+            List<PurgeCandidate> candidates = sessionRepo.findPurgeCandidates(cutoff, afterTs, afterId, Limit.of(chunkSize));
+
+            for (PurgeCandidate candidate : candidates) {
+                if (!hasBudget(purged) || !pause()) {
+                    break run;
+                }
+                purged += purgeSession(candidate.id(), properties.getMaxRowsPerRun() - purged);
+                afterTs = candidate.updatedAt();
+                afterId = candidate.id();
+            }
+
+            if (candidates.size() < chunkSize) {
+                break;
+            }
+        }
+
+        updateLag(cutoff);
+        log.info("Finished purge | rows={} | lagSeconds={}", purged, lagSeconds.get());
+        return purged;
+    }
+
+    // ----------------------------------------------------------------
+    // Helper Methods
+    // ----------------------------------------------------------------
+
+    /**
+     * Hard-deletes one session's messages in chunks, then the session itself.
+     *
+     * <p>
+     * If the row budget runs out first, the session is left in place and the
+     * next run resumes with its remaining messages.
+     *
+     * @param sessionId soft-deleted session identifier
+     * @param budget    rows this call may still delete
+     * @return number of rows deleted
+     */
+    private long purgeSession(Long sessionId, long budget) {
+        int chunkSize = properties.getChunkSize();
+        long deleted = 0;
+        long afterId = 0L;
+
+        while (true) {
+            int limit = (int) Math.min(chunkSize, budget - deleted);
+            if (limit <= 0) {
+                return deleted;
+            }
+            List<Long> ids = messageRepo.findIdsBySessionIdAfter(sessionId, afterId, Limit.of(limit));
+            if (ids.isEmpty()) {
+                break;
+            }
+            // Context rows reference their message, so they go first
+            contextStore.deleteByMessageIds(ids);
+            embeddingRepo.deleteByMessageIds(ids);
+            messageRepo.deleteAllByIdInBatch(ids);
+            purgedMessages.increment(ids.size());
+            deleted += ids.size();
+            afterId = ids.get(ids.size() - 1);
+
+            if (ids.size() < limit) {
+                break;
+            }
+            if (!pause()) {
+                return deleted;
+            }
+        }
+
+        if (deleted >= budget) {
+            // Budget exhausted exactly at the last message; remove the session next run
+            return deleted;
+        }
+        sessionRepo.deleteAllByIdInBatch(List.of(sessionId));
+        messageStore.deleteSession(sessionId);
+        purgedSessions.increment();
+        return deleted + 1;
+    }
+
+    private boolean hasBudget(long purged) {
+        return purged < properties.getMaxRowsPerRun();
+    }
+
+    /**
+     * Sleeps between chunks and reports whether the run may continue.
+     *
+     * @return {@code false} if the thread was interrupted or foreground
+     * requests are waiting for database connections
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(properties.getChunkPauseMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (foregroundBusy()) {
+            log.info("Yielding purge run | foreground requests are waiting for connections");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return whether any request thread is currently waiting for a connection of
+     * the primary pool; never without a Hikari pool
+     */
+    private boolean foregroundBusy() {
+        HikariPoolMXBean pool = primaryPool == null ? null : primaryPool.getHikariPoolMXBean();
+        return pool != null && pool.getThreadsAwaitingConnection() > 0;
+    }
+
+    /**
+     * Records how far the oldest soft-deleted session is past the retention cutoff.
+     */
+    private void updateLag(LocalDateTime cutoff) {
+        long lag = sessionRepo.findFirstByIsDeletedTrueOrderByUpdatedAtAsc()
+                .filter(oldest -> oldest.getUpdatedAt().isBefore(cutoff))
+                .map(oldest -> Duration.between(oldest.getUpdatedAt(), cutoff).toSeconds())
+                .orElse(0L);
+        lagSeconds.set(lag);
+    }
+}
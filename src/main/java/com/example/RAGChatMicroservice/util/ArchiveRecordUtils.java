@@ -0,0 +1,153 @@
+package com.example.RAGChatMicroservice.util;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.github.luben.zstd.Zstd;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Utility class for the binary format of archived session records.
+ *
+ * <p>
+ * A record holds all messages of one session:
+ * <pre>
+ * header:  magic (int) | version (byte) | session id (long) | raw length (int) | compressed length (int) | CRC32 of compressed bytes (int)
+ * payload: zstd( message count (int), then per message in id order:
+ *          id (long) | sender (UTF) | created-at epoch second (long) | nano (int) | content (int length + UTF-8) | context (int length + UTF-8, -1 = none) )
+ * </pre>
+ * The session id and checksum are verified on read, so a stale or damaged index
+ * entry fails loudly instead of returning another session's messages.
+ * </p>
+ */
+public final class ArchiveRecordUtils {
+
+    private static final int MAGIC = 0x43534131; // "CSA1"
+
+    private static final byte VERSION = 1;
+
+    private static final int HEADER_LENGTH = 4 + 1 + 8 + 4 + 4 + 4;
+
+    private ArchiveRecordUtils() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Encodes the messages of a session into a compressed record.
+     *
+     * @param sessionId owning session
+     * @param messages  messages in id order, with content and (optional) context
+     * @param level     zstd compression level
+     * @return record bytes
+     */
+    public static byte[] encode(Long sessionId, List<ChatMessage> messages, int level) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            out.writeInt(messages.size());
+            for (ChatMessage message : messages) {
+                out.writeLong(message.getId());
+                out.writeUTF(message.getSender());
+                out.writeLong(message.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(message.getCreatedAt().getNano());
+                writeText(out, message.getContent());
+                writeText(out, message.getContext());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        byte[] payload = raw.toByteArray();
+        byte[] compressed = Zstd.compress(payload, level);
+        CRC32 crc = new CRC32();
+        crc.update(compressed);
+
+        return ByteBuffer.allocate(HEADER_LENGTH + compressed.length)
+                .putInt(MAGIC)
+                .put(VERSION)
+                .putLong(sessionId)
+                .putInt(payload.length)
+                .putInt(compressed.length)
+                .putInt((int) crc.getValue())
+                .put(compressed)
+                .array();
+    }
+
+    /**
+     * Decodes a record written by {@link #encode(Long, List, int)}.
+     *
+     * @param record    record bytes
+     * @param sessionId session the record is expected to belong to
+     * @return messages in id order (without session reference)
+     * @throws IllegalStateException if the record is damaged or belongs to another session
+     */
+    public static List<ChatMessage> decode(byte[] record, Long sessionId) {
+        ByteBuffer header = ByteBuffer.wrap(record);
+        if (record.length < HEADER_LENGTH || header.getInt() != MAGIC || header.get() != VERSION) {
+            throw new IllegalStateException("Not an archive record for session " + sessionId);
+        }
+        if (header.getLong() != sessionId) {
+            throw new IllegalStateException("Archive record does not belong to session " + sessionId);
+        }
+        int rawLength = header.getInt();
+        int compressedLength = header.getInt();
+        int checksum = header.getInt();
+        if (compressedLength != record.length - HEADER_LENGTH) {
+            throw new IllegalStateException("Truncated archive record for session " + sessionId);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record, HEADER_LENGTH, compressedLength);
+        if ((int) crc.getValue() != checksum) {
+            throw new IllegalStateException("Corrupt archive record for session " + sessionId);
+        }
+
+        byte[] compressed = new byte[compressedLength];
+        header.get(compressed);
+        byte[] payload = Zstd.decompress(compressed, rawLength);
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int count = in.readInt();
+            List<ChatMessage> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ChatMessage message = new ChatMessage();
+                message.setId(in.readLong());
+                message.setSender(in.readUTF());
+                message.setCreatedAt(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+                message.setContent(readText(in));
+                message.setContext(readText(in));
+                messages.add(message);
+            }
+            return messages;
+        } catch (IOException ex) {
+            throw new IllegalStateException("Corrupt archive record for session " + sessionId, ex);
+        }
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+}
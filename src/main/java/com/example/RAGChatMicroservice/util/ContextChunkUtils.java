@@ -0,0 +1,76 @@
+package com.example.RAGChatMicroservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Utility class for splitting RAG context into content-addressed chunks.
+ *
+ * <p>
+ * Retrieved passages are usually joined with blank lines, so the context is cut
+ * after each run of two or more newlines. Separators stay with the preceding
+ * chunk, which makes the split lossless: concatenating the chunks returns the
+ * original text exactly. Pieces shorter than {@link #MIN_CHUNK_LENGTH} are merged
+ * into the following chunk, since a reference costs more than storing them inline.
+ * </p>
+ */
+public final class ContextChunkUtils {
+
+    /**
+     * Smallest chunk worth storing on its own (characters).
+     */
+    static final int MIN_CHUNK_LENGTH = 64;
+
+    private ContextChunkUtils() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Splits a context into chunks.
+     *
+     * @param context context text
+     * @return chunks in order (one empty chunk for an empty context); their concatenation equals {@code context}
+     */
+    public static List<String> split(String context) {
+        List<String> chunks = new ArrayList<>();
+        int start = 0;
+        int from = 0;
+        while (true) {
+            int separator = context.indexOf("\n\n", from);
+            if (separator < 0) {
+                break;
+            }
+            int end = separator + 2;
+            while (end < context.length() && context.charAt(end) == '\n') {
+                end++;
+            }
+            if (end - start >= MIN_CHUNK_LENGTH && end < context.length()) {
+                chunks.add(context.substring(start, end));
+                start = end;
+            }
+            from = end;
+        }
+        chunks.add(context.substring(start));
+        return chunks;
+    }
+
+    /**
+     * Content address of a chunk.
+     *
+     * @param chunk chunk text
+     * @return lowercase hex SHA-256 of the chunk's UTF-8 bytes
+     */
+    public static String hash(String chunk) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(chunk.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.RAGChatMicroservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Utility class for encoding and decoding opaque keyset pagination cursors.
+ *
+ * <p>
+ * A cursor wraps the keyset position of the last row a client has seen: its
+ * id for messages, or its sort key and id for session listings. Session listing
+ * cursors also carry the sort order they were issued for, and are rejected under
+ * any other. Clients must treat
+ * the value as opaque and pass it back unchanged, which leaves room to change
+ * the encoding without breaking the API.
+ * </p>
+ */
+public final class CursorUtils {
+
+    /**
+     * Version prefix of the cursor payload.
+     */
+    private static final String PREFIX = "v1:";
+
+    /**
+     * Version prefix of session listing cursors.
+     */
+    private static final String SESSION_PREFIX = "s2:";
+
+    private static final String SEPARATOR = "|";
+
+    private static final String ERROR_INVALID_CURSOR = "Invalid pagination cursor";
+
+    private static final String ERROR_SORT_MISMATCH = "Pagination cursor was issued for a different sort order";
+
+    private CursorUtils() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Encodes a row id into an opaque cursor.
+     *
+     * @param id the id of the last row returned
+     * @return URL-safe cursor string
+     */
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque cursor back into a row id.
+     *
+     * @param cursor cursor previously produced by {@link #encode(Long)}
+     * @return the decoded row id
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static Long decode(String cursor) {
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!payload.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(ERROR_INVALID_CURSOR);
+            }
+            return Long.parseLong(payload.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            // NumberFormatException and Base64 errors are both IllegalArgumentExceptions
+            throw new IllegalArgumentException(ERROR_INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Encodes the position of a session in a user session listing.
+     *
+     * @param sortBy    sort order of the listing
+     * @param favorite  favorite flag of the session (used by favorites-first listings)
+     * @param timestamp value of the sort column
+     * @param id        session id, the tie-breaker
+     * @return URL-safe cursor string
+     */
+    public static String encodeSessionKey(String sortBy, boolean favorite, LocalDateTime timestamp, Long id) {
+        String payload = SESSION_PREFIX + sortBy + SEPARATOR + (favorite ? 1 : 0) + SEPARATOR + timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor produced by {@link #encodeSessionKey(String, boolean, LocalDateTime, Long)}.
+     *
+     * @param cursor opaque cursor
+     * @param sortBy sort order of the requested page
+     * @return the decoded position
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    public static SessionKey decodeSessionKey(String cursor, String sortBy) {
+        SessionKey key;
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = payload.startsWith(SESSION_PREFIX) ? payload.substring(SESSION_PREFIX.length()).split("\\|") : new String[0];
+            if (parts.length != 4) {
+                throw new IllegalArgumentException(ERROR_INVALID_CURSOR);
+            }
+            key = new SessionKey(parts[0], "1".equals(parts[1]), LocalDateTime.parse(parts[2]), Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException | java.time.format.DateTimeParseException ex) {
+            throw new IllegalArgumentException(ERROR_INVALID_CURSOR);
+        }
+        // A position in one order is meaningless in another and would skip or repeat sessions
+        if (!key.sortBy().equals(sortBy)) {
+            throw new IllegalArgumentException(ERROR_SORT_MISMATCH);
+        }
+        return key;
+    }
+
+    /**
+     * Keyset position of a session within a listing.
+     */
+    public record SessionKey(String sortBy, boolean favorite, LocalDateTime timestamp, Long id) {
+    }
+}
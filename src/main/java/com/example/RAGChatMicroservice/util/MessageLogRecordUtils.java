@@ -0,0 +1,230 @@
+package com.example.RAGChatMicroservice.util;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Utility class for the frames of the embedded message log.
+ *
+ * <p>
+ * One frame per message:
+ * <pre>
+ * header:  payload length (int) | CRC32 of payload (int)
+ * payload: id (long) | session id (long) | created-at epoch second (long) | nano (int)
+ *          | sender (int length + UTF-8) | content (int length + UTF-8) | context (int length + UTF-8, -1 = none)
+ * </pre>
+ * Context comes last, so summaries are decoded without touching it. A frame
+ * whose length or checksum does not match is a torn write.
+ * </p>
+ *
+ * <p>
+ * Two control frames carry an id range instead of a message:
+ * <pre>
+ * commit:    {@link #COMMIT_ID} (long) | 0 (long) | first id (long) | last id (long)
+ * tombstone: {@link #TOMBSTONE_ID} (long) | session id (long) | first id (long) | last id (long)
+ * </pre>
+ * A commit frame marks the messages of one append as committed; message frames
+ * without one are ignored on replay. A tombstone voids the messages of one
+ * session within the range (all of a purged session).
+ * </p>
+ */
+public final class MessageLogRecordUtils {
+
+    public static final int HEADER_LENGTH = 4 + 4;
+
+    /**
+     * Id field of tombstone frames; message ids are positive.
+     */
+    public static final long TOMBSTONE_ID = -1L;
+
+    /**
+     * Id field of commit frames.
+     */
+    public static final long COMMIT_ID = -2L;
+
+    private static final int ID_POSITION = HEADER_LENGTH;
+
+    private static final int SESSION_ID_POSITION = ID_POSITION + 8;
+
+    private static final int CREATED_AT_POSITION = SESSION_ID_POSITION + 8;
+
+    private static final int SENDER_POSITION = CREATED_AT_POSITION + 8 + 4;
+
+    private static final int FIRST_ID_POSITION = SESSION_ID_POSITION + 8;
+
+    private static final int LAST_ID_POSITION = FIRST_ID_POSITION + 8;
+
+    private MessageLogRecordUtils() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Encodes a message (with its id already assigned) into a frame.
+     *
+     * @param message   message with id, sender, content, optional context and creation time
+     * @param sessionId owning session
+     * @return frame bytes
+     */
+    public static byte[] encode(ChatMessage message, Long sessionId) {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(HEADER_LENGTH + 128);
+        try (DataOutputStream out = new DataOutputStream(raw)) {
+            out.writeLong(0L); // header placeholder
+            out.writeLong(message.getId());
+            out.writeLong(sessionId);
+            out.writeLong(message.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(message.getCreatedAt().getNano());
+            writeText(out, message.getSender());
+            writeText(out, message.getContent());
+            writeText(out, message.getContext());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return seal(raw.toByteArray());
+    }
+
+    /**
+     * Encodes a tombstone frame voiding a session's messages with ids in
+     * {@code [firstId, lastId]}.
+     *
+     * @param sessionId owning session
+     * @param firstId   first voided id
+     * @param lastId    last voided id
+     * @return frame bytes
+     */
+    public static byte[] encodeTombstone(long sessionId, long firstId, long lastId) {
+        return encodeRange(TOMBSTONE_ID, sessionId, firstId, lastId);
+    }
+
+    /**
+     * Encodes a commit frame for the messages with ids in {@code [firstId, lastId]}.
+     *
+     * @param firstId first committed id
+     * @param lastId  last committed id
+     * @return frame bytes
+     */
+    public static byte[] encodeCommit(long firstId, long lastId) {
+        return encodeRange(COMMIT_ID, 0L, firstId, lastId);
+    }
+
+    /**
+     * @param frame complete frame
+     * @return whether the checksum matches the payload
+     */
+    public static boolean isIntact(byte[] frame) {
+        CRC32 crc = new CRC32();
+        crc.update(frame, HEADER_LENGTH, frame.length - HEADER_LENGTH);
+        return ByteBuffer.wrap(frame).getInt(4) == (int) crc.getValue();
+    }
+
+    public static boolean isTombstone(byte[] frame) {
+        return messageId(frame) == TOMBSTONE_ID;
+    }
+
+    public static boolean isCommit(byte[] frame) {
+        return messageId(frame) == COMMIT_ID;
+    }
+
+    /**
+     * @param frame commit or tombstone frame
+     * @return first id of its range
+     */
+    public static long rangeFirstId(byte[] frame) {
+        return ByteBuffer.wrap(frame).getLong(FIRST_ID_POSITION);
+    }
+
+    /**
+     * @param frame commit or tombstone frame
+     * @return last id of its range
+     */
+    public static long rangeLastId(byte[] frame) {
+        return ByteBuffer.wrap(frame).getLong(LAST_ID_POSITION);
+    }
+
+    public static long messageId(byte[] frame) {
+        return ByteBuffer.wrap(frame).getLong(ID_POSITION);
+    }
+
+    public static long sessionId(byte[] frame) {
+        return ByteBuffer.wrap(frame).getLong(SESSION_ID_POSITION);
+    }
+
+    /**
+     * Decodes a frame without its context.
+     *
+     * @param frame complete frame
+     * @return message summary
+     */
+    public static MessageSummary decodeSummary(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(buffer.getLong(CREATED_AT_POSITION), buffer.getInt(CREATED_AT_POSITION + 8), ZoneOffset.UTC);
+        buffer.position(SENDER_POSITION);
+        String sender = readText(buffer);
+        String content = readText(buffer);
+        return new MessageSummary(buffer.getLong(ID_POSITION), sender, content, createdAt);
+    }
+
+    /**
+     * Decodes only the context of a frame.
+     *
+     * @param frame complete frame
+     * @return context, or {@code null} if the message has none
+     */
+    public static String decodeContext(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        buffer.position(SENDER_POSITION);
+        skipText(buffer);
+        skipText(buffer);
+        return readText(buffer);
+    }
+
+    private static byte[] encodeRange(long kind, long sessionId, long firstId, long lastId) {
+        ByteBuffer frame = ByteBuffer.allocate(LAST_ID_POSITION + 8);
+        frame.putLong(ID_POSITION, kind).putLong(SESSION_ID_POSITION, sessionId).putLong(FIRST_ID_POSITION, firstId).putLong(LAST_ID_POSITION, lastId);
+        return seal(frame.array());
+    }
+
+    /**
+     * Fills in the header of a frame whose payload is written.
+     */
+    private static byte[] seal(byte[] frame) {
+        CRC32 crc = new CRC32();
+        crc.update(frame, HEADER_LENGTH, frame.length - HEADER_LENGTH);
+        ByteBuffer.wrap(frame).putInt(frame.length - HEADER_LENGTH).putInt((int) crc.getValue());
+        return frame;
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        if (text == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String text = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+
+    private static void skipText(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        buffer.position(buffer.position() + Math.max(length, 0));
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.RAGChatMicroservice.util;
+
+/**
+ * Utility class estimating how many model tokens a text takes.
+ *
+ * <p>
+ * No model tokenizer is available server-side, so counts follow the usual
+ * sub-word behaviour: every started {@link #CHARS_PER_TOKEN} letters or digits
+ * of a word count as one token, and so does every punctuation mark, symbol and
+ * ideograph; whitespace is free. Real tokenizers merge frequent words into a
+ * single token, so the estimate leans high, which keeps windows built from it
+ * inside the model's limit.
+ * </p>
+ */
+public final class TokenCountUtils {
+
+    /**
+     * Word characters per token.
+     */
+    static final int CHARS_PER_TOKEN = 4;
+
+    private TokenCountUtils() {
+        // Prevent instantiation
+    }
+
+    /**
+     * Estimates the token count of a text.
+     *
+     * @param text the text, may be {@code null}
+     * @return estimated tokens, {@code 0} for {@code null} or empty text
+     */
+    public static int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int tokens = 0;
+        int wordLength = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint) && !Character.isIdeographic(codePoint)) {
+                wordLength++;
+                continue;
+            }
+            tokens += wordTokens(wordLength);
+            wordLength = 0;
+            if (!Character.isWhitespace(codePoint)) {
+                tokens++;
+            }
+        }
+        return tokens + wordTokens(wordLength);
+    }
+
+    private static int wordTokens(int length) {
+        return (length + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
@@ -0,0 +1,14 @@
+-- Assistant messages still being streamed (see MessageStreamService).
+-- A row exists from opening a message until it is closed; updated_at moves with
+-- every flush of buffered tokens, so rows left behind by a crashed instance can
+-- be found and expired. The message itself lives in chat_messages all along.
+CREATE TABLE IF NOT EXISTS chat_message_streams (
+    message_id BIGINT      NOT NULL,
+    session_id BIGINT      NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (message_id),
+    CONSTRAINT fk_chat_message_streams_message FOREIGN KEY (message_id) REFERENCES chat_messages (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+-- MessageStreamRepository#deleteIdleBefore
+CREATE INDEX idx_chat_message_streams_updated_at ON chat_message_streams (updated_at);
@@ -0,0 +1,14 @@
+-- Estimated token counts of message content and context (see TokenCountUtils),
+-- written with every message so conversation windows can be cut to a token
+-- budget without reading content. NULL for messages stored before this
+-- migration; windows estimate those from their content when they reach them.
+ALTER TABLE chat_messages ADD COLUMN token_count INT NULL;
+ALTER TABLE chat_messages ADD COLUMN context_token_count INT NULL;
+
+-- Extends idx_chat_messages_session_id_id with the counts, so the newest-first
+-- scan of ChatMessageRepository#findTokenCountsBySessionIdBefore is answered
+-- from the index alone. Every query served by the old index is served by its
+-- prefix; it is dropped after the replacement exists, so the session foreign
+-- key always has an index.
+CREATE INDEX idx_chat_messages_session_id_id_tokens ON chat_messages (session_id, id, token_count, context_token_count);
+DROP INDEX idx_chat_messages_session_id_id ON chat_messages;
@@ -0,0 +1,17 @@
+-- Pointer to the newest message of each session, maintained next to
+-- message_count by ChatSessionRepository#recordLastMessage in the transaction
+-- that appends the messages. NULL while a session has no messages.
+ALTER TABLE chat_sessions ADD COLUMN last_message_id BIGINT NULL;
+ALTER TABLE chat_sessions ADD COLUMN last_message_at DATETIME(6) NULL;
+
+-- Archived sessions have no rows here; their pointer is set when they are restored
+UPDATE chat_sessions s
+SET last_message_id = (SELECT MAX(m.id) FROM chat_messages m WHERE m.session_id = s.id);
+
+UPDATE chat_sessions s
+SET last_message_at = (SELECT m.created_at FROM chat_messages m WHERE m.id = s.last_message_id)
+WHERE s.last_message_id IS NOT NULL;
+
+-- Per-user listing by recent activity (ChatSessionRepository#findUserSessionsByLastMessageAtBefore,
+-- then #findUserSessionsWithoutMessagesBefore for the sessions with NULL pointers).
+CREATE INDEX idx_chat_sessions_user_last_message_at ON chat_sessions (user_id, is_deleted, last_message_at, id);
@@ -0,0 +1,5 @@
+-- chat_messages_seq now holds the next free message id, reserved per append by
+-- MessageIdAllocator instead of Hibernate's pooled optimizer. Skipping one former
+-- pooled block (50) keeps ids already handed out from being issued again.
+UPDATE chat_messages_seq
+SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) FROM chat_messages) + 1) + 50;
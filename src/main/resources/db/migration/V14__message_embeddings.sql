@@ -0,0 +1,10 @@
+-- Client-computed message embeddings, float32 little-endian, keyed by message id.
+-- Written with the message so a rebuilt search index gets its vectors back.
+-- No foreign key: archiving moves messages out of chat_messages and restoring
+-- brings them back under the same ids, so embeddings stay across the round trip.
+-- Messages without an embedding simply have no row here.
+CREATE TABLE IF NOT EXISTS chat_message_embeddings (
+    message_id BIGINT     NOT NULL,
+    embedding  MEDIUMBLOB NOT NULL,
+    PRIMARY KEY (message_id)
+) ENGINE = InnoDB;
@@ -0,0 +1,27 @@
+-- Baseline schema as originally created by Hibernate (ddl-auto=update).
+-- IF NOT EXISTS keeps this safe on databases that were created by hand before
+-- migrations were introduced.
+
+CREATE TABLE IF NOT EXISTS chat_sessions (
+    id           BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id      VARCHAR(255) NULL,
+    session_name VARCHAR(255) NOT NULL,
+    is_favorite  BIT          NOT NULL,
+    created_at   DATETIME(6)  NOT NULL,
+    updated_at   DATETIME(6)  NULL,
+    is_deleted   BIT          NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS chat_messages (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    session_id BIGINT       NULL,
+    sender     VARCHAR(255) NOT NULL,
+    content    TEXT         NOT NULL,
+    context    TEXT         NOT NULL,
+    created_at DATETIME(6)  NOT NULL,
+    updated_at DATETIME(6)  NULL,
+    is_deleted BIT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_chat_messages_session FOREIGN KEY (session_id) REFERENCES chat_sessions (id)
+) ENGINE = InnoDB;
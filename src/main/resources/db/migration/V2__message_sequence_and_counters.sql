@@ -0,0 +1,18 @@
+-- Message ids come from a pooled sequence so inserts can be JDBC-batched.
+-- MySQL has no sequences; Hibernate emulates them with a single-row table.
+-- The seed sits one allocation block (50) above the current maximum id so the
+-- first pooled block can never collide with auto-increment ids.
+CREATE TABLE IF NOT EXISTS chat_messages_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO chat_messages_seq (next_val)
+SELECT seed.next_val
+FROM (SELECT COALESCE(MAX(id), 0) + 51 AS next_val FROM chat_messages) seed
+WHERE NOT EXISTS (SELECT 1 FROM chat_messages_seq);
+
+-- Maintained per-session message counter (see ChatSessionRepository#incrementMessageCount)
+ALTER TABLE chat_sessions ADD COLUMN message_count BIGINT NOT NULL DEFAULT 0;
+
+UPDATE chat_sessions s
+SET message_count = (SELECT COUNT(*) FROM chat_messages m WHERE m.session_id = s.id);
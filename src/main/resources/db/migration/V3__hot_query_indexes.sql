@@ -0,0 +1,11 @@
+-- Indexes designed around the repository query methods.
+
+-- ChatMessageRepository: every read filters on session_id and orders/seeks by id
+-- (findBySessionId, findSliceBySessionId and the keyset methods), so
+-- (session_id, id) serves the filter, the ORDER BY and the seek from one index.
+CREATE INDEX idx_chat_messages_session_id_id ON chat_messages (session_id, id);
+
+-- ChatSessionRepository: findByIsDeletedFalse, findSliceByIsDeletedFalse
+-- (ordered by updated_at DESC, id DESC) and countByIsDeletedFalse.
+-- findByIdAndIsDeletedFalse is served by the primary key.
+CREATE INDEX idx_chat_sessions_is_deleted_updated_at ON chat_sessions (is_deleted, updated_at);
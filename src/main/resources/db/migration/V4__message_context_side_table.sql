@@ -0,0 +1,17 @@
+-- RAG context moves out of chat_messages into a side table keyed by message id.
+-- chat_messages becomes narrow, so listings and tail reads no longer pull large
+-- context pages through the buffer pool; context is read only when requested.
+-- Messages without context simply have no row here.
+CREATE TABLE IF NOT EXISTS chat_message_contexts (
+    message_id BIGINT NOT NULL,
+    context    TEXT   NOT NULL,
+    PRIMARY KEY (message_id),
+    CONSTRAINT fk_chat_message_contexts_message FOREIGN KEY (message_id) REFERENCES chat_messages (id)
+) ENGINE = InnoDB;
+
+INSERT INTO chat_message_contexts (message_id, context)
+SELECT id, context
+FROM chat_messages
+WHERE context IS NOT NULL AND context <> '';
+
+ALTER TABLE chat_messages DROP COLUMN context;
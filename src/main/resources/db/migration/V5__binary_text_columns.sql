@@ -0,0 +1,6 @@
+-- Message content and context become binary so they can hold zstd-compressed values
+-- (see CompressedTextConverter). Existing TEXT values are utf8mb4 bytes, which the
+-- converter reads back as uncompressed text, so no data rewrite is needed.
+ALTER TABLE chat_messages MODIFY content MEDIUMBLOB NOT NULL;
+
+ALTER TABLE chat_message_contexts MODIFY context MEDIUMBLOB NOT NULL;
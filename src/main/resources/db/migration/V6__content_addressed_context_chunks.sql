@@ -0,0 +1,35 @@
+-- RAG context is split into chunks that are stored once, keyed by the SHA-256 of
+-- their text, and shared by every message that carries them (see MessageContextStore).
+-- ref_count is the number of chat_message_context_chunks rows pointing at a chunk;
+-- it only drops when the purge hard-deletes messages, which also removes chunks
+-- that reach zero.
+CREATE TABLE IF NOT EXISTS context_chunks (
+    hash      VARCHAR(64) CHARACTER SET ascii NOT NULL,
+    content   MEDIUMBLOB  NOT NULL,
+    ref_count BIGINT      NOT NULL,
+    PRIMARY KEY (hash)
+) ENGINE = InnoDB;
+
+-- Ordered chunk list of each message; concatenating the chunks restores the context.
+CREATE TABLE IF NOT EXISTS chat_message_context_chunks (
+    message_id BIGINT      NOT NULL,
+    ordinal    INT         NOT NULL,
+    chunk_hash VARCHAR(64) CHARACTER SET ascii NOT NULL,
+    PRIMARY KEY (message_id, ordinal),
+    KEY idx_chat_message_context_chunks_chunk (chunk_hash),
+    CONSTRAINT fk_chat_message_context_chunks_message FOREIGN KEY (message_id) REFERENCES chat_messages (id),
+    CONSTRAINT fk_chat_message_context_chunks_chunk FOREIGN KEY (chunk_hash) REFERENCES context_chunks (hash)
+) ENGINE = InnoDB;
+
+-- Existing contexts move over as one chunk each. Their stored bytes may already be
+-- compressed, so they are copied verbatim under a per-message key instead of a
+-- content hash ('legacy-' is not hex and cannot collide); they are not deduplicated.
+INSERT INTO context_chunks (hash, content, ref_count)
+SELECT CONCAT('legacy-', message_id), context, 1
+FROM chat_message_contexts;
+
+INSERT INTO chat_message_context_chunks (message_id, ordinal, chunk_hash)
+SELECT message_id, 0, CONCAT('legacy-', message_id)
+FROM chat_message_contexts;
+
+DROP TABLE chat_message_contexts;
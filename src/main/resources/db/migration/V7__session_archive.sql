@@ -0,0 +1,19 @@
+-- Cold-session archive tier (see SessionArchiveService).
+-- Messages of sessions idle beyond app.archive.idle-days move into compressed,
+-- append-only segment files on local disk; the session row itself stays here,
+-- flagged as archived. ChatSessionRepository#incrementMessageCount does not match
+-- archived sessions, which sends appends through the restore path first.
+ALTER TABLE chat_sessions ADD COLUMN is_archived BIT NOT NULL DEFAULT 0;
+
+-- Offset index: where each archived session's record lives in the segment files.
+-- Removed together with the session when the purge hard-deletes it.
+CREATE TABLE IF NOT EXISTS chat_session_archives (
+    session_id    BIGINT      NOT NULL,
+    segment_no    INT         NOT NULL,
+    record_offset BIGINT      NOT NULL,
+    record_length INT         NOT NULL,
+    message_count BIGINT      NOT NULL,
+    archived_at   DATETIME(6) NOT NULL,
+    PRIMARY KEY (session_id),
+    CONSTRAINT fk_chat_session_archives_session FOREIGN KEY (session_id) REFERENCES chat_sessions (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,7 @@
+-- Per-user session listing (ChatSessionRepository#findUserSessionsBy*Before).
+-- Each index serves one sort order: equality on the leading columns, then a
+-- backward range seek on the sort key with id as the tie-breaker, so a page
+-- costs the same however many sessions the user or the table holds.
+CREATE INDEX idx_chat_sessions_user_updated_at ON chat_sessions (user_id, is_deleted, updated_at, id);
+CREATE INDEX idx_chat_sessions_user_created_at ON chat_sessions (user_id, is_deleted, created_at, id);
+CREATE INDEX idx_chat_sessions_user_favorite ON chat_sessions (user_id, is_deleted, is_favorite, updated_at, id);
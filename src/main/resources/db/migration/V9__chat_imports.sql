@@ -0,0 +1,26 @@
+-- Checkpoints of NDJSON bulk imports (see ChatImportService).
+-- One row per client-chosen import id; lines_committed advances in the same
+-- transaction as each committed batch, so a retried import skips exactly the
+-- lines that are already stored.
+CREATE TABLE IF NOT EXISTS chat_imports (
+    import_id         VARCHAR(64) NOT NULL,
+    lines_committed   BIGINT      NOT NULL,
+    sessions_created  BIGINT      NOT NULL,
+    messages_imported BIGINT      NOT NULL,
+    lines_skipped     BIGINT      NOT NULL,
+    created_at        DATETIME(6) NOT NULL,
+    updated_at        DATETIME(6) NOT NULL,
+    PRIMARY KEY (import_id)
+) ENGINE = InnoDB;
+
+-- Session each source session id of an import was created as, so messages of one
+-- source session land in one session across batches and retries. No foreign key
+-- to chat_sessions: the purge hard-deletes sessions, and lines of a mapping whose
+-- session is gone are skipped.
+CREATE TABLE IF NOT EXISTS chat_import_sessions (
+    import_id         VARCHAR(64)  NOT NULL,
+    source_session_id VARCHAR(255) NOT NULL,
+    session_id        BIGINT       NOT NULL,
+    PRIMARY KEY (import_id, source_session_id),
+    CONSTRAINT fk_chat_import_sessions_import FOREIGN KEY (import_id) REFERENCES chat_imports (import_id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,118 @@
+package com.example.RAGChatMicroservice.config;
+
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.service.serviceImpl.ReadYourWritesTracker;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes real JPA transactions, set up as the application does (Hibernate
+ * behind {@link JpaTransactionManager}), between two embedded databases, each
+ * of which reports its own name.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private LocalContainerEntityManagerFactoryBean entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    private TransactionTemplate writeTx;
+
+    private TransactionTemplate readTx;
+
+    private ReadYourWritesTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(node("primary"), List.of(node("replica")));
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+        entityManagerFactory.setDataSource(dataSource);
+        entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        entityManagerFactory.setPackagesToScan(ReplicaRoutingDataSourceTest.class.getPackageName());
+        entityManagerFactory.afterPropertiesSet();
+        EntityManagerFactory factory = entityManagerFactory.getObject();
+
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(factory);
+        JpaTransactionManager transactionManager = new JpaTransactionManager(factory);
+        writeTx = new TransactionTemplate(transactionManager);
+        readTx = new TransactionTemplate(transactionManager);
+        readTx.setReadOnly(true);
+
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setEnabled(true);
+        tracker = new ReadYourWritesTracker(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.destroy();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldUseReplica_AndEverythingElsePrimary() {
+        assertEquals("replica", readTx.execute(status -> currentNode()));
+        assertEquals("primary", writeTx.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void reads_ShouldStayOnPrimary_AfterWriteToSameSession() {
+        writeTx.executeWithoutResult(status -> tracker.recordWrite(1L));
+
+        assertEquals("primary", readTx.execute(status -> {
+            tracker.routeReads(1L);
+            return currentNode();
+        }));
+        assertEquals("replica", readTx.execute(status -> {
+            tracker.routeReads(2L);
+            return currentNode();
+        }));
+        // The pin ends with its transaction
+        assertEquals("replica", readTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void reads_ShouldUseReplica_WhenWriteRolledBack() {
+        writeTx.executeWithoutResult(status -> {
+            tracker.recordWrite(1L);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readTx.execute(status -> {
+            tracker.routeReads(1L);
+            return currentNode();
+        }));
+    }
+
+    private String currentNode() {
+        return (String) entityManager.createNativeQuery("SELECT name FROM node").getSingleResult();
+    }
+
+    private static DataSource node(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(20))");
+        jdbc.update("DELETE FROM node");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
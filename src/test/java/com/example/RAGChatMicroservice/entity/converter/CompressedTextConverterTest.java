@@ -0,0 +1,70 @@
+package com.example.RAGChatMicroservice.entity.converter;
+
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextConverterTest {
+
+    private static final String LONG_TEXT = "Retrieval-Augmented Generation combines a retriever with a generator. ".repeat(40);
+
+    private CompressionProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CompressionProperties();
+        properties.setEnabled(true);
+    }
+
+    @Test
+    void convert_ShouldCompressLargeValues_AndReadThemBack() {
+        CompressedTextConverter converter = new CompressedTextConverter(properties);
+
+        byte[] stored = converter.convertToDatabaseColumn(LONG_TEXT);
+
+        assertEquals(CompressedTextConverter.MAGIC, stored[0]);
+        assertEquals(CompressedTextConverter.CODEC_ZSTD, stored[2]);
+        assertTrue(stored.length < LONG_TEXT.length() / 4);
+        assertEquals(LONG_TEXT, converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void convert_ShouldStorePlainBytes_BelowMinSize() {
+        CompressedTextConverter converter = new CompressedTextConverter(properties);
+
+        byte[] stored = converter.convertToDatabaseColumn("Hello");
+
+        assertArrayEquals("Hello".getBytes(StandardCharsets.UTF_8), stored);
+        assertEquals("Hello", converter.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void convert_ShouldStorePlainBytes_WhenDisabled() {
+        properties.setEnabled(false);
+        CompressedTextConverter converter = new CompressedTextConverter(properties);
+
+        assertArrayEquals(LONG_TEXT.getBytes(StandardCharsets.UTF_8), converter.convertToDatabaseColumn(LONG_TEXT));
+    }
+
+    @Test
+    void convertToEntityAttribute_ShouldReadLegacyAndCompressedRows_WhenDisabled() {
+        byte[] compressed = new CompressedTextConverter(properties).convertToDatabaseColumn(LONG_TEXT);
+        properties.setEnabled(false);
+        CompressedTextConverter converter = new CompressedTextConverter(properties);
+
+        assertEquals("héllo wörld", converter.convertToEntityAttribute("héllo wörld".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(LONG_TEXT, converter.convertToEntityAttribute(compressed));
+    }
+
+    @Test
+    void convert_ShouldKeepNull() {
+        CompressedTextConverter converter = new CompressedTextConverter(properties);
+
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.RAGChatMicroservice.repository;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import com.example.RAGChatMicroservice.service.serviceImpl.MessageContextStore;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every repository query against the Flyway-managed schema on an embedded
+ * MySQL-compatible database and fails if any statement plans a full table scan.
+ *
+ * <p>
+ * Hibernate is configured with the MySQL dialect, so the captured SQL is the
+ * same SQL production sends to MySQL. Each captured statement is re-run with
+ * {@code EXPLAIN} and the plan must name an index for every table it touches.
+ * </p>
+ *
+ * <p>
+ * The MySQL dialect renders boolean literals as {@code 1}/{@code 0} for {@code BIT}
+ * columns. H2 treats {@code BIT} as {@code BOOLEAN} and cannot use an index through
+ * that implicit cast (MySQL can), so such literals are normalized before explaining.
+ * </p>
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CompressionProperties.class, CompressedTextConverter.class, MessageContextStore.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"
+})
+class RepositoryQueryPlanTest {
+
+    /**
+     * H2 marks a full scan with this token in its plan comments.
+     */
+    private static final String FULL_SCAN_MARKER = "tableScan";
+
+    /**
+     * Matches {@code is_xxx=1} / {@code is_xxx=0} boolean literal comparisons.
+     */
+    private static final Pattern BOOLEAN_LITERAL = Pattern.compile("(\\.is_\\w+)=([01])\\b");
+
+    @Autowired
+    private ChatSessionRepository sessionRepo;
+
+    @Autowired
+    private ChatMessageRepository messageRepo;
+
+    @Autowired
+    private MessageContextStore contextStore;
+
+    @Autowired
+    private MessageEmbeddingRepository embeddingRepo;
+
+    @Autowired
+    private ChatImportRepository importRepo;
+
+    @Autowired
+    private ChatImportSessionRepository importSessionRepo;
+
+    @Autowired
+    private MessageStreamRepository streamRepo;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CapturingStatementInspector statements;
+
+    private ChatSession session;
+
+    @BeforeEach
+    void setUp() {
+        // Enough rows that the optimizer's choice reflects the indexes, not table size
+        List<ChatSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ChatSession other = new ChatSession();
+            other.setSessionName("Session " + i);
+            other.setUserId("user-" + (i % 4));
+            other.setIsFavorite(i % 3 == 0);
+            other.setIsDeleted(i % 5 == 0);
+            other.setCreatedAt(LocalDateTime.now().minusDays(i));
+            other.setUpdatedAt(LocalDateTime.now().minusDays(i));
+            sessions.add(other);
+        }
+        sessionRepo.saveAll(sessions);
+
+        session = new ChatSession();
+        session.setSessionName("Plans");
+        session.setCreatedAt(LocalDateTime.now());
+        session.setUpdatedAt(LocalDateTime.now());
+        session = sessionRepo.save(session);
+
+        List<ChatMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ChatMessage message = new ChatMessage();
+            message.setId(1L + i);
+            message.setSession(session);
+            message.setSender("user");
+            message.setContent("message " + i);
+            message.setContext("context " + i);
+            message.setCreatedAt(LocalDateTime.now());
+            messages.add(message);
+        }
+        messageRepo.saveAllAndFlush(messages);
+        contextStore.saveAll(messages);
+        messageRepo.flush();
+        statements.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statements.clear();
+    }
+
+    @Test
+    void sessionQueries_ShouldNotScanFullTable() {
+        sessionRepo.findByIdAndIsDeletedFalse(session.getId());
+        sessionRepo.findMessageCountById(session.getId());
+        sessionRepo.findByIsDeletedFalse(PageRequest.of(0, 10));
+        sessionRepo.findSliceByIsDeletedFalse(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "updatedAt").and(Sort.by(Sort.Direction.DESC, "id"))));
+        sessionRepo.countByIsDeletedFalse();
+        sessionRepo.findActivityById(session.getId());
+        sessionRepo.incrementMessageCount(session.getId(), 1);
+        sessionRepo.recordLastMessage(session.getId(), 1L, LocalDateTime.now());
+        sessionRepo.renameById(session.getId(), "Renamed", LocalDateTime.now());
+        sessionRepo.updateFavoriteById(session.getId(), true, LocalDateTime.now());
+        sessionRepo.softDeleteById(session.getId(), LocalDateTime.now());
+        sessionRepo.findPurgeCandidates(LocalDateTime.now(), LocalDateTime.of(1970, 1, 1, 0, 0), 0L, Limit.of(3));
+        sessionRepo.findFirstByIsDeletedTrueOrderByUpdatedAtAsc();
+        sessionRepo.findArchiveCandidates(LocalDateTime.now(), LocalDateTime.of(1970, 1, 1, 0, 0), 0L, Limit.of(3));
+        sessionRepo.markArchived(session.getId(), 50L);
+        sessionRepo.markRestored(session.getId());
+        LocalDateTime top = LocalDateTime.of(9999, 12, 31, 0, 0);
+        sessionRepo.findUserSessionsByUpdatedAtBefore("user-1", top, Long.MAX_VALUE, Limit.of(3));
+        sessionRepo.findUserSessionsByCreatedAtBefore("user-1", top, Long.MAX_VALUE, Limit.of(3));
+        sessionRepo.findUserSessionsByFavoriteBefore("user-1", true, top, Long.MAX_VALUE, Limit.of(3));
+        sessionRepo.findUserSessionsByLastMessageAtBefore("user-1", top, Long.MAX_VALUE, Limit.of(3));
+        sessionRepo.findUserSessionsWithoutMessagesBefore("user-1", Long.MAX_VALUE, Limit.of(3));
+        sessionRepo.findActiveSessionsAfter(0L, Limit.of(3));
+
+        assertNoFullScans();
+    }
+
+    @Test
+    void messageQueries_ShouldNotScanFullTable() {
+        Long sessionId = session.getId();
+        messageRepo.findBySessionId(sessionId, PageRequest.of(1, 3, Sort.by("id")));
+        messageRepo.findSummariesBySessionId(sessionId, PageRequest.of(1, 3, Sort.by("id")));
+        messageRepo.findSummarySliceBySessionId(sessionId, PageRequest.of(0, 3, Sort.by("id")));
+        messageRepo.findSummariesBySessionIdAfter(sessionId, 0L, Limit.of(3));
+        messageRepo.findSummariesBySessionIdBefore(sessionId, Long.MAX_VALUE, Limit.of(3));
+        messageRepo.findTokenCountsBySessionIdBefore(sessionId, Long.MAX_VALUE, Limit.of(3));
+        messageRepo.findIdsBySessionIdAfter(sessionId, 0L, Limit.of(3));
+        messageRepo.findLatestCreatedAt(sessionId, Limit.of(1));
+        messageRepo.softDeleteBySessionIdAndIdRange(sessionId, 0L, Long.MAX_VALUE, LocalDateTime.now());
+        messageRepo.findIndexRowsAfter(0L, Limit.of(3));
+        messageRepo.updateContent(messageRepo.findIdsBySessionIdAfter(sessionId, 0L, Limit.of(1)).get(0), "streamed", 2, LocalDateTime.now());
+        List<Long> ids = messageRepo.findIdsBySessionIdAfter(sessionId, 0L, Limit.of(3));
+        contextStore.findByMessageIds(ids);
+        contextStore.deleteByMessageIds(ids);
+        embeddingRepo.deleteByMessageIds(ids);
+        messageRepo.deleteAllByIdInBatch(ids);
+
+        assertNoFullScans();
+    }
+
+    @Test
+    void importQueries_ShouldNotScanFullTable() {
+        importSessionRepo.findByImportIdAndSourceSessionIdIn("import-1", List.of("a", "b"));
+        importRepo.advanceCheckpoint("import-1", 0L, 2L, 1L, 2L, 0L, LocalDateTime.now());
+
+        assertNoFullScans();
+    }
+
+    @Test
+    void streamQueries_ShouldNotScanFullTable() {
+        streamRepo.touch(1L, LocalDateTime.now());
+        streamRepo.deleteByMessageId(1L);
+        streamRepo.deleteIdleBefore(LocalDateTime.now());
+
+        assertNoFullScans();
+    }
+
+    @Test
+    void summaryQueries_ShouldNotReadContextColumn() {
+        Long sessionId = session.getId();
+        messageRepo.findSummariesBySessionId(sessionId, PageRequest.of(0, 3, Sort.by("id")));
+        messageRepo.findSummarySliceBySessionId(sessionId, PageRequest.of(0, 3, Sort.by("id")));
+        messageRepo.findSummariesBySessionIdAfter(sessionId, 0L, Limit.of(3));
+        messageRepo.findSummariesBySessionIdBefore(sessionId, Long.MAX_VALUE, Limit.of(3));
+
+        List<String> captured = statements.queries();
+        assertFalse(captured.isEmpty(), "No statements were captured");
+        captured.forEach(sql -> assertFalse(sql.contains("context"), "Summary query reads context: " + sql));
+    }
+
+    /**
+     * Explains every captured SELECT/UPDATE/DELETE and asserts that no plan
+     * contains a full table scan.
+     */
+    private void assertNoFullScans() {
+        List<String> captured = statements.queries();
+        assertFalse(captured.isEmpty(), "No statements were captured");
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        for (String sql : captured) {
+            String plan = explain(jdbc, sql);
+            assertFalse(plan.contains(FULL_SCAN_MARKER), () -> "Full table scan for:\n" + sql + "\nPlan:\n" + plan);
+        }
+    }
+
+    private String explain(JdbcTemplate jdbc, String sql) {
+        String normalized = BOOLEAN_LITERAL.matcher(sql).replaceAll(match -> match.group(1) + "=" + ("1".equals(match.group(2)) ? "TRUE" : "FALSE"));
+        return jdbc.query("EXPLAIN " + normalized, ps -> {
+            int parameters = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                ps.setObject(i, 1);
+            }
+        }, (ResultSet rs) -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append('\n');
+            }
+            return plan.toString();
+        });
+    }
+
+    /**
+     * Records the SQL of every statement Hibernate prepares.
+     */
+    static class CapturingStatementInspector implements StatementInspector {
+
+        private final List<String> sql = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String statement) {
+            sql.add(statement);
+            return statement;
+        }
+
+        /**
+         * @return captured reads and writes that filter rows (INSERTs are ignored)
+         */
+        List<String> queries() {
+            return sql.stream()
+                    .filter(statement -> !statement.trim().toLowerCase().startsWith("insert"))
+                    .filter(statement -> !statement.contains("_seq"))
+                    .toList();
+        }
+
+        void clear() {
+            sql.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class SqlCaptureConfig {
+
+        @Bean
+        CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer statementInspectorCustomizer(CapturingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+}
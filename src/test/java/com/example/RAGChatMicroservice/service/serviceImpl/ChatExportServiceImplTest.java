@@ -0,0 +1,136 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChatExportServiceImplTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 1, 10, 30, 15);
+
+    @Mock
+    private MessageStore messageStore;
+
+    @Mock
+    private ChatSessionRepository sessionRepo;
+
+    @Mock
+    private SessionArchiveService archiveService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ChatExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        SessionCache sessionCache = new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry());
+        exportService = new ChatExportServiceImpl(messageStore, sessionRepo, sessionCache, archiveService, objectMapper, transactionManager);
+    }
+
+    @Test
+    void exportSession_ShouldWriteOneLinePerMessage() throws Exception {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session(1L, "alice", false)));
+        stream(1L, new MessageRecord(10L, "user", "What is RAG?", "passage", CREATED_AT), new MessageRecord(11L, "AI", "Retrieval-Augmented \"Generation\"", null, CREATED_AT));
+
+        List<JsonNode> lines = export(exportService.exportSession(1L));
+
+        assertEquals(2, lines.size());
+        assertEquals(1L, lines.get(0).get("sessionId").asLong());
+        assertEquals("alice", lines.get(0).get("userId").asText());
+        assertEquals("passage", lines.get(0).get("context").asText());
+        assertEquals("2024-05-01T10:30:15", lines.get(0).get("createdAt").asText());
+        assertEquals("Retrieval-Augmented \"Generation\"", lines.get(1).get("content").asText());
+        assertFalse(lines.get(1).has("context"));
+    }
+
+    @Test
+    void exportSession_ShouldThrowNotFound_BeforeStreaming() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(99L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> exportService.exportSession(99L));
+    }
+
+    @Test
+    void exportSessions_ShouldReadArchivedSessionsFromArchive() throws Exception {
+        when(sessionRepo.findActiveSessionsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(session(1L, "alice", false), session(2L, "bob", true)));
+        stream(1L, new MessageRecord(10L, "user", "hot", null, CREATED_AT));
+        when(archiveService.findArchivedMessages(2L)).thenReturn(Optional.of(List.of(
+                MessageResponse.builder().messageId(20L).sender("user").content("cold").createdAt(CREATED_AT).build())));
+
+        List<JsonNode> lines = export(exportService.exportSessions(null));
+
+        assertEquals(List.of("hot", "cold"), lines.stream().map(line -> line.get("content").asText()).toList());
+        assertEquals("bob", lines.get(1).get("userId").asText());
+        verify(messageStore, never()).forEachMessage(eq(2L), any());
+    }
+
+    @Test
+    void exportSessions_ShouldRejectBlankUserId() {
+        assertThrows(IllegalArgumentException.class, () -> exportService.exportSessions(" "));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stream(Long sessionId, MessageRecord... messages) {
+        doAnswer(invocation -> {
+            Consumer<MessageRecord> action = invocation.getArgument(1);
+            for (MessageRecord message : messages) {
+                action.accept(message);
+            }
+            return null;
+        }).when(messageStore).forEachMessage(eq(sessionId), any(Consumer.class));
+    }
+
+    private List<JsonNode> export(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        String ndjson = out.toString(StandardCharsets.UTF_8);
+        assertTrue(ndjson.endsWith("\n"), "Every line must be terminated");
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static ChatSession session(Long id, String userId, boolean archived) {
+        ChatSession session = new ChatSession();
+        session.setId(id);
+        session.setUserId(userId);
+        session.setSessionName("Session " + id);
+        session.setIsFavorite(false);
+        session.setCreatedAt(CREATED_AT);
+        session.setIsArchived(archived);
+        return session;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.response.ImportStatusResponse;
+import com.example.RAGChatMicroservice.entity.ChatImportSession;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.exception.ImportConflictException;
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import com.example.RAGChatMicroservice.properties.MessageStoreProperties;
+import com.example.RAGChatMicroservice.properties.ImportProperties;
+import com.example.RAGChatMicroservice.repository.ChatImportRepository;
+import com.example.RAGChatMicroservice.repository.ChatImportSessionRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs bulk imports against the Flyway-managed schema. Batches commit for real
+ * (the test methods run outside a transaction), so each test uses its own import id.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CompressionProperties.class, CompressedTextConverter.class, MessageContextStore.class, ExportProperties.class, JpaMessageStore.class, MessageStoreProperties.class, MessageIdAllocator.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:chat-import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChatImportServiceImplTest {
+
+    @Autowired
+    private JpaMessageStore messageStore;
+
+    @Autowired
+    private ChatSessionRepository sessionRepo;
+
+    @Autowired
+    private ChatImportRepository importRepo;
+
+    @Autowired
+    private ChatImportSessionRepository importSessionRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ChatImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        ImportProperties properties = new ImportProperties();
+        properties.setBatchSize(2);
+        importService = new ChatImportServiceImpl(messageStore, sessionRepo, importRepo, importSessionRepo, mock(SessionArchiveService.class),
+                new ActiveSessionCounter(sessionRepo), mock(RecentMessageBuffer.class), mock(MessageSearchIndex.class),
+                jdbcTemplate, new ObjectMapper().findAndRegisterModules(), transactionManager, properties);
+    }
+
+    @Test
+    void importMessages_ShouldCreateOneSessionPerSource_AcrossBatches() {
+        ImportStatusResponse status = importService.importMessages("import-batches", body(
+                line("a", "a1", "2024-05-01T10:00:00") + ",\"userId\":\"alice\",\"sessionName\":\"Trip\",\"context\":\"passage\"}",
+                line("b", "b1", "2024-05-01T11:00:00") + "}",
+                "",
+                line("a", "a2", "2024-05-01T10:05:00") + ",\"messageId\":99}",
+                line("a", "a3", "2024-05-01T10:10:00") + "}"));
+
+        assertEquals(4L, status.getLinesCommitted());
+        assertEquals(2L, status.getSessionsCreated());
+        assertEquals(4L, status.getMessagesImported());
+
+        Long sessionA = sessionIds("import-batches").get("a");
+        ChatSession session = sessionRepo.findById(sessionA).orElseThrow();
+        assertEquals("alice", session.getUserId());
+        assertEquals("Trip", session.getSessionName());
+        assertEquals(3L, session.getMessageCount());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 0), session.getCreatedAt());
+        List<MessageRecord> messages = messages(sessionA);
+        assertEquals(List.of("a1", "a2", "a3"), messages.stream().map(MessageRecord::content).toList());
+        assertEquals("passage", messages.get(0).context());
+    }
+
+    @Test
+    void importMessages_ShouldResumeAfterCommittedBatches() {
+        String first = line("a", "a1", "2024-05-01T10:00:00") + "}";
+        String second = line("a", "a2", "2024-05-01T10:01:00") + "}";
+        String third = line("b", "b1", "2024-05-01T10:02:00") + "}";
+        String last = line("a", "a3", "2024-05-01T10:03:00") + "}";
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> importService.importMessages("import-resume", body(first, second, third, "{\"sessionId\":\"a\",")));
+        assertTrue(error.getMessage().endsWith("line 4"), error.getMessage());
+        // Line 3 was still in the open batch
+        assertEquals(2L, importService.getImportStatus("import-resume").getLinesCommitted());
+
+        ImportStatusResponse status = importService.importMessages("import-resume", body(first, second, third, last));
+
+        assertEquals(4L, status.getLinesCommitted());
+        assertEquals(4L, status.getMessagesImported());
+        assertEquals(2L, status.getSessionsCreated());
+        Long sessionA = sessionIds("import-resume").get("a");
+        assertEquals(List.of("a1", "a2", "a3"), messages(sessionA).stream().map(MessageRecord::content).toList());
+        assertEquals(3L, sessionRepo.findById(sessionA).orElseThrow().getMessageCount());
+    }
+
+    @Test
+    void importMessages_ShouldConflict_WhenSameImportAdvancedConcurrently() {
+        InputStream rest = new InputStream() {
+            private final InputStream lines = body("\n" + line("a", "a3", "2024-05-01T10:02:00") + "}");
+            private boolean advanced;
+
+            @Override
+            public int read() throws IOException {
+                if (!advanced) {
+                    // Another run of the import commits its batch meanwhile
+                    jdbcTemplate.update("UPDATE chat_imports SET lines_committed = lines_committed + 2 WHERE import_id = ?", "import-conflict");
+                    advanced = true;
+                }
+                return lines.read();
+            }
+        };
+        InputStream body = new SequenceInputStream(body(line("a", "a1", "2024-05-01T10:00:00") + "}", line("a", "a2", "2024-05-01T10:01:00") + "}"), rest);
+
+        ImportConflictException error = assertThrows(ImportConflictException.class, () -> importService.importMessages("import-conflict", body));
+
+        assertEquals("Import is already running elsewhere: import-conflict", error.getMessage());
+        assertEquals(4L, importService.getImportStatus("import-conflict").getLinesCommitted());
+    }
+
+    @Test
+    void importMessages_ShouldSkipLines_WhenImportedSessionWasDeleted() {
+        String first = line("a", "a1", "2024-05-01T10:00:00") + "}";
+        String second = line("a", "a2", "2024-05-01T10:01:00") + "}";
+        assertThrows(IllegalArgumentException.class, () -> importService.importMessages("import-deleted", body(first, second, "[")));
+        Long sessionA = sessionIds("import-deleted").get("a");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> sessionRepo.softDeleteById(sessionA, LocalDateTime.now()));
+
+        ImportStatusResponse status = importService.importMessages("import-deleted", body(first, second, line("a", "a3", "2024-05-01T10:02:00") + "}"));
+
+        assertEquals(3L, status.getLinesCommitted());
+        assertEquals(1L, status.getLinesSkipped());
+        assertEquals(2L, status.getMessagesImported());
+        assertEquals(2, messages(sessionA).size());
+    }
+
+    @Test
+    void importMessages_ShouldRejectInvalidLinesAndIds() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> importService.importMessages("import-invalid", body(line("a", " ", "2024-05-01T10:00:00") + "}")));
+
+        assertTrue(error.getMessage().startsWith("Line 1"), error.getMessage());
+        assertEquals(0L, importService.getImportStatus("import-invalid").getLinesCommitted());
+        assertThrows(IllegalArgumentException.class, () -> importService.importMessages("../etc", body()));
+    }
+
+    private Map<String, Long> sessionIds(String importId) {
+        return importSessionRepo.findAll().stream()
+                .filter(mapping -> mapping.getImportId().equals(importId))
+                .collect(Collectors.toMap(ChatImportSession::getSourceSessionId, ChatImportSession::getSessionId));
+    }
+
+    private List<MessageRecord> messages(Long sessionId) {
+        List<MessageRecord> messages = new ArrayList<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> messageStore.forEachMessage(sessionId, messages::add));
+        return messages;
+    }
+
+    /**
+     * Opening of a line; callers append further fields and the closing brace.
+     */
+    private static String line(String sessionId, String content, String createdAt) {
+        return "{\"sessionId\":\"" + sessionId + "\",\"sender\":\"user\",\"content\":\"" + content + "\",\"createdAt\":\"" + createdAt + "\"";
+    }
+
+    private static InputStream body(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,22 +1,39 @@
 package com.example.RAGChatMicroservice.service.serviceImpl;
 
 import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.BatchAddMessageRequest;
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
 import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
 import com.example.RAGChatMicroservice.entity.ChatMessage;
 import com.example.RAGChatMicroservice.entity.ChatSession;
 import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.properties.RecentMessagesProperties;
+import com.example.RAGChatMicroservice.properties.SearchProperties;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
 import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
 import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.MessageEmbeddingRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.MessageTokenCount;
+import com.example.RAGChatMicroservice.repository.projection.SessionActivity;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import com.example.RAGChatMicroservice.util.CursorUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,7 +47,18 @@ class ChatMessageServiceImplTest {
     @Mock
     private ChatSessionRepository sessionRepo;
 
-    @InjectMocks
+    @Mock
+    private MessageContextStore contextStore;
+
+    @Mock
+    private MessageIdAllocator idAllocator;
+
+    @Mock
+    private MessageEmbeddingRepository embeddingRepo;
+
+    @Mock
+    private SessionArchiveService archiveService;
+
     private ChatMessageServiceImpl messageService;
 
     private ChatSession session;
@@ -38,6 +66,7 @@ class ChatMessageServiceImplTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        messageService = newService(false);
 
         session = new ChatSession();
         session.setId(1L);
@@ -60,8 +89,9 @@ class ChatMessageServiceImplTest {
         savedMessage.setCreatedAt(LocalDateTime.now());
         savedMessage.setSession(session);
 
-        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
-        when(messageRepo.save(any(ChatMessage.class))).thenReturn(savedMessage);
+        when(sessionRepo.incrementMessageCount(1L, 1)).thenReturn(1);
+        when(sessionRepo.getReferenceById(1L)).thenReturn(session);
+        when(messageRepo.saveAll(anyList())).thenReturn(List.of(savedMessage));
 
         SessionMessageResponse response = messageService.addMessage(1L, request);
 
@@ -69,32 +99,101 @@ class ChatMessageServiceImplTest {
         assertEquals(1L, response.getSessionId());
         assertEquals(1, response.getMessages().size());
         assertEquals("Alice", response.getMessages().get(0).getSender());
-        verify(messageRepo, times(1)).save(any(ChatMessage.class));
+        verify(messageRepo, times(1)).saveAll(anyList());
+        verify(sessionRepo, times(1)).incrementMessageCount(1L, 1);
+        verify(sessionRepo, never()).findByIdAndIsDeletedFalse(anyLong());
+        verify(sessionRepo).recordLastMessage(1L, 100L, savedMessage.getCreatedAt());
+        verify(contextStore).saveAll(List.of(savedMessage));
     }
 
     @Test
     void addMessage_ShouldThrowException_WhenSessionNotFound() {
         AddMessageRequest request = new AddMessageRequest();
-        when(sessionRepo.findByIdAndIsDeletedFalse(99L)).thenReturn(Optional.empty());
+        when(sessionRepo.incrementMessageCount(99L, 1)).thenReturn(0);
 
         assertThrows(ResourceNotFoundException.class, () -> messageService.addMessage(99L, request));
+        verify(messageRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addMessage_ShouldRestoreArchivedSession_BeforeAppending() {
+        AddMessageRequest request = new AddMessageRequest();
+        ChatMessage savedMessage = new ChatMessage();
+        savedMessage.setId(100L);
+        savedMessage.setCreatedAt(LocalDateTime.now());
+
+        when(sessionRepo.incrementMessageCount(1L, 1)).thenReturn(0, 1);
+        when(archiveService.restore(1L)).thenReturn(true);
+        when(sessionRepo.getReferenceById(1L)).thenReturn(session);
+        when(messageRepo.saveAll(anyList())).thenReturn(List.of(savedMessage));
+
+        messageService.addMessage(1L, request);
+
+        verify(archiveService).restore(1L);
+        verify(sessionRepo, times(2)).incrementMessageCount(1L, 1);
+        verify(messageRepo).saveAll(anyList());
+    }
+
+    @Test
+    void addMessages_ShouldSaveBatchInOrder_WhenSessionExists() {
+        AddMessageRequest userTurn = new AddMessageRequest();
+        userTurn.setSender("user");
+        userTurn.setContent("Question");
+        AddMessageRequest assistantTurn = new AddMessageRequest();
+        assistantTurn.setSender("assistant");
+        assistantTurn.setContent("Answer");
+
+        when(sessionRepo.incrementMessageCount(1L, 2)).thenReturn(1);
+        when(sessionRepo.getReferenceById(1L)).thenReturn(session);
+        when(messageRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            long id = 300L;
+            for (ChatMessage message : messages) {
+                message.setId(id++);
+            }
+            return messages;
+        });
+
+        SessionMessageResponse response = messageService.addMessages(1L, new BatchAddMessageRequest(List.of(userTurn, assistantTurn)));
+
+        assertEquals(2, response.getMessages().size());
+        assertEquals(300L, response.getMessages().get(0).getMessageId());
+        assertEquals("user", response.getMessages().get(0).getSender());
+        assertEquals(301L, response.getMessages().get(1).getMessageId());
+        assertEquals("assistant", response.getMessages().get(1).getSender());
+        verify(sessionRepo, never()).findByIdAndIsDeletedFalse(anyLong());
+        verify(messageRepo, times(1)).saveAll(anyList());
+        verify(messageRepo, never()).save(any(ChatMessage.class));
+        verify(sessionRepo, times(1)).incrementMessageCount(1L, 2);
+    }
+
+    @Test
+    void addMessages_ShouldThrowException_WhenBatchIsEmpty() {
+        BatchAddMessageRequest request = new BatchAddMessageRequest(List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> messageService.addMessages(1L, request));
+        verifyNoInteractions(sessionRepo, messageRepo);
+    }
+
+    @Test
+    void addMessages_ShouldThrowException_WhenSessionNotFound() {
+        BatchAddMessageRequest request = new BatchAddMessageRequest(List.of(new AddMessageRequest()));
+        when(sessionRepo.incrementMessageCount(99L, 1)).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> messageService.addMessages(99L, request));
+        verify(messageRepo, never()).saveAll(anyList());
     }
 
     @Test
     void getMessages_ShouldReturnPaginatedResponse() {
-        ChatMessage msg = new ChatMessage();
-        msg.setId(200L);
-        msg.setSender("Charlie");
-        msg.setContent("Paginated message");
-        msg.setContext("ctx");
-        msg.setCreatedAt(LocalDateTime.now());
-        msg.setSession(session);
+        MessageSummary msg = new MessageSummary(200L, "Charlie", "Paginated message", LocalDateTime.now());
 
         when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
-        when(messageRepo.findBySessionId(eq(1L), any(PageRequest.class)))
+        when(messageRepo.findSummariesBySessionId(eq(1L), any(PageRequest.class)))
                 .thenReturn(new PageImpl<>(List.of(msg)));
+        when(contextStore.findByMessageIds(List.of(200L))).thenReturn(Map.of(200L, "ctx"));
 
-        SessionMessageResponse response = messageService.getMessages(1L, 0, 10);
+        SessionMessageResponse response = messageService.getMessages(1L, 0, 10, null);
 
         assertNotNull(response);
         assertEquals(1L, response.getSessionId());
@@ -102,12 +201,315 @@ class ChatMessageServiceImplTest {
         assertEquals(1, response.getTotalMessages());
         assertEquals(1, response.getTotalPages());
         assertEquals("Charlie", response.getMessages().get(0).getSender());
+        assertEquals("ctx", response.getMessages().get(0).getContext());
     }
 
     @Test
     void getMessages_ShouldThrowException_WhenSessionNotFound() {
         when(sessionRepo.findByIdAndIsDeletedFalse(99L)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> messageService.getMessages(99L, 0, 10));
+        assertThrows(ResourceNotFoundException.class, () -> messageService.getMessages(99L, 0, 10, null));
+    }
+
+    @Test
+    void getMessagesSlice_ShouldUseMaintainedCount_WhenTotalRequested() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(sessionRepo.findMessageCountById(1L)).thenReturn(Optional.of(7L));
+        when(messageRepo.findSummarySliceBySessionId(eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(message(1L)), PageRequest.of(0, 1), true));
+
+        SessionMessageResponse response = messageService.getMessagesSlice(1L, 0, 1, true, null);
+
+        assertTrue(response.getHasNext());
+        assertEquals(7, response.getTotalMessages());
+        assertNull(response.getTotalPages());
+        verify(messageRepo, never()).findBySessionId(anyLong(), any());
+    }
+
+    @Test
+    void getMessagesSlice_ShouldOmitTotal_ByDefault() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummarySliceBySessionId(eq(1L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(message(1L)), PageRequest.of(0, 5), false));
+
+        SessionMessageResponse response = messageService.getMessagesSlice(1L, 0, 5, false, null);
+
+        assertFalse(response.getHasNext());
+        assertNull(response.getTotalMessages());
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldReadForwardAndReturnNextCursor() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdAfter(1L, 10L, Limit.of(3)))
+                .thenReturn(List.of(message(11L), message(12L), message(13L)));
+
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, CursorUtils.encode(10L), null, 2, null);
+
+        assertEquals(List.of(11L, 12L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertTrue(response.getHasNext());
+        assertEquals(12L, CursorUtils.decode(response.getNextCursor()));
+        verify(messageRepo, never()).findBySessionId(anyLong(), any());
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldReadTailInChronologicalOrder() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(3)))
+                .thenReturn(List.of(message(50L), message(49L)));
+
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, null, "", 2, null);
+
+        assertEquals(List.of(49L, 50L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertFalse(response.getHasNext());
+        assertEquals(49L, CursorUtils.decode(response.getNextCursor()));
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldServeRepeatedTailReadsFromBuffer() {
+        messageService = newService(true);
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(50)))
+                .thenReturn(List.of(message(50L), message(49L), message(48L)));
+        when(sessionRepo.findActivityById(1L)).thenReturn(Optional.of(new SessionActivity(3L, LocalDateTime.now(), 50L)));
+
+        messageService.getMessagesByCursor(1L, null, "", 2, null);
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, null, "", 2, null);
+        SessionMessageResponse older = messageService.getMessagesByCursor(1L, null, response.getNextCursor(), 2, null);
+
+        assertEquals(List.of(49L, 50L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertTrue(response.getHasNext());
+        assertEquals(List.of(48L), older.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertFalse(older.getHasNext());
+        verify(messageRepo, times(1)).findSummariesBySessionIdBefore(anyLong(), anyLong(), any(Limit.class));
+        verify(sessionRepo, never()).findActivityById(anyLong());
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldReadStore_WhenBufferedTailIsBehindSession() {
+        messageService = newService(true, true);
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(50)))
+                .thenReturn(List.of(message(50L), message(49L)), List.of(message(51L), message(50L), message(49L)));
+        when(sessionRepo.findActivityById(1L)).thenReturn(Optional.of(new SessionActivity(2L, LocalDateTime.now(), 50L)));
+        messageService.getMessagesByCursor(1L, null, "", 2, null);
+
+        // Appended through another instance: the pointer moved without a local append
+        when(sessionRepo.findActivityById(1L)).thenReturn(Optional.of(new SessionActivity(3L, LocalDateTime.now(), 51L)));
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, null, "", 2, null);
+
+        assertEquals(List.of(50L, 51L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        verify(messageRepo, times(2)).findSummariesBySessionIdBefore(anyLong(), anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldIncludeAppendedMessage_InBufferedTail() {
+        messageService = newService(true);
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(50)))
+                .thenReturn(List.of(message(50L), message(49L)));
+        when(sessionRepo.findActivityById(1L)).thenReturn(Optional.of(new SessionActivity(2L, LocalDateTime.now(), 50L)));
+        messageService.getMessagesByCursor(1L, null, "", 2, null);
+
+        ChatMessage savedMessage = new ChatMessage();
+        savedMessage.setId(51L);
+        savedMessage.setSender("assistant");
+        savedMessage.setContent("Answer");
+        savedMessage.setCreatedAt(LocalDateTime.now());
+        when(sessionRepo.incrementMessageCount(1L, 1)).thenReturn(1);
+        when(sessionRepo.getReferenceById(1L)).thenReturn(session);
+        when(messageRepo.saveAll(anyList())).thenReturn(List.of(savedMessage));
+        messageService.addMessage(1L, new AddMessageRequest());
+        when(sessionRepo.findActivityById(1L)).thenReturn(Optional.of(new SessionActivity(3L, savedMessage.getCreatedAt(), 51L)));
+
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, null, "", 2, null);
+
+        assertEquals(List.of(50L, 51L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertEquals("Answer", response.getMessages().get(1).getContent());
+        verify(messageRepo, times(1)).findSummariesBySessionIdBefore(anyLong(), anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldReadArchivedSessionFromArchive() {
+        session.setIsArchived(true);
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(archiveService.findArchivedMessages(1L)).thenReturn(Optional.of(List.of(archived(5L), archived(6L), archived(7L), archived(8L))));
+
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, CursorUtils.encode(5L), null, 2, null);
+
+        assertEquals(List.of(6L, 7L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertEquals("context 6", response.getMessages().get(0).getContext());
+        assertTrue(response.getHasNext());
+        verifyNoInteractions(messageRepo, contextStore);
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldCheckArchive_WhenCachedSessionHasNoHotMessages() {
+        // Cached as not archived, then archived (possibly by another instance)
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdAfter(eq(1L), anyLong(), any(Limit.class))).thenReturn(List.of());
+        when(archiveService.findArchivedMessages(1L)).thenReturn(Optional.of(List.of(archived(5L), archived(6L), archived(7L))));
+
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, null, null, 2, null);
+
+        assertEquals(List.of(5L, 6L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertTrue(response.getHasNext());
+        verify(archiveService).findArchivedMessages(1L);
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldNotCheckArchive_WhenHotMessagesExist() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdAfter(eq(1L), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(new MessageSummary(5L, "user", "Hi", LocalDateTime.now())));
+
+        messageService.getMessagesByCursor(1L, null, null, 2, null);
+
+        verifyNoInteractions(archiveService);
+    }
+
+    @Test
+    void getMessages_ShouldNotReadContext_WhenNotRequested() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionId(eq(1L), any(PageRequest.class)))
+                .thenReturn(new PageImpl<>(List.of(new MessageSummary(5L, "user", "Hi", LocalDateTime.now()))));
+
+        SessionMessageResponse response = messageService.getMessages(1L, 0, 10, "id, content");
+
+        MessageResponse message = response.getMessages().get(0);
+        assertEquals(5L, message.getMessageId());
+        assertEquals("Hi", message.getContent());
+        assertNull(message.getSender());
+        assertNull(message.getCreatedAt());
+        verifyNoInteractions(contextStore);
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldKeepCursor_WhenIdNotRequested() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findSummariesBySessionIdAfter(1L, 0L, Limit.of(2)))
+                .thenReturn(List.of(new MessageSummary(7L, "user", "Hi", LocalDateTime.now())));
+
+        SessionMessageResponse response = messageService.getMessagesByCursor(1L, null, null, 1, "content");
+
+        assertNull(response.getMessages().get(0).getMessageId());
+        assertEquals(7L, CursorUtils.decode(response.getNextCursor()));
+    }
+
+    @Test
+    void getMessages_ShouldRejectUnknownField() {
+        assertThrows(IllegalArgumentException.class, () -> messageService.getMessages(1L, 0, 10, "id,secret"));
+        verifyNoInteractions(messageRepo);
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldRejectInvalidCursor() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+
+        assertThrows(IllegalArgumentException.class, () -> messageService.getMessagesByCursor(1L, "not-a-cursor", null, 10, null));
+    }
+
+    @Test
+    void getMessagesByCursor_ShouldRejectBothDirections() {
+        assertThrows(IllegalArgumentException.class, () -> messageService.getMessagesByCursor(1L, "a", "b", 10, null));
+        verifyNoInteractions(sessionRepo, messageRepo);
+    }
+
+    @Test
+    void getMessageWindow_ShouldReturnNewestMessagesWithinBudget() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findTokenCountsBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(200)))
+                .thenReturn(List.of(new MessageTokenCount(12L, 6, 0), new MessageTokenCount(11L, 10, 50), new MessageTokenCount(10L, 2, 0)));
+        when(messageRepo.findSummariesBySessionIdAfter(1L, 10L, Limit.of(2))).thenReturn(List.of(message(11L), message(12L)));
+
+        // 12 and 11 cost 10 + 14 tokens with overhead; 10 would push the window to 30
+        SessionMessageResponse response = messageService.getMessageWindow(1L, 25, false);
+
+        assertEquals(List.of(11L, 12L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertEquals(24, response.getWindowTokens());
+        assertTrue(response.getHasNext());
+        assertEquals(11L, CursorUtils.decode(response.getNextCursor()));
+        verify(messageRepo, never()).findSummariesBySessionIdBefore(anyLong(), anyLong(), any(Limit.class));
+        verifyNoInteractions(contextStore);
+    }
+
+    @Test
+    void getMessageWindow_ShouldCountAndReturnContext_WhenIncluded() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findTokenCountsBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(200))).thenReturn(List.of(new MessageTokenCount(5L, 1, 20)));
+        when(messageRepo.findSummariesBySessionIdAfter(1L, 4L, Limit.of(1))).thenReturn(List.of(message(5L)));
+        when(contextStore.findByMessageIds(List.of(5L))).thenReturn(Map.of(5L, "passage"));
+
+        SessionMessageResponse response = messageService.getMessageWindow(1L, 30, true);
+
+        assertEquals("passage", response.getMessages().get(0).getContext());
+        assertEquals(25, response.getWindowTokens());
+        assertFalse(response.getHasNext());
+        assertNull(response.getNextCursor());
+        assertTrue(messageService.getMessageWindow(1L, 24, true).getMessages().isEmpty());
+    }
+
+    @Test
+    void getMessageWindow_ShouldEstimateMessagesWithoutStoredCounts() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(messageRepo.findTokenCountsBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(200))).thenReturn(List.of(new MessageTokenCount(8L, null, null)));
+        when(messageRepo.findSummariesBySessionIdBefore(1L, Long.MAX_VALUE, Limit.of(1)))
+                .thenReturn(List.of(new MessageSummary(8L, "user", "Hello world", LocalDateTime.now())));
+        when(messageRepo.findSummariesBySessionIdAfter(1L, 7L, Limit.of(1)))
+                .thenReturn(List.of(new MessageSummary(8L, "user", "Hello world", LocalDateTime.now())));
+
+        SessionMessageResponse response = messageService.getMessageWindow(1L, 8, false);
+
+        assertEquals(List.of(8L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertEquals(8, response.getWindowTokens());
+    }
+
+    @Test
+    void getMessageWindow_ShouldFitArchivedSessionFromArchive() {
+        session.setIsArchived(true);
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(archiveService.findArchivedMessages(1L)).thenReturn(Optional.of(List.of(archived(5L), archived(6L), archived(7L))));
+
+        // Each "message N" costs 3 tokens plus 4 overhead; 5 would push the window to 21
+        SessionMessageResponse response = messageService.getMessageWindow(1L, 20, false);
+
+        assertEquals(List.of(6L, 7L), response.getMessages().stream().map(m -> m.getMessageId()).toList());
+        assertNull(response.getMessages().get(0).getContext());
+        assertEquals(6L, CursorUtils.decode(response.getNextCursor()));
+        verifyNoInteractions(messageRepo, contextStore);
+    }
+
+    @Test
+    void getMessageWindow_ShouldRejectInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> messageService.getMessageWindow(1L, 0, false));
+        verifyNoInteractions(sessionRepo, messageRepo);
+    }
+
+    private MessageSummary message(Long id) {
+        return new MessageSummary(id, "user", "message " + id, LocalDateTime.now());
+    }
+
+    private MessageResponse archived(Long id) {
+        MessageResponse dto = new MessageResponse();
+        dto.setMessageId(id);
+        dto.setSender("user");
+        dto.setContent("message " + id);
+        dto.setContext("context " + id);
+        dto.setCreatedAt(LocalDateTime.now());
+        return dto;
+    }
+
+    private ChatMessageServiceImpl newService(boolean bufferTails) {
+        return newService(bufferTails, false);
+    }
+
+    private ChatMessageServiceImpl newService(boolean bufferTails, boolean checkLastMessageId) {
+        SessionCache sessionCache = new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry());
+        ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(new ReadReplicaProperties());
+        RecentMessagesProperties bufferProperties = new RecentMessagesProperties();
+        bufferProperties.setEnabled(bufferTails);
+        bufferProperties.setCheckLastMessageId(checkLastMessageId);
+        return new ChatMessageServiceImpl(new JpaMessageStore(messageRepo, contextStore, embeddingRepo, idAllocator, null, null, new ExportProperties()), sessionRepo, sessionCache, readYourWrites, archiveService,
+                new RecentMessageBuffer(bufferProperties, readYourWrites, new SimpleMeterRegistry()), new MessageSearchIndex(new SearchProperties(), sessionCache, messageRepo));
     }
 }
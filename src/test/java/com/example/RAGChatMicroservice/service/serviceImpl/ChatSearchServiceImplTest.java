@@ -0,0 +1,106 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.SimilarMessagesRequest;
+import com.example.RAGChatMicroservice.dto.response.SearchHitResponse;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ChatSearchServiceImplTest {
+
+    @Mock
+    private MessageSearchIndex searchIndex;
+
+    @Mock
+    private ChatSessionRepository sessionRepo;
+
+    private ChatSearchServiceImpl searchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        searchService = new ChatSearchServiceImpl(searchIndex, new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry()));
+        when(searchIndex.isEnabled()).thenReturn(true);
+    }
+
+    @Test
+    void search_ShouldDropHitsOfDeletedSessions_AndAddSessionName() {
+        ChatSession session = new ChatSession();
+        session.setId(1L);
+        session.setUserId("alice");
+        session.setSessionName("Credentials");
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(sessionRepo.findByIdAndIsDeletedFalse(2L)).thenReturn(Optional.empty());
+        when(searchIndex.search("alice", "vault", 20)).thenReturn(List.of(
+                new MessageSearchIndex.Hit(10L, 1L, "user", LocalDateTime.now(), 2.5f, "rotate with <b>vault</b>", null),
+                new MessageSearchIndex.Hit(20L, 2L, "user", LocalDateTime.now(), 1.5f, "<b>vault</b>", null)));
+
+        List<SearchHitResponse> hits = searchService.search("alice", " vault ", 20);
+
+        assertEquals(1, hits.size());
+        assertEquals(10L, hits.get(0).getMessageId());
+        assertEquals("Credentials", hits.get(0).getSessionName());
+        assertEquals("rotate with <b>vault</b>", hits.get(0).getHighlight());
+    }
+
+    @Test
+    void search_ShouldRejectInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("alice", " ", 20));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("", "vault", 20));
+        assertThrows(IllegalArgumentException.class, () -> searchService.search("alice", "vault", 0));
+        verify(searchIndex, never()).search(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void findSimilar_ShouldDefaultK_AndReturnContentOfTheUsersSessions() {
+        ChatSession session = new ChatSession();
+        session.setId(1L);
+        session.setUserId("alice");
+        session.setSessionName("Credentials");
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        float[] embedding = {0.2f, 0.8f};
+        when(searchIndex.searchSimilar("alice", embedding, 10)).thenReturn(List.of(
+                new MessageSearchIndex.Hit(10L, 1L, "user", LocalDateTime.now(), 0.98f, null, "rotate with vault")));
+        SimilarMessagesRequest request = new SimilarMessagesRequest();
+        request.setUserId("alice");
+        request.setEmbedding(embedding);
+
+        List<SearchHitResponse> hits = searchService.findSimilar(request);
+
+        assertEquals(1, hits.size());
+        assertEquals("rotate with vault", hits.get(0).getContent());
+        verify(searchIndex).validateEmbedding(embedding);
+    }
+
+    @Test
+    void findSimilar_ShouldRejectMissingEmbeddingAndInvalidK() {
+        SimilarMessagesRequest request = new SimilarMessagesRequest();
+        request.setUserId("alice");
+        assertThrows(IllegalArgumentException.class, () -> searchService.findSimilar(request));
+
+        request.setEmbedding(new float[]{1f});
+        request.setK(101);
+        assertThrows(IllegalArgumentException.class, () -> searchService.findSimilar(request));
+        verify(searchIndex, never()).searchSimilar(anyString(), any(), anyInt());
+    }
+
+    @Test
+    void search_ShouldThrowNotFound_WhenSearchDisabled() {
+        when(searchIndex.isEnabled()).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> searchService.search("alice", "vault", 20));
+    }
+}
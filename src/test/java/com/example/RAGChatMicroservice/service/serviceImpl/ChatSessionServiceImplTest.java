@@ -2,23 +2,34 @@ package com.example.RAGChatMicroservice.service.serviceImpl;
 
 import com.example.RAGChatMicroservice.dto.request.CreateSessionRequest;
 import com.example.RAGChatMicroservice.dto.request.RenameSessionRequest;
+import com.example.RAGChatMicroservice.dto.response.SessionListResponse;
 import com.example.RAGChatMicroservice.dto.response.SessionResponse;
 import com.example.RAGChatMicroservice.entity.ChatSession;
 import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.properties.RecentMessagesProperties;
+import com.example.RAGChatMicroservice.properties.SearchProperties;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
 import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.projection.SessionActivity;
+import com.example.RAGChatMicroservice.util.CursorUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,12 +39,21 @@ class ChatSessionServiceImplTest {
     @Mock
     private ChatSessionRepository sessionRepo;
 
-    @InjectMocks
+    @Mock
+    private ChatMessageRepository messageRepo;
+
+    @Mock
+    private ActiveSessionCounter sessionCounter;
+
     private ChatSessionServiceImpl sessionService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        SessionCache sessionCache = new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry());
+        ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(new ReadReplicaProperties());
+        sessionService = new ChatSessionServiceImpl(sessionRepo, messageRepo, sessionCounter, sessionCache, readYourWrites,
+                new RecentMessageBuffer(new RecentMessagesProperties(), readYourWrites, new SimpleMeterRegistry()), new MessageSearchIndex(new SearchProperties(), sessionCache, messageRepo));
     }
 
     @Test
@@ -72,6 +92,58 @@ class ChatSessionServiceImplTest {
         assertEquals("Existing Session", response.getSessionName());
     }
 
+    @Test
+    void getSession_ShouldReadActivityFresh_WhileSessionIsCached() {
+        ChatSession session = new ChatSession();
+        session.setId(1L);
+        session.setSessionName("Existing Session");
+        LocalDateTime lastMessageAt = LocalDateTime.now();
+
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(sessionRepo.findActivityById(1L)).thenReturn(Optional.of(new SessionActivity(0L, null, null)), Optional.of(new SessionActivity(3L, lastMessageAt, 42L)));
+
+        assertNull(sessionService.getSession(1L).getLastMessageId());
+        SessionResponse response = sessionService.getSession(1L);
+
+        assertEquals(3L, response.getMessageCount());
+        assertEquals(42L, response.getLastMessageId());
+        assertEquals(lastMessageAt, response.getLastMessageAt());
+        verify(sessionRepo, times(1)).findByIdAndIsDeletedFalse(1L);
+    }
+
+    @Test
+    void getSession_ShouldServeRepeatedReadsFromCache() {
+        ChatSession session = new ChatSession();
+        session.setId(1L);
+        session.setSessionName("Existing Session");
+
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+
+        sessionService.getSession(1L);
+        sessionService.getSession(1L);
+
+        verify(sessionRepo, times(1)).findByIdAndIsDeletedFalse(1L);
+    }
+
+    @Test
+    void renameSession_ShouldInvalidateCachedSession() {
+        ChatSession session = new ChatSession();
+        session.setId(1L);
+        session.setSessionName("Old Name");
+        ChatSession renamed = new ChatSession();
+        renamed.setId(1L);
+        renamed.setSessionName("New Name");
+
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session), Optional.of(renamed));
+        when(sessionRepo.renameById(eq(1L), eq("New Name"), any(LocalDateTime.class))).thenReturn(1);
+
+        sessionService.getSession(1L);
+        sessionService.renameSession(1L, new RenameSessionRequest("New Name"));
+        SessionResponse response = sessionService.getSession(1L);
+
+        assertEquals("New Name", response.getSessionName());
+    }
+
     @Test
     void getSession_ShouldThrowException_WhenSessionNotFound() {
         when(sessionRepo.findByIdAndIsDeletedFalse(99L)).thenReturn(Optional.empty());
@@ -95,52 +167,197 @@ class ChatSessionServiceImplTest {
         assertEquals("Session One", responses.get(0).getSessionName());
     }
 
+    @Test
+    void getSessionsSlice_ShouldReturnHasNextWithoutCounting() {
+        ChatSession session = new ChatSession();
+        session.setId(1L);
+        session.setSessionName("Session One");
+
+        when(sessionRepo.findSliceByIsDeletedFalse(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(session), PageRequest.of(0, 1), true));
+
+        SessionListResponse response = sessionService.getSessionsSlice(0, 1, false);
+
+        assertEquals(1, response.getSessions().size());
+        assertTrue(response.getHasNext());
+        assertNull(response.getTotalSessions());
+        verify(sessionRepo, never()).countByIsDeletedFalse();
+        verifyNoInteractions(sessionCounter);
+    }
+
+    @Test
+    void getSessionsSlice_ShouldIncludeMaintainedTotal_WhenRequested() {
+        when(sessionRepo.findSliceByIsDeletedFalse(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+        when(sessionCounter.get()).thenReturn(42L);
+
+        SessionListResponse response = sessionService.getSessionsSlice(0, 10, true);
+
+        assertFalse(response.getHasNext());
+        assertEquals(42L, response.getTotalSessions());
+    }
+
+    @Test
+    void getUserSessions_ShouldReturnCursorOfLastSession_WhenMoreExist() {
+        LocalDateTime now = LocalDateTime.now();
+        ChatSession first = userSession(3L, false, now);
+        ChatSession second = userSession(2L, false, now.minusMinutes(1));
+        ChatSession extra = userSession(1L, false, now.minusMinutes(2));
+        when(sessionRepo.findUserSessionsByUpdatedAtBefore(eq("u1"), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(Limit.of(3))))
+                .thenReturn(List.of(first, second, extra));
+        when(sessionRepo.findUserSessionsByUpdatedAtBefore("u1", second.getUpdatedAt(), 2L, Limit.of(3)))
+                .thenReturn(List.of(extra));
+
+        SessionListResponse page = sessionService.getUserSessions("u1", "updatedAt", null, 2);
+
+        assertEquals(List.of(3L, 2L), page.getSessions().stream().map(SessionResponse::getSessionId).toList());
+        assertTrue(page.getHasNext());
+
+        SessionListResponse next = sessionService.getUserSessions("u1", "updatedAt", page.getNextCursor(), 2);
+
+        assertEquals(List.of(1L), next.getSessions().stream().map(SessionResponse::getSessionId).toList());
+        assertFalse(next.getHasNext());
+        assertNull(next.getNextCursor());
+    }
+
+    @Test
+    void getUserSessions_ShouldContinueWithNonFavorites_WhenFavoritesRunOut() {
+        LocalDateTime now = LocalDateTime.now();
+        ChatSession favorite = userSession(5L, true, now.minusDays(1));
+        ChatSession recent = userSession(7L, false, now);
+        ChatSession older = userSession(6L, false, now.minusHours(1));
+        when(sessionRepo.findUserSessionsByFavoriteBefore(eq("u1"), eq(true), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(Limit.of(3))))
+                .thenReturn(List.of(favorite));
+        when(sessionRepo.findUserSessionsByFavoriteBefore(eq("u1"), eq(false), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(Limit.of(2))))
+                .thenReturn(List.of(recent, older));
+
+        SessionListResponse page = sessionService.getUserSessions("u1", "favorite", null, 2);
+
+        assertEquals(List.of(5L, 7L), page.getSessions().stream().map(SessionResponse::getSessionId).toList());
+        assertTrue(page.getHasNext());
+        CursorUtils.SessionKey key = CursorUtils.decodeSessionKey(page.getNextCursor(), "favorite");
+        assertFalse(key.favorite());
+        assertEquals(7L, key.id());
+    }
+
+    @Test
+    void getUserSessions_ShouldListSessionsWithoutMessagesLast_WhenSortedByLastMessage() {
+        LocalDateTime now = LocalDateTime.now();
+        ChatSession active = userSession(4L, false, now.minusDays(1));
+        active.setLastMessageAt(now);
+        active.setLastMessageId(90L);
+        ChatSession empty = userSession(9L, false, now);
+        ChatSession olderEmpty = userSession(8L, false, now);
+        when(sessionRepo.findUserSessionsByLastMessageAtBefore(eq("u1"), any(LocalDateTime.class), eq(Long.MAX_VALUE), eq(Limit.of(3))))
+                .thenReturn(List.of(active));
+        when(sessionRepo.findUserSessionsWithoutMessagesBefore("u1", Long.MAX_VALUE, Limit.of(2))).thenReturn(List.of(empty, olderEmpty));
+        when(sessionRepo.findUserSessionsWithoutMessagesBefore("u1", 9L, Limit.of(3))).thenReturn(List.of(olderEmpty));
+
+        SessionListResponse page = sessionService.getUserSessions("u1", "lastMessageAt", null, 2);
+
+        assertEquals(List.of(4L, 9L), page.getSessions().stream().map(SessionResponse::getSessionId).toList());
+        assertEquals(90L, page.getSessions().get(0).getLastMessageId());
+        assertTrue(page.getHasNext());
+
+        SessionListResponse next = sessionService.getUserSessions("u1", "lastMessageAt", page.getNextCursor(), 2);
+
+        assertEquals(List.of(8L), next.getSessions().stream().map(SessionResponse::getSessionId).toList());
+        verify(sessionRepo, times(1)).findUserSessionsByLastMessageAtBefore(anyString(), any(LocalDateTime.class), anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void getUserSessions_ShouldRejectUnknownSortAndBadCursor() {
+        assertThrows(IllegalArgumentException.class, () -> sessionService.getUserSessions("u1", "name", null, 20));
+        assertThrows(IllegalArgumentException.class, () -> sessionService.getUserSessions("u1", "updatedAt", "bm90LWEtY3Vyc29y", 20));
+        assertThrows(IllegalArgumentException.class, () -> sessionService.getUserSessions(" ", "updatedAt", null, 20));
+        verifyNoInteractions(sessionRepo);
+    }
+
+    @Test
+    void getUserSessions_ShouldRejectCursor_WhenSortOrderChanged() {
+        String cursor = CursorUtils.encodeSessionKey("createdAt", false, LocalDateTime.now(), 5L);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> sessionService.getUserSessions("u1", "updatedAt", cursor, 20));
+
+        assertTrue(ex.getMessage().contains("sort order"));
+        verifyNoInteractions(sessionRepo);
+    }
+
     @Test
     void renameSession_ShouldUpdateName() {
         ChatSession session = new ChatSession();
         session.setId(1L);
-        session.setSessionName("Old Name");
+        session.setSessionName("New Name");
         session.setIsDeleted(false);
 
+        when(sessionRepo.renameById(eq(1L), eq("New Name"), any(LocalDateTime.class))).thenReturn(1);
         when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
-        when(sessionRepo.save(any(ChatSession.class))).thenReturn(session);
 
         RenameSessionRequest request = new RenameSessionRequest("New Name");
         SessionResponse response = sessionService.renameSession(1L, request);
 
         assertEquals("New Name", response.getSessionName());
+        // A full-entity save would write back message_count and is_archived read before the rename
+        verify(sessionRepo, never()).save(any(ChatSession.class));
+    }
+
+    @Test
+    void renameSession_ShouldThrowException_WhenSessionNotActive() {
+        when(sessionRepo.renameById(eq(1L), anyString(), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> sessionService.renameSession(1L, new RenameSessionRequest("New Name")));
+        verify(sessionRepo, never()).findByIdAndIsDeletedFalse(anyLong());
     }
 
     @Test
     void markFavorite_ShouldUpdateFavoriteFlag() {
         ChatSession session = new ChatSession();
         session.setId(1L);
-        session.setIsFavorite(false);
+        session.setIsFavorite(true);
         session.setIsDeleted(false);
 
+        when(sessionRepo.updateFavoriteById(eq(1L), eq(true), any(LocalDateTime.class))).thenReturn(1);
         when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
-        when(sessionRepo.save(any(ChatSession.class))).thenReturn(session);
 
         SessionResponse response = sessionService.markFavorite(1L, true);
 
         assertTrue(response.getIsFavorite());
+        verify(sessionRepo, never()).save(any(ChatSession.class));
     }
 
     @Test
-    void deleteSession_ShouldSoftDeleteSession() {
-        ChatSession session = new ChatSession();
-        session.setId(1L); // match the ID being requested
-        session.setIsDeleted(false);
-        session.setMessages(new ArrayList<>()); //  prevent NPE
+    void deleteSession_ShouldSoftDeleteSessionAndMessagesInChunks() {
+        List<Long> firstChunk = LongStream.rangeClosed(1, 1_000).boxed().toList();
 
-        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
-        when(sessionRepo.save(any(ChatSession.class))).thenReturn(session);
+        when(sessionRepo.softDeleteById(eq(1L), any(LocalDateTime.class))).thenReturn(1);
+        when(messageRepo.findIdsBySessionIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(firstChunk);
+        when(messageRepo.findIdsBySessionIdAfter(eq(1L), eq(1_000L), any(Limit.class))).thenReturn(List.of(1_001L, 1_002L));
+        when(messageRepo.softDeleteBySessionIdAndIdRange(eq(1L), anyLong(), anyLong(), any(LocalDateTime.class))).thenReturn(1);
 
         String result = sessionService.deleteSession(1L);
 
         assertEquals("Session deleted successfully", result);
-        assertTrue(session.getIsDeleted());
+        verify(messageRepo).softDeleteBySessionIdAndIdRange(eq(1L), eq(0L), eq(1_000L), any(LocalDateTime.class));
+        verify(messageRepo).softDeleteBySessionIdAndIdRange(eq(1L), eq(1_000L), eq(1_002L), any(LocalDateTime.class));
+        verify(sessionRepo, never()).findByIdAndIsDeletedFalse(anyLong());
+        verify(sessionCounter).decrement();
     }
 
+    @Test
+    void deleteSession_ShouldThrowException_WhenSessionNotFound() {
+        when(sessionRepo.softDeleteById(eq(99L), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThrows(ResourceNotFoundException.class, () -> sessionService.deleteSession(99L));
+        verifyNoInteractions(messageRepo);
+    }
 
+    private ChatSession userSession(Long id, boolean favorite, LocalDateTime updatedAt) {
+        ChatSession session = new ChatSession();
+        session.setId(id);
+        session.setUserId("u1");
+        session.setIsFavorite(favorite);
+        session.setCreatedAt(updatedAt);
+        session.setUpdatedAt(updatedAt);
+        return session;
+    }
 }
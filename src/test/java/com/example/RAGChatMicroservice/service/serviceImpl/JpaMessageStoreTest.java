@@ -0,0 +1,70 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JpaMessageStoreTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private DatabaseMetaData metaData;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private JpaMessageStore messageStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+
+        ExportProperties exportProperties = new ExportProperties();
+        exportProperties.setFetchSize(200);
+        messageStore = new JpaMessageStore(null, null, null, null, new JdbcTemplate(dataSource), null, exportProperties);
+    }
+
+    @Test
+    void forEachMessage_ShouldStreamRowByRow_OnMySql() throws Exception {
+        when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+
+        messageStore.forEachMessage(1L, message -> {
+        });
+
+        verify(statement).setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @Test
+    void forEachMessage_ShouldUseConfiguredFetchSize_OnOtherDatabases() throws Exception {
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+
+        messageStore.forEachMessage(1L, message -> {
+        });
+
+        verify(statement).setFetchSize(200);
+    }
+}
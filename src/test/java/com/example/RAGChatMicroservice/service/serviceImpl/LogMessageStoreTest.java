@@ -0,0 +1,222 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.properties.MessageStoreProperties;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogMessageStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    private MessageStoreProperties properties;
+
+    private LogMessageStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new MessageStoreProperties();
+        properties.getLog().setDirectory(directory.toString());
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void saveAll_ShouldAssignIdsAndServeReadsPerSession() {
+        List<ChatMessage> saved = store.saveAll(List.of(message(1L, "a1", "context a1"), message(2L, "b1", null), message(1L, "a2", null)));
+        store.saveAll(List.of(message(1L, "a3", "context a3")));
+
+        assertEquals(List.of(1L, 2L, 3L), saved.stream().map(ChatMessage::getId).toList());
+
+        Page<MessageSummary> page = store.findSummaries(1L, PageRequest.of(1, 2));
+        assertEquals(List.of("a3"), contents(page.getContent()));
+        assertEquals(3, page.getTotalElements());
+
+        Slice<MessageSummary> slice = store.findSummarySlice(1L, PageRequest.of(0, 2));
+        assertEquals(List.of("a1", "a2"), contents(slice.getContent()));
+        assertTrue(slice.hasNext());
+
+        assertEquals(List.of("a2", "a3"), contents(store.findSummariesAfter(1L, 1L, Limit.of(5))));
+        assertEquals(List.of("a3", "a2"), contents(store.findSummariesBefore(1L, Long.MAX_VALUE, Limit.of(2))));
+        assertEquals(List.of("b1"), contents(store.findSummariesAfter(2L, 0L, Limit.of(5))));
+        assertEquals(Map.of(1L, "context a1", 4L, "context a3"), store.findContexts(1L, List.of(1L, 3L, 4L)));
+        assertTrue(store.findSummariesAfter(99L, 0L, Limit.of(5)).isEmpty());
+    }
+
+    @Test
+    void forEachMessage_ShouldStreamOneSessionWithContext() {
+        store.saveAll(List.of(message(1L, "a1", "context a1"), message(2L, "b1", null), message(1L, "a2", null)));
+
+        List<MessageRecord> streamed = new ArrayList<>();
+        store.forEachMessage(1L, streamed::add);
+
+        assertEquals(List.of("a1", "a2"), streamed.stream().map(MessageRecord::content).toList());
+        assertEquals("context a1", streamed.get(0).context());
+        assertNull(streamed.get(1).context());
+    }
+
+    @Test
+    void recover_ShouldRebuildIndexAndContinueIds() throws IOException {
+        store.saveAll(List.of(message(1L, "a1", "context"), message(2L, "b1", null)));
+        store.close();
+
+        store = open();
+        List<ChatMessage> saved = store.saveAll(List.of(message(1L, "a2", null)));
+
+        assertEquals(3L, saved.get(0).getId());
+        assertEquals(List.of("a1", "a2"), contents(store.findSummariesAfter(1L, 0L, Limit.of(5))));
+        assertEquals(Map.of(1L, "context"), store.findContexts(1L, List.of(1L)));
+    }
+
+    @Test
+    void recover_ShouldTruncateTornWrite() throws IOException {
+        store.saveAll(List.of(message(1L, "a1", null)));
+        store.close();
+        Path segment = segments().get(0);
+        long intact = Files.size(segment);
+        // Header of a frame whose payload never made it to disk
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2}, StandardOpenOption.APPEND);
+
+        store = open();
+        store.saveAll(List.of(message(1L, "a2", null)));
+
+        assertTrue(Files.size(segment) > intact);
+        assertEquals(List.of("a1", "a2"), contents(store.findSummariesAfter(1L, 0L, Limit.of(5))));
+    }
+
+    @Test
+    void saveAll_ShouldRollOverToNewSegment() throws IOException {
+        properties.getLog().setMaxSegmentBytes(200);
+        store.close();
+        store = open();
+
+        for (int i = 0; i < 5; i++) {
+            store.saveAll(List.of(message(1L, "message " + i + " with some padding text", null)));
+            // Read from the active segment, then from its mapping once sealed
+            assertEquals("message " + i + " with some padding text", store.findSummariesBefore(1L, Long.MAX_VALUE, Limit.of(1)).get(0).content());
+        }
+
+        assertTrue(segments().size() > 1);
+        assertEquals(5, store.findSummaries(1L, PageRequest.of(0, 10)).getTotalElements());
+        assertEquals("message 0 with some padding text", store.findSummaries(1L, PageRequest.of(0, 1)).getContent().get(0).content());
+        assertEquals("message 4 with some padding text", store.findSummariesBefore(1L, Long.MAX_VALUE, Limit.of(1)).get(0).content());
+    }
+
+    @Test
+    void saveAll_ShouldPublishOnCommit_AndSkipUncommittedAppendsOnReplay() throws IOException {
+        inTransaction(true, () -> {
+            store.saveAll(List.of(message(1L, "a1", null)));
+            // Not readable before the session counter it was checked against commits
+            assertTrue(store.findSummariesAfter(1L, 0L, Limit.of(5)).isEmpty());
+        });
+        inTransaction(false, () -> store.saveAll(List.of(message(1L, "a2", null), message(2L, "b1", null))));
+
+        assertEquals(List.of("a1"), contents(store.findSummariesAfter(1L, 0L, Limit.of(5))));
+        assertTrue(store.findSummariesAfter(2L, 0L, Limit.of(5)).isEmpty());
+
+        // Written, but the process dies before the transaction completes
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            store.saveAll(List.of(message(2L, "b2", null)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        store.close();
+        store = open();
+        List<ChatMessage> saved = store.saveAll(List.of(message(1L, "a3", null)));
+
+        // Ids of uncommitted appends are not reused
+        assertEquals(5L, saved.get(0).getId());
+        assertEquals(List.of("a1", "a3"), contents(store.findSummariesAfter(1L, 0L, Limit.of(5))));
+        assertTrue(store.findSummariesAfter(2L, 0L, Limit.of(5)).isEmpty());
+    }
+
+    @Test
+    void deleteSession_ShouldDropSession_AndKeepItDroppedAfterRecovery() throws IOException {
+        store.saveAll(List.of(message(1L, "a1", null), message(2L, "b1", null)));
+
+        store.deleteSession(1L);
+
+        assertTrue(store.findSummariesAfter(1L, 0L, Limit.of(5)).isEmpty());
+        store.close();
+        store = open();
+        assertTrue(store.findSummariesAfter(1L, 0L, Limit.of(5)).isEmpty());
+        assertEquals(List.of("b1"), contents(store.findSummariesAfter(2L, 0L, Limit.of(5))));
+    }
+
+    /**
+     * Runs the action with transaction synchronization active, then completes it
+     * as a commit or a rollback would.
+     */
+    private void inTransaction(boolean commit, Runnable action) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            action.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    commit ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private LogMessageStore open() throws IOException {
+        LogMessageStore opened = new LogMessageStore(properties);
+        opened.recover();
+        return opened;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private ChatMessage message(Long sessionId, String content, String context) {
+        ChatSession session = new ChatSession();
+        session.setId(sessionId);
+        ChatMessage message = new ChatMessage();
+        message.setSession(session);
+        message.setSender("user");
+        message.setContent(content);
+        message.setContext(context);
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+
+    private List<String> contents(List<MessageSummary> summaries) {
+        return summaries.stream().map(MessageSummary::content).toList();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import com.example.RAGChatMicroservice.properties.MessageStoreProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.ContextChunkRepository;
+import com.example.RAGChatMicroservice.repository.MessageContextChunkRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageIndexRow;
+import com.example.RAGChatMicroservice.repository.projection.MessageRecord;
+import com.example.RAGChatMicroservice.util.ContextChunkUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exercises the content-addressed context store, and the streaming read that
+ * reassembles it, against the Flyway-managed schema.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CompressionProperties.class, CompressedTextConverter.class, MessageContextStore.class, ExportProperties.class, JpaMessageStore.class, MessageStoreProperties.class, MessageIdAllocator.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:context-store;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"
+})
+class MessageContextStoreTest {
+
+    private static final String PASSAGE_A = "RAG retrieves relevant passages from a document store before generating an answer.\n\n";
+
+    private static final String PASSAGE_B = "Chunks are embedded as vectors and ranked by similarity to the user's question.\n\n";
+
+    private static final String PASSAGE_C = "Short tail";
+
+    @Autowired
+    private MessageContextStore contextStore;
+
+    @Autowired
+    private JpaMessageStore messageStore;
+
+    @Autowired
+    private MessageIdAllocator idAllocator;
+
+    @Autowired
+    private ChatSessionRepository sessionRepo;
+
+    @Autowired
+    private ChatMessageRepository messageRepo;
+
+    @Autowired
+    private ContextChunkRepository chunkRepo;
+
+    @Autowired
+    private MessageContextChunkRepository referenceRepo;
+
+    private ChatSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = new ChatSession();
+        session.setSessionName("Chunks");
+        session.setCreatedAt(LocalDateTime.now());
+        session.setUpdatedAt(LocalDateTime.now());
+        session = sessionRepo.save(session);
+    }
+
+    @Test
+    void messageStoreSaveAll_ShouldAssignConsecutiveIdsInListOrder() {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (String content : List.of("first", "second", "third")) {
+            ChatMessage message = new ChatMessage();
+            message.setSession(session);
+            message.setSender("user");
+            message.setContent(content);
+            message.setCreatedAt(LocalDateTime.now());
+            messages.add(message);
+        }
+
+        List<ChatMessage> saved = messageStore.saveAll(messages);
+
+        long first = saved.get(0).getId();
+        assertEquals(List.of(first, first + 1, first + 2), ids(saved));
+        // The next reservation starts after the block
+        assertEquals(first + 3, idAllocator.reserve(1));
+    }
+
+    @Test
+    void messageStoreSaveAll_ShouldStoreEmbeddings_ForSearchCatchUp() {
+        float[] embedding = {0.25f, -1.5f, 3.0f};
+        List<ChatMessage> messages = new ArrayList<>();
+        for (float[] vector : new float[][]{embedding, null}) {
+            ChatMessage message = new ChatMessage();
+            message.setSession(session);
+            message.setSender("user");
+            message.setContent("message");
+            message.setEmbedding(vector);
+            message.setCreatedAt(LocalDateTime.now());
+            messages.add(message);
+        }
+
+        List<ChatMessage> saved = messageStore.saveAll(messages);
+        messageRepo.flush();
+
+        List<MessageIndexRow> rows = messageRepo.findIndexRowsAfter(saved.get(0).getId() - 1, Limit.of(2));
+        assertEquals(ids(saved), rows.stream().map(MessageIndexRow::id).toList());
+        assertArrayEquals(embedding, rows.get(0).embedding());
+        assertNull(rows.get(1).embedding());
+    }
+
+    @Test
+    void saveAll_ShouldStoreRepeatedChunksOnce_AndRestoreContextExactly() {
+        List<ChatMessage> messages = save(PASSAGE_A + PASSAGE_B + PASSAGE_C, PASSAGE_B + PASSAGE_A, PASSAGE_A, null);
+
+        Map<Long, String> contexts = contextStore.findByMessageIds(ids(messages));
+
+        assertEquals(PASSAGE_A + PASSAGE_B + PASSAGE_C, contexts.get(messages.get(0).getId()));
+        assertEquals(PASSAGE_B + PASSAGE_A, contexts.get(messages.get(1).getId()));
+        assertEquals(PASSAGE_A, contexts.get(messages.get(2).getId()));
+        assertFalse(contexts.containsKey(messages.get(3).getId()));
+        assertEquals(3, chunkRepo.count());
+        assertEquals(3L, chunkRepo.findById(ContextChunkUtils.hash(PASSAGE_A)).orElseThrow().getRefCount());
+    }
+
+    @Test
+    void saveAll_ShouldKeepEmptyContext_ApartFromNoContext() {
+        List<ChatMessage> messages = save("", null, "");
+
+        Map<Long, String> contexts = contextStore.findByMessageIds(ids(messages));
+        assertEquals(Map.of(messages.get(0).getId(), "", messages.get(2).getId(), ""), contexts);
+
+        List<MessageRecord> streamed = new ArrayList<>();
+        messageStore.forEachMessage(session.getId(), streamed::add);
+        assertEquals(Arrays.asList("", null, ""), streamed.stream().map(MessageRecord::context).toList());
+    }
+
+    @Test
+    void deleteByMessageIds_ShouldReleaseReferences_AndDropUnusedChunks() {
+        List<ChatMessage> messages = save(PASSAGE_A + PASSAGE_B, PASSAGE_A);
+
+        contextStore.deleteByMessageIds(List.of(messages.get(0).getId()));
+        messageRepo.flush();
+
+        assertEquals(1, chunkRepo.count());
+        assertEquals(1L, chunkRepo.findById(ContextChunkUtils.hash(PASSAGE_A)).orElseThrow().getRefCount());
+        assertEquals(1, referenceRepo.count());
+
+        contextStore.deleteByMessageIds(List.of(messages.get(1).getId()));
+        messageRepo.flush();
+
+        assertEquals(0, chunkRepo.count());
+        assertEquals(0, referenceRepo.count());
+    }
+
+    @Test
+    void saveAll_ShouldAddReferences_AcrossTransactions() {
+        save(PASSAGE_A);
+        save(PASSAGE_A);
+
+        assertEquals(1, chunkRepo.count());
+        assertEquals(2L, chunkRepo.findById(ContextChunkUtils.hash(PASSAGE_A)).orElseThrow().getRefCount());
+    }
+
+    @Test
+    void forEachMessage_ShouldStreamMessagesInIdOrder_WithReassembledContext() {
+        List<ChatMessage> messages = save(PASSAGE_A + PASSAGE_B + PASSAGE_C, null, PASSAGE_B + PASSAGE_A);
+
+        List<MessageRecord> streamed = new ArrayList<>();
+        messageStore.forEachMessage(session.getId(), streamed::add);
+
+        assertEquals(ids(messages), streamed.stream().map(MessageRecord::id).toList());
+        assertEquals(PASSAGE_A + PASSAGE_B + PASSAGE_C, streamed.get(0).context());
+        assertNull(streamed.get(1).context());
+        assertEquals(PASSAGE_B + PASSAGE_A, streamed.get(2).context());
+        assertEquals("message", streamed.get(2).content());
+    }
+
+    private List<ChatMessage> save(String... contexts) {
+        List<ChatMessage> messages = new ArrayList<>();
+        for (String context : contexts) {
+            ChatMessage message = new ChatMessage();
+            message.setId(idAllocator.reserve(1));
+            message.setSession(session);
+            message.setSender("user");
+            message.setContent("message");
+            message.setContext(context);
+            message.setCreatedAt(LocalDateTime.now());
+            messages.add(message);
+        }
+        List<ChatMessage> saved = messageRepo.saveAll(messages);
+        contextStore.saveAll(saved);
+        messageRepo.flush();
+        saved.forEach(message -> message.setContext(null));
+        return saved;
+    }
+
+    private List<Long> ids(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getId).toList();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.response.SessionMessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.exception.IngestionTimeoutException;
+import com.example.RAGChatMicroservice.exception.IngestionUnavailableException;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import com.example.RAGChatMicroservice.properties.IngestionProperties;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.properties.RecentMessagesProperties;
+import com.example.RAGChatMicroservice.properties.SearchProperties;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.MessageEmbeddingRepository;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MessageIngestionServiceImplTest {
+
+    @Mock
+    private ChatMessageRepository messageRepo;
+
+    @Mock
+    private ChatSessionRepository sessionRepo;
+
+    @Mock
+    private MessageContextStore contextStore;
+
+    @Mock
+    private MessageIdAllocator idAllocator;
+
+    @Mock
+    private MessageEmbeddingRepository embeddingRepo;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SessionArchiveService archiveService;
+
+    private IngestionProperties properties;
+
+    private MessageIngestionServiceImpl ingestionService;
+
+    private ChatSession session;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        properties = new IngestionProperties();
+        properties.setWriteBehind(true);
+        properties.setQueueCapacity(1);
+        properties.setLingerMillis(1);
+        properties.setAckTimeoutMillis(2_000);
+
+        session = new ChatSession();
+        session.setId(1L);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session));
+        when(sessionRepo.getReferenceById(1L)).thenReturn(session);
+        when(sessionRepo.incrementMessageCount(1L, 1L)).thenReturn(1);
+
+        ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(new ReadReplicaProperties());
+        SessionCache sessionCache = new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry());
+        ingestionService = new MessageIngestionServiceImpl(new JpaMessageStore(messageRepo, contextStore, embeddingRepo, idAllocator, null, null, new ExportProperties()), sessionRepo, sessionCache, readYourWrites, archiveService,
+                new RecentMessageBuffer(new RecentMessagesProperties(), readYourWrites, new SimpleMeterRegistry()), new MessageSearchIndex(new SearchProperties(), sessionCache, messageRepo),
+                properties, transactionManager, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingestionService.stop();
+    }
+
+    @Test
+    void addMessage_ShouldAcknowledgeAfterCommit() {
+        AtomicLong ids = new AtomicLong(100);
+        when(messageRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            messages.forEach(message -> message.setId(ids.getAndIncrement()));
+            return messages;
+        });
+        ingestionService.start();
+
+        SessionMessageResponse response = ingestionService.addMessage(1L, request("Hello"));
+
+        assertEquals(1L, response.getSessionId());
+        assertEquals(100L, response.getMessages().get(0).getMessageId());
+        assertEquals("Hello", response.getMessages().get(0).getContent());
+        verify(transactionManager).commit(any());
+        verify(sessionRepo).incrementMessageCount(1L, 1L);
+        verify(contextStore).saveAll(anyList());
+    }
+
+    @Test
+    void addMessage_ShouldRejectWhenNotRunning() {
+        IngestionUnavailableException ex = assertThrows(IngestionUnavailableException.class, () -> ingestionService.addMessage(1L, request("Hello")));
+
+        assertEquals("Message queue is full, please retry later", ex.getMessage());
+        verify(messageRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addMessage_ShouldThrow_WhenSessionNotFound() {
+        when(sessionRepo.findByIdAndIsDeletedFalse(2L)).thenReturn(Optional.empty());
+        ingestionService.start();
+
+        assertThrows(ResourceNotFoundException.class, () -> ingestionService.addMessage(2L, request("Hello")));
+        verify(messageRepo, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addMessage_ShouldPropagateWriteFailure() {
+        when(messageRepo.saveAll(anyList())).thenThrow(new IllegalStateException("insert failed"));
+        ingestionService.start();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> ingestionService.addMessage(1L, request("Hello")));
+
+        assertEquals("insert failed", ex.getMessage());
+        // Batch attempt plus the individual retry
+        verify(messageRepo, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void addMessage_ShouldCancelQueuedMessage_AndTimeOutTakenOne_WhenNotConfirmedInTime() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return new SimpleTransactionStatus();
+        });
+        when(messageRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        properties.setAckTimeoutMillis(200);
+        ingestionService.start();
+
+        // The writer takes the first message and stalls in its transaction
+        CompletableFuture<SessionMessageResponse> taken = CompletableFuture.supplyAsync(() -> ingestionService.addMessage(1L, request("Taken")));
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+
+        IngestionUnavailableException queued = assertThrows(IngestionUnavailableException.class, () -> ingestionService.addMessage(1L, request("Queued")));
+        assertEquals("Message was not written in time and has been discarded, please retry later", queued.getMessage());
+        ExecutionException timedOut = assertThrows(ExecutionException.class, () -> taken.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(IngestionTimeoutException.class, timedOut.getCause());
+
+        release.countDown();
+        ingestionService.stop();
+
+        // Only the taken message is written; the cancelled one never reaches the store
+        ArgumentCaptor<List<ChatMessage>> written = ArgumentCaptor.forClass(List.class);
+        verify(messageRepo, times(1)).saveAll(written.capture());
+        assertEquals(List.of("Taken"), written.getValue().stream().map(ChatMessage::getContent).toList());
+    }
+
+    private AddMessageRequest request(String content) {
+        AddMessageRequest request = new AddMessageRequest();
+        request.setSender("user");
+        request.setContent(content);
+        request.setContext("ctx");
+        return request;
+    }
+}
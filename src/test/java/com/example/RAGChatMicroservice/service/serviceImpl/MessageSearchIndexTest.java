@@ -0,0 +1,190 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.properties.SearchProperties;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageIndexRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MessageSearchIndexTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private ChatSessionRepository sessionRepo;
+
+    @Mock
+    private ChatMessageRepository messageRepo;
+
+    private SearchProperties properties;
+
+    private MessageSearchIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        when(sessionRepo.findByIdAndIsDeletedFalse(1L)).thenReturn(Optional.of(session(1L, "alice")));
+        when(sessionRepo.findByIdAndIsDeletedFalse(2L)).thenReturn(Optional.of(session(2L, "bob")));
+        properties = new SearchProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setVectorDimensions(3);
+        index = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void search_ShouldRankAndHighlightOnlyTheUsersMessages() throws Exception {
+        index.index(1L, List.of(message(10L, "How do I rotate the database credentials?"), message(11L, "Rotate them with the vault CLI")));
+        index.index(2L, List.of(message(20L, "Database credentials for bob")));
+        index.refresh();
+
+        List<MessageSearchIndex.Hit> hits = index.search("alice", "database credentials", 10);
+
+        assertEquals(List.of(10L), hits.stream().map(MessageSearchIndex.Hit::messageId).toList());
+        assertEquals(1L, hits.get(0).sessionId());
+        assertTrue(hits.get(0).highlight().contains("<b>database</b>"));
+    }
+
+    @Test
+    void deleteSession_ShouldRemoveItsMessages() throws Exception {
+        index.index(1L, List.of(message(10L, "quarterly report draft")));
+        index.refresh();
+        index.deleteSession(1L);
+        index.refresh();
+
+        assertTrue(index.search("alice", "report", 10).isEmpty());
+    }
+
+    @Test
+    void open_ShouldCatchUpFromLastCommittedMessage() throws Exception {
+        index.index(1L, List.of(message(10L, "first topic")));
+        index.commit();
+        index.close();
+
+        properties.setCatchUpOverlap(0);
+        when(messageRepo.findIndexRowsAfter(eq(10L), any(Limit.class)))
+                .thenReturn(List.of(new MessageIndexRow(12L, 1L, "alice", "user", "second topic", LocalDateTime.now(), null)));
+        index = open();
+
+        // Catch-up runs in the background
+        List<Long> found = List.of();
+        for (int attempt = 0; attempt < 50 && found.size() < 2; attempt++) {
+            Thread.sleep(100);
+            index.refresh();
+            found = index.search("alice", "topic", 10).stream().map(MessageSearchIndex.Hit::messageId).sorted().toList();
+        }
+
+        assertEquals(List.of(10L, 12L), found);
+        verify(messageRepo).findIndexRowsAfter(eq(10L), any(Limit.class));
+    }
+
+    @Test
+    void searchSimilar_ShouldReturnNearestMessagesOfTheUserOnly() throws Exception {
+        index.index(1L, List.of(message(10L, "north", 0f, 1f, 0f), message(11L, "east", 1f, 0f, 0f), message(12L, "no embedding")));
+        index.index(2L, List.of(message(20L, "bob north", 0f, 1f, 0f)));
+        index.refresh();
+
+        List<MessageSearchIndex.Hit> hits = index.searchSimilar("alice", new float[]{0.1f, 0.9f, 0f}, 10);
+
+        assertEquals(List.of(10L, 11L), hits.stream().map(MessageSearchIndex.Hit::messageId).toList());
+        assertEquals("north", hits.get(0).content());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void open_ShouldKeepIndexedEmbeddings_WhenCatchUpRereadsTheirMessages() throws Exception {
+        index.index(1L, List.of(message(10L, "north", 0f, 1f, 0f)));
+        index.commit();
+        index.close();
+
+        // Stored before embeddings were kept; re-indexing message 10 from the database would drop its vector
+        when(messageRepo.findIndexRowsAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(new MessageIndexRow(10L, 1L, "alice", "user", "north", LocalDateTime.now(), null)));
+        index = open();
+
+        // Once on setUp, once on reopen; close() then waits for catch-up to finish
+        verify(messageRepo, timeout(5000).times(2)).findIndexRowsAfter(eq(0L), any(Limit.class));
+        index.close();
+        index = open();
+
+        assertEquals(1, index.searchSimilar("alice", new float[]{0f, 1f, 0f}, 10).size());
+    }
+
+    @Test
+    void open_ShouldRestoreStoredEmbeddings_WhenRebuildingTheIndex() throws Exception {
+        index.close();
+        properties.setDirectory(directory.resolve("rebuilt").toString());
+        when(messageRepo.findIndexRowsAfter(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(new MessageIndexRow(10L, 1L, "alice", "user", "north", LocalDateTime.now(), new float[]{0f, 1f, 0f})));
+        index = open();
+
+        // Catch-up runs in the background
+        List<MessageSearchIndex.Hit> hits = List.of();
+        for (int attempt = 0; attempt < 50 && hits.isEmpty(); attempt++) {
+            Thread.sleep(100);
+            index.refresh();
+            hits = index.searchSimilar("alice", new float[]{0f, 1f, 0f}, 10);
+        }
+
+        assertEquals(List.of(10L), hits.stream().map(MessageSearchIndex.Hit::messageId).toList());
+    }
+
+    @Test
+    void validateEmbedding_ShouldRejectWrongLengthNonFiniteAndZeroVectors() {
+        index.validateEmbedding(new float[]{0f, 0.5f, 0f});
+
+        assertThrows(IllegalArgumentException.class, () -> index.validateEmbedding(new float[]{1f, 0f}));
+        assertThrows(IllegalArgumentException.class, () -> index.validateEmbedding(new float[]{Float.NaN, 1f, 0f}));
+        assertThrows(IllegalArgumentException.class, () -> index.validateEmbedding(new float[]{0f, 0f, 0f}));
+    }
+
+    private MessageSearchIndex open() throws Exception {
+        SessionCache sessionCache = new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry());
+        MessageSearchIndex opened = new MessageSearchIndex(properties, sessionCache, messageRepo);
+        opened.open();
+        return opened;
+    }
+
+    private static ChatSession session(Long id, String userId) {
+        ChatSession session = new ChatSession();
+        session.setId(id);
+        session.setUserId(userId);
+        session.setSessionName("Session " + id);
+        return session;
+    }
+
+    private static ChatMessage message(Long id, String content, float... embedding) {
+        ChatMessage message = new ChatMessage();
+        message.setEmbedding(embedding.length == 0 ? null : embedding);
+        message.setId(id);
+        message.setSender("user");
+        message.setContent(content);
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.AddMessageRequest;
+import com.example.RAGChatMicroservice.dto.request.MessageDeltaRequest;
+import com.example.RAGChatMicroservice.dto.response.MessageStreamResponse;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.exception.ResourceNotFoundException;
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import com.example.RAGChatMicroservice.properties.MessageStoreProperties;
+import com.example.RAGChatMicroservice.properties.MessageStreamProperties;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.MessageStreamRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.service.SessionArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Streams messages against the Flyway-managed schema. Flushes commit for real
+ * (the test methods run outside a transaction), so each test uses its own session.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CompressionProperties.class, CompressedTextConverter.class, MessageContextStore.class, ExportProperties.class, JpaMessageStore.class, MessageStoreProperties.class, MessageIdAllocator.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:message-streams;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MessageStreamServiceImplTest {
+
+    @Autowired
+    private JpaMessageStore messageStore;
+
+    @Autowired
+    private ChatSessionRepository sessionRepo;
+
+    @Autowired
+    private MessageStreamRepository streamRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MessageSearchIndex searchIndex;
+
+    private MessageStreamProperties properties;
+
+    private MessageStreamServiceImpl streamService;
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MessageStreamProperties();
+        properties.setFlushChars(10);
+        properties.setFlushMillis(60_000);
+        searchIndex = mock(MessageSearchIndex.class);
+        streamService = new MessageStreamServiceImpl(messageStore, Optional.of(messageStore), sessionRepo, streamRepo, mock(SessionArchiveService.class),
+                new ReadYourWritesTracker(new ReadReplicaProperties()), mock(RecentMessageBuffer.class), searchIndex, properties, transactionManager);
+
+        ChatSession session = new ChatSession();
+        session.setSessionName("Streams");
+        session.setCreatedAt(LocalDateTime.now());
+        sessionId = sessionRepo.save(session).getId();
+    }
+
+    @Test
+    void appendMessage_ShouldCoalesceTokens_UntilFlushThreshold() {
+        Long messageId = open();
+
+        MessageStreamResponse buffered = streamService.appendMessage(sessionId, messageId, new MessageDeltaRequest("Hello", null));
+        assertEquals(5, buffered.getLength());
+        assertEquals(0, buffered.getPersistedLength());
+        assertEquals("", storedContent());
+
+        MessageStreamResponse flushed = streamService.appendMessage(sessionId, messageId, new MessageDeltaRequest(" world!", null));
+        assertEquals(12, flushed.getPersistedLength());
+        assertEquals("Hello world!", storedContent());
+    }
+
+    @Test
+    void flushStreams_ShouldWriteDueTokens_AndCloseIdleStreams() {
+        Long messageId = open();
+        streamService.appendMessage(sessionId, messageId, new MessageDeltaRequest("Hi", null));
+
+        properties.setFlushMillis(0);
+        streamService.flushStreams();
+        assertEquals("Hi", storedContent());
+        assertTrue(streamRepo.existsById(messageId));
+
+        properties.setIdleTimeoutMillis(0);
+        streamService.flushStreams();
+        assertFalse(streamRepo.existsById(messageId));
+        verify(searchIndex).index(eq(sessionId), anyList());
+        assertThrows(ResourceNotFoundException.class, () -> streamService.appendMessage(sessionId, messageId, new MessageDeltaRequest("!", null)));
+    }
+
+    @Test
+    void closeMessage_ShouldWriteFinalContent() {
+        Long messageId = open();
+        streamService.appendMessage(sessionId, messageId, new MessageDeltaRequest("Retrieval", null));
+
+        var response = streamService.closeMessage(sessionId, messageId, new MessageDeltaRequest("-Augmented", null));
+
+        assertEquals("Retrieval-Augmented", response.getMessages().get(0).getContent());
+        assertEquals("Retrieval-Augmented", storedContent());
+        assertFalse(streamRepo.existsById(messageId));
+        ChatSession session = sessionRepo.findById(sessionId).orElseThrow();
+        assertEquals(1L, session.getMessageCount());
+        assertEquals(messageId, session.getLastMessageId());
+        assertNotNull(session.getLastMessageAt());
+        verify(searchIndex).index(eq(sessionId), argThat((List<ChatMessage> messages) -> messages.get(0).getContent().equals("Retrieval-Augmented")));
+        assertThrows(ResourceNotFoundException.class, () -> streamService.closeMessage(sessionId, messageId, null));
+    }
+
+    @Test
+    void appendMessage_ShouldFail_WhenStreamWasExpiredElsewhere() {
+        Long messageId = open();
+        jdbcTemplate.update("UPDATE chat_message_streams SET updated_at = ? WHERE message_id = ?", LocalDateTime.now().minusHours(1), messageId);
+
+        streamService.expireStreams();
+
+        assertThrows(ResourceNotFoundException.class, () -> streamService.appendMessage(sessionId, messageId, new MessageDeltaRequest("more than ten characters", null)));
+        assertEquals("", storedContent());
+    }
+
+    @Test
+    void openMessage_ShouldReject_WhenMessageStoreIsAppendOnly() {
+        // The log store does not implement MutableMessageStore
+        streamService = new MessageStreamServiceImpl(messageStore, Optional.empty(), sessionRepo, streamRepo, mock(SessionArchiveService.class),
+                new ReadYourWritesTracker(new ReadReplicaProperties()), mock(RecentMessageBuffer.class), searchIndex, properties, transactionManager);
+
+        assertThrows(IllegalArgumentException.class, this::open);
+        assertEquals(0L, sessionRepo.findById(sessionId).orElseThrow().getMessageCount());
+    }
+
+    private Long open() {
+        AddMessageRequest request = new AddMessageRequest();
+        request.setSender("assistant");
+        return streamService.openMessage(sessionId, request).getMessages().get(0).getMessageId();
+    }
+
+    private String storedContent() {
+        List<MessageSummary> messages = messageStore.findSummariesAfter(sessionId, 0L, Limit.of(10));
+        assertEquals(1, messages.size());
+        return messages.get(0).content();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.properties.RecentMessagesProperties;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentMessageBufferTest {
+
+    private RecentMessagesProperties properties;
+
+    private RecentMessageBuffer buffer;
+
+    private AtomicInteger loads;
+
+    /**
+     * The session's last-message pointer as stored in the database.
+     */
+    private Long lastMessageId;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RecentMessagesProperties();
+        properties.setCapacity(4);
+        buffer = new RecentMessageBuffer(properties, new ReadYourWritesTracker(new ReadReplicaProperties()), new SimpleMeterRegistry());
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void findBefore_ShouldKeepOnlyLatestMessages_WhenAppendsOverflowCapacity() {
+        lastMessageId = 3L;
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(3, 2, 1), () -> lastMessageId);
+        buffer.append(1L, List.of(saved(4L), saved(5L)));
+        lastMessageId = 5L;
+
+        assertEquals(List.of(5L, 4L, 3L, 2L), ids(buffer.findBefore(1L, Long.MAX_VALUE, 4, loader(), () -> lastMessageId)));
+        // Message 1 fell out of the tail, so the buffer no longer knows the whole session
+        assertTrue(buffer.findBefore(1L, 3L, 2, loader(), () -> lastMessageId).isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void findBefore_ShouldAnswerShortReads_WhenTailHoldsWholeSession() {
+        lastMessageId = 2L;
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(2, 1), () -> lastMessageId);
+
+        assertEquals(List.of(1L), ids(buffer.findBefore(1L, 2L, 3, loader(), () -> lastMessageId)));
+        assertEquals(List.of(), ids(buffer.findBefore(1L, 1L, 3, loader(), () -> lastMessageId)));
+    }
+
+    @Test
+    void append_ShouldDropTail_WhenCommittedOutOfIdOrder() {
+        lastMessageId = 10L;
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(10, 9), () -> lastMessageId);
+        buffer.append(1L, List.of(saved(12L)));
+        buffer.append(1L, List.of(saved(11L)));
+        lastMessageId = 12L;
+
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(12, 11, 10, 9), () -> lastMessageId);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void findBefore_ShouldNotKeepTail_WhenAppendCommittedDuringLoad() {
+        lastMessageId = 2L;
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, size -> {
+            loads.incrementAndGet();
+            // Committed after the load read the store, so missing from what it returns
+            buffer.append(1L, List.of(saved(3L)));
+            lastMessageId = 3L;
+            return summaries(2, 1);
+        }, () -> lastMessageId);
+
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(3, 2, 1), () -> lastMessageId);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void findBefore_ShouldReloadTail_WhenAppendedThroughAnotherInstance() {
+        properties.setCheckLastMessageId(true);
+        buffer = new RecentMessageBuffer(properties, new ReadYourWritesTracker(new ReadReplicaProperties()), new SimpleMeterRegistry());
+        lastMessageId = 2L;
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(2, 1), () -> lastMessageId);
+        assertEquals(List.of(2L, 1L), ids(buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(), () -> lastMessageId)));
+
+        // Committed elsewhere: no local append, only the pointer moved
+        lastMessageId = 3L;
+
+        assertEquals(List.of(3L, 2L), ids(buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(3, 2, 1), () -> lastMessageId)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void findBefore_ShouldNotReadLastMessagePointer_ByDefault() {
+        buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(2, 1), () -> fail("Buffered reads must not query the database"));
+
+        assertEquals(List.of(2L, 1L), ids(buffer.findBefore(1L, Long.MAX_VALUE, 2, loader(), () -> fail("Buffered reads must not query the database"))));
+        assertEquals(1, loads.get());
+    }
+
+    private IntFunction<List<MessageSummary>> loader(long... newestFirst) {
+        return size -> {
+            loads.incrementAndGet();
+            return summaries(newestFirst);
+        };
+    }
+
+    private static List<MessageSummary> summaries(long... ids) {
+        return LongStream.of(ids).mapToObj(id -> new MessageSummary(id, "user", "message " + id, LocalDateTime.now())).toList();
+    }
+
+    private static List<Long> ids(Optional<List<MessageSummary>> messages) {
+        return messages.orElseThrow().stream().map(MessageSummary::id).toList();
+    }
+
+    private static ChatMessage saved(Long id) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setSender("assistant");
+        message.setContent("message " + id);
+        message.setCreatedAt(LocalDateTime.now());
+        return message;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.request.RenameSessionRequest;
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.properties.ArchiveProperties;
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import com.example.RAGChatMicroservice.properties.ExportProperties;
+import com.example.RAGChatMicroservice.properties.MessageStoreProperties;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.properties.RecentMessagesProperties;
+import com.example.RAGChatMicroservice.properties.SearchProperties;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.SessionArchiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs session writes concurrently with archiving against the Flyway-managed
+ * schema. Both sides commit for real (the test methods run outside a transaction).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CompressionProperties.class, CompressedTextConverter.class, MessageContextStore.class, ExportProperties.class, JpaMessageStore.class, MessageStoreProperties.class, MessageIdAllocator.class})
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive-concurrency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SessionArchiveConcurrencyTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusDays(30);
+
+    @Autowired
+    private JpaMessageStore messageStore;
+
+    @Autowired
+    private MessageContextStore contextStore;
+
+    @Autowired
+    private ChatSessionRepository sessionRepo;
+
+    @Autowired
+    private ChatMessageRepository messageRepo;
+
+    @Autowired
+    private SessionArchiveRepository archiveRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private ArchiveSegmentStore segmentStore;
+
+    private SessionArchiveServiceImpl archiveService;
+
+    private ChatSessionServiceImpl sessionService;
+
+    /**
+     * Runs while the archiver is between reading the messages and committing.
+     */
+    private Runnable duringArchive = () -> {
+    };
+
+    private Long sessionId;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory.toString());
+        segmentStore = new ArchiveSegmentStore(properties) {
+            @Override
+            public synchronized Location append(byte[] record) {
+                duringArchive.run();
+                return super.append(record);
+            }
+        };
+
+        SessionCache sessionCache = new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry());
+        ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(new ReadReplicaProperties());
+        RecentMessageBuffer recentMessages = new RecentMessageBuffer(new RecentMessagesProperties(), readYourWrites, new SimpleMeterRegistry());
+        archiveService = new SessionArchiveServiceImpl(sessionRepo, messageRepo, archiveRepo, contextStore, segmentStore, sessionCache, recentMessages, jdbcTemplate,
+                new CompressedTextConverter(new CompressionProperties()), properties, transactionManager, new SimpleMeterRegistry());
+        sessionService = new ChatSessionServiceImpl(sessionRepo, messageRepo, new ActiveSessionCounter(sessionRepo), sessionCache, readYourWrites, recentMessages,
+                new MessageSearchIndex(new SearchProperties(), sessionCache, messageRepo));
+
+        sessionId = idleSession();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        segmentStore.close();
+    }
+
+    @Test
+    void renameSession_ShouldKeepSessionArchived_WhenRacingArchiveRun() {
+        // Cache the session as not archived, as a request just before the run would
+        sessionService.getSession(sessionId);
+        duringArchive = () -> sessionService.renameSession(sessionId, new RenameSessionRequest("During"));
+
+        assertEquals(1, archiveService.archiveIdleSessions());
+        sessionService.renameSession(sessionId, new RenameSessionRequest("After"));
+        sessionService.markFavorite(sessionId, true);
+
+        ChatSession session = sessionRepo.findById(sessionId).orElseThrow();
+        assertEquals("After", session.getSessionName());
+        assertTrue(session.getIsFavorite());
+        assertTrue(session.getIsArchived());
+        assertEquals(2L, session.getMessageCount());
+        assertNotNull(session.getLastMessageId());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM chat_messages WHERE session_id = ?", Integer.class, sessionId));
+
+        List<MessageResponse> archived = archiveService.findArchivedMessages(sessionId).orElseThrow();
+        assertEquals(List.of("Hi", "Hello"), archived.stream().map(MessageResponse::getContent).toList());
+    }
+
+    /**
+     * Creates a session with two messages, all last touched long ago.
+     */
+    private Long idleSession() {
+        ChatSession session = new ChatSession();
+        session.setSessionName("Idle");
+        session.setCreatedAt(LONG_AGO);
+        session.setMessageCount(2L);
+        Long id = sessionRepo.save(session).getId();
+
+        List<ChatMessage> saved = new TransactionTemplate(transactionManager).execute(status ->
+                messageStore.saveAll(List.of(message(session, "user", "Hi"), message(session, "assistant", "Hello"))));
+        ChatMessage last = saved.get(saved.size() - 1);
+        sessionRepo.recordLastMessage(id, last.getId(), LONG_AGO);
+
+        jdbcTemplate.update("UPDATE chat_messages SET created_at = ? WHERE session_id = ?", LONG_AGO, id);
+        jdbcTemplate.update("UPDATE chat_sessions SET updated_at = ? WHERE id = ?", LONG_AGO, id);
+        return id;
+    }
+
+    private static ChatMessage message(ChatSession session, String sender, String content) {
+        ChatMessage message = new ChatMessage();
+        message.setSession(session);
+        message.setSender(sender);
+        message.setContent(content);
+        message.setCreatedAt(LONG_AGO);
+        return message;
+    }
+}
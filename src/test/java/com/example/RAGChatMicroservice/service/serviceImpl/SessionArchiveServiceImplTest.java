@@ -0,0 +1,181 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.dto.response.MessageResponse;
+import com.example.RAGChatMicroservice.entity.ChatMessage;
+import com.example.RAGChatMicroservice.entity.SessionArchive;
+import com.example.RAGChatMicroservice.entity.converter.CompressedTextConverter;
+import com.example.RAGChatMicroservice.properties.ArchiveProperties;
+import com.example.RAGChatMicroservice.properties.CompressionProperties;
+import com.example.RAGChatMicroservice.properties.ReadReplicaProperties;
+import com.example.RAGChatMicroservice.properties.RecentMessagesProperties;
+import com.example.RAGChatMicroservice.properties.SessionCacheProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.SessionArchiveRepository;
+import com.example.RAGChatMicroservice.repository.projection.MessageSummary;
+import com.example.RAGChatMicroservice.repository.projection.PurgeCandidate;
+import com.example.RAGChatMicroservice.util.ArchiveRecordUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SessionArchiveServiceImplTest {
+
+    private static final LocalDateTime LONG_AGO = LocalDateTime.now().minusDays(30);
+
+    @Mock
+    private ChatSessionRepository sessionRepo;
+
+    @Mock
+    private ChatMessageRepository messageRepo;
+
+    @Mock
+    private SessionArchiveRepository archiveRepo;
+
+    @Mock
+    private MessageContextStore contextStore;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<ChatMessage>> messagesCaptor;
+
+    @TempDir
+    private Path directory;
+
+    private ArchiveSegmentStore segmentStore;
+
+    private SessionArchiveServiceImpl archiveService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(directory.toString());
+        segmentStore = new ArchiveSegmentStore(properties);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        archiveService = new SessionArchiveServiceImpl(sessionRepo, messageRepo, archiveRepo, contextStore, segmentStore,
+                new SessionCache(sessionRepo, new SessionCacheProperties(), new SimpleMeterRegistry()),
+                new RecentMessageBuffer(new RecentMessagesProperties(), new ReadYourWritesTracker(new ReadReplicaProperties()), new SimpleMeterRegistry()), jdbcTemplate,
+                new CompressedTextConverter(new CompressionProperties()), properties, transactionManager, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        segmentStore.close();
+    }
+
+    @Test
+    void archiveIdleSessions_ShouldMoveMessagesIntoSegment() {
+        givenIdleSession();
+        when(sessionRepo.markArchived(1L, 2L)).thenReturn(1);
+
+        assertEquals(1, archiveService.archiveIdleSessions());
+
+        ArgumentCaptor<SessionArchive> entry = ArgumentCaptor.forClass(SessionArchive.class);
+        verify(archiveRepo).save(entry.capture());
+        assertEquals(2L, entry.getValue().getMessageCount());
+        verify(contextStore).deleteByMessageIds(List.of(10L, 11L));
+        verify(messageRepo).deleteAllByIdInBatch(List.of(10L, 11L));
+
+        // The index entry leads back to the same messages, context included
+        when(archiveRepo.findById(1L)).thenReturn(Optional.of(entry.getValue()));
+        List<MessageResponse> archived = archiveService.findArchivedMessages(1L).orElseThrow();
+        assertEquals(List.of(10L, 11L), archived.stream().map(MessageResponse::getMessageId).toList());
+        assertEquals("retrieved passage", archived.get(0).getContext());
+        assertNull(archived.get(1).getContext());
+    }
+
+    @Test
+    void archiveIdleSessions_ShouldKeepSession_WhenMessagesChangedMeanwhile() {
+        givenIdleSession();
+        when(sessionRepo.markArchived(1L, 2L)).thenReturn(0);
+
+        assertEquals(0, archiveService.archiveIdleSessions());
+
+        verify(archiveRepo, never()).save(any());
+        verify(messageRepo, never()).deleteAllByIdInBatch(any());
+        verify(contextStore, never()).deleteByMessageIds(any());
+    }
+
+    @Test
+    void archiveIdleSessions_ShouldSkipSession_WithRecentMessages() {
+        when(sessionRepo.findArchiveCandidates(any(), any(), anyLong(), any())).thenReturn(List.of(new PurgeCandidate(1L, LONG_AGO)));
+        when(messageRepo.findLatestCreatedAt(1L, Limit.of(1))).thenReturn(List.of(LocalDateTime.now()));
+
+        assertEquals(0, archiveService.archiveIdleSessions());
+
+        verify(messageRepo, never()).findSummariesBySessionIdAfter(anyLong(), anyLong(), any());
+        verify(sessionRepo, never()).markArchived(anyLong(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void restore_ShouldReinsertMessagesWithOriginalIds() {
+        ArchiveSegmentStore.Location location = segmentStore.append(ArchiveRecordUtils.encode(1L, List.of(chatMessage(10L, "retrieved passage"), chatMessage(11L, null)), 3));
+        when(sessionRepo.markRestored(1L)).thenReturn(1);
+        when(archiveRepo.findById(1L)).thenReturn(Optional.of(new SessionArchive(1L, location.segmentNo(), location.offset(), location.length(), 2L, LONG_AGO)));
+
+        assertTrue(archiveService.restore(1L));
+
+        verify(jdbcTemplate).batchUpdate(anyString(), messagesCaptor.capture(), eq(500), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of(10L, 11L), messagesCaptor.getValue().stream().map(ChatMessage::getId).toList());
+        verify(contextStore).saveAll(messagesCaptor.capture());
+        assertEquals("retrieved passage", messagesCaptor.getValue().get(0).getContext());
+        verify(archiveRepo).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void restore_ShouldReturnFalse_WhenSessionIsNotArchived() {
+        when(sessionRepo.markRestored(1L)).thenReturn(0);
+
+        assertFalse(archiveService.restore(1L));
+
+        verifyNoInteractions(archiveRepo, jdbcTemplate, contextStore);
+    }
+
+    private void givenIdleSession() {
+        when(sessionRepo.findArchiveCandidates(any(), any(), anyLong(), any())).thenReturn(List.of(new PurgeCandidate(1L, LONG_AGO)));
+        when(messageRepo.findLatestCreatedAt(1L, Limit.of(1))).thenReturn(List.of(LONG_AGO));
+        when(messageRepo.findSummariesBySessionIdAfter(1L, 0L, Limit.of(500)))
+                .thenReturn(List.of(new MessageSummary(10L, "user", "question", LONG_AGO), new MessageSummary(11L, "assistant", "answer", LONG_AGO)));
+        when(contextStore.findByMessageIds(List.of(10L, 11L))).thenReturn(Map.of(10L, "retrieved passage"));
+    }
+
+    private ChatMessage chatMessage(Long id, String context) {
+        ChatMessage message = new ChatMessage();
+        message.setId(id);
+        message.setSender("user");
+        message.setContent("message " + id);
+        message.setContext(context);
+        message.setCreatedAt(LONG_AGO);
+        return message;
+    }
+}
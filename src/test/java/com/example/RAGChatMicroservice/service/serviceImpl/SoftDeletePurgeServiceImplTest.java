@@ -0,0 +1,133 @@
+package com.example.RAGChatMicroservice.service.serviceImpl;
+
+import com.example.RAGChatMicroservice.entity.ChatSession;
+import com.example.RAGChatMicroservice.properties.PurgeProperties;
+import com.example.RAGChatMicroservice.repository.ChatMessageRepository;
+import com.example.RAGChatMicroservice.repository.ChatSessionRepository;
+import com.example.RAGChatMicroservice.repository.MessageEmbeddingRepository;
+import com.example.RAGChatMicroservice.repository.projection.PurgeCandidate;
+import com.example.RAGChatMicroservice.service.MessageStore;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SoftDeletePurgeServiceImplTest {
+
+    @Mock
+    private ChatSessionRepository sessionRepo;
+
+    @Mock
+    private ChatMessageRepository messageRepo;
+
+    @Mock
+    private MessageContextStore contextStore;
+
+    @Mock
+    private MessageEmbeddingRepository embeddingRepo;
+
+    @Mock
+    private MessageStore messageStore;
+
+    @Mock
+    private HikariDataSource primaryPool;
+
+    @Mock
+    private HikariPoolMXBean poolMXBean;
+
+    private PurgeProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SoftDeletePurgeServiceImpl purgeService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        properties = new PurgeProperties();
+        properties.setChunkSize(2);
+        properties.setChunkPauseMillis(0);
+        properties.setMaxRowsPerRun(100);
+
+        meterRegistry = new SimpleMeterRegistry();
+        purgeService = new SoftDeletePurgeServiceImpl(sessionRepo, messageRepo, contextStore, embeddingRepo, messageStore, properties, Optional.of(primaryPool), meterRegistry);
+
+        when(sessionRepo.findFirstByIsDeletedTrueOrderByUpdatedAtAsc()).thenReturn(Optional.empty());
+        when(primaryPool.getHikariPoolMXBean()).thenReturn(poolMXBean);
+    }
+
+    @Test
+    void purge_ShouldDeleteMessagesInChunksThenSession() {
+        LocalDateTime deletedAt = LocalDateTime.now().minusDays(60);
+        when(sessionRepo.findPurgeCandidates(any(), any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(new PurgeCandidate(1L, deletedAt)));
+        when(messageRepo.findIdsBySessionIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(List.of(10L, 11L));
+        when(messageRepo.findIdsBySessionIdAfter(eq(1L), eq(11L), any(Limit.class))).thenReturn(List.of(12L));
+
+        long purged = purgeService.purge();
+
+        assertEquals(4, purged);
+        verify(contextStore).deleteByMessageIds(List.of(10L, 11L));
+        verify(embeddingRepo).deleteByMessageIds(List.of(10L, 11L));
+        verify(messageRepo).deleteAllByIdInBatch(List.of(10L, 11L));
+        verify(messageRepo).deleteAllByIdInBatch(List.of(12L));
+        verify(sessionRepo).deleteAllByIdInBatch(List.of(1L));
+        verify(messageStore).deleteSession(1L);
+        assertEquals(3.0, meterRegistry.get("chat.purge.rows").tag("table", "chat_messages").counter().count());
+        assertEquals(1.0, meterRegistry.get("chat.purge.rows").tag("table", "chat_sessions").counter().count());
+    }
+
+    @Test
+    void purge_ShouldKeepSession_WhenRowBudgetIsExhausted() {
+        properties.setMaxRowsPerRun(2);
+        when(sessionRepo.findPurgeCandidates(any(), any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(new PurgeCandidate(1L, LocalDateTime.now().minusDays(60))));
+        when(messageRepo.findIdsBySessionIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(List.of(10L, 11L));
+
+        long purged = purgeService.purge();
+
+        assertEquals(2, purged);
+        verify(messageRepo).deleteAllByIdInBatch(List.of(10L, 11L));
+        verify(sessionRepo, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void purge_ShouldYield_WhenRequestsAreWaitingForPrimaryConnections() {
+        when(sessionRepo.findPurgeCandidates(any(), any(), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(new PurgeCandidate(1L, LocalDateTime.now().minusDays(60))));
+        when(messageRepo.findIdsBySessionIdAfter(eq(1L), eq(0L), any(Limit.class))).thenReturn(List.of(10L, 11L));
+        // Requests start waiting once the first chunk is deleted
+        when(poolMXBean.getThreadsAwaitingConnection()).thenReturn(0, 1);
+
+        long purged = purgeService.purge();
+
+        assertEquals(2, purged);
+        verify(messageRepo, times(1)).deleteAllByIdInBatch(any());
+        verify(sessionRepo, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void purge_ShouldReportLag_WhenOldestDeletionIsPastCutoff() {
+        when(sessionRepo.findPurgeCandidates(any(), any(), anyLong(), any(Limit.class))).thenReturn(List.of());
+        ChatSession oldest = new ChatSession();
+        oldest.setUpdatedAt(LocalDateTime.now().minusDays(properties.getRetentionDays() + 1));
+        when(sessionRepo.findFirstByIsDeletedTrueOrderByUpdatedAtAsc()).thenReturn(Optional.of(oldest));
+
+        purgeService.purge();
+
+        double lag = meterRegistry.get("chat.purge.lag.seconds").gauge().value();
+        assertTrue(lag >= 86_000 && lag <= 86_500, "lag was " + lag);
+    }
+}